@@ -0,0 +1,80 @@
+package dev.gonjy.patrolspectator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AutoEventSystem#addPoints の加算処理（スロット添字の {@link EventScoreTable} への上限付き加算）、
+ * 進捗表示の上位5件選択、ランキング反映（ParticipationManager#addPoints が更新する {@link RankingIndex}）。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventPointsBenchmark {
+
+    @Param({ "10", "1000", "10000", "100000" })
+    public int players;
+
+    private Populations pop;
+    private EventScoreTable scores;
+    private RankingIndex ranking;
+    private final int[] top = new int[5];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        pop = new Populations(players);
+        scores = new EventScoreTable();
+        ranking = new RankingIndex();
+        for (int i = 0; i < players; i++) {
+            scores.credit(i, 1 + (pop.ids[i].hashCode() & 1023), AutoEventSystem.MAX_EVENT_POINTS_PER_PLAYER);
+            ranking.update(pop.ids[i], 0);
+        }
+    }
+
+    private int nextSlot() {
+        int slot = next;
+        next = (next + 1) % players;
+        return slot;
+    }
+
+    private UUID nextId() {
+        return pop.ids[nextSlot()];
+    }
+
+    @Benchmark
+    public int addPoints() {
+        // AutoEventSystem#addPoints と同じ処理
+        return scores.credit(nextSlot(), 3, AutoEventSystem.MAX_EVENT_POINTS_PER_PLAYER);
+    }
+
+    @Benchmark
+    public int topFive() {
+        // displayEventProgress / announceWinners の上位選択
+        return scores.topK(5, top);
+    }
+
+    @Benchmark
+    public int addPointsToRanking() {
+        UUID id = nextId();
+        Integer cur = ranking.scoreOf(id);
+        int score = cur == null ? 0 : cur;
+        ranking.update(id, score >= AutoEventSystem.MAX_EVENT_POINTS_PER_PLAYER ? 0 : score + 3);
+        return ranking.size();
+    }
+}
@@ -0,0 +1,67 @@
+package dev.gonjy.patrolspectator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AutoEventSystem#onPlayerMove（speed_contest 中）の処理：エンティティID→スロット解決と移動量の加算。
+ * 1回の呼び出しが PlayerMoveEvent 1件に相当します。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PlayerMoveBenchmark {
+
+    @Param({ "10", "1000", "10000", "100000" })
+    public int players;
+
+    private Populations pop;
+    private SessionSlots slots;
+    private MovementAccumulator movement;
+    private int next;
+    private double step;
+
+    @Setup
+    public void setUp() {
+        pop = new Populations(players);
+        slots = new SessionSlots();
+        movement = new MovementAccumulator();
+        for (int i = 0; i < players; i++) {
+            slots.assign(pop.ids[i], pop.entityIds[i]);
+        }
+    }
+
+    @Benchmark
+    public boolean onPlayerMove() {
+        int i = next;
+        next = (next + 1) % players;
+        step = step > 0.3 ? 0.05 : step + 0.05; // 歩行相当（0.05〜0.35ブロック/イベント）
+        double x = pop.xs[i], y = pop.ys[i], z = pop.zs[i];
+        int slot = slots.slotOf(pop.entityIds[i]);
+        return movement.accumulate(slot, x, y, z, x + step, y, z + step);
+    }
+
+    @Benchmark
+    public int foldTick() {
+        // 1tick分の集計（全スロットの整数ブロック分を取り出す）
+        int total = 0;
+        for (int s = 0; s < slots.capacity(); s++) {
+            total += movement.drainWholeBlocks(s);
+        }
+        return total;
+    }
+}
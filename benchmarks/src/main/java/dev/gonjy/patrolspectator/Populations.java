@@ -0,0 +1,61 @@
+package dev.gonjy.patrolspectator;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * ベンチマーク用の合成プレイヤー集団（Bukkit非依存、シード固定で再現可能）。
+ */
+final class Populations {
+
+    static final long SEED = 0x5EED_CAFEL;
+
+    final int size;
+    final UUID[] ids;
+    final int[] entityIds;
+    final double[] xs, ys, zs;
+    /** 1人あたりの平均占有面積が一定になるよう、人数に応じてワールドの一辺を広げる */
+    final double side;
+
+    Populations(int size) {
+        this.size = size;
+        this.ids = new UUID[size];
+        this.entityIds = new int[size];
+        this.xs = new double[size];
+        this.ys = new double[size];
+        this.zs = new double[size];
+        this.side = Math.max(256.0, Math.sqrt(size) * 64.0);
+        SplittableRandom r = new SplittableRandom(SEED);
+        for (int i = 0; i < size; i++) {
+            ids[i] = new UUID(r.nextLong(), r.nextLong());
+            entityIds[i] = 1000 + i * 7;
+            xs[i] = (r.nextDouble() - 0.5) * side;
+            ys[i] = 60.0 + r.nextDouble() * 20.0;
+            zs[i] = (r.nextDouble() - 0.5) * side;
+        }
+    }
+
+    /** 観光地YAMLの1件分に相当するマップ（locations: のリスト要素） */
+    static List<Map<?, ?>> tourMaps(int count) {
+        SplittableRandom r = new SplittableRandom(SEED);
+        List<Map<?, ?>> list = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Map<String, Object> m = new HashMap<>();
+            m.put("id", "spot_" + i);
+            m.put("name", "Spot " + i);
+            m.put("world", "world");
+            m.put("x", (r.nextDouble() - 0.5) * 10000.0);
+            m.put("y", 64 + r.nextInt(40));
+            m.put("z", (r.nextDouble() - 0.5) * 10000.0);
+            m.put("yaw", (float) (r.nextDouble() * 360.0));
+            m.put("pitch", 10.0);
+            m.put("description", "generated");
+            list.add(m);
+        }
+        return list;
+    }
+}
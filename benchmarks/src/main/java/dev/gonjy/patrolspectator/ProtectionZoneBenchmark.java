@@ -0,0 +1,111 @@
+package dev.gonjy.patrolspectator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ProtectionData#isInProtectedZone の中核（{@link ProtectionZoneIndex} の点の問い合わせ）と、
+ * extendProtectionRadius 相当の半径更新。比較用に全ゾーンを走査する素朴な実装も測る。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProtectionZoneBenchmark {
+
+    private static final int QUERIES = 4096;
+
+    @Param({ "100", "1000", "10000" })
+    public int zones;
+
+    private Populations pop;
+    private ProtectionZoneIndex<Integer> index;
+    private double[] radii;
+    private double[] qx, qy, qz;
+    private int q;
+    private int grow;
+
+    @Setup
+    public void setUp() {
+        pop = new Populations(zones);
+        index = new ProtectionZoneIndex<>();
+        radii = new double[zones];
+        SplittableRandom r = new SplittableRandom(Populations.SEED);
+        for (int i = 0; i < zones; i++) {
+            radii[i] = 4 + r.nextInt(29); // 4〜32ブロック
+            index.put(i, pop.xs[i], pop.ys[i], pop.zs[i], radii[i]);
+        }
+        // 半分はゾーンの近く（ブロック破壊が起きやすい場所）、半分はワールド全体から
+        qx = new double[QUERIES];
+        qy = new double[QUERIES];
+        qz = new double[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            if ((i & 1) == 0) {
+                int z = r.nextInt(zones);
+                qx[i] = pop.xs[z] + r.nextDouble() * 64 - 32;
+                qy[i] = pop.ys[z] + r.nextDouble() * 16 - 8;
+                qz[i] = pop.zs[z] + r.nextDouble() * 64 - 32;
+            } else {
+                qx[i] = (r.nextDouble() - 0.5) * pop.side;
+                qy[i] = 60.0 + r.nextDouble() * 20.0;
+                qz[i] = (r.nextDouble() - 0.5) * pop.side;
+            }
+        }
+    }
+
+    private int nextQuery() {
+        int i = q;
+        q = (q + 1) & (QUERIES - 1);
+        return i;
+    }
+
+    @Benchmark
+    public boolean covers() {
+        int i = nextQuery();
+        return index.covers(qx[i], qy[i], qz[i]);
+    }
+
+    @Benchmark
+    public Integer ownerAtExcludingSelf() {
+        int i = nextQuery();
+        int self = i % zones;
+        return index.ownerAt(qx[i], qy[i], qz[i], k -> k != self);
+    }
+
+    /** 素朴な実装：全ゾーンとの距離を毎回計算 */
+    @Benchmark
+    public boolean linearScan() {
+        int i = nextQuery();
+        double x = qx[i], y = qy[i], z = qz[i];
+        for (int k = 0; k < zones; k++) {
+            double dx = x - pop.xs[k], dy = y - pop.ys[k], dz = z - pop.zs[k];
+            if (dx * dx + dy * dy + dz * dz <= radii[k] * radii[k])
+                return true;
+        }
+        return false;
+    }
+
+    /** 半径を1ずつ増やして戻す（チャンク範囲が変わる時だけバケットを付け替え） */
+    @Benchmark
+    public int extendRadius() {
+        int k = grow;
+        grow = (grow + 1) % zones;
+        index.put(k, pop.xs[k], pop.ys[k], pop.zs[k], radii[k] + 1);
+        index.put(k, pop.xs[k], pop.ys[k], pop.zs[k], radii[k]);
+        return index.size();
+    }
+}
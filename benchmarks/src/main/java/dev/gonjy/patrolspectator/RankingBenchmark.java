@@ -0,0 +1,59 @@
+package dev.gonjy.patrolspectator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ParticipationManager#topN / rankOf の中核（{@link RankingIndex}）。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RankingBenchmark {
+
+    @Param({ "10", "1000", "10000", "100000" })
+    public int players;
+
+    private Populations pop;
+    private RankingIndex ranking;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        pop = new Populations(players);
+        ranking = new RankingIndex();
+        SplittableRandom r = new SplittableRandom(Populations.SEED);
+        for (int i = 0; i < players; i++) {
+            ranking.update(pop.ids[i], r.nextInt(5000));
+        }
+    }
+
+    @Benchmark
+    public List<UUID> topN10() {
+        return ranking.top(10);
+    }
+
+    @Benchmark
+    public int rankOf() {
+        UUID id = pop.ids[next];
+        next = (next + 1) % players;
+        return ranking.rankOf(id);
+    }
+}
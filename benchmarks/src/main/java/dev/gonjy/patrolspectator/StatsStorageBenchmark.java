@@ -0,0 +1,78 @@
+package dev.gonjy.patrolspectator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * PlayerStatsStorage の保存処理。
+ * recordLogin はメインスレッド側のコスト（メモリ更新＋ジャーナル投入）、
+ * saveSync は全件チェックポイント（YAML書き出し＋アトミック置換）の所要時間。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StatsStorageBenchmark {
+
+    @Param({ "10", "1000", "10000", "100000" })
+    public int players;
+
+    private Populations pop;
+    private File dir;
+    private PlayerStatsStorage storage;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        pop = new Populations(players);
+        dir = Files.createTempDirectory("patrol-bench").toFile();
+        // 定期チェックポイントはベンチマーク中に走らないよう十分長く
+        storage = new PlayerStatsStorage(dir, Logger.getLogger("bench"), 3600L);
+        for (int i = 0; i < players; i++) {
+            storage.recordLogin(pop.ids[i], "Player" + i);
+        }
+        storage.saveSync();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        storage.close();
+        try (var paths = Files.walk(dir.toPath())) {
+            paths.sorted(Comparator.reverseOrder()).map(java.nio.file.Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Benchmark
+    public int recordLogin() {
+        int i = next;
+        next = (next + 1) % players;
+        return storage.recordLogin(pop.ids[i], "Player" + i);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Measurement(iterations = 10)
+    public void saveSync() {
+        storage.saveSync();
+    }
+}
@@ -0,0 +1,69 @@
+package dev.gonjy.patrolspectator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EngagementSystem#findGoodTargetNear / findGoodTargetsNear の中核（{@link SpatialGrid} の半径検索）。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TargetSearchBenchmark {
+
+    @Param({ "10", "1000", "10000", "100000" })
+    public int players;
+
+    private Populations pop;
+    private SpatialGrid<Integer> grid;
+    private int probe;
+
+    @Setup
+    public void setUp() {
+        pop = new Populations(players);
+        grid = new SpatialGrid<>();
+        for (int i = 0; i < players; i++) {
+            grid.insert(i, pop.xs[i], pop.ys[i], pop.zs[i]);
+        }
+    }
+
+    /** カメラ位置をプレイヤー位置から順に選ぶ（自分自身は除外） */
+    private int nextProbe() {
+        int i = probe;
+        probe = (probe + 1) % players;
+        return i;
+    }
+
+    @Benchmark
+    public Integer nearest48() {
+        int self = nextProbe();
+        return grid.nearest(pop.xs[self], pop.ys[self], pop.zs[self], 48.0, v -> v != self);
+    }
+
+    @Benchmark
+    public List<Integer> kNearest48() {
+        int self = nextProbe();
+        return grid.kNearest(pop.xs[self], pop.ys[self], pop.zs[self], 48.0, 5, v -> v != self);
+    }
+
+    @Benchmark
+    public int countWithin24() {
+        int self = nextProbe();
+        return grid.countWithin(pop.xs[self], pop.ys[self], pop.zs[self], 24.0, v -> v != self);
+    }
+}
@@ -0,0 +1,44 @@
+package dev.gonjy.patrolspectator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TouristLocation#fromMapList（観光地YAMLのパース後の変換）。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TourLoadBenchmark {
+
+    @Param({ "10", "1000", "10000", "100000" })
+    public int locations;
+
+    private List<Map<?, ?>> maps;
+
+    @Setup
+    public void setUp() {
+        maps = Populations.tourMaps(locations);
+    }
+
+    @Benchmark
+    public List<TouristLocation> fromMapList() {
+        return TouristLocation.fromMapList(maps);
+    }
+}
@@ -6,50 +6,113 @@ import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.World;
 import org.bukkit.entity.Player;
-import org.bukkit.entity.EntityType;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.scheduler.BukkitTask;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.HandlerList;
 import org.bukkit.event.Listener;
 import org.bukkit.event.entity.EntityDeathEvent;
 import org.bukkit.event.entity.PlayerDeathEvent;
 import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.Calendar;
 
 public class AutoEventSystem implements Listener {
 
     private final JavaPlugin plugin;
-    private final Map<UUID, Integer> playerPoints = new ConcurrentHashMap<>();
-    private final Map<UUID, Integer> playerKillStreaks = new ConcurrentHashMap<>();
-    private final Map<UUID, Long> playerLastKillTime = new ConcurrentHashMap<>();
+    private final BroadcastDispatcher dispatcher;
 
     // 自動イベント設定
     private boolean autoEventsEnabled = true;
     private BukkitTask autoEventTask;
+    // イベント中だけ動くタスク（終了・停止時に解除）
     private BukkitTask pointDisplayTask;
+    private BukkitTask eventEndTask;
 
     // イベント間隔（夕方集中システム）
     private long eventInterval = 3600000L; // 基本1時間
     private long lastEventTime = 0L;
     private boolean eveningMode = false; // 夕方モード
 
-    // 現在のイベント
+    // イベントの種類（patrol.events.types）と現在のイベント
+    private EventTypeRegistry eventTypes;
+    private Listener activeListener; // 現在のイベントのポイント源のリスナー（イベント中だけ登録）
     private String currentEvent = "";
     private long eventEndTime = 0L; // イベント終了予定時刻（ms）。開始時刻 = eventEndTime - eventDuration*1000
     private int eventDuration = 900; // 15分間
     // サバイバルチャレンジの重複加算防止
     private final java.util.Set<java.util.UUID> survivalAwarded = new java.util.HashSet<>();
     // ポイントのインフレ防止（1イベント・1プレイヤー上限）
-    private static final int MAX_EVENT_POINTS_PER_PLAYER = 9999;
+    static final int MAX_EVENT_POINTS_PER_PLAYER = 9999;
+
+    // オンラインプレイヤーのセッションスロットと、スロット添字の配列で持つスコア・移動距離
+    private final SessionSlots sessionSlots = new SessionSlots();
+    private final EventScoreTable scores = new EventScoreTable();
+    private final MovementAccumulator movement = new MovementAccumulator();
+    private final int[] topSlots = new int[5]; // 上位表示用（再利用）
+    private static final long KILL_STREAK_WINDOW_MS = 30000L;
+    private BukkitTask movementFoldTask;
 
     public AutoEventSystem(JavaPlugin plugin) {
         this.plugin = plugin;
+        this.dispatcher = plugin instanceof PatrolSpectatorPlugin p && p.getBroadcastDispatcher() != null
+                ? p.getBroadcastDispatcher()
+                : new BroadcastDispatcher(plugin);
+        this.eventTypes = EventTypeRegistry.load(plugin.getConfig().getConfigurationSection("patrol.events.types"),
+                plugin.getLogger());
         plugin.getServer().getPluginManager().registerEvents(this, plugin);
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            sessionSlots.assign(player.getUniqueId(), player.getEntityId());
+        }
+    }
+
+    @EventHandler
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        Player player = event.getPlayer();
+        // イベント中に退出して戻った場合は同じスロット（スコア）に戻る
+        boolean returning = sessionSlots.slotOf(player.getUniqueId()) >= 0;
+        int slot = sessionSlots.assign(player.getUniqueId(), player.getEntityId());
+        if (!returning) {
+            movement.reset(slot);
+            scores.reset(slot);
+        }
+    }
+
+    @EventHandler
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        UUID playerId = event.getPlayer().getUniqueId();
+        // 退出前に端数未満を除いた移動分を精算
+        int slot = sessionSlots.slotOf(playerId);
+        foldMovement(slot);
+        movement.reset(slot);
+        if (scores.points(slot) > 0) {
+            // 結果発表まではスコアを残す（スロットはイベント終了時に返却）
+            sessionSlots.detach(playerId);
+        } else {
+            scores.reset(sessionSlots.release(playerId));
+        }
+    }
+
+    /** プレイヤーのスロット（未割り当てなら割り当てる） */
+    private int slotOf(Player player) {
+        int slot = sessionSlots.slotOf(player.getEntityId());
+        return slot >= 0 ? slot : sessionSlots.assign(player.getUniqueId(), player.getEntityId());
+    }
+
+    /** スコアを破棄し、退出済みプレイヤーのスロットを返却 */
+    private void clearScores() {
+        scores.clear();
+        for (int slot = 0, n = sessionSlots.capacity(); slot < n; slot++) {
+            UUID owner = sessionSlots.ownerOf(slot);
+            if (owner != null && !sessionSlots.isAttached(slot)) {
+                movement.reset(sessionSlots.release(owner));
+            }
+        }
     }
 
     public void startAutoEvents() {
@@ -83,35 +146,36 @@ public class AutoEventSystem implements Listener {
                 lastEventTime = currentTime;
             }
         }, 20L * 60, 20L * 60); // 1分後に開始、1分間隔でチェック
-
-        // ポイント表示タスク（3分ごと）
-        pointDisplayTask = Bukkit.getScheduler().runTaskTimer(plugin, () -> {
-            if (!currentEvent.isEmpty()) {
-                displayEventProgress();
-            }
-        }, 20L * 180, 20L * 180); // 3分後に開始、3分間隔
+        // 進捗表示はイベント開始時に startEvent が登録する
 
         Bukkit.broadcastMessage(ChatColor.GREEN + "🎮 自動イベントシステムが開始されました！");
         Bukkit.broadcastMessage(ChatColor.GRAY + "1時間ごとにランダムイベントが開催されます");
     }
 
     private void startRandomEvent() {
-        String[] eventTypes = {
-                "mob_hunt", "mining_contest", "survival_challenge", "speed_contest"
-        };
+        if (!currentEvent.isEmpty())
+            return;
+        // /patrol reload の変更を反映（イベントの合間だけ読み直す）
+        eventTypes = EventTypeRegistry.load(plugin.getConfig().getConfigurationSection("patrol.events.types"),
+                plugin.getLogger());
+        startEvent(eventTypes.random(new Random()));
+    }
 
-        String selectedEvent = eventTypes[new Random().nextInt(eventTypes.length)];
-        startEvent(selectedEvent);
+    /** IDを指定して開始（未定義のIDなら何もしない） */
+    void startEvent(String id) {
+        EventType type = eventTypes.get(id);
+        if (type != null) {
+            startEvent(type);
+        }
     }
 
-    private void startEvent(String eventType) {
+    private void startEvent(EventType type) {
         if (!autoEventsEnabled || !currentEvent.isEmpty())
             return;
 
+        String eventType = type.id;
         currentEvent = eventType;
-        playerPoints.clear();
-        playerKillStreaks.clear();
-        playerLastKillTime.clear();
+        clearScores();
         survivalAwarded.clear();
         // 終了予定時刻を設定（開始時刻は eventEndTime - eventDuration*1000）
         eventEndTime = System.currentTimeMillis() + (eventDuration * 1000L);
@@ -127,28 +191,36 @@ public class AutoEventSystem implements Listener {
         // 🎊 派手なイベント開始演出 🎊
         String eventName = getEventDisplayName(eventType);
 
-        // Title表示で盛大に開始を告知
-        for (Player player : Bukkit.getOnlinePlayers()) {
-            player.sendTitle(
-                    ChatColor.GOLD + "🎊 自動イベント開始！ 🎊",
-                    ChatColor.YELLOW + eventName,
-                    10, 60, 20);
-        }
+        // Title表示で盛大に開始を告知（全員分を1tickで送らず、時間予算内で分散）
+        dispatcher.forEachOnline(player -> player.sendTitle(
+                ChatColor.GOLD + "🎊 自動イベント開始！ 🎊",
+                ChatColor.YELLOW + eventName,
+                10, 60, 20));
 
         // チャットでも派手に表示
-        Bukkit.broadcastMessage(ChatColor.GOLD + "━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
-        Bukkit.broadcastMessage(ChatColor.GOLD + "🎊 自動イベント開始！ 🎊");
-        Bukkit.broadcastMessage(ChatColor.YELLOW + "🎮 " + eventName);
-        Bukkit.broadcastMessage(ChatColor.GREEN + "⏰ 制限時間: 15分間");
-        Bukkit.broadcastMessage(ChatColor.AQUA + "🏆 上位3位に特別報酬！");
-        Bukkit.broadcastMessage(ChatColor.LIGHT_PURPLE + "💎 参加者全員に報酬配布！");
-        Bukkit.broadcastMessage(ChatColor.GOLD + "━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
+        dispatcher.broadcast(
+                ChatColor.GOLD + "━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━",
+                ChatColor.GOLD + "🎊 自動イベント開始！ 🎊",
+                ChatColor.YELLOW + "🎮 " + eventName,
+                ChatColor.GREEN + "⏰ 制限時間: 15分間",
+                ChatColor.AQUA + "🏆 上位3位に特別報酬！",
+                ChatColor.LIGHT_PURPLE + "💎 参加者全員に報酬配布！",
+                ChatColor.GOLD + "━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
 
         // イベント開始時の報酬配布
         giveEventStartRewards(eventType);
 
-        // 15分後に自動終了
-        Bukkit.getScheduler().runTaskLater(plugin, this::endEvent, 15 * 60 * 20L);
+        // ポイント源のリスナーはイベント中だけ登録
+        registerActiveListener(type);
+
+        // スピード大会：移動距離は毎tickまとめてポイントへ反映
+        movement.clear();
+        if (type.trigger == EventType.Trigger.MOVEMENT) {
+            startMovementFold();
+        }
+
+        // 15分後に自動終了（途中で停止した場合は deactivateEvent で取り消す）
+        eventEndTask = Bukkit.getScheduler().runTaskLater(plugin, this::endEvent, eventDuration * 20L);
 
         // 3分ごとに進捗表示
         pointDisplayTask = Bukkit.getScheduler().runTaskTimer(plugin, this::displayEventProgress, 3 * 60 * 20L,
@@ -156,18 +228,8 @@ public class AutoEventSystem implements Listener {
     }
 
     private String getEventMessage(String eventType) {
-        switch (eventType) {
-            case "mob_hunt":
-                return "🏹 モブハント大会 - モンスターを倒してポイントを稼ごう！";
-            case "mining_contest":
-                return "⛏️ 採掘大会 - 貴重な鉱石を掘ってポイントを稼ごう！";
-            case "survival_challenge":
-                return "💀 サバイバルチャレンジ - 生き残ってポイントを稼ごう！";
-            case "speed_contest":
-                return "🏃 スピード大会 - 移動距離でポイントを稼ごう！";
-            default:
-                return "🎮 特別イベント - 楽しもう！";
-        }
+        EventType type = eventTypes.get(eventType);
+        return type != null && !type.description.isEmpty() ? type.description : "🎮 特別イベント - 楽しもう！";
     }
 
     private void giveEventReward(Player player, String eventType) {
@@ -220,210 +282,238 @@ public class AutoEventSystem implements Listener {
 
     private void giveEventStartRewards(String eventType) {
         ItemStack[] rewards = getEventRewards(eventType);
-        for (Player player : Bukkit.getOnlinePlayers()) {
+        dispatcher.forEachOnline(player -> {
             for (ItemStack item : rewards) {
-                player.getInventory().addItem(item);
+                player.getInventory().addItem(item.clone());
             }
             player.sendMessage(ChatColor.GREEN + "📦 イベント参加報酬を配布しました！");
-        }
+        });
     }
 
-    @EventHandler
-    public void onEntityDeath(EntityDeathEvent event) {
-        if (!currentEvent.equals("mob_hunt") || event.getEntity().getKiller() == null)
-            return;
+    // ====== イベント中だけ登録するリスナー ======
+    // 待機中・他のイベント中はハンドラ自体が登録されていないため、ホットパスの負担はゼロ
+
+    /** 現在のイベントのポイント源に応じたリスナーを登録（前のものは解除） */
+    private void registerActiveListener(EventType type) {
+        unregisterActiveListener();
+        switch (type.trigger) {
+            case MOB_KILL:
+                activeListener = new MobKillListener(type);
+                break;
+            case BLOCK_BREAK:
+                activeListener = new BlockBreakListener(type);
+                break;
+            case SURVIVAL:
+                activeListener = new SurvivalListener();
+                break;
+            case MOVEMENT:
+                activeListener = new MovementListener();
+                break;
+        }
+        plugin.getServer().getPluginManager().registerEvents(activeListener, plugin);
+    }
 
-        Player killer = event.getEntity().getKiller();
-        UUID killerId = killer.getUniqueId();
+    private void unregisterActiveListener() {
+        if (activeListener != null) {
+            HandlerList.unregisterAll(activeListener);
+            activeListener = null;
+        }
+    }
 
-        // モブハント専用のポイント（PK数ランキングには影響しない）
-        int basePoints = getMobHuntPoints(event.getEntity().getType());
+    /** イベント中だけのリスナー・タスクをすべて解除（終了・停止・無効化の共通処理） */
+    private void deactivateEvent() {
+        unregisterActiveListener();
+        stopMovementFold();
+        if (pointDisplayTask != null) {
+            pointDisplayTask.cancel();
+            pointDisplayTask = null;
+        }
+        if (eventEndTask != null) {
+            eventEndTask.cancel();
+            eventEndTask = null;
+        }
+        currentEvent = "";
+    }
 
-        // キルストリーク管理
-        long currentTime = System.currentTimeMillis();
-        Long lastKillTime = playerLastKillTime.get(killerId);
+    /** ポイント源のリスナーが登録されているか */
+    boolean isListening() {
+        return activeListener != null;
+    }
 
-        if (lastKillTime != null && currentTime - lastKillTime < 30000) { // 30秒以内
-            // キルストリーク継続
-            int streak = playerKillStreaks.getOrDefault(killerId, 0) + 1;
-            playerKillStreaks.put(killerId, streak);
+    /** モブハント：モブの種類ごとのポイント＋キルストリーク（PK数ランキングには影響しない） */
+    private final class MobKillListener implements Listener {
+        private final EventType type;
 
-            // ストリークボーナス
-            int streakBonus = Math.min(streak * 5, 50); // 最大50ポイント
-            addPoints(killerId, basePoints + streakBonus);
+        MobKillListener(EventType type) {
+            this.type = type;
+        }
 
-            killer.sendMessage(
-                    ChatColor.GREEN + "🎯 モブハントポイント +" + (basePoints + streakBonus) + " (ストリーク: " + streak + ")");
-        } else {
-            // 新しいキルストリーク開始
-            playerKillStreaks.put(killerId, 1);
-            addPoints(killerId, basePoints);
-            killer.sendMessage(ChatColor.GREEN + "🎯 モブハントポイント +" + basePoints);
-        }
-
-        playerLastKillTime.put(killerId, currentTime);
-    }
-
-    // モブハント専用のポイント計算（PK数ランキングには影響しない）
-    private int getMobHuntPoints(EntityType entityType) {
-        switch (entityType) {
-            case ZOMBIE:
-            case SKELETON:
-            case SPIDER:
-            case CREEPER:
-                return 10;
-            case ENDERMAN:
-            case WITCH:
-            case SLIME:
-                return 20;
-            case BLAZE:
-            case MAGMA_CUBE:
-                return 30;
-            case GHAST:
-            case WITHER_SKELETON:
-                return 40;
-            case ENDER_DRAGON:
-            case WITHER:
-                return 100;
-            default:
-                return 5; // その他のモブ
+        @EventHandler
+        public void onEntityDeath(EntityDeathEvent event) {
+            Player killer = event.getEntity().getKiller();
+            if (killer == null)
+                return;
+            int slot = slotOf(killer);
+            int basePoints = type.pointsFor(event.getEntity().getType());
+
+            // キルストリーク管理（30秒以内の連続キルで継続）
+            int streak = scores.registerKill(slot, System.currentTimeMillis(), KILL_STREAK_WINDOW_MS);
+            if (streak > 1) {
+                // ストリークボーナス
+                int streakBonus = Math.min(streak * 5, 50); // 最大50ポイント
+                addPoints(slot, basePoints + streakBonus);
+
+                killer.sendMessage(ChatColor.GREEN + "🎯 モブハントポイント +" + (basePoints + streakBonus)
+                        + " (ストリーク: " + streak + ")");
+            } else {
+                // 新しいキルストリーク開始
+                addPoints(slot, basePoints);
+                killer.sendMessage(ChatColor.GREEN + "🎯 モブハントポイント +" + basePoints);
+            }
         }
     }
 
-    @EventHandler
-    public void onBlockBreak(BlockBreakEvent event) {
-        if (!currentEvent.equals("mining_contest"))
-            return;
+    /** 採掘大会：ブロックの種類ごとのポイント */
+    private final class BlockBreakListener implements Listener {
+        private final EventType type;
 
-        Player player = event.getPlayer();
-        Material blockType = event.getBlock().getType();
-
-        int points = getMiningPoints(blockType);
-        if (points > 0) {
-            addPoints(player.getUniqueId(), points);
-            player.sendMessage(ChatColor.GREEN + "⛏️ 採掘ポイント +" + points);
-        }
-    }
-
-    private int getMiningPoints(Material material) {
-        switch (material) {
-            case DIAMOND_ORE:
-            case DEEPSLATE_DIAMOND_ORE:
-                return 50;
-            case EMERALD_ORE:
-            case DEEPSLATE_EMERALD_ORE:
-                return 30;
-            case GOLD_ORE:
-            case DEEPSLATE_GOLD_ORE:
-                return 20;
-            case IRON_ORE:
-            case DEEPSLATE_IRON_ORE:
-                return 15;
-            case COAL_ORE:
-            case DEEPSLATE_COAL_ORE:
-                return 5;
-            default:
-                return 0;
+        BlockBreakListener(EventType type) {
+            this.type = type;
+        }
+
+        @EventHandler
+        public void onBlockBreak(BlockBreakEvent event) {
+            int points = type.pointsFor(event.getBlock().getType());
+            if (points > 0) {
+                Player player = event.getPlayer();
+                addPoints(slotOf(player), points);
+                player.sendMessage(ChatColor.GREEN + "⛏️ 採掘ポイント +" + points);
+            }
         }
     }
 
-    @EventHandler
-    public void onPlayerDeath(PlayerDeathEvent event) {
-        if (!currentEvent.equals("survival_challenge"))
-            return;
+    /** サバイバル：最初に死ぬまでの生存時間 */
+    private final class SurvivalListener implements Listener {
+        @EventHandler
+        public void onPlayerDeath(PlayerDeathEvent event) {
+            Player deadPlayer = event.getEntity();
+            // 同一プレイヤーの重複加算を防止（死亡ごとに複数回入らないように）
+            if (!survivalAwarded.add(deadPlayer.getUniqueId()))
+                return;
+
+            // 生存時間（ms）= 現時点 - 開始時刻
+            long eventStartMs = eventEndTime - (eventDuration * 1000L);
+            long survivalTime = Math.max(0L, System.currentTimeMillis() - eventStartMs);
+            // 10秒ごとに1ポイント（最大 eventDuration/10 = 90pt）
+            int survivalPoints = (int) Math.min(eventDuration / 10, survivalTime / 10000L);
+
+            if (survivalPoints > 0) {
+                addPoints(slotOf(deadPlayer), survivalPoints);
+                deadPlayer.sendMessage(ChatColor.YELLOW + "💀 サバイバルポイント +" + survivalPoints + " (生存時間: "
+                        + (survivalTime / 1000) + "秒)");
+            }
+        }
+    }
 
-        Player deadPlayer = event.getEntity();
-        UUID deadPlayerId = deadPlayer.getUniqueId();
-        // 同一プレイヤーの重複加算を防止（死亡ごとに複数回入らないように）
-        if (survivalAwarded.contains(deadPlayerId))
-            return;
-        survivalAwarded.add(deadPlayerId);
+    /**
+     * スピード大会の移動検知。全プレイヤーの移動パケットごとに呼ばれるホットパスのため、
+     * 座標の差分をスロット添字の配列に積算するだけにとどめる（割り当て・ハッシュ・I/Oなし）。
+     * ポイントへの反映は {@link #foldAllMovement()} が毎tick行う。
+     */
+    private final class MovementListener implements Listener {
+        @EventHandler(ignoreCancelled = true)
+        public void onPlayerMove(PlayerMoveEvent event) {
+            Location from = event.getFrom();
+            Location to = event.getTo();
+            if (to == null)
+                return;
+
+            int slot = sessionSlots.slotOf(event.getPlayer().getEntityId());
+            movement.accumulate(slot, from.getX(), from.getY(), from.getZ(), to.getX(), to.getY(), to.getZ());
+        }
+    }
 
-        // 生存時間（ms）= 現時点 - 開始時刻
-        long eventStartMs = eventEndTime - (eventDuration * 1000L);
-        long survivalTime = Math.max(0L, System.currentTimeMillis() - eventStartMs);
-        // 10秒ごとに1ポイント（最大 eventDuration/10 = 90pt）
-        int survivalPoints = (int) Math.min(eventDuration / 10, survivalTime / 10000L);
+    private void startMovementFold() {
+        stopMovementFold();
+        movementFoldTask = Bukkit.getScheduler().runTaskTimer(plugin, this::foldAllMovement, 1L, 1L);
+    }
 
-        if (survivalPoints > 0) {
-            addPoints(deadPlayerId, survivalPoints);
-            deadPlayer.sendMessage(
-                    ChatColor.YELLOW + "💀 サバイバルポイント +" + survivalPoints + " (生存時間: " + (survivalTime / 1000) + "秒)");
+    private void stopMovementFold() {
+        if (movementFoldTask != null) {
+            movementFoldTask.cancel();
+            movementFoldTask = null;
         }
     }
 
-    @EventHandler
-    public void onPlayerMove(PlayerMoveEvent event) {
-        if (!currentEvent.equals("speed_contest"))
-            return;
-
-        Player player = event.getPlayer();
-        Location from = event.getFrom();
-        Location to = event.getTo();
+    /** 積算した移動距離を 1ブロック = 1ポイントでスコア表へ反映 */
+    private void foldAllMovement() {
+        for (int slot = 0, n = sessionSlots.capacity(); slot < n; slot++) {
+            foldMovement(slot);
+        }
+    }
 
-        if (to != null && from.distance(to) > 0.1) { // 実際に移動した場合
-            addPoints(player.getUniqueId(), 1);
+    private void foldMovement(int slot) {
+        int blocks = movement.drainWholeBlocks(slot);
+        if (blocks <= 0)
+            return;
+        if (sessionSlots.ownerOf(slot) != null) {
+            addPoints(slot, blocks);
         }
     }
 
-    private void addPoints(UUID playerId, int points) {
+    /** ポイント加算のみ（上限でクリップ）。プレイヤー名は参加時に PlayerNameRegistry が記録済み */
+    private void addPoints(int slot, int points) {
         if (points <= 0)
             return;
-        playerPoints.compute(playerId, (id, current) -> {
-            int existing = current == null ? 0 : current;
-            long sum = (long) existing + (long) points;
-            int capped = (int) Math.min(MAX_EVENT_POINTS_PER_PLAYER, Math.max(0L, sum));
-            return capped;
-        });
-
-        // プレイヤー名を保存（Unknownプレイヤー問題の修正）
-        Player player = Bukkit.getPlayer(playerId);
-        if (player != null && plugin instanceof PatrolSpectatorPlugin) {
-            PatrolSpectatorPlugin mainPlugin = (PatrolSpectatorPlugin) plugin;
-            mainPlugin.ensurePlayerNameSaved(playerId, player.getName());
-        }
+        scores.credit(slot, points, MAX_EVENT_POINTS_PER_PLAYER);
     }
 
     private void displayEventProgress() {
         if (currentEvent.isEmpty())
             return;
 
-        // 上位5位を表示
-        List<Map.Entry<UUID, Integer>> sortedPlayers = new ArrayList<>(playerPoints.entrySet());
-        sortedPlayers.sort((a, b) -> b.getValue().compareTo(a.getValue()));
+        // 上位5位を表示（全件のソートはしない）
+        int n = scores.topK(5, topSlots);
 
         Bukkit.broadcastMessage(ChatColor.YELLOW + "📊 " + getEventDisplayName(currentEvent) + " 進捗:");
 
-        for (int i = 0; i < Math.min(5, sortedPlayers.size()); i++) {
-            Map.Entry<UUID, Integer> entry = sortedPlayers.get(i);
-            Player player = Bukkit.getPlayer(entry.getKey());
-            if (player != null) {
-                String rank = getRankString(i + 1);
-                Bukkit.broadcastMessage(rank + " " + player.getName() + ": " + entry.getValue() + "ポイント (上限:"
-                        + MAX_EVENT_POINTS_PER_PLAYER + ")");
+        for (int i = 0; i < n; i++) {
+            int slot = topSlots[i];
+            String rank = getRankString(i + 1);
+            Bukkit.broadcastMessage(rank + " " + displayName(sessionSlots.ownerOf(slot)) + ": " + scores.points(slot)
+                    + "ポイント (上限:" + MAX_EVENT_POINTS_PER_PLAYER + ")");
+        }
+    }
+
+    /** ランキング表示用の名前（オフラインでもレジストリから引く） */
+    private String displayName(UUID playerId) {
+        if (plugin instanceof PatrolSpectatorPlugin) {
+            PlayerNameRegistry names = ((PatrolSpectatorPlugin) plugin).getNameRegistry();
+            if (names != null) {
+                String name = names.nameOf(playerId);
+                if (name != null)
+                    return name;
             }
         }
+        Player player = Bukkit.getPlayer(playerId);
+        return player != null ? player.getName() : "Unknown";
     }
 
     private String getEventDisplayName(String eventType) {
-        switch (eventType) {
-            case "mob_hunt":
-                return "モブハント";
-            case "mining_contest":
-                return "採掘大会";
-            case "survival_challenge":
-                return "サバイバル";
-            case "speed_contest":
-                return "スピード大会";
-            default:
-                return "イベント";
-        }
+        EventType type = eventTypes.get(eventType);
+        return type != null ? type.displayName : "イベント";
     }
 
     private void endEvent() {
         if (currentEvent.isEmpty())
             return;
 
+        // スピード大会の未反映分を精算
+        if (movementFoldTask != null) {
+            foldAllMovement();
+            stopMovementFold();
+        }
+
         Bukkit.broadcastMessage(ChatColor.GOLD + "🏆 イベント終了！結果発表 🏆");
 
         // 上位プレイヤーを発表
@@ -433,47 +523,35 @@ public class AutoEventSystem implements Listener {
         giveTopPlayerRewards();
 
         // リセット
-        currentEvent = "";
-        playerPoints.clear();
-        playerKillStreaks.clear();
-        playerLastKillTime.clear();
+        deactivateEvent();
+        clearScores();
         survivalAwarded.clear();
         eventEndTime = 0L;
     }
 
     private void announceWinners() {
-        List<Map.Entry<UUID, Integer>> sortedPlayers = new ArrayList<>(playerPoints.entrySet());
-        sortedPlayers.sort((a, b) -> b.getValue().compareTo(a.getValue()));
+        int n = scores.topK(5, topSlots);
 
         Bukkit.broadcastMessage(ChatColor.YELLOW + "🏆 イベント結果:");
 
-        for (int i = 0; i < Math.min(5, sortedPlayers.size()); i++) {
-            Map.Entry<UUID, Integer> entry = sortedPlayers.get(i);
-            Player player = Bukkit.getPlayer(entry.getKey());
-            if (player != null) {
-                String rank = getRankString(i + 1);
-                Bukkit.broadcastMessage(rank + " " + player.getName() + ": " + entry.getValue() + "ポイント");
-
-                // プレイヤー名を確実に保存（Unknownプレイヤー問題の修正）
-                if (plugin instanceof PatrolSpectatorPlugin) {
-                    PatrolSpectatorPlugin mainPlugin = (PatrolSpectatorPlugin) plugin;
-                    mainPlugin.ensurePlayerNameSaved(entry.getKey(), player.getName());
-                }
-            }
+        for (int i = 0; i < n; i++) {
+            int slot = topSlots[i];
+            String rank = getRankString(i + 1);
+            Bukkit.broadcastMessage(rank + " " + displayName(sessionSlots.ownerOf(slot)) + ": " + scores.points(slot) + "ポイント");
         }
     }
 
     private void giveTopPlayerRewards() {
-        List<Map.Entry<UUID, Integer>> sortedPlayers = new ArrayList<>(playerPoints.entrySet());
-        sortedPlayers.sort((a, b) -> b.getValue().compareTo(a.getValue()));
+        int n = scores.topK(3, topSlots);
 
-        for (int i = 0; i < Math.min(3, sortedPlayers.size()); i++) {
-            Player player = Bukkit.getPlayer(sortedPlayers.get(i).getKey());
+        for (int i = 0; i < n; i++) {
+            int slot = topSlots[i];
+            Player player = Bukkit.getPlayer(sessionSlots.ownerOf(slot));
             if (player != null) {
                 giveTopPlayerReward(player, i + 1);
 
                 // ランキングにイベント結果を反映
-                int clampedEventPts = Math.min(MAX_EVENT_POINTS_PER_PLAYER, sortedPlayers.get(i).getValue());
+                int clampedEventPts = Math.min(MAX_EVENT_POINTS_PER_PLAYER, scores.points(slot));
                 addEventPointsToRanking(player.getUniqueId(), i + 1, clampedEventPts);
             }
         }
@@ -570,10 +648,7 @@ public class AutoEventSystem implements Listener {
             if (autoEventTask != null) {
                 autoEventTask.cancel();
             }
-            if (pointDisplayTask != null) {
-                pointDisplayTask.cancel();
-            }
-            currentEvent = "";
+            deactivateEvent();
         }
     }
 
@@ -585,15 +660,18 @@ public class AutoEventSystem implements Listener {
         return currentEvent;
     }
 
+    /** 現在のイベントでのポイント（未参加なら0） */
+    int pointsOf(UUID id) {
+        int slot = sessionSlots.slotOf(id);
+        return slot >= 0 ? scores.points(slot) : 0;
+    }
+
     public void stopAutoEvents() {
         if (autoEventTask != null) {
             autoEventTask.cancel();
         }
-        if (pointDisplayTask != null) {
-            pointDisplayTask.cancel();
-        }
-        currentEvent = "";
-        playerPoints.clear();
+        deactivateEvent();
+        clearScores();
     }
 
     // ランキングにイベント結果を反映するメソッド
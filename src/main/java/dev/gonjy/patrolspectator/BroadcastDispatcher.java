@@ -0,0 +1,152 @@
+package dev.gonjy.patrolspectator;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayDeque;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * プレイヤーごとの演出・通知（タイトル、メッセージ、アイテム配布など）を分散実行するディスパッチャ。
+ * <p>
+ * 要求はキューに積み、毎tick {@code patrol.broadcast.tickBudgetMs} の時間予算内で取り出して実行します
+ * （1tickに少なくとも1件は進める）。満員のサーバーでも1tickに全員分をまとめて処理しません。
+ * 実行時にプレイヤーをUUIDから引き直し、退出済みならスキップします。
+ * キュー長と、積んでから実行されるまでの待ち時間を集計します。メインスレッドからのみ使用。
+ */
+public final class BroadcastDispatcher {
+
+    private record Job(UUID playerId, Consumer<Player> action, long enqueuedAt) {
+    }
+
+    private final Plugin plugin;
+    private final long budgetNanos;
+    private final ArrayDeque<Job> queue = new ArrayDeque<>();
+    private BukkitTask drainTask; // キューが空でない間だけ動く
+
+    // 集計
+    private long enqueued;
+    private long executed;
+    private long skipped; // 実行前に退出
+    private long failed;
+    private int maxDepth;
+    private long lastWaitNanos;
+    private long maxWaitNanos;
+    private long totalWaitNanos;
+    private long lastDrainNanos;
+    private long maxDrainNanos;
+
+    public BroadcastDispatcher(Plugin plugin) {
+        this(plugin, plugin.getConfig().getDouble("patrol.broadcast.tickBudgetMs", 2.0));
+    }
+
+    BroadcastDispatcher(Plugin plugin, double tickBudgetMs) {
+        this.plugin = plugin;
+        this.budgetNanos = (long) (Math.max(0.0, tickBudgetMs) * 1_000_000L);
+    }
+
+    /** プレイヤー1人分の処理を積みます */
+    public void enqueue(Player player, Consumer<Player> action) {
+        queue.addLast(new Job(player.getUniqueId(), action, System.nanoTime()));
+        enqueued++;
+        maxDepth = Math.max(maxDepth, queue.size());
+        if (drainTask == null) {
+            drainTask = Bukkit.getScheduler().runTaskTimer(plugin, this::drain, 1L, 1L);
+        }
+    }
+
+    /** 現在オンラインの全員分の処理を積みます */
+    public void forEachOnline(Consumer<Player> action) {
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            enqueue(player, action);
+        }
+    }
+
+    /**
+     * 全員へのチャット送信（Bukkit.broadcastMessage の分散版）。
+     * コンソールへは即時に出力し、プレイヤーへは1人1件（全行まとめて）で積みます。
+     */
+    public void broadcast(String... lines) {
+        Bukkit.getConsoleSender().sendMessage(lines);
+        forEachOnline(p -> p.sendMessage(lines));
+    }
+
+    /** 未実行の要求を破棄し、タスクを止めます（onDisable用） */
+    public void shutdown() {
+        queue.clear();
+        if (drainTask != null) {
+            drainTask.cancel();
+            drainTask = null;
+        }
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public int getMaxQueueDepth() {
+        return maxDepth;
+    }
+
+    public long getExecuted() {
+        return executed;
+    }
+
+    public long getSkipped() {
+        return skipped;
+    }
+
+    public long getMaxWaitNanos() {
+        return maxWaitNanos;
+    }
+
+    /** 状態表示用の1行サマリ */
+    public String describe() {
+        long done = executed + skipped + failed;
+        double avgWaitMs = done == 0 ? 0.0 : totalWaitNanos / 1e6 / done;
+        return String.format(
+                "queue=%d (max %d), enqueued=%d, executed=%d, skipped=%d, failed=%d, wait avg=%.1fms last=%.1fms max=%.1fms, drain last=%.2fms max=%.2fms (budget %.2fms)",
+                queue.size(), maxDepth, enqueued, executed, skipped, failed, avgWaitMs, lastWaitNanos / 1e6,
+                maxWaitNanos / 1e6, lastDrainNanos / 1e6, maxDrainNanos / 1e6, budgetNanos / 1e6);
+    }
+
+    // ====== 内部 ======
+
+    /** 1tick分：予算を使い切るかキューが空になるまで実行 */
+    private void drain() {
+        long start = System.nanoTime();
+        long now = start;
+        do {
+            Job job = queue.pollFirst();
+            if (job == null)
+                break;
+            long wait = now - job.enqueuedAt();
+            lastWaitNanos = wait;
+            maxWaitNanos = Math.max(maxWaitNanos, wait);
+            totalWaitNanos += wait;
+            Player player = Bukkit.getPlayer(job.playerId());
+            if (player == null || !player.isOnline()) {
+                skipped++;
+            } else {
+                try {
+                    job.action().accept(player);
+                    executed++;
+                } catch (RuntimeException e) {
+                    failed++;
+                    plugin.getLogger().warning("Broadcast job failed for " + player.getName() + ": " + e);
+                }
+            }
+            now = System.nanoTime();
+        } while (now - start < budgetNanos);
+
+        lastDrainNanos = now - start;
+        maxDrainNanos = Math.max(maxDrainNanos, lastDrainNanos);
+        if (queue.isEmpty() && drainTask != null) {
+            drainTask.cancel();
+            drainTask = null;
+        }
+    }
+}
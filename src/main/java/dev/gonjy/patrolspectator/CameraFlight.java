@@ -0,0 +1,240 @@
+package dev.gonjy.patrolspectator;
+
+import java.util.Arrays;
+
+/**
+ * 観光地間をカメラで飛ぶ経路（3次ベジェ曲線）。
+ * <p>
+ * 出発点と到着点の上空に制御点を置いた曲線を、弧長の表で等速の距離に変換し、
+ * 1tickごとに {@link #advance()} で位置と向きを進めます。速度は始めと終わりで緩め、
+ * 途中でも最高速度を超えません。最高速度は近い観光地なら巡航速度のまま、遠い観光地は飛行時間の上限に
+ * 収まるよう速度の上限まで上げます（それでも収まらなければ {@link #fitsTime()} が false）。
+ * 進める処理は配列とフィールドの更新だけで、割り当てはありません。
+ * 経路にかかるチャンク（半径 chunkRadius）は、最初に必要になる距離の順に {@link #chunks} に並べておきます。
+ */
+final class CameraFlight {
+
+    private static final int ARC_SAMPLES = 64;
+    /** 加減速（smoothstep）の最高速度は平均の1.5倍 */
+    private static final double PEAK_TO_MEAN = 1.5;
+    /** チャンクを調べる間隔（ブロック） */
+    private static final double CHUNK_STEP = 8.0;
+    /** 上空へ持ち上げる高さの上限 */
+    private static final double MAX_LIFT = 48.0;
+
+    // 設定（patrol.tour.transition.*）の既定値
+    static final double DEFAULT_SPEED = 1.5;
+    static final double DEFAULT_MAX_SPEED = 8.0;
+    static final int DEFAULT_MAX_SECONDS = 12;
+
+    // 制御点 P0..P3（x, y, z の順）
+    private final double[] p = new double[12];
+    // 弧長の表：t = i / ARC_SAMPLES までの長さ
+    private final double[] arc = new double[ARC_SAMPLES + 1];
+
+    /** 経路の長さ（ブロック） */
+    final double length;
+    /** 最高速度（ブロック/tick） */
+    final double peakSpeed;
+    /** 飛行にかかる tick 数 */
+    final int durationTicks;
+    private final int maxTicks;
+
+    private final float yaw0, yawDelta, pitch0, pitchDelta;
+
+    /** 経路にかかるチャンク（ChunkPrefetcher と同じキー）。最初に必要になる順 */
+    final long[] chunks;
+    /** 各チャンクが最初／最後に必要になる経路上の距離 */
+    final double[] firstAt, lastAt;
+
+    private int tick;
+
+    // 現在の位置と向き（advance で更新）
+    double x, y, z;
+    float yaw, pitch;
+    /** 出発点からの経路上の距離 */
+    double distance;
+
+    /**
+     * @param speed       巡航の最高速度（ブロック/tick）
+     * @param speedLimit  遠い観光地で上げてよい最高速度の上限（ブロック/tick）
+     * @param maxTicks    飛行時間の上限（tick）
+     * @param chunkRadius 経路の両側に先読みするチャンク半径
+     */
+    CameraFlight(double ax, double ay, double az, float ayaw, float apitch,
+            double bx, double by, double bz, float byaw, float bpitch,
+            double speed, double speedLimit, int maxTicks, int chunkRadius) {
+        double dx = bx - ax, dz = bz - az;
+        double horizontal = Math.sqrt(dx * dx + dz * dz);
+        double lift = Math.max(ay, by) + Math.min(MAX_LIFT, horizontal * 0.15);
+        set(0, ax, ay, az);
+        set(1, ax + dx / 3.0, lift, az + dz / 3.0);
+        set(2, bx - dx / 3.0, lift, bz - dz / 3.0);
+        set(3, bx, by, bz);
+
+        double total = 0.0;
+        double px = ax, py = ay, pz = az;
+        for (int i = 1; i <= ARC_SAMPLES; i++) {
+            double t = (double) i / ARC_SAMPLES;
+            double qx = bezier(0, t), qy = bezier(1, t), qz = bezier(2, t);
+            total += Math.sqrt((qx - px) * (qx - px) + (qy - py) * (qy - py) + (qz - pz) * (qz - pz));
+            arc[i] = total;
+            px = qx;
+            py = qy;
+            pz = qz;
+        }
+        this.length = total;
+        this.maxTicks = Math.max(1, maxTicks);
+        // maxTicks に収めるのに必要な最高速度。巡航速度より遅くはせず、上限より速くはしない
+        double cruise = Math.max(0.05, speed);
+        double needed = total * PEAK_TO_MEAN / this.maxTicks;
+        this.peakSpeed = Math.max(cruise, Math.min(needed, Math.max(cruise, speedLimit)));
+        this.durationTicks = Math.max(1, (int) Math.ceil(total * PEAK_TO_MEAN / peakSpeed));
+
+        this.yaw0 = ayaw;
+        this.yawDelta = wrapDegrees(byaw - ayaw);
+        this.pitch0 = apitch;
+        this.pitchDelta = bpitch - apitch;
+
+        // 経路上のチャンク（最初に必要になる順、重複なし）
+        int r = Math.max(0, chunkRadius);
+        int steps = Math.max(1, (int) Math.ceil(total / CHUNK_STEP));
+        int cap = 16;
+        long[] keys = new long[cap];
+        double[] first = new double[cap], last = new double[cap];
+        int n = 0;
+        for (int i = 0; i <= steps; i++) {
+            double s = total * i / steps;
+            double t = toParameter(s);
+            int ccx = chunkOf(bezier(0, t)), ccz = chunkOf(bezier(2, t));
+            for (int ox = -r; ox <= r; ox++) {
+                for (int oz = -r; oz <= r; oz++) {
+                    long k = key(ccx + ox, ccz + oz);
+                    int found = -1;
+                    // 直近の分だけ遡れば十分（経路は前にしか進まない）
+                    for (int j = n - 1, stop = Math.max(0, n - 4 * (2 * r + 1) * (2 * r + 1)); j >= stop; j--) {
+                        if (keys[j] == k) {
+                            found = j;
+                            break;
+                        }
+                    }
+                    if (found >= 0) {
+                        last[found] = s;
+                        continue;
+                    }
+                    if (n == cap) {
+                        cap *= 2;
+                        keys = Arrays.copyOf(keys, cap);
+                        first = Arrays.copyOf(first, cap);
+                        last = Arrays.copyOf(last, cap);
+                    }
+                    keys[n] = k;
+                    first[n] = s;
+                    last[n] = s;
+                    n++;
+                }
+            }
+        }
+        this.chunks = Arrays.copyOf(keys, n);
+        this.firstAt = Arrays.copyOf(first, n);
+        this.lastAt = Arrays.copyOf(last, n);
+
+        this.x = ax;
+        this.y = ay;
+        this.z = az;
+        this.yaw = ayaw;
+        this.pitch = apitch;
+    }
+
+    /**
+     * 1tick分進めます。
+     *
+     * @return まだ飛行中なら true（到着した tick は false）
+     */
+    boolean advance() {
+        if (tick < durationTicks)
+            tick++;
+        double u = (double) tick / durationTicks;
+        double eased = u * u * (3.0 - 2.0 * u); // smoothstep
+        distance = eased * length;
+        double t = toParameter(distance);
+        x = bezier(0, t);
+        y = bezier(1, t);
+        z = bezier(2, t);
+        yaw = yaw0 + (float) (yawDelta * eased);
+        pitch = pitch0 + (float) (pitchDelta * eased);
+        return tick < durationTicks;
+    }
+
+    /** 残りを飛ばして終点の姿勢にします（サーバーが重い間はテレポートで済ませる） */
+    void skipToEnd() {
+        tick = durationTicks;
+        advance();
+    }
+
+    /** 速度の上限で飛行時間の上限に収まるか（収まらなければテレポートにする） */
+    boolean fitsTime() {
+        return durationTicks <= maxTicks;
+    }
+
+    boolean finished() {
+        return tick >= durationTicks;
+    }
+
+    int ticksRemaining() {
+        return durationTicks - tick;
+    }
+
+    // ====== 内部 ======
+
+    private void set(int i, double x, double y, double z) {
+        p[i * 3] = x;
+        p[i * 3 + 1] = y;
+        p[i * 3 + 2] = z;
+    }
+
+    /** 軸 axis（0=x, 1=y, 2=z）の t における値 */
+    private double bezier(int axis, double t) {
+        double m = 1.0 - t;
+        return m * m * m * p[axis] + 3.0 * m * m * t * p[3 + axis] + 3.0 * m * t * t * p[6 + axis]
+                + t * t * t * p[9 + axis];
+    }
+
+    /** 経路上の距離 → 曲線のパラメータ t（弧長の表を二分探索して線形補間） */
+    private double toParameter(double s) {
+        if (s <= 0.0 || length <= 0.0)
+            return 0.0;
+        if (s >= length)
+            return 1.0;
+        int lo = 0, hi = ARC_SAMPLES;
+        while (hi - lo > 1) {
+            int mid = (lo + hi) >>> 1;
+            if (arc[mid] < s) {
+                lo = mid;
+            } else {
+                hi = mid;
+            }
+        }
+        double span = arc[hi] - arc[lo];
+        double f = span > 0.0 ? (s - arc[lo]) / span : 0.0;
+        return (lo + f) / ARC_SAMPLES;
+    }
+
+    private static float wrapDegrees(float deg) {
+        float d = deg % 360.0f;
+        if (d >= 180.0f)
+            d -= 360.0f;
+        if (d < -180.0f)
+            d += 360.0f;
+        return d;
+    }
+
+    static int chunkOf(double coord) {
+        return ((int) Math.floor(coord)) >> 4;
+    }
+
+    /** {@link ChunkPrefetcher} と同じチャンクキー */
+    static long key(int cx, int cz) {
+        return ((long) cx << 32) | (cz & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,87 @@
+package dev.gonjy.patrolspectator;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.UUID;
+
+/**
+ * カメラ1台分のパトロール状態。
+ * <p>
+ * 滞在時間・次に切り替える時刻（共有tickの通し番号）・巡回中の観光地・観戦中の対象と、
+ * 終了時に戻すための開始地点とインベントリを持ちます。
+ * 定期処理は {@link PatrolManager} が全カメラ分を1つのタスクでまとめて行います。
+ */
+final class CameraSession {
+
+    final UUID cameraId;
+    final String cameraName;
+    /** 1スポットの滞在時間（tick） */
+    final long dwellTicks;
+
+    /** 次に対象/観光地を切り替える共有tick（これ以降の最初の巡回で切り替え） */
+    long nextSwitchTick;
+    /** 次の観光地の先読みを済ませたか（切り替えごとにリセット） */
+    boolean prefetched;
+    /** 巡回中の観光地の添字（-1 = まだ無い） */
+    int tourIndex = -1;
+    /** 観光地に滞在中か（false なら観戦中または待機中） */
+    boolean atStop;
+    /** 観戦中のプレイヤー（他のカメラはこの人を選ばない） */
+    UUID target;
+
+    // 観光地への飛行中の状態（飛行していなければ flight == null）
+    CameraFlight flight;
+    ChunkPrefetcher.PathHold flightChunks;
+    /** 飛行中に毎tick使い回す位置 */
+    Location flightLocation;
+
+    // 終了時に戻すもの
+    final Location startLocation;
+    final ItemStack[] savedInventory;
+    final ItemStack[] savedArmor;
+
+    CameraSession(Player camera, long dwellTicks) {
+        this.cameraId = camera.getUniqueId();
+        this.cameraName = camera.getName();
+        this.dwellTicks = dwellTicks;
+        this.startLocation = camera.getLocation();
+        this.savedInventory = camera.getInventory().getContents();
+        this.savedArmor = camera.getInventory().getArmorContents();
+    }
+
+    /** カメラ役のプレイヤー（オフラインなら null） */
+    Player camera() {
+        return Bukkit.getPlayer(cameraId);
+    }
+
+    /** 開始地点・インベントリに戻します */
+    void restore(Player camera) {
+        if (startLocation != null) {
+            camera.teleport(startLocation);
+        }
+        if (savedInventory != null) {
+            camera.getInventory().setContents(savedInventory);
+        }
+        if (savedArmor != null) {
+            camera.getInventory().setArmorContents(savedArmor);
+        }
+    }
+
+    /** 状態表示用の1行 */
+    String describe(TouristLocation stop) {
+        if (target != null) {
+            Player t = Bukkit.getPlayer(target);
+            return cameraName + " → " + (t != null ? t.getName() : target.toString());
+        }
+        if (flight != null && stop != null) {
+            return cameraName + " ✈ " + stop.name + " (" + flight.ticksRemaining() / 20 + "s)";
+        }
+        if (atStop && stop != null) {
+            return cameraName + " @ " + stop.name;
+        }
+        return cameraName + " (待機中)";
+    }
+}
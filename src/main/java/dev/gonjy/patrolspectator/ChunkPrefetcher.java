@@ -0,0 +1,291 @@
+package dev.gonjy.patrolspectator;
+
+import org.bukkit.World;
+import org.bukkit.plugin.Plugin;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.logging.Level;
+
+/**
+ * 観光地のチャンク先読み。
+ * <p>
+ * 次に向かう観光地の周囲チャンクを Paper の非同期API（getChunkAtAsync）で読み込み、
+ * プラグインチケットで保持します。カメラが離れたらチケットを解放します。
+ * 到着時に目的チャンクが読み込み済みだったかをヒット/ミスとして数えます。
+ * カメラが飛行で移動する場合は、経路上のチャンクを {@link PathHold} で少しずつ読み込み、通り過ぎた分から解放します。
+ * メインスレッドからのみ使用してください（Paper は非同期ロードの完了をメインスレッドで通知します）。
+ */
+public final class ChunkPrefetcher {
+
+    /** 観光地1件分の保持状態 */
+    private static final class Hold {
+        final World world;
+        final long[] chunks;
+        final boolean[] ticketed;
+        boolean released;
+        int releasedBefore; // 経路用：これより前の添字は解放済み
+
+        Hold(World world, long[] chunks) {
+            this.world = world;
+            this.chunks = chunks;
+            this.ticketed = new boolean[chunks.length];
+        }
+    }
+
+    /** 飛行経路1本分の保持（チャンクは経路の順。先頭から順に読み込み、順に解放する） */
+    static final class PathHold {
+        private final Hold hold;
+        private int requested;
+
+        private PathHold(Hold hold) {
+            this.hold = hold;
+        }
+
+        /** 読み込みを依頼したチャンク数 */
+        int requested() {
+            return requested;
+        }
+
+        /** 解放したチャンク数 */
+        int released() {
+            return hold.releasedBefore;
+        }
+    }
+
+    private final Plugin plugin;
+    private final int radius;
+
+    private final Map<TouristLocation, Hold> holds = new IdentityHashMap<>();
+    // 同じチャンクを複数の観光地が共有する場合に備えた参照カウント（ワールドUID → チャンクキー → 数）
+    private final Map<UUID, Map<Long, Integer>> tickets = new HashMap<>();
+
+    private long requested;
+    private long failures;
+    private long hits;
+    private long misses;
+
+    /**
+     * @param plugin チケットの所有者
+     * @param radius 観光地を中心に読み込むチャンク半径（0なら中心チャンクのみ）
+     */
+    public ChunkPrefetcher(Plugin plugin, int radius) {
+        this.plugin = plugin;
+        this.radius = Math.max(0, radius);
+    }
+
+    /**
+     * 観光地周囲のチャンクを非同期で読み込み、チケットで保持します（保持済みなら何もしない）。
+     *
+     * @param tl    観光地
+     * @param world 観光地のワールド
+     */
+    public void prefetch(TouristLocation tl, World world) {
+        if (tl == null || world == null || holds.containsKey(tl))
+            return;
+        int ccx = chunkOf(tl.x), ccz = chunkOf(tl.z);
+        int side = radius * 2 + 1;
+        long[] chunks = new long[side * side];
+        int n = 0;
+        for (int dx = -radius; dx <= radius; dx++) {
+            for (int dz = -radius; dz <= radius; dz++) {
+                chunks[n++] = key(ccx + dx, ccz + dz);
+            }
+        }
+        Hold hold = new Hold(world, chunks);
+        holds.put(tl, hold);
+        for (int i = 0; i < chunks.length; i++) {
+            request(hold, i);
+        }
+    }
+
+    /**
+     * 指定した観光地以外の保持を解放します。
+     *
+     * @param keep 引き続き保持する観光地（現在地と次の数件）
+     */
+    public void retainOnly(Collection<TouristLocation> keep) {
+        Set<TouristLocation> keepSet = Collections.newSetFromMap(new IdentityHashMap<>());
+        keepSet.addAll(keep);
+        Iterator<Map.Entry<TouristLocation, Hold>> it = holds.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<TouristLocation, Hold> e = it.next();
+            if (keepSet.contains(e.getKey()))
+                continue;
+            release(e.getValue());
+            it.remove();
+        }
+    }
+
+    /**
+     * 飛行経路の保持を始めます（まだ何も読み込まない）。
+     *
+     * @param chunks 経路上のチャンクキー（経路の順）
+     */
+    PathHold beginPath(World world, long[] chunks) {
+        return new PathHold(new Hold(world, chunks));
+    }
+
+    /** 経路の先頭から until 件目までを読み込みます（依頼済みの分は飛ばす） */
+    void requestPath(PathHold path, int until) {
+        Hold hold = path.hold;
+        int end = Math.min(until, hold.chunks.length);
+        while (path.requested < end && !hold.released) {
+            request(hold, path.requested++);
+        }
+    }
+
+    /** 経路の先頭から until 件目までの保持を解放します（カメラが通り過ぎた分） */
+    void releasePath(PathHold path, int until) {
+        Hold hold = path.hold;
+        int end = Math.min(until, path.requested);
+        Map<Long, Integer> m = tickets.get(hold.world.getUID());
+        while (hold.releasedBefore < end) {
+            releaseChunk(hold, hold.releasedBefore++, m);
+        }
+        if (m != null && m.isEmpty())
+            tickets.remove(hold.world.getUID());
+    }
+
+    /** 経路の保持をすべて解放します（到着・中断時） */
+    void endPath(PathHold path) {
+        release(path.hold);
+    }
+
+    /** すべての保持を解放（パトロール停止時） */
+    public void releaseAll() {
+        for (Hold h : holds.values()) {
+            release(h);
+        }
+        holds.clear();
+    }
+
+    /**
+     * カメラの到着を記録します。目的チャンクが読み込み済みならヒット、未読み込みならミス。
+     * テレポートの直前に呼んでください。
+     */
+    public void noteArrival(World world, double x, double z) {
+        if (world.isChunkLoaded(chunkOf(x), chunkOf(z))) {
+            hits++;
+        } else {
+            misses++;
+        }
+    }
+
+    public long getRequested() {
+        return requested;
+    }
+
+    public long getFailures() {
+        return failures;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    /** 到着時のヒット率（到着が無ければ 0） */
+    public double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    /** 現在チケットで保持しているチャンク数 */
+    public int getHeldChunks() {
+        int n = 0;
+        for (Map<Long, Integer> m : tickets.values()) {
+            n += m.size();
+        }
+        return n;
+    }
+
+    /** 状態表示用の1行サマリ */
+    public String describe() {
+        return String.format("hit=%d, miss=%d (%.0f%%), requested=%d, failed=%d, held=%d",
+                hits, misses, getHitRate() * 100.0, requested, failures, getHeldChunks());
+    }
+
+    // ====== 内部 ======
+
+    private void request(Hold hold, int i) {
+        long k = hold.chunks[i];
+        int cx = (int) (k >> 32), cz = (int) k;
+        requested++;
+        try {
+            hold.world.getChunkAtAsync(cx, cz).whenComplete((chunk, err) -> {
+                if (err != null || chunk == null) {
+                    failures++;
+                    return;
+                }
+                // 読み込み完了前にカメラが通り過ぎていたらチケットは付けない
+                if (!hold.released && i >= hold.releasedBefore && !hold.ticketed[i]) {
+                    addTicket(hold.world, k);
+                    hold.ticketed[i] = true;
+                }
+            });
+        } catch (Throwable t) {
+            // 非Paper環境など：先読みは諦め、到着時の同期ロードに任せる
+            failures++;
+            plugin.getLogger().log(Level.FINE, "チャンク先読みに失敗しました: " + t.getMessage(), t);
+        }
+    }
+
+    private void release(Hold hold) {
+        if (hold.released)
+            return;
+        hold.released = true;
+        Map<Long, Integer> m = tickets.get(hold.world.getUID());
+        if (m == null)
+            return;
+        for (int i = hold.releasedBefore; i < hold.chunks.length; i++) {
+            releaseChunk(hold, i, m);
+        }
+        if (m.isEmpty())
+            tickets.remove(hold.world.getUID());
+    }
+
+    private void releaseChunk(Hold hold, int i, Map<Long, Integer> m) {
+        if (m == null || !hold.ticketed[i])
+            return; // まだ読み込み中だった
+        hold.ticketed[i] = false;
+        long k = hold.chunks[i];
+        Integer c = m.get(k);
+        if (c == null)
+            return;
+        if (c > 1) {
+            m.put(k, c - 1);
+        } else {
+            m.remove(k);
+            hold.world.removePluginChunkTicket((int) (k >> 32), (int) k, plugin);
+        }
+    }
+
+    private void addTicket(World world, long k) {
+        Map<Long, Integer> m = tickets.computeIfAbsent(world.getUID(), id -> new HashMap<>());
+        Integer c = m.get(k);
+        if (c == null) {
+            world.addPluginChunkTicket((int) (k >> 32), (int) k, plugin);
+            m.put(k, 1);
+        } else {
+            m.put(k, c + 1);
+        }
+    }
+
+    private static int chunkOf(double coord) {
+        return ((int) Math.floor(coord)) >> 4;
+    }
+
+    private static long key(int cx, int cz) {
+        return ((long) cx << 32) | (cz & 0xFFFFFFFFL);
+    }
+}
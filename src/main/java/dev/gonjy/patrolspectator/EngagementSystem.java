@@ -2,15 +2,23 @@ package dev.gonjy.patrolspectator;
 
 import org.bukkit.Bukkit;
 import org.bukkit.plugin.java.JavaPlugin;
+import java.util.List;
 import java.util.logging.Logger;
 
 public final class EngagementSystem {
     private final JavaPlugin plugin;
     private final Logger log;
+    private final PlayerSpatialIndex spatialIndex;
 
     public EngagementSystem(JavaPlugin plugin) {
         this.plugin = plugin;
         this.log = plugin.getLogger();
+        this.spatialIndex = new PlayerSpatialIndex(plugin);
+    }
+
+    /** オンラインプレイヤーの空間索引 */
+    public PlayerSpatialIndex getSpatialIndex() {
+        return spatialIndex;
     }
 
     /** 起動時や必要時に呼ぶ：公平性維持のためHUDを抑制 */
@@ -38,6 +46,8 @@ public final class EngagementSystem {
      * - カメラ役本人は除外
      * - 指定された半径内にいる
      * - サバイバルモードである（スペクテイターは除外）
+     * <p>
+     * 空間索引で半径と重なるチャンクだけを調べ、条件を満たす最も近いプレイヤーを返します。
      * 
      * @param camera カメラ役プレイヤー
      * @param radius 検索半径（ブロック単位）
@@ -46,25 +56,26 @@ public final class EngagementSystem {
     public org.bukkit.entity.Player findGoodTargetNear(org.bukkit.entity.Player camera, double radius) {
         if (camera == null || !camera.isOnline())
             return null;
+        return spatialIndex.nearest(camera.getLocation(), radius, p -> isGoodTarget(camera, p));
+    }
 
-        org.bukkit.Location camLoc = camera.getLocation();
-        double radiusSq = radius * radius;
-
-        for (org.bukkit.entity.Player p : Bukkit.getOnlinePlayers()) {
-            // カメラ本人は除外
-            if (p.getUniqueId().equals(camera.getUniqueId()))
-                continue;
-
-            // サバイバルモードのみ対象
-            if (p.getGameMode() != org.bukkit.GameMode.SURVIVAL)
-                continue;
+    /**
+     * {@link #findGoodTargetNear} の複数件版。条件を満たすプレイヤーを近い順に最大k人返します。
+     *
+     * @param camera カメラ役プレイヤー
+     * @param radius 検索半径（ブロック単位）
+     * @param k      最大件数
+     * @return 近い順の候補リスト（見つからなければ空）
+     */
+    public List<org.bukkit.entity.Player> findGoodTargetsNear(org.bukkit.entity.Player camera, double radius, int k) {
+        if (camera == null || !camera.isOnline())
+            return List.of();
+        return spatialIndex.kNearest(camera.getLocation(), radius, k, p -> isGoodTarget(camera, p));
+    }
 
-            // 半径内チェック
-            if (p.getLocation().distanceSquared(camLoc) <= radiusSq) {
-                return p;
-            }
-        }
-        return null;
+    private static boolean isGoodTarget(org.bukkit.entity.Player camera, org.bukkit.entity.Player p) {
+        // カメラ本人は除外、サバイバルモードのみ対象
+        return !p.getUniqueId().equals(camera.getUniqueId()) && p.getGameMode() == org.bukkit.GameMode.SURVIVAL;
     }
 
     /**
@@ -0,0 +1,107 @@
+package dev.gonjy.patrolspectator;
+
+import java.util.Arrays;
+
+/**
+ * 自動イベント1回分のプレイヤー別スコア表（ポイント・キルストリーク・最終キル時刻）。
+ * <p>
+ * {@link SessionSlots} のスロットを添字とする列ごとのプリミティブ配列（struct-of-arrays）で持ち、
+ * 加算やストリーク更新はボクシング・ハッシュなしの配列書き込みだけで済みます。
+ * 上位の取り出しは {@link #topK} が全件のコピーやソートをせずに部分選択します。
+ */
+final class EventScoreTable {
+
+    private int[] points = new int[64];
+    private int[] streaks = new int[64];
+    private long[] lastKillMs = new long[64];
+    private int highWater; // 一度でも書き込まれたスロット数（clear の範囲）
+
+    /**
+     * ポイントを加算します（0〜max でクリップ）。
+     *
+     * @return 加算後のポイント
+     */
+    int credit(int slot, int add, int max) {
+        if (slot < 0)
+            return 0;
+        ensure(slot);
+        long sum = (long) points[slot] + add;
+        int capped = (int) Math.min(max, Math.max(0L, sum));
+        points[slot] = capped;
+        return capped;
+    }
+
+    int points(int slot) {
+        return slot >= 0 && slot < highWater ? points[slot] : 0;
+    }
+
+    /**
+     * キルを記録し、キルストリークを返します。
+     * 前回のキルから windowMs 未満なら継続（+1）、それ以外は 1 から数え直します。
+     */
+    int registerKill(int slot, long nowMs, long windowMs) {
+        if (slot < 0)
+            return 0;
+        ensure(slot);
+        long last = lastKillMs[slot];
+        int streak = last != 0L && nowMs - last < windowMs ? streaks[slot] + 1 : 1;
+        streaks[slot] = streak;
+        lastKillMs[slot] = nowMs;
+        return streak;
+    }
+
+    /** スロットの値を破棄（退出・スロット再利用時） */
+    void reset(int slot) {
+        if (slot < 0 || slot >= highWater)
+            return;
+        points[slot] = 0;
+        streaks[slot] = 0;
+        lastKillMs[slot] = 0L;
+    }
+
+    /** 全スロットを破棄（イベント開始/終了時） */
+    void clear() {
+        Arrays.fill(points, 0, highWater, 0);
+        Arrays.fill(streaks, 0, highWater, 0);
+        Arrays.fill(lastKillMs, 0, highWater, 0L);
+        highWater = 0;
+    }
+
+    /**
+     * ポイント上位 k 件のスロットを降順で out に書き込みます（ポイント0は除外、同点はスロット順）。
+     * 大きさ k の挿入ソートで選ぶため O(n·k)、割り当てなし。
+     *
+     * @param out 長さ k 以上の出力先
+     * @return 書き込んだ件数
+     */
+    int topK(int k, int[] out) {
+        if (k <= 0)
+            return 0;
+        int count = 0;
+        for (int slot = 0; slot < highWater; slot++) {
+            int p = points[slot];
+            if (p <= 0)
+                continue;
+            if (count == k && p <= points[out[k - 1]])
+                continue;
+            int i = count < k ? count++ : k - 1;
+            while (i > 0 && points[out[i - 1]] < p) {
+                out[i] = out[i - 1];
+                i--;
+            }
+            out[i] = slot;
+        }
+        return count;
+    }
+
+    private void ensure(int slot) {
+        if (slot >= points.length) {
+            int n = Math.max(slot + 1, points.length * 2);
+            points = Arrays.copyOf(points, n);
+            streaks = Arrays.copyOf(streaks, n);
+            lastKillMs = Arrays.copyOf(lastKillMs, n);
+        }
+        if (slot >= highWater)
+            highWater = slot + 1;
+    }
+}
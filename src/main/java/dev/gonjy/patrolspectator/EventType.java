@@ -0,0 +1,78 @@
+package dev.gonjy.patrolspectator;
+
+import org.bukkit.Material;
+import org.bukkit.entity.EntityType;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * 自動イベントの種類1つ分の定義（表示名・説明・ポイント源・ポイント表）。
+ * <p>
+ * ポイント表は {@link EntityType} / {@link Material} の ordinal を添字とする int 配列で、
+ * 表に無いものは既定値で埋めてあります。ホットパスでの参照は配列1回の読み取りだけです。
+ * 定義は {@link EventTypeRegistry} が設定から読み込みます。
+ */
+final class EventType {
+
+    /** ポイント源（イベント中だけ登録するリスナーの種類） */
+    enum Trigger {
+        /** モブを倒す（EntityDeathEvent、ポイント表は EntityType） */
+        MOB_KILL,
+        /** ブロックを壊す（BlockBreakEvent、ポイント表は Material） */
+        BLOCK_BREAK,
+        /** 死ぬまでの生存時間（PlayerDeathEvent） */
+        SURVIVAL,
+        /** 移動距離（PlayerMoveEvent） */
+        MOVEMENT
+    }
+
+    final String id;
+    final String displayName;
+    final String description;
+    final Trigger trigger;
+    private final int[] points; // ordinal → ポイント（ポイント表の無い種類は空）
+
+    EventType(String id, String displayName, String description, Trigger trigger, int[] points) {
+        this.id = id;
+        this.displayName = displayName;
+        this.description = description;
+        this.trigger = trigger;
+        this.points = points;
+    }
+
+    /** モブ1体あたりのポイント */
+    int pointsFor(EntityType type) {
+        return lookup(type);
+    }
+
+    /** ブロック1個あたりのポイント */
+    int pointsFor(Material material) {
+        return lookup(material);
+    }
+
+    private int lookup(Enum<?> key) {
+        int i = key.ordinal();
+        return i < points.length ? points[i] : 0;
+    }
+
+    /**
+     * ordinal 添字のポイント表を作ります。
+     *
+     * @param values        個別のポイント
+     * @param defaultPoints 表に無いものの値
+     */
+    static <E extends Enum<E>> int[] table(Class<E> type, Map<E, Integer> values, int defaultPoints) {
+        int[] out = new int[type.getEnumConstants().length];
+        Arrays.fill(out, defaultPoints);
+        for (Map.Entry<E, Integer> e : values.entrySet()) {
+            out[e.getKey().ordinal()] = e.getValue();
+        }
+        return out;
+    }
+
+    @Override
+    public String toString() {
+        return id + "(" + trigger + ")";
+    }
+}
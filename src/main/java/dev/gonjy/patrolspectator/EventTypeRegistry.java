@@ -0,0 +1,162 @@
+package dev.gonjy.patrolspectator;
+
+import org.bukkit.Material;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.EntityType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.logging.Logger;
+
+/**
+ * 自動イベントの種類の一覧。{@code patrol.events.types} から読み込み、無ければ組み込みの4種類を使います。
+ * <pre>
+ * patrol:
+ *   events:
+ *     types:
+ *       mob_hunt:
+ *         displayName: モブハント
+ *         description: ...
+ *         trigger: MOB_KILL          # MOB_KILL / BLOCK_BREAK / SURVIVAL / MOVEMENT
+ *         defaultPoints: 5           # ポイント表に無いもの
+ *         points: { ZOMBIE: 10, BLAZE: 30 }
+ * </pre>
+ */
+final class EventTypeRegistry {
+
+    private final Map<String, EventType> types;
+    private final List<String> ids;
+
+    private EventTypeRegistry(Map<String, EventType> types) {
+        this.types = types;
+        this.ids = List.copyOf(types.keySet());
+    }
+
+    /**
+     * 設定から読み込みます。不正な定義は警告を出してスキップします。
+     *
+     * @param section {@code patrol.events.types}（null または空なら組み込みの定義）
+     */
+    static EventTypeRegistry load(ConfigurationSection section, Logger logger) {
+        if (section == null || section.getKeys(false).isEmpty())
+            return defaults();
+        Map<String, EventType> out = new LinkedHashMap<>();
+        for (String id : section.getKeys(false)) {
+            ConfigurationSection t = section.getConfigurationSection(id);
+            if (t == null)
+                continue;
+            EventType.Trigger trigger;
+            try {
+                trigger = EventType.Trigger.valueOf(t.getString("trigger", "").toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                logger.warning("events.types." + id + ": trigger が不正です: " + t.getString("trigger"));
+                continue;
+            }
+            int def = t.getInt("defaultPoints", 0);
+            ConfigurationSection pts = t.getConfigurationSection("points");
+            int[] table;
+            switch (trigger) {
+                case MOB_KILL:
+                    table = EventType.table(EntityType.class, parse(EntityType.class, pts, id, logger), def);
+                    break;
+                case BLOCK_BREAK:
+                    table = EventType.table(Material.class, parse(Material.class, pts, id, logger), def);
+                    break;
+                default:
+                    table = new int[0];
+                    break;
+            }
+            out.put(id, new EventType(id, t.getString("displayName", id), t.getString("description", ""),
+                    trigger, table));
+        }
+        if (out.isEmpty()) {
+            logger.warning("events.types に有効な定義が無いため、組み込みのイベントを使います");
+            return defaults();
+        }
+        return new EventTypeRegistry(out);
+    }
+
+    /** 組み込みの定義（モブハント・採掘大会・サバイバル・スピード大会） */
+    static EventTypeRegistry defaults() {
+        Map<String, EventType> out = new LinkedHashMap<>();
+
+        Map<EntityType, Integer> mobs = new EnumMap<>(EntityType.class);
+        for (EntityType t : new EntityType[] { EntityType.ZOMBIE, EntityType.SKELETON, EntityType.SPIDER,
+                EntityType.CREEPER })
+            mobs.put(t, 10);
+        for (EntityType t : new EntityType[] { EntityType.ENDERMAN, EntityType.WITCH, EntityType.SLIME })
+            mobs.put(t, 20);
+        mobs.put(EntityType.BLAZE, 30);
+        mobs.put(EntityType.MAGMA_CUBE, 30);
+        mobs.put(EntityType.GHAST, 40);
+        mobs.put(EntityType.WITHER_SKELETON, 40);
+        mobs.put(EntityType.ENDER_DRAGON, 100);
+        mobs.put(EntityType.WITHER, 100);
+        out.put("mob_hunt", new EventType("mob_hunt", "モブハント",
+                "🏹 モブハント大会 - モンスターを倒してポイントを稼ごう！", EventType.Trigger.MOB_KILL,
+                EventType.table(EntityType.class, mobs, 5)));
+
+        Map<Material, Integer> ores = new EnumMap<>(Material.class);
+        ores.put(Material.DIAMOND_ORE, 50);
+        ores.put(Material.DEEPSLATE_DIAMOND_ORE, 50);
+        ores.put(Material.EMERALD_ORE, 30);
+        ores.put(Material.DEEPSLATE_EMERALD_ORE, 30);
+        ores.put(Material.GOLD_ORE, 20);
+        ores.put(Material.DEEPSLATE_GOLD_ORE, 20);
+        ores.put(Material.IRON_ORE, 15);
+        ores.put(Material.DEEPSLATE_IRON_ORE, 15);
+        ores.put(Material.COAL_ORE, 5);
+        ores.put(Material.DEEPSLATE_COAL_ORE, 5);
+        out.put("mining_contest", new EventType("mining_contest", "採掘大会",
+                "⛏️ 採掘大会 - 貴重な鉱石を掘ってポイントを稼ごう！", EventType.Trigger.BLOCK_BREAK,
+                EventType.table(Material.class, ores, 0)));
+
+        out.put("survival_challenge", new EventType("survival_challenge", "サバイバル",
+                "💀 サバイバルチャレンジ - 生き残ってポイントを稼ごう！", EventType.Trigger.SURVIVAL, new int[0]));
+        out.put("speed_contest", new EventType("speed_contest", "スピード大会",
+                "🏃 スピード大会 - 移動距離でポイントを稼ごう！", EventType.Trigger.MOVEMENT, new int[0]));
+        return new EventTypeRegistry(out);
+    }
+
+    /** IDから引く（未定義なら null） */
+    EventType get(String id) {
+        return id == null ? null : types.get(id);
+    }
+
+    /** 定義順のID一覧 */
+    List<String> ids() {
+        return ids;
+    }
+
+    List<EventType> all() {
+        return Collections.unmodifiableList(new ArrayList<>(types.values()));
+    }
+
+    EventType random(Random random) {
+        return types.get(ids.get(random.nextInt(ids.size())));
+    }
+
+    private static <E extends Enum<E>> Map<E, Integer> parse(Class<E> type, ConfigurationSection points,
+            String id, Logger logger) {
+        Map<E, Integer> out = new EnumMap<>(type);
+        if (points == null)
+            return out;
+        for (String key : points.getKeys(false)) {
+            String name = key.toUpperCase(Locale.ROOT);
+            if (name.startsWith("MINECRAFT:"))
+                name = name.substring("MINECRAFT:".length());
+            try {
+                out.put(Enum.valueOf(type, name), points.getInt(key));
+            } catch (IllegalArgumentException e) {
+                logger.warning("events.types." + id + ".points: 不明な " + type.getSimpleName() + ": " + key);
+            }
+        }
+        return out;
+    }
+}
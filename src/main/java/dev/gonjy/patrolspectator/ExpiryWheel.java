@@ -0,0 +1,190 @@
+package dev.gonjy.patrolspectator;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 期限付きキーの階層タイミングホイール。
+ * <p>
+ * 64スロット×4段（1段目は tickMs 単位、以降は64倍ずつ粗く）のリングに期限でキーを振り分け、
+ * {@link #advance} で時刻を進めると期限の来たキーを取り出します。
+ * 登録・取り消しは O(1)、期限切れの取り出しは1件あたり段の数までの付け替えで済みます（償却 O(1)）。
+ * 最上段の範囲（約 64^4 tick）より先の期限は最上段の端に置き、降りてきたときに付け直します。
+ * 同期はしないので、複数のスレッドから触る場合は呼び出し側でロックしてください（{@link ProtectionData} はホイール自体で同期）。
+ *
+ * @param <K> キー（UUID等）
+ */
+final class ExpiryWheel<K> {
+
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_SPAN = 1L << (BITS * LEVELS);
+
+    private static final class Node<K> {
+        final K key;
+        long deadline; // tick
+        int level;
+        int slot;
+        Node<K> prev;
+        Node<K> next;
+
+        Node(K key) {
+            this.key = key;
+        }
+    }
+
+    private final long tickMs;
+    @SuppressWarnings("unchecked")
+    private final Node<K>[][] wheel = new Node[LEVELS][SLOTS];
+    private final Map<K, Node<K>> nodes = new HashMap<>();
+    private long currentTick; // これより前の tick は処理済み
+
+    // 集計
+    private long expired;
+    private long cascaded;
+
+    /**
+     * @param tickMs 1段目の1スロットの幅（ミリ秒）
+     * @param nowMs  現在時刻
+     */
+    ExpiryWheel(long tickMs, long nowMs) {
+        this.tickMs = Math.max(1L, tickMs);
+        this.currentTick = Math.floorDiv(nowMs, this.tickMs);
+    }
+
+    /**
+     * 期限を登録します（登録済みなら付け替え）。既に過ぎた期限は次の {@link #advance} で取り出されます。
+     */
+    void schedule(K key, long expireAtMs) {
+        Node<K> n = nodes.get(key);
+        if (n == null) {
+            n = new Node<>(key);
+            nodes.put(key, n);
+        } else {
+            unlink(n);
+        }
+        // 期限の来た tick で取り出すので切り上げ
+        n.deadline = Math.max(currentTick, Math.floorDiv(expireAtMs + tickMs - 1, tickMs));
+        place(n);
+    }
+
+    /**
+     * 登録を取り消します。
+     *
+     * @return 登録されていたら true
+     */
+    boolean cancel(K key) {
+        Node<K> n = nodes.remove(key);
+        if (n == null)
+            return false;
+        unlink(n);
+        return true;
+    }
+
+    boolean contains(K key) {
+        return nodes.containsKey(key);
+    }
+
+    int size() {
+        return nodes.size();
+    }
+
+    long getExpired() {
+        return expired;
+    }
+
+    long getCascaded() {
+        return cascaded;
+    }
+
+    /**
+     * 時刻を nowMs まで進め、期限の来たキーを期限順に sink へ渡します（同じ tick 内の順序は不定）。
+     *
+     * @return 取り出した件数
+     */
+    int advance(long nowMs, Consumer<? super K> sink) {
+        long target = Math.floorDiv(nowMs, tickMs);
+        int fired = 0;
+        while (currentTick <= target) {
+            if (nodes.isEmpty()) {
+                currentTick = target + 1; // 何も無ければ一気に進める
+                break;
+            }
+            // 1段目が一周したら上の段の該当スロットを付け替える（その段も一周なら更に上）
+            for (int level = 1; level < LEVELS; level++) {
+                if ((currentTick & ((1L << (BITS * level)) - 1)) != 0)
+                    break;
+                cascade(level, (int) ((currentTick >>> (BITS * level)) & MASK));
+            }
+            int slot = (int) (currentTick & MASK);
+            Node<K> n = wheel[0][slot];
+            wheel[0][slot] = null;
+            while (n != null) {
+                Node<K> next = n.next;
+                n.prev = n.next = null;
+                nodes.remove(n.key);
+                expired++;
+                fired++;
+                sink.accept(n.key);
+                n = next;
+            }
+            currentTick++;
+        }
+        return fired;
+    }
+
+    // ====== 内部 ======
+
+    private void place(Node<K> n) {
+        long delta = n.deadline - currentTick;
+        int level;
+        long at;
+        if (delta < SLOTS) {
+            level = 0;
+            at = n.deadline;
+        } else if (delta >= MAX_SPAN) {
+            // 最上段の範囲外：最上段の一番遠いスロットに置き、降りてきたら付け直す
+            level = LEVELS - 1;
+            at = (currentTick + MAX_SPAN - 1) >>> (BITS * level);
+        } else {
+            level = 1;
+            while (delta >= 1L << (BITS * (level + 1)))
+                level++;
+            at = n.deadline >>> (BITS * level);
+        }
+        n.level = level;
+        n.slot = (int) (at & MASK);
+        Node<K> head = wheel[level][n.slot];
+        n.prev = null;
+        n.next = head;
+        if (head != null)
+            head.prev = n;
+        wheel[level][n.slot] = n;
+    }
+
+    private void cascade(int level, int slot) {
+        Node<K> n = wheel[level][slot];
+        wheel[level][slot] = null;
+        while (n != null) {
+            Node<K> next = n.next;
+            n.prev = n.next = null;
+            cascaded++;
+            place(n);
+            n = next;
+        }
+    }
+
+    private void unlink(Node<K> n) {
+        if (n.prev != null) {
+            n.prev.next = n.next;
+        } else if (wheel[n.level][n.slot] == n) {
+            wheel[n.level][n.slot] = n.next;
+        }
+        if (n.next != null)
+            n.next.prev = n.prev;
+        n.prev = n.next = null;
+    }
+}
@@ -6,57 +6,90 @@ import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
 import org.bukkit.scheduler.BukkitTask;
 
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.UUID;
 
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerGameModeChangeEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
 
+/**
+ * カメラ役以外のプレイヤーをサバイバルに保つクラス。カメラ役は複数登録できます。
+ * <p>
+ * 強制は主にイベント駆動（ゲームモード変更・参加・リスポーン・ワールド移動）で行い、
+ * 取りこぼし対策の全体照合は低頻度で、1tickあたり少人数ずつに分割して実行します。
+ * 何も変化がなければ定常コストはほぼゼロです。
+ */
 public final class GameModeEnforcer implements Listener {
     private final Plugin plugin;
-    private BukkitTask task;
-    private UUID cameraOperator;
+    private final long reconcilePeriodTicks;
+    private final int sliceSize;
+
+    private boolean active;
+    private BukkitTask reconcileTask;
+    private BukkitTask sweepTask;
+    private Player[] sweep = new Player[0];
+    private int sweepCursor;
+    private final Set<UUID> cameraOperators = new HashSet<>();
 
     public GameModeEnforcer(Plugin plugin) {
         this.plugin = plugin;
+        this.reconcilePeriodTicks = Math.max(20L,
+                plugin.getConfig().getLong("patrol.gamemode.reconcileSeconds", 30L) * 20L);
+        this.sliceSize = Math.max(1, plugin.getConfig().getInt("patrol.gamemode.sliceSize", 8));
         plugin.getServer().getPluginManager().registerEvents(this, plugin);
     }
 
     public void start() {
-        if (task != null)
+        if (active)
             return;
-        task = Bukkit.getScheduler().runTaskTimer(plugin, () -> {
-            UUID cam = cameraOperator;
-            for (Player p : Bukkit.getOnlinePlayers()) {
-                if (cam != null && p.getUniqueId().equals(cam))
-                    continue; // カメラは除外
-                if (p.getGameMode() != GameMode.SURVIVAL) {
-                    try {
-                        p.setGameMode(GameMode.SURVIVAL);
-                    } catch (Throwable ignored) {
-                    }
-                }
-            }
-        }, 20L, 20L); // 1秒周期
+        active = true;
+        // 開始直後に1回、以降は低頻度で全体照合
+        reconcileTask = Bukkit.getScheduler().runTaskTimer(plugin, this::beginSweep, 20L, reconcilePeriodTicks);
     }
 
     public void stop() {
-        if (task != null) {
-            task.cancel();
-            task = null;
+        active = false;
+        if (reconcileTask != null) {
+            reconcileTask.cancel();
+            reconcileTask = null;
         }
+        endSweep();
     }
 
     public void shutdown() {
         stop();
     }
 
+    /** カメラ役を1人だけに設定（他のカメラ役は解除） */
     public void setCameraOperator(UUID uuid) {
-        this.cameraOperator = uuid;
+        cameraOperators.clear();
+        cameraOperators.add(uuid);
+    }
+
+    /** カメラ役を追加 */
+    public void addCameraOperator(UUID uuid) {
+        cameraOperators.add(uuid);
     }
 
+    /** カメラ役を1人解除 */
+    public void removeCameraOperator(UUID uuid) {
+        cameraOperators.remove(uuid);
+    }
+
+    /** カメラ役を全員解除 */
     public void clearCameraOperator() {
-        this.cameraOperator = null;
+        cameraOperators.clear();
+    }
+
+    public boolean isCameraOperator(UUID uuid) {
+        return cameraOperators.contains(uuid);
     }
 
     /**
@@ -65,7 +98,7 @@ public final class GameModeEnforcer implements Listener {
     public void ensurePlayerIsSurvival(Player p) {
         if (p == null)
             return;
-        if (cameraOperator != null && cameraOperator.equals(p.getUniqueId()))
+        if (isCamera(p))
             return;
 
         if (p.getGameMode() != GameMode.SURVIVAL) {
@@ -79,8 +112,69 @@ public final class GameModeEnforcer implements Listener {
     @EventHandler
     public void onJoin(PlayerJoinEvent e) {
         // 参加時にカメラ役以外ならサバイバルを強制
-        // パトロール中(cameraOperator != null)でも、カメラ役以外はSurvivalであるべき
-        // パトロール停止中(cameraOperator == null)なら全員Survivalであるべき
+        // パトロール中でも、カメラ役以外はSurvivalであるべき
+        // パトロール停止中（カメラ役なし）なら全員Survivalであるべき
         ensurePlayerIsSurvival(e.getPlayer());
     }
+
+    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
+    public void onGameModeChange(PlayerGameModeChangeEvent e) {
+        // 強制中はサバイバル以外への変更をその場で取り消す
+        if (!active || e.getNewGameMode() == GameMode.SURVIVAL || isCamera(e.getPlayer()))
+            return;
+        e.setCancelled(true);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onRespawn(PlayerRespawnEvent e) {
+        if (active)
+            ensurePlayerIsSurvival(e.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChangedWorld(PlayerChangedWorldEvent e) {
+        // ワールドの既定ゲームモードで上書きされる場合がある
+        if (active)
+            ensurePlayerIsSurvival(e.getPlayer());
+    }
+
+    // ====== 内部 ======
+
+    private boolean isCamera(Player p) {
+        return !cameraOperators.isEmpty() && cameraOperators.contains(p.getUniqueId());
+    }
+
+    /** オンライン一覧のスナップショットを取り、1tickごとに sliceSize 人ずつ照合する */
+    private void beginSweep() {
+        if (sweepTask != null)
+            return; // 前回の照合がまだ終わっていない
+        sweep = Bukkit.getOnlinePlayers().toArray(sweep);
+        sweepCursor = 0;
+        if (sweep.length == 0 || sweep[0] == null)
+            return;
+        sweepTask = Bukkit.getScheduler().runTaskTimer(plugin, this::sweepSlice, 1L, 1L);
+    }
+
+    private void sweepSlice() {
+        int end = Math.min(sweep.length, sweepCursor + sliceSize);
+        for (; sweepCursor < end; sweepCursor++) {
+            Player p = sweep[sweepCursor];
+            if (p == null)
+                break; // toArray で再利用した配列の末尾
+            sweep[sweepCursor] = null;
+            if (p.isOnline())
+                ensurePlayerIsSurvival(p);
+        }
+        if (sweepCursor >= sweep.length || sweep[sweepCursor] == null)
+            endSweep();
+    }
+
+    private void endSweep() {
+        if (sweepTask != null) {
+            sweepTask.cancel();
+            sweepTask = null;
+        }
+        Arrays.fill(sweep, null);
+        sweepCursor = 0;
+    }
 }
@@ -0,0 +1,163 @@
+package dev.gonjy.patrolspectator;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * キーで優先度を更新できる最大ヒープ（インデックス付き二分ヒープ）。
+ * <p>
+ * {@link #set} / {@link #remove} は O(log n)、{@link #peek} は O(1)。
+ *
+ * @param <K> キー
+ */
+final class IndexedMaxHeap<K> {
+
+    private Object[] keys = new Object[16];
+    private double[] prio = new double[16];
+    private final Map<K, Integer> pos = new HashMap<>();
+    private int size;
+
+    /** 優先度を設定（未登録なら追加） */
+    void set(K key, double priority) {
+        Integer i = pos.get(key);
+        if (i == null) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                prio = Arrays.copyOf(prio, size * 2);
+            }
+            keys[size] = key;
+            prio[size] = priority;
+            pos.put(key, size);
+            siftUp(size++);
+            return;
+        }
+        double old = prio[i];
+        prio[i] = priority;
+        if (priority > old)
+            siftUp(i);
+        else if (priority < old)
+            siftDown(i);
+    }
+
+    /** キーを削除 */
+    void remove(K key) {
+        Integer i = pos.remove(key);
+        if (i == null)
+            return;
+        int last = --size;
+        if (i != last) {
+            K moved = keyAt(last);
+            move(last, i);
+            siftUp(i);
+            siftDown(pos.get(moved));
+        }
+        keys[last] = null;
+    }
+
+    /** 最大優先度のキー（空なら null） */
+    K peek() {
+        return size == 0 ? null : keyAt(0);
+    }
+
+    /** 最大優先度（空なら負の無限大） */
+    double peekPriority() {
+        return size == 0 ? Double.NEGATIVE_INFINITY : prio[0];
+    }
+
+    /** 登録済みの優先度（未登録なら NaN） */
+    double priorityOf(K key) {
+        Integer i = pos.get(key);
+        return i == null ? Double.NaN : prio[i];
+    }
+
+    boolean contains(K key) {
+        return pos.containsKey(key);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * 条件を満たす最大優先度のキーを返します（ヒープは変更しない）。
+     * 上位から最大 maxProbe 件まで調べ、見つからなければ null。
+     */
+    K best(Predicate<? super K> accept, int maxProbe) {
+        if (size == 0)
+            return null;
+        // 上位側だけを優先度順に辿る小さな補助ヒープ（添字を格納）
+        int cap = Math.min(size, Math.max(1, maxProbe) * 2 + 1);
+        int[] frontier = new int[cap];
+        int n = 0;
+        frontier[n++] = 0;
+        int probed = 0;
+        while (n > 0 && probed < maxProbe) {
+            // frontier の中で最大の要素を取り出す（maxProbe は小さい前提の線形探索）
+            int bi = 0;
+            for (int j = 1; j < n; j++) {
+                if (prio[frontier[j]] > prio[frontier[bi]])
+                    bi = j;
+            }
+            int i = frontier[bi];
+            frontier[bi] = frontier[--n];
+            probed++;
+            K k = keyAt(i);
+            if (accept.test(k))
+                return k;
+            int l = 2 * i + 1;
+            if (l < size && n < cap)
+                frontier[n++] = l;
+            if (l + 1 < size && n < cap)
+                frontier[n++] = l + 1;
+        }
+        return null;
+    }
+
+    // ====== 内部 ======
+
+    @SuppressWarnings("unchecked")
+    private K keyAt(int i) {
+        return (K) keys[i];
+    }
+
+    private void move(int from, int to) {
+        keys[to] = keys[from];
+        prio[to] = prio[from];
+        pos.put(keyAt(to), to);
+    }
+
+    private void siftUp(int i) {
+        Object k = keys[i];
+        double p = prio[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (prio[parent] >= p)
+                break;
+            move(parent, i);
+            i = parent;
+        }
+        keys[i] = k;
+        prio[i] = p;
+        pos.put(keyAt(i), i);
+    }
+
+    private void siftDown(int i) {
+        Object k = keys[i];
+        double p = prio[i];
+        while (true) {
+            int l = 2 * i + 1;
+            if (l >= size)
+                break;
+            int c = (l + 1 < size && prio[l + 1] > prio[l]) ? l + 1 : l;
+            if (prio[c] <= p)
+                break;
+            move(c, i);
+            i = c;
+        }
+        keys[i] = k;
+        prio[i] = p;
+        pos.put(keyAt(i), i);
+    }
+}
@@ -0,0 +1,137 @@
+package dev.gonjy.patrolspectator;
+
+/**
+ * サーバー負荷に応じたパトロールの間引き。
+ * <p>
+ * パトロールの定期処理ごとに {@link #update(double, double)} へ直近の TPS と MSPT を渡すと、3段階の負荷レベルを決めます。
+ * TPS は tick が遅れ始めてから下がるので、1tickの処理時間（MSPT）が閾値に近づいた時点でも先に間引きます。
+ * MSPT を測れないサーバー（Paper 以外）では NaN を渡し、TPS だけで決めます。
+ * <ul>
+ * <li>{@link Level#NORMAL}: 設定どおり</li>
+ * <li>{@link Level#STRAINED}: 滞在時間を延ばし、近くのプレイヤーの検索と効果音を止める</li>
+ * <li>{@link Level#CRITICAL}: さらに滞在を延ばし、対象の切り替え・観光地への移動・先読みを止める（飛行中のカメラは観光地へテレポート）</li>
+ * </ul>
+ * 悪化はどちらかが閾値を越えた時点ですぐ上げ、回復は両方が回復用の閾値の内側に続いた回数で1段ずつ下げます（行き来しないよう）。
+ */
+final class LoadGovernor {
+
+    enum Level {
+        NORMAL, STRAINED, CRITICAL
+    }
+
+    private final double strainedTps;
+    private final double criticalTps;
+    private final double recoverTps;
+    private final double strainedMspt;
+    private final double criticalMspt;
+    private final double recoverMspt;
+    private final int recoverSamples;
+    private final double dwellMultiplier;
+
+    private Level level = Level.NORMAL;
+    private int healthyStreak;
+    private double lastTps = 20.0;
+    private double lastMspt = Double.NaN;
+    private int transitions;
+
+    /**
+     * @param strainedTps     これを下回ったら STRAINED
+     * @param criticalTps     これを下回ったら CRITICAL
+     * @param recoverTps      これ以上が続いたら1段戻す（strainedTps より大きくする）
+     * @param strainedMspt    MSPT がこれを越えたら STRAINED
+     * @param criticalMspt    MSPT がこれを越えたら CRITICAL
+     * @param recoverMspt     MSPT がこれ以下で続いたら1段戻す（strainedMspt より小さくする）
+     * @param recoverSamples  1段戻すのに必要な連続回数
+     * @param dwellMultiplier STRAINED の滞在時間の倍率（CRITICAL はその2乗）
+     */
+    LoadGovernor(double strainedTps, double criticalTps, double recoverTps, double strainedMspt,
+            double criticalMspt, double recoverMspt, int recoverSamples, double dwellMultiplier) {
+        this.strainedTps = strainedTps;
+        this.criticalTps = Math.min(criticalTps, strainedTps);
+        this.recoverTps = Math.max(recoverTps, strainedTps);
+        this.strainedMspt = strainedMspt;
+        this.criticalMspt = Math.max(criticalMspt, strainedMspt);
+        this.recoverMspt = Math.min(recoverMspt, strainedMspt);
+        this.recoverSamples = Math.max(1, recoverSamples);
+        this.dwellMultiplier = Math.max(1.0, dwellMultiplier);
+    }
+
+    /**
+     * 直近の TPS と MSPT からレベルを更新します。
+     *
+     * @param tps  直近の TPS
+     * @param mspt 直近の平均 MSPT（ミリ秒。測れなければ NaN）
+     * @return 更新後のレベル
+     */
+    Level update(double tps, double mspt) {
+        lastTps = tps;
+        lastMspt = mspt;
+        boolean hasMspt = !Double.isNaN(mspt);
+        Level observed;
+        if (tps < criticalTps || hasMspt && mspt > criticalMspt)
+            observed = Level.CRITICAL;
+        else if (tps < strainedTps || hasMspt && mspt > strainedMspt)
+            observed = Level.STRAINED;
+        else
+            observed = Level.NORMAL;
+        if (observed.ordinal() > level.ordinal()) {
+            set(observed);
+            return level;
+        }
+        if (level != Level.NORMAL && tps >= recoverTps && (!hasMspt || mspt <= recoverMspt)) {
+            if (++healthyStreak >= recoverSamples)
+                set(Level.values()[level.ordinal() - 1]);
+        } else {
+            healthyStreak = 0;
+        }
+        return level;
+    }
+
+    Level level() {
+        return level;
+    }
+
+    /** 負荷に応じた滞在時間（tick） */
+    long dwellTicks(long configured) {
+        switch (level) {
+            case STRAINED:
+                return Math.round(configured * dwellMultiplier);
+            case CRITICAL:
+                return Math.round(configured * dwellMultiplier * dwellMultiplier);
+            default:
+                return configured;
+        }
+    }
+
+    /** 近くのプレイヤーの検索（空間索引の走査）をしてよいか */
+    boolean allowsNearbySearch() {
+        return level == Level.NORMAL;
+    }
+
+    /** 対象の切り替え・観光地への移動・チャンク先読みをしてよいか */
+    boolean allowsSwitching() {
+        return level != Level.CRITICAL;
+    }
+
+    /** 効果音を鳴らしてよいか */
+    boolean allowsSounds() {
+        return level == Level.NORMAL;
+    }
+
+    int transitions() {
+        return transitions;
+    }
+
+    /** 状態表示用の1行サマリ */
+    String describe() {
+        return String.format("level=%s, tps=%.1f, mspt=%s, recover %d/%d, transitions=%d", level, lastTps,
+                Double.isNaN(lastMspt) ? "n/a" : String.format("%.1fms", lastMspt), healthyStreak, recoverSamples,
+                transitions);
+    }
+
+    private void set(Level next) {
+        level = next;
+        healthyStreak = 0;
+        transitions++;
+    }
+}
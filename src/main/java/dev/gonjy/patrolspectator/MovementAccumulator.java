@@ -0,0 +1,63 @@
+package dev.gonjy.patrolspectator;
+
+import java.util.Arrays;
+
+/**
+ * スピード大会用の移動距離アキュムレータ。
+ * <p>
+ * {@link SessionSlots} のスロットを添字とするプリミティブ配列に距離を積算し、
+ * {@link #drainWholeBlocks(int)} で 1ブロック = 1ポイントとして取り出します（端数は持ち越し）。
+ * 視点の回転だけのパケットや、テレポート相当の大ジャンプは無視します。
+ */
+final class MovementAccumulator {
+
+    /** これ未満の移動は無視（旧実装の distance() > 0.1 と同じ閾値） */
+    private static final double MIN_STEP_SQ = 0.1 * 0.1;
+    /** 1パケットでこれ以上動いたらテレポート扱い */
+    private static final double MAX_STEP_SQ = 10.0 * 10.0;
+
+    private double[] distance = new double[64];
+
+    /**
+     * 1回分の移動を積算します（割り当てなし）。
+     *
+     * @return 積算した場合 true
+     */
+    boolean accumulate(int slot, double fromX, double fromY, double fromZ, double toX, double toY, double toZ) {
+        if (slot < 0)
+            return false;
+        double dx = toX - fromX, dy = toY - fromY, dz = toZ - fromZ;
+        double d2 = dx * dx + dy * dy + dz * dz;
+        if (d2 < MIN_STEP_SQ || d2 > MAX_STEP_SQ)
+            return false;
+        if (slot >= distance.length)
+            distance = Arrays.copyOf(distance, Math.max(slot + 1, distance.length * 2));
+        distance[slot] += Math.sqrt(d2);
+        return true;
+    }
+
+    /**
+     * 積算済み距離のうち整数ブロック分を取り出します（端数は残す）。
+     */
+    int drainWholeBlocks(int slot) {
+        if (slot < 0 || slot >= distance.length)
+            return 0;
+        double d = distance[slot];
+        if (d < 1.0)
+            return 0;
+        int whole = (int) d;
+        distance[slot] = d - whole;
+        return whole;
+    }
+
+    /** スロットの値を破棄（退出・スロット再利用時） */
+    void reset(int slot) {
+        if (slot >= 0 && slot < distance.length)
+            distance[slot] = 0.0;
+    }
+
+    /** 全スロットを破棄（イベント開始/終了時） */
+    void clear() {
+        Arrays.fill(distance, 0.0);
+    }
+}
@@ -1,76 +1,129 @@
 package dev.gonjy.patrolspectator;
 
-import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
 
-import java.io.File;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * 参加回数＋ランキング統合管理
+ * <p>
+ * 名前・スコア・参加回数は {@link PlayerProfileRepository} のプレイヤー単位のレコードに保持し、
+ * 保存もリポジトリがまとめて行う（統計・保護と同じ1本の書き込み経路）。
+ * ランキングは {@link RankingIndex} で常時維持し、topN / rankOf はレコードを走査しない。
  */
 public class ParticipationManager {
     private final PatrolSpectatorPlugin plugin;
-    private final File file;
-    private final YamlConfiguration yaml;
+    private final PlayerProfileRepository repository;
+    private final boolean ownsRepository; // close() でリポジトリも閉じるか
+
+    // スコア順索引（メインスレッドからのみ使用）
+    private final RankingIndex ranking = new RankingIndex();
 
     public ParticipationManager(PatrolSpectatorPlugin plugin) {
-        this.plugin = plugin;
-        this.file = new File(plugin.getDataFolder(), "participation.yml");
-        this.yaml = file.exists() ? YamlConfiguration.loadConfiguration(file) : new YamlConfiguration();
+        this(plugin, plugin.getProfileRepository() != null ? plugin.getProfileRepository()
+                : new PlayerProfileRepository(plugin), plugin.getProfileRepository() == null);
     }
 
     /**
-     * PlayerStatsStorage を受け取るコンストラクタ（互換性のため）。
-     * 現在は使用していませんが、将来的に統合する可能性があります。
+     * PlayerStatsStorage と同じリポジトリを共有するコンストラクタ。
      */
     public ParticipationManager(PatrolSpectatorPlugin plugin, PlayerStatsStorage statsStorage) {
-        this(plugin); // 既存のコンストラクタに委譲
+        this(plugin, statsStorage.repository());
+    }
+
+    ParticipationManager(PatrolSpectatorPlugin plugin, PlayerProfileRepository repository) {
+        this(plugin, repository, false);
+    }
+
+    private ParticipationManager(PatrolSpectatorPlugin plugin, PlayerProfileRepository repository,
+            boolean ownsRepository) {
+        this.plugin = plugin;
+        this.repository = repository;
+        this.ownsRepository = ownsRepository;
+        rebuildIndex();
+        repository.addReplaceListener(this::rebuildIndex);
+    }
+
+    /** リポジトリを一度だけ走査して索引を構築 */
+    private void rebuildIndex() {
+        ranking.clear();
+        repository.forEach(r -> {
+            if (r.has(PlayerRecord.HAS_PARTICIPATION))
+                ranking.update(r.id, r.score);
+        });
     }
 
-    private String base(UUID id) {
-        return "players." + id;
+    /**
+     * 保留中の保存が完了するまで待ちます。
+     */
+    public void flush() {
+        repository.flush();
     }
 
-    private void save() {
-        try {
-            yaml.save(file);
-        } catch (Exception ignored) {
+    /**
+     * 保存を完了させます（onDisable用）。専用のリポジトリを持つ場合はI/Oスレッドも停止します。
+     */
+    public void close() {
+        if (ownsRepository) {
+            repository.close();
+        } else {
+            repository.flush();
         }
     }
 
     public int incrementJoinCount(UUID id, String name) {
-        String k = base(id) + ".count";
-        int c = yaml.getInt(k, 0) + 1;
-        yaml.set(k, c);
-        yaml.set(base(id) + ".name", name);
-        save();
-        return c;
+        int[] scoreAndCount = repository.update(id, r -> {
+            r.flags |= PlayerRecord.HAS_PARTICIPATION;
+            rename(r, name);
+            return new int[] { r.score, ++r.count };
+        });
+        ranking.update(id, scoreAndCount[0]);
+        return scoreAndCount[1];
     }
 
     public void addPoints(UUID id, String name, int pts, String reason) {
         if (pts == 0)
             return;
-        String k = base(id) + ".score";
-        int c = yaml.getInt(k, 0) + pts;
-        yaml.set(k, c);
-        yaml.set(base(id) + ".name", name);
-        yaml.set(base(id) + ".lastReason", reason);
-        save();
+        int score = repository.update(id, r -> {
+            r.flags |= PlayerRecord.HAS_PARTICIPATION;
+            rename(r, name);
+            if (reason != null)
+                r.lastReason = reason;
+            return r.score += pts;
+        });
+        ranking.update(id, score);
+    }
+
+    /** 名前は統計側と共通の1か所に持つ（参加側の旧名は移行元YAMLの保持用なので消す） */
+    private static void rename(PlayerRecord r, String name) {
+        if (name == null)
+            return;
+        r.name = name;
+        r.participationName = null;
     }
 
+    /**
+     * スコア上位n件を返します（O(n)、全レコードは走査しない）。
+     */
     public List<Entry> topN(int n) {
-        var s = yaml.getConfigurationSection("players");
-        if (s == null)
+        List<UUID> ids = ranking.top(n);
+        if (ids.isEmpty())
             return Collections.emptyList();
-        return s.getKeys(false).stream().map(id -> {
-            String b = "players." + id;
-            return new Entry(UUID.fromString(id),
-                    yaml.getString(b + ".name", id),
-                    yaml.getInt(b + ".score", 0),
-                    yaml.getInt(b + ".count", 0));
-        }).sorted(Comparator.comparingInt(Entry::score).reversed()).limit(n).collect(Collectors.toList());
+        List<Entry> out = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            out.add(repository.read(id, r -> new Entry(id, r.displayName(), r.score, r.count),
+                    new Entry(id, id.toString(), 0, 0)));
+        }
+        return out;
+    }
+
+    /**
+     * 指定プレイヤーの順位（1始まり、未登録なら0）を返します（O(log n)）。
+     */
+    public int rankOf(UUID id) {
+        if (id == null)
+            return 0;
+        return ranking.rankOf(id);
     }
 
     public record Entry(UUID id, String name, int score, int count) {
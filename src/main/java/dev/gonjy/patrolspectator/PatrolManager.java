@@ -2,14 +2,19 @@ package dev.gonjy.patrolspectator;
 
 import org.bukkit.Bukkit;
 import org.bukkit.GameMode;
+import org.bukkit.Location;
 import org.bukkit.World;
 import org.bukkit.entity.Player;
 import org.bukkit.scheduler.BukkitTask;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.logging.Level;
 
@@ -22,6 +27,12 @@ import java.util.logging.Level;
  * <li>パトロールタスクの開始・停止・定期実行</li>
  * <li>観光モードとプレイヤー観戦モードの切り替え判断</li>
  * </ul>
+ * カメラは複数台を同時に動かせます（{@link CameraSession}）。定期処理は全カメラで1つのタスクにまとめ、
+ * 切り替え時刻の来たカメラの対象を {@link TargetArbiter} で調停して、同じプレイヤーを2台で映さないようにします。
+ * 近くのプレイヤーの検索も、切り替えるカメラ全員分を空間索引の1回の走査で済ませます。
+ * サーバーが重い間は {@link LoadGovernor} に従って滞在を延ばし、検索・移動・先読み・効果音を間引きます。
+ * patrol.tour.transition.mode が cinematic なら、観光地の間を {@link CameraFlight} の曲線に沿って飛び、
+ * 経路のチャンクを少しずつ先読みします（到着時にまとめて読み込まない）。
  */
 public class PatrolManager {
 
@@ -29,23 +40,35 @@ public class PatrolManager {
     private final EngagementSystem engagementSystem;
     private final ParticipationManager participationManager;
     private final GameModeEnforcer gameModeEnforcer;
+    private final TargetScoringEngine targetScoring;
+    private final ChunkPrefetcher chunkPrefetcher;
 
-    // 観光地リスト
+    // 観光地リスト（読み込み順）と、その巡回順
     private final List<TouristLocation> touristLocations = new ArrayList<>();
+    private final TourPlanner tourPlanner;
+    private List<TouristLocation> route = List.of();
 
-    // 現在の巡回インデックス
-    private int currentTourIndex = -1;
+    // 観光地の自動生成が進行中か
+    private boolean autogenInFlight;
 
-    // 現在稼働中の定期タスク
+    // 全カメラ共通の定期タスク（PATROL_PERIOD_TICKS ごと）と、その通し番号（tick）
+    private static final long PATROL_PERIOD_TICKS = 20L;
+    private static final double NEARBY_RADIUS = 48.0;
     private BukkitTask patrolTask;
+    private long patrolTick;
 
-    // カメラ役（/patrol start 実行者）のUUID
-    private UUID cameraUuid;
-    // パトロール開始時の位置（終了時に戻るため）
-    private org.bukkit.Location startLocation;
-    // パトロール開始時のインベントリ（終了時に戻すため）
-    private org.bukkit.inventory.ItemStack[] savedInventory;
-    private org.bukkit.inventory.ItemStack[] savedArmor;
+    // 観光地への飛行（飛行中のカメラがいる間だけ毎tick動く）
+    private static final double MIN_FLIGHT_BLOCKS = 24.0;
+    private static final double FLIGHT_TRAIL_BLOCKS = 32.0; // 通り過ぎてからチャンクを解放するまでの距離
+    private final List<CameraSession> flying = new ArrayList<>();
+    private BukkitTask flightTask;
+
+    // カメラ役のUUID → カメラ1台分の状態（開始順）
+    private final Map<UUID, CameraSession> sessions = new LinkedHashMap<>();
+    private final TargetArbiter<UUID> arbiter = new TargetArbiter<>();
+
+    // サーバー負荷に応じた間引き（patrol.adaptive.enabled が false なら null）
+    private final LoadGovernor loadGovernor;
 
     /**
      * コンストラクタ。
@@ -54,146 +77,250 @@ public class PatrolManager {
      * @param engagementSystem     エンゲージメントシステム（観戦対象の選定に使用）
      * @param participationManager 参加管理マネージャー（観戦されたプレイヤーの記録に使用）
      * @param gameModeEnforcer     ゲームモード強制クラス（パトロール終了時のサバイバル復帰に使用）
+     * @param targetScoring        観戦対象のスコアリングエンジン（「最も面白い」プレイヤーの選定に使用）
      */
     public PatrolManager(PatrolSpectatorPlugin plugin,
             EngagementSystem engagementSystem,
             ParticipationManager participationManager,
-            GameModeEnforcer gameModeEnforcer) {
+            GameModeEnforcer gameModeEnforcer,
+            TargetScoringEngine targetScoring) {
         this.plugin = plugin;
         this.engagementSystem = engagementSystem;
         this.participationManager = participationManager;
         this.gameModeEnforcer = gameModeEnforcer;
+        this.targetScoring = targetScoring;
+        this.chunkPrefetcher = new ChunkPrefetcher(plugin, plugin.getTourConf().prefetchRadius);
+        this.tourPlanner = new TourPlanner(plugin.getTourConf().prefetchRadius);
+        this.loadGovernor = plugin.getConfig().getBoolean("patrol.adaptive.enabled", true)
+                ? new LoadGovernor(
+                        plugin.getConfig().getDouble("patrol.adaptive.strainedTps", 18.0),
+                        plugin.getConfig().getDouble("patrol.adaptive.criticalTps", 15.0),
+                        plugin.getConfig().getDouble("patrol.adaptive.recoverTps", 19.5),
+                        plugin.getConfig().getDouble("patrol.adaptive.strainedMspt", 40.0),
+                        plugin.getConfig().getDouble("patrol.adaptive.criticalMspt", 48.0),
+                        plugin.getConfig().getDouble("patrol.adaptive.recoverMspt", 30.0),
+                        (int) (Math.max(1, plugin.getConfig().getInt("patrol.adaptive.recoverSeconds", 10)) * 20L
+                                / PATROL_PERIOD_TICKS),
+                        plugin.getConfig().getDouble("patrol.adaptive.dwellMultiplier", 2.0))
+                : null;
     }
 
     /**
      * 観光地データをロードします。
      * <p>
-     * 1. プラグインのデータフォルダ内のYAMLファイルから読み込みを試みます。
+     * 1. プラグインのデータフォルダ内のYAML（拡張子 .csv なら CSV）ファイルから1件ずつ読み込みます。
      * 2. ファイルが存在しない、または読み込めない場合は config.yml の設定をフォールバックとして使用します。
      */
     public void loadTouristLocations() {
         touristLocations.clear();
         PatrolSpectatorPlugin.TourConf tourConf = plugin.getTourConf();
 
-        // 外部YAML優先
+        // 外部ファイル優先
         File f = new File(plugin.getDataFolder(), tourConf.file);
         if (f.exists()) {
-            touristLocations.addAll(TouristLocation.loadFromYaml(f));
+            touristLocations.addAll(TouristLocation.loadFromYaml(f, plugin.getLogger()));
         }
 
         // config内のフォールバック
         List<Map<?, ?>> fallback = plugin.getConfig().getMapList("patrol.tour.locations");
-        touristLocations.addAll(TouristLocation.fromMapList(fallback));
+        touristLocations.addAll(TouristLocation.fromMapList(fallback, plugin.getLogger()));
 
         plugin.getLogger().info("観光地データをロードしました: " + touristLocations.size() + " 件");
+        replanRoute();
+        prefetchAllUpcoming();
+    }
+
+    /**
+     * 観光地リストから巡回順を計画し直します（patrol.tour.optimizeRoute が false なら読み込み順のまま）。
+     * 巡回中のカメラは、滞在中の観光地の新しい位置から続けます（読み込み直しでインスタンスが変わるので
+     * {@link TourPlanner#keyOf} で対応付ける）。
+     */
+    private void replanRoute() {
+        List<TouristLocation> previous = route;
+        route = plugin.getTourConf().optimizeRoute ? tourPlanner.update(touristLocations)
+                : List.copyOf(touristLocations);
+        Map<String, Integer> indexOf = new HashMap<>();
+        for (int i = 0; i < route.size(); i++) {
+            indexOf.putIfAbsent(TourPlanner.keyOf(route.get(i)), i);
+        }
+        for (CameraSession s : sessions.values()) {
+            TouristLocation at = s.tourIndex >= 0 && s.tourIndex < previous.size() ? previous.get(s.tourIndex) : null;
+            Integer i = at == null ? null : indexOf.get(TourPlanner.keyOf(at));
+            s.tourIndex = i == null ? -1 : i;
+            if (s.tourIndex < 0)
+                s.atStop = false;
+        }
+        if (plugin.getTourConf().optimizeRoute && !route.isEmpty()) {
+            plugin.getLogger().info("巡回順を計画しました: " + tourPlanner.describe(touristLocations));
+        }
     }
 
     /**
-     * パトロールを開始します。
+     * パトロールを開始します（カメラを1台追加）。
      * <p>
-     * 既にパトロール中の場合は一度停止してから再開します。
+     * 同じプレイヤーが既にカメラ役なら一度停止してから再開します。他のカメラはそのまま動き続けます。
      * 観光地リストが空の場合は、設定に応じて自動生成を試みます。
      *
      * @param camera       カメラ役となるプレイヤー
      * @param dwellSeconds 各スポットの滞在時間（秒）
      */
     public void startPatrol(Player camera, int dwellSeconds) {
-        stopPatrol(); // 既存タスクがあれば停止
+        stopPatrol(camera.getUniqueId()); // 同じカメラの既存セッションがあれば停止
 
-        this.cameraUuid = camera.getUniqueId();
-        this.startLocation = camera.getLocation(); // 開始地点を保存
-        this.savedInventory = camera.getInventory().getContents(); // インベントリ保存
-        this.savedArmor = camera.getInventory().getArmorContents(); // 防具保存
+        // 滞在時間（tick）。最低でも1秒（20ticks）は確保。
+        CameraSession session = new CameraSession(camera, Math.max(20L, dwellSeconds * 20L));
+        session.nextSwitchTick = patrolTick; // 次の巡回ですぐ切り替える
+        sessions.put(session.cameraId, session);
 
         // GameModeEnforcerの設定と開始
-        gameModeEnforcer.setCameraOperator(cameraUuid);
+        gameModeEnforcer.addCameraOperator(session.cameraId);
         gameModeEnforcer.start();
+        targetScoring.start();
 
         PatrolSpectatorPlugin.TourConf tourConf = plugin.getTourConf();
 
         // カメラ役をスペクテイターモードに変更（観光中の事故防止）
         camera.setGameMode(GameMode.SPECTATOR);
 
-        // 観光地リストが空の場合の自動生成処理
-        if (touristLocations.isEmpty()) {
+        // 観光地リストが空の場合の自動生成処理（チャンク読み込みと地表判定は非同期。完了までは観戦のみ）
+        if (touristLocations.isEmpty() && !autogenInFlight) {
             // ワールドが存在する場合のみ自動生成
             World world = Bukkit.getWorlds().isEmpty() ? null : Bukkit.getWorlds().get(0);
             if (world != null) {
                 plugin.getLogger().info("観光地リストが空のため、自動生成を試みます。");
-                touristLocations.addAll(TouristLocation.autoGenerate(
-                        world,
+                autogenInFlight = true;
+                TourAutogenerator.generate(plugin, world,
                         tourConf.autogenPoints,
                         tourConf.autogenRadius,
-                        tourConf.autogenYOffset));
+                        tourConf.autogenYOffset)
+                        .whenComplete((generated, err) -> {
+                            autogenInFlight = false;
+                            if (err != null) {
+                                plugin.getLogger().log(Level.WARNING, "観光地の自動生成に失敗しました: " + err.getMessage(), err);
+                                return;
+                            }
+                            publishAutogenerated(generated);
+                        });
             }
         }
 
-        currentTourIndex = -1;
-
-        // タスクの実行間隔（tick）を計算。最低でも1秒（20ticks）は確保。
-        final int tickPeriod = Math.max(20, dwellSeconds * 20);
+        // 全カメラ共通の定期タスク（最初のカメラで開始）
+        if (patrolTask == null) {
+            patrolTask = Bukkit.getScheduler().runTaskTimer(plugin, () -> {
+                try {
+                    tickPatrol();
+                } catch (Throwable t) {
+                    plugin.getLogger().log(Level.WARNING, "パトロール処理(tick)でエラーが発生しました: " + t.getMessage(), t);
+                }
+            }, 1L, PATROL_PERIOD_TICKS);
+        }
 
-        // 定期タスクの開始
-        patrolTask = Bukkit.getScheduler().runTaskTimer(plugin, () -> {
-            try {
-                tickPatrol();
-            } catch (Throwable t) {
-                plugin.getLogger().log(Level.WARNING, "パトロール処理(tick)でエラーが発生しました: " + t.getMessage(), t);
-            }
-        }, 1L, tickPeriod);
+        // 最初の観光地はここで即時に先読み（以降は移動の leadSeconds 前に tickPatrol が行う）
+        if (tourConf.prefetchStops > 0) {
+            prefetchUpcoming(session);
+        }
 
-        plugin.getLogger().info("パトロールを開始しました。カメラ: " + camera.getName() + ", 間隔: " + dwellSeconds + "秒");
+        plugin.getLogger().info("パトロールを開始しました。カメラ: " + camera.getName() + ", 間隔: " + dwellSeconds
+                + "秒, カメラ数: " + sessions.size());
     }
 
     /**
-     * パトロールを停止します。
+     * 全カメラのパトロールを停止します。
      * <p>
-     * 定期タスクをキャンセルし、カメラ役以外の全プレイヤーをサバイバルモードに戻します。
+     * 定期タスクをキャンセルし、カメラ役を含む全プレイヤーをサバイバルモードに戻します。
      * （以前発生した「全員スペクテイター化事故」への安全策）
      */
     public void stopPatrol() {
+        if (sessions.isEmpty()) {
+            // カメラが1台も無くても安全策は実行する
+            stopShared();
+            return;
+        }
+        for (UUID id : new ArrayList<>(sessions.keySet())) {
+            stopPatrol(id); // 最後の1台で stopShared() まで行う
+        }
+    }
+
+    /**
+     * カメラ1台のパトロールを停止し、開始地点とインベントリに戻します。
+     * 最後のカメラだった場合は {@link #stopPatrol()} と同じ後始末も行います。
+     *
+     * @param cameraId カメラ役のUUID
+     * @return そのカメラがパトロール中だったら true
+     */
+    public boolean stopPatrol(UUID cameraId) {
+        CameraSession session = sessions.remove(cameraId);
+        if (session == null)
+            return false;
+        gameModeEnforcer.removeCameraOperator(cameraId);
+        endFlight(session);
+
+        Player camera = session.camera();
+        if (camera != null) {
+            if (camera.getSpectatorTarget() != null)
+                camera.setSpectatorTarget(null);
+            gameModeEnforcer.ensurePlayerIsSurvival(camera);
+            session.restore(camera);
+        }
+        plugin.getLogger().info("パトロールを停止しました。カメラ: " + session.cameraName);
+
+        if (sessions.isEmpty()) {
+            stopShared();
+        } else {
+            chunkPrefetcher.retainOnly(upcomingStopsOfAll());
+        }
+        return true;
+    }
+
+    /** 最後のカメラが止まったときの後始末 */
+    private void stopShared() {
         if (patrolTask != null) {
             patrolTask.cancel();
             patrolTask = null;
         }
+        if (flightTask != null) {
+            flightTask.cancel();
+            flightTask = null;
+        }
+        chunkPrefetcher.releaseAll();
 
         // GameModeEnforcerの停止
         gameModeEnforcer.clearCameraOperator();
         gameModeEnforcer.stop();
+        targetScoring.stop();
 
         // 安全策: 全プレイヤーをSurvivalに戻す（カメラ役含む）
         for (Player pl : Bukkit.getOnlinePlayers()) {
             gameModeEnforcer.ensurePlayerIsSurvival(pl);
         }
-
-        // カメラ役を開始地点とインベントリに戻す
-        Player camera = getCamera();
-        if (camera != null) {
-            if (startLocation != null) {
-                camera.teleport(startLocation);
-            }
-            if (savedInventory != null) {
-                camera.getInventory().setContents(savedInventory);
-            }
-            if (savedArmor != null) {
-                camera.getInventory().setArmorContents(savedArmor);
-            }
-        }
-
-        cameraUuid = null;
-        startLocation = null;
-        savedInventory = null;
-        savedArmor = null;
-        plugin.getLogger().info("パトロールを停止しました。");
     }
 
     /**
      * パトロールの状態（実行中かどうか）を返します。
      * 
-     * @return 実行中なら true
+     * @return 1台でもカメラが動いていれば true
      */
     public boolean isRunning() {
-        return patrolTask != null && !patrolTask.isCancelled();
+        return !sessions.isEmpty();
+    }
+
+    /** パトロール中のカメラ数 */
+    public int getCameraCount() {
+        return sessions.size();
+    }
+
+    /** 指定したプレイヤーがカメラ役か */
+    public boolean isCamera(UUID id) {
+        return sessions.containsKey(id);
+    }
+
+    /** 状態表示用：カメラごとの1行（開始順） */
+    public List<String> describeCameras() {
+        List<String> lines = new ArrayList<>(sessions.size());
+        for (CameraSession s : sessions.values()) {
+            lines.add(s.describe(stopAt(s.tourIndex)));
+        }
+        return lines;
     }
 
     /**
@@ -205,44 +332,172 @@ public class PatrolManager {
         return touristLocations.size();
     }
 
+    /** 状態表示用：巡回順の1行サマリ（一周あたりのチャンク読み込み見積もり等） */
+    public String describeRoute() {
+        if (!plugin.getTourConf().optimizeRoute)
+            return "optimize=off, stops=" + route.size() + ", chunk loads/cycle="
+                    + TourPlanner.estimateChunkLoads(route, plugin.getTourConf().prefetchRadius);
+        return tourPlanner.describe(touristLocations);
+    }
+
+    /** 状態表示用：負荷に応じた間引きの1行サマリ */
+    public String describeLoad() {
+        return loadGovernor == null ? "adaptive=off" : loadGovernor.describe();
+    }
+
+    /**
+     * 観光地チャンク先読みのヒット/ミス等を参照するためのアクセサ。
+     *
+     * @return チャンク先読み（全カメラで共有）
+     */
+    public ChunkPrefetcher getChunkPrefetcher() {
+        return chunkPrefetcher;
+    }
+
     /**
-     * 定期実行されるパトロール処理の本体。
+     * 定期実行されるパトロール処理の本体（全カメラ分）。
+     * <p>
+     * 1. スコア上位の「映すべきプレイヤー」を、予約済み（他のカメラが観戦中）を除いて1台ずつ割り当てる
+     * 2. 残ったカメラは、近くのプレイヤーを空間索引の1回の走査でまとめて探し、近い組から割り当てる
+     * 3. 割り当てのあったカメラはそのプレイヤーを観戦、無ければ次の観光地へ移動
      * <p>
-     * 1. カメラ役プレイヤーの有効性チェック
-     * 2. 近くに「映すべきプレイヤー（ターゲット）」がいるか確認
-     * 3. ターゲットがいればそのプレイヤーを観戦（スペクテイター）
-     * 4. いなければ次の観光地へテレポート
+     * サーバーが重い間（STRAINED）は 2 の近くのプレイヤー検索を省いてスコアで選べなかったカメラを観光地へ回し、
+     * さらに重ければ（CRITICAL）切り替え自体を見送って今の映像に留まります。
      */
     private void tickPatrol() {
-        Player camera = getCamera();
-        if (camera == null || !camera.isOnline()) {
-            // カメラ役がオフラインになった場合などは何もしない（あるいは停止すべき？）
+        patrolTick += PATROL_PERIOD_TICKS;
+        arbiter.clear();
+        updateLoad();
+        boolean switching = loadGovernor == null || loadGovernor.allowsSwitching();
+        PatrolSpectatorPlugin.TourConf tourConf = plugin.getTourConf();
+        long leadTicks = tourConf.prefetchLeadSeconds * 20L;
+
+        List<CameraSession> due = new ArrayList<>();
+        List<Player> dueCameras = new ArrayList<>();
+        for (CameraSession s : sessions.values()) {
+            Player camera = s.camera();
+            if (camera == null || !camera.isOnline()) {
+                // カメラ役がオフラインの間は何もしない（戻ったら再開）
+                s.target = null;
+                continue;
+            }
+            if (patrolTick >= s.nextSwitchTick) {
+                due.add(s);
+                dueCameras.add(camera);
+            } else {
+                if (s.target != null)
+                    arbiter.claim(s.target);
+                // 次の観光地を移動の leadSeconds 前に先読み
+                if (switching && !s.prefetched && tourConf.prefetchStops > 0
+                        && s.nextSwitchTick - patrolTick <= leadTicks) {
+                    prefetchUpcoming(s);
+                }
+            }
+        }
+        if (due.isEmpty())
+            return;
+        if (!switching) {
+            // 切り替え（テレポートとチャンク読み込み）を見送り、今の対象・観光地に留まる
+            for (CameraSession s : due) {
+                s.nextSwitchTick = patrolTick + dwellTicksOf(s);
+            }
             return;
         }
 
-        // 1. 近くに「視点奪取対象」が居ればそっち優先
-        // 検索半径は 48.0 ブロック
-        Player target = engagementSystem.findGoodTargetNear(camera, 48.0);
+        // 1. スコア（戦闘・キル・移動・未観戦時間・周囲密度）が最も高いプレイヤーを優先
+        UUID[] picks = new UUID[due.size()];
+        List<Location> centers = new ArrayList<>(due.size());
+        List<Integer> centerOf = new ArrayList<>(due.size());
+        for (int i = 0; i < picks.length; i++) {
+            Player best = targetScoring.pickBest(p -> isEligibleTarget(p) && !arbiter.isClaimed(p.getUniqueId()));
+            if (best != null && arbiter.claim(best.getUniqueId())) {
+                picks[i] = best.getUniqueId();
+            } else {
+                centers.add(dueCameras.get(i).getLocation());
+                centerOf.add(i);
+            }
+        }
+
+        // 2. 最低スコアに届く人がいなければ、近くに「視点奪取対象」が居ればそっち（全カメラ分を1回の走査で）
+        if (!centers.isEmpty() && (loadGovernor == null || loadGovernor.allowsNearbySearch())) {
+            engagementSystem.getSpatialIndex().forEachWithin(centers, NEARBY_RADIUS, this::isEligibleTarget,
+                    (c, p, d) -> arbiter.offer(centerOf.get(c), p.getUniqueId(), d));
+            arbiter.assign(picks);
+        }
 
-        if (target != null) {
-            // ターゲットが見つかった場合: プレイヤー観戦モード
-            spectateTarget(camera, target);
+        // 3. 反映
+        for (int i = 0; i < picks.length; i++) {
+            CameraSession s = due.get(i);
+            Player camera = dueCameras.get(i);
+            Player target = picks[i] == null ? null : Bukkit.getPlayer(picks[i]);
+            s.nextSwitchTick = patrolTick + dwellTicksOf(s);
+            s.prefetched = false;
+            if (target != null) {
+                featureTarget(s, camera, target);
+            } else {
+                s.target = null;
+                tourNext(s, camera);
+            }
+        }
 
-            // 参加（映ったこと）を記録
-            participationManager.noteParticipation(target.getUniqueId(), target.getName());
+        // 観光地を離れたカメラのチケットは解放（滞在中の観光地と次の観光地の先読みは残す）
+        chunkPrefetcher.retainOnly(upcomingStopsOfAll());
+    }
 
-            // タイトル表示：プレイヤー名を大きく強調
-            plugin.showTourTitle(camera, "§b" + target.getName() + " §7さんの視点");
+    /**
+     * 直近の TPS と MSPT で負荷レベルを更新します。軽くなった時は、延ばしていた切り替え時刻を今のレベルの滞在時間まで戻します。
+     */
+    private void updateLoad() {
+        if (loadGovernor == null)
             return;
+        LoadGovernor.Level before = loadGovernor.level();
+        LoadGovernor.Level after = loadGovernor.update(Ticks.tps(), Ticks.hasMspt() ? Ticks.averageMspt() : Double.NaN);
+        if (after == before)
+            return;
+        plugin.getLogger().info("パトロールの負荷レベル: " + before + " → " + after + " (" + loadGovernor.describe() + ")");
+        if (after.ordinal() < before.ordinal()) {
+            for (CameraSession s : sessions.values()) {
+                long flightLeft = s.flight != null ? s.flight.ticksRemaining() : 0L;
+                s.nextSwitchTick = Math.min(s.nextSwitchTick, patrolTick + dwellTicksOf(s) + flightLeft);
+            }
         }
+    }
+
+    /** 負荷に応じたカメラの滞在時間（tick） */
+    private long dwellTicksOf(CameraSession s) {
+        return loadGovernor == null ? s.dwellTicks : loadGovernor.dwellTicks(s.dwellTicks);
+    }
+
+    /** プレイヤー観戦モード */
+    private void featureTarget(CameraSession s, Player camera, Player target) {
+        endFlight(s);
+        spectateTarget(camera, target);
+        targetScoring.markFeatured(target.getUniqueId());
+        s.target = target.getUniqueId();
+        s.atStop = false;
+
+        // 参加（映ったこと）を記録
+        participationManager.noteParticipation(target.getUniqueId(), target.getName());
+
+        // タイトル表示：プレイヤー名を大きく強調
+        plugin.showTourTitle(camera, "§b" + target.getName() + " §7さんの視点");
+    }
 
-        // 2. ターゲットがいなければ観光巡り：次のスポットへ
-        if (touristLocations.isEmpty())
+    /** 観光巡り：次のスポットへ（他のカメラが滞在中の観光地は、空きがあれば飛ばす） */
+    private void tourNext(CameraSession s, Player camera) {
+        endFlight(s);
+        s.atStop = false;
+        int size = route.size();
+        if (size == 0)
             return;
 
         // インデックスを進める（ループする）
-        currentTourIndex = (currentTourIndex + 1) % touristLocations.size();
-        TouristLocation tl = touristLocations.get(currentTourIndex);
+        int next = Math.floorMod(s.tourIndex + 1, size);
+        for (int tries = 0; tries < size && isStopOccupied(next, s); tries++) {
+            next = (next + 1) % size;
+        }
+        s.tourIndex = next;
+        TouristLocation tl = route.get(next);
 
         World w = Bukkit.getWorld(tl.world);
         if (w == null) {
@@ -253,21 +508,216 @@ public class PatrolManager {
         // pitch が極端（真下/真上）になりすぎないよう補正：±85度にクリップ
         float safePitch = Math.max(-85f, Math.min(85f, tl.pitch));
 
-        // テレポート実行
-        // Ticksユーティリティがあればそれを使うが、ここでは直接テレポートでも可
-        // 既存コードに合わせて Ticks クラスがある前提か、あるいは直接実装するか。
+        if (camera.getSpectatorTarget() != null)
+            camera.setSpectatorTarget(null);
+        if (plugin.getTourConf().cinematic && startFlight(s, camera, w, tl, safePitch))
+            return; // 到着は tickFlights で
+
+        // テレポート実行（先読み済みならチャンクは既に読み込まれている）
+        chunkPrefetcher.noteArrival(w, tl.x, tl.z);
+        camera.teleport(new Location(w, tl.x, tl.y, tl.z, tl.yaw, safePitch));
+        s.atStop = true;
         plugin.showTourTitle(camera, tl.name);
     }
 
     /**
-     * カメラ役のプレイヤーを取得します。
-     * 
-     * @return カメラ役プレイヤー、設定されていない場合は null
+     * 観光地への飛行を始めます。同じワールド内で、近すぎず transition.maxSeconds 以内に着ける場合のみ。
+     *
+     * @return 飛行を始めたら true（false なら呼び出し側でテレポートする）
+     */
+    private boolean startFlight(CameraSession s, Player camera, World w, TouristLocation tl, float pitch) {
+        if (loadGovernor != null && !loadGovernor.allowsSwitching())
+            return false; // 重い間は経路のチャンクを読まずにテレポート
+        Location from = camera.getLocation();
+        if (from.getWorld() == null || !from.getWorld().equals(w))
+            return false;
+        PatrolSpectatorPlugin.TourConf tourConf = plugin.getTourConf();
+        CameraFlight f = new CameraFlight(from.getX(), from.getY(), from.getZ(), from.getYaw(), from.getPitch(),
+                tl.x, tl.y, tl.z, tl.yaw, pitch, tourConf.flightSpeed, tourConf.flightMaxSpeed,
+                tourConf.flightMaxSeconds * 20, tourConf.prefetchRadius);
+        if (f.length < MIN_FLIGHT_BLOCKS || !f.fitsTime())
+            return false;
+        s.flight = f;
+        s.flightChunks = chunkPrefetcher.beginPath(w, f.chunks);
+        s.flightLocation = new Location(w, f.x, f.y, f.z, f.yaw, f.pitch);
+        s.nextSwitchTick += f.durationTicks; // 滞在時間は到着から数える
+        flying.add(s);
+        advanceFlightChunks(s);
+        if (flightTask == null) {
+            flightTask = Bukkit.getScheduler().runTaskTimer(plugin, this::tickFlights, 1L, 1L);
+        }
+        return true;
+    }
+
+    /**
+     * 飛行中のカメラを1tick分進めます（位置は使い回し、割り当てなし）。
+     * サーバーが重い間（CRITICAL）は経路の先読みをやめ、残りを飛ばして観光地へテレポートします。
+     */
+    private void tickFlights() {
+        boolean critical = loadGovernor != null && !loadGovernor.allowsSwitching();
+        for (int i = flying.size() - 1; i >= 0; i--) {
+            CameraSession s = flying.get(i);
+            Player camera = s.camera();
+            if (camera == null || !camera.isOnline()) {
+                endFlight(s);
+                continue;
+            }
+            CameraFlight f = s.flight;
+            boolean moving;
+            if (critical) {
+                s.nextSwitchTick -= f.ticksRemaining(); // 滞在時間は到着から数える
+                f.skipToEnd();
+                moving = false;
+            } else {
+                moving = f.advance();
+            }
+            Location loc = s.flightLocation;
+            loc.setX(f.x);
+            loc.setY(f.y);
+            loc.setZ(f.z);
+            loc.setYaw(f.yaw);
+            loc.setPitch(f.pitch);
+            if (moving) {
+                camera.teleport(loc);
+                advanceFlightChunks(s);
+            } else {
+                arrive(s, camera);
+            }
+        }
+        if (flying.isEmpty() && flightTask != null) {
+            flightTask.cancel();
+            flightTask = null;
+        }
+    }
+
+    /** 経路の先（移動の leadSeconds 分）のチャンクを読み込み、通り過ぎたチャンクを解放する */
+    private void advanceFlightChunks(CameraSession s) {
+        CameraFlight f = s.flight;
+        ChunkPrefetcher.PathHold path = s.flightChunks;
+        double ahead = f.distance + f.peakSpeed * plugin.getTourConf().prefetchLeadSeconds * 20.0;
+        int request = path.requested();
+        while (request < f.chunks.length && f.firstAt[request] <= ahead)
+            request++;
+        chunkPrefetcher.requestPath(path, request);
+        double behind = f.distance - FLIGHT_TRAIL_BLOCKS;
+        int release = path.released();
+        while (release < request && f.lastAt[release] < behind)
+            release++;
+        chunkPrefetcher.releasePath(path, release);
+    }
+
+    /** 飛行の終点（観光地）に着いた */
+    private void arrive(CameraSession s, Player camera) {
+        TouristLocation tl = stopAt(s.tourIndex);
+        Location loc = s.flightLocation;
+        if (tl != null && loc.getWorld() != null)
+            chunkPrefetcher.noteArrival(loc.getWorld(), tl.x, tl.z);
+        camera.teleport(loc);
+        endFlight(s);
+        s.atStop = true;
+        if (tl != null)
+            plugin.showTourTitle(camera, tl.name);
+    }
+
+    /** 飛行を終えて経路のチャンクを解放する（飛行中でなければ何もしない） */
+    private void endFlight(CameraSession s) {
+        if (s.flight == null)
+            return;
+        chunkPrefetcher.endPath(s.flightChunks);
+        s.flight = null;
+        s.flightChunks = null;
+        s.flightLocation = null;
+        flying.remove(s);
+    }
+
+    private boolean isStopOccupied(int index, CameraSession self) {
+        for (CameraSession other : sessions.values()) {
+            if (other != self && (other.atStop || other.flight != null) && other.tourIndex == index)
+                return true;
+        }
+        return false;
+    }
+
+    private TouristLocation stopAt(int index) {
+        return index >= 0 && index < route.size() ? route.get(index) : null;
+    }
+
+    /**
+     * 非同期に自動生成された観光地を反映します（メインスレッドで呼ばれる）。
+     * 生成中に外部ファイル等から観光地がロードされていた場合は破棄します。
+     *
+     * @param generated 生成された観光地
+     */
+    void publishAutogenerated(List<TouristLocation> generated) {
+        if (!touristLocations.isEmpty()) {
+            return;
+        }
+        touristLocations.addAll(generated);
+        replanRoute();
+        plugin.getLogger().info("観光地を自動生成しました: " + generated.size() + " 件");
+        prefetchAllUpcoming();
+    }
+
+    /** 巡回中の全カメラについて、新しい巡回順で次の観光地を先読みし直す */
+    private void prefetchAllUpcoming() {
+        if (isRunning() && plugin.getTourConf().prefetchStops > 0) {
+            for (CameraSession s : sessions.values()) {
+                prefetchUpcoming(s);
+            }
+        }
+    }
+
+    /**
+     * カメラが次に向かう観光地のチャンクを先読みします。
+     */
+    private void prefetchUpcoming(CameraSession s) {
+        s.prefetched = true;
+        List<TouristLocation> stops = upcomingStops(s.tourIndex, false);
+        for (TouristLocation tl : stops) {
+            chunkPrefetcher.prefetch(tl, Bukkit.getWorld(tl.world));
+        }
+    }
+
+    /**
+     * 全カメラについて、滞在中の観光地と次に巡る観光地をまとめて返します（チケットを残す範囲）。
+     */
+    private Set<TouristLocation> upcomingStopsOfAll() {
+        Set<TouristLocation> keep = new LinkedHashSet<>();
+        for (CameraSession s : sessions.values()) {
+            keep.addAll(upcomingStops(s.tourIndex, s.atStop || s.flight != null));
+        }
+        return keep;
+    }
+
+    /**
+     * 現在の観光地（任意）と、この後に巡る prefetchStops 件の観光地を返します。
+     *
+     * @param currentIndex   カメラの現在の観光地の添字（-1 = まだ無い）
+     * @param includeCurrent 現在の観光地を含めるか（カメラがまだ滞在している場合）
+     */
+    private List<TouristLocation> upcomingStops(int currentIndex, boolean includeCurrent) {
+        int size = route.size();
+        int n = Math.min(size, plugin.getTourConf().prefetchStops);
+        List<TouristLocation> stops = new ArrayList<>(n + 1);
+        if (size == 0)
+            return stops;
+        if (includeCurrent && currentIndex >= 0 && currentIndex < size)
+            stops.add(route.get(currentIndex));
+        for (int i = 1; i <= n; i++) {
+            TouristLocation tl = route.get(Math.floorMod(currentIndex + i, size));
+            if (!stops.contains(tl))
+                stops.add(tl);
+        }
+        return stops;
+    }
+
+    /**
+     * 観戦対象として適切か（カメラ役以外・オンライン・サバイバル）。
      */
-    private Player getCamera() {
-        if (cameraUuid == null)
-            return null;
-        return Bukkit.getPlayer(cameraUuid);
+    private boolean isEligibleTarget(Player p) {
+        return p.isOnline()
+                && !sessions.containsKey(p.getUniqueId())
+                && p.getGameMode() == GameMode.SURVIVAL;
     }
 
     /**
@@ -290,7 +740,7 @@ public class PatrolManager {
 
         // 観戦開始時のサウンド再生（設定で有効な場合）
         PatrolSpectatorPlugin.SoundConf soundConf = plugin.getSpectateSoundConf();
-        if (soundConf != null && soundConf.enabled) {
+        if (soundConf != null && soundConf.enabled && (loadGovernor == null || loadGovernor.allowsSounds())) {
             try {
                 engagementSystem.playNamedSound(camera, soundConf.type, soundConf.volume, soundConf.pitch);
             } catch (Throwable ignored) {
@@ -8,6 +8,8 @@ import org.bukkit.command.ConsoleCommandSender;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.*;
 import java.util.logging.Level;
 
@@ -19,6 +21,7 @@ public class PatrolSpectatorPlugin extends JavaPlugin {
     private GameModeEnforcer gameModeEnforcer;
     private ParticipationManager participationManager;
     private PatrolManager patrolManager;
+    private TargetScoringEngine targetScoringEngine;
 
     // タイトル/音の設定
     public static class TitleConf {
@@ -48,6 +51,14 @@ public class PatrolSpectatorPlugin extends JavaPlugin {
         public int autogenPoints;
         public int autogenRadius;
         public double autogenYOffset;
+        public int prefetchStops;
+        public int prefetchRadius;
+        public int prefetchLeadSeconds;
+        public boolean optimizeRoute;
+        public boolean cinematic;
+        public double flightSpeed;
+        public double flightMaxSpeed;
+        public int flightMaxSeconds;
     }
 
     private TourConf tourConf;
@@ -58,27 +69,51 @@ public class PatrolSpectatorPlugin extends JavaPlugin {
     private ProtectionData protectionData;
 
     // 参加回数・ランキング
+    private SnapshotWriter snapshotWriter;
+    private PlayerProfileRepository profileRepository;
     private PlayerStatsStorage statsStorage;
+    private PlayerNameRegistry nameRegistry;
+
+    // イベント演出の分散実行
+    private BroadcastDispatcher broadcastDispatcher;
 
     @Override
     public void onEnable() {
         saveDefaultConfig();
         loadConfigValues();
 
+        // tick の計時（TPS・tick の長さ）
+        Ticks.init(this);
+
+        // YAMLストア共通の書き込み（一時ファイル→fsync→アトミック置換）
+        snapshotWriter = new SnapshotWriter();
+
+        // プレイヤーデータ（統計・参加・保護）は1つのリポジトリに集約
+        profileRepository = new PlayerProfileRepository(this);
+
         // 保護データの初期化
         protectionData = new ProtectionData(this);
+        protectionData.addExpiryListener(uuid -> {
+            Player p = Bukkit.getPlayer(uuid);
+            if (p != null)
+                p.sendMessage("§7[Patrol] 保護期間が終了しました");
+        });
 
         // ストレージ
         statsStorage = new PlayerStatsStorage(this);
+        nameRegistry = new PlayerNameRegistry(this, statsStorage);
 
         // サブシステム初期化
+        broadcastDispatcher = new BroadcastDispatcher(this);
         engagementSystem = new EngagementSystem(this);
         gameModeEnforcer = new GameModeEnforcer(this);
         autoEventSystem = new AutoEventSystem(this);
         participationManager = new ParticipationManager(this, statsStorage);
+        targetScoringEngine = new TargetScoringEngine(this, engagementSystem.getSpatialIndex());
 
         // PatrolManagerの初期化（依存関係を注入）
-        patrolManager = new PatrolManager(this, engagementSystem, participationManager, gameModeEnforcer);
+        patrolManager = new PatrolManager(this, engagementSystem, participationManager, gameModeEnforcer,
+                targetScoringEngine);
 
         // ルール適用（Bedrock系 gamerule は失敗するので握りつぶす）
         applyServerRulesSafely();
@@ -96,12 +131,26 @@ public class PatrolSpectatorPlugin extends JavaPlugin {
         }
         if (autoEventSystem != null)
             autoEventSystem.shutdown();
+        if (broadcastDispatcher != null)
+            broadcastDispatcher.shutdown();
         if (gameModeEnforcer != null)
             gameModeEnforcer.shutdown();
+        if (protectionData != null)
+            protectionData.shutdown();
+        Ticks.shutdown();
 
-        // 最後にストレージ保存
+        // 最後にストレージ保存（名前の未保存分→チェックポイント作成→I/Oスレッド停止）
+        if (nameRegistry != null) {
+            nameRegistry.shutdown();
+        }
+        if (participationManager != null) {
+            participationManager.close();
+        }
         if (statsStorage != null) {
-            statsStorage.flush();
+            statsStorage.close();
+        }
+        if (profileRepository != null) {
+            profileRepository.close();
         }
         getLogger().info("PatrolSpectatorPlugin disabled.");
     }
@@ -136,6 +185,17 @@ public class PatrolSpectatorPlugin extends JavaPlugin {
         tourConf.autogenPoints = getConfig().getInt("patrol.tour.autogen.points", 6);
         tourConf.autogenRadius = getConfig().getInt("patrol.tour.autogen.radius", 60);
         tourConf.autogenYOffset = getConfig().getDouble("patrol.tour.autogen.yOffset", 0.0);
+        tourConf.prefetchStops = Math.max(0, getConfig().getInt("patrol.tour.prefetch.stops", 2));
+        tourConf.prefetchRadius = Math.max(0, getConfig().getInt("patrol.tour.prefetch.radius", 1));
+        tourConf.prefetchLeadSeconds = Math.max(1, getConfig().getInt("patrol.tour.prefetch.leadSeconds", 3));
+        tourConf.optimizeRoute = getConfig().getBoolean("patrol.tour.optimizeRoute", true);
+        tourConf.cinematic = "cinematic".equalsIgnoreCase(getConfig().getString("patrol.tour.transition.mode", "teleport"));
+        tourConf.flightSpeed = Math.max(0.1,
+                getConfig().getDouble("patrol.tour.transition.speed", CameraFlight.DEFAULT_SPEED));
+        tourConf.flightMaxSpeed = Math.max(tourConf.flightSpeed,
+                getConfig().getDouble("patrol.tour.transition.maxSpeed", CameraFlight.DEFAULT_MAX_SPEED));
+        tourConf.flightMaxSeconds = Math.max(1,
+                getConfig().getInt("patrol.tour.transition.maxSeconds", CameraFlight.DEFAULT_MAX_SECONDS));
     }
 
     private void applyServerRulesSafely() {
@@ -175,10 +235,26 @@ public class PatrolSpectatorPlugin extends JavaPlugin {
         return protectionData;
     }
 
+    public SnapshotWriter getSnapshotWriter() {
+        return snapshotWriter;
+    }
+
+    public BroadcastDispatcher getBroadcastDispatcher() {
+        return broadcastDispatcher;
+    }
+
+    public PlayerProfileRepository getProfileRepository() {
+        return profileRepository;
+    }
+
     public PlayerStatsStorage getStatsStorage() {
         return statsStorage;
     }
 
+    public PlayerNameRegistry getNameRegistry() {
+        return nameRegistry;
+    }
+
     public ParticipationManager getParticipationManager() {
         return participationManager;
     }
@@ -187,6 +263,10 @@ public class PatrolSpectatorPlugin extends JavaPlugin {
         return patrolManager;
     }
 
+    public TargetScoringEngine getTargetScoringEngine() {
+        return targetScoringEngine;
+    }
+
     public int getPatrolIntervalSeconds() {
         return patrolIntervalSeconds;
     }
@@ -198,16 +278,19 @@ public class PatrolSpectatorPlugin extends JavaPlugin {
         statsStorage.addEventPoint(uuid, add, reason);
     }
 
-    // 参加者名の保存（存在しなかったので用意）
+    // 参加者名の保存（名前が変わった時だけレジストリに記録し、定期的にまとめて保存）
     public void ensurePlayerNameSaved(UUID uuid, String name) {
-        if (uuid == null || name == null || name.isEmpty() || statsStorage == null)
+        if (nameRegistry == null)
             return;
-        statsStorage.ensureName(uuid, name);
+        nameRegistry.remember(uuid, name);
     }
 
-    // 死亡保護の延長（存在しなかったので用意）
+    // 死亡保護の延長（存在しなかったので用意）。オンラインなら今いる場所を保護の中心にする
     public void extendProtectionDuration(UUID uuid, long extraMillis) {
         protectionData.extend(uuid, extraMillis);
+        Player p = Bukkit.getPlayer(uuid);
+        if (p != null)
+            protectionData.setAnchor(uuid, p.getLocation());
     }
 
     // 観光タイトル表示（名称を大きく／「観光地」は小さく）
@@ -259,6 +342,43 @@ public class PatrolSpectatorPlugin extends JavaPlugin {
         return hexColor + text;
     }
 
+    /**
+     * /patrol data import|export。YAMLの読み書きは非同期で行い、データの置き換えと結果の通知はメインスレッドで行います。
+     * <p>
+     * export は現在のデータを旧形式と同じ構造のYAMLとして export/ に書き出し、
+     * import は export/ のYAMLで現在のデータを置き換えます（編集して戻す用）。
+     */
+    private void runDataCommand(CommandSender sender, boolean doImport) {
+        File exportDir = new File(getDataFolder(), "export");
+        if (doImport) {
+            if (!exportDir.isDirectory()) {
+                sender.sendMessage("§e[Patrol] export/ がありません。先に /patrol data export を実行してください");
+                return;
+            }
+            Bukkit.getScheduler().runTaskAsynchronously(this, () -> {
+                Map<UUID, PlayerRecord> records = PlayerRecordFile.importYaml(exportDir);
+                Bukkit.getScheduler().runTask(this, () -> {
+                    profileRepository.replaceAll(records);
+                    sender.sendMessage("§a[Patrol] export/ から " + records.size() + " 人分を取り込みました");
+                });
+            });
+            return;
+        }
+        List<PlayerRecord> records = profileRepository.snapshot();
+        Bukkit.getScheduler().runTaskAsynchronously(this, () -> {
+            String msg;
+            try {
+                PlayerRecordFile.exportYaml(records, exportDir, snapshotWriter);
+                msg = "§a[Patrol] " + records.size() + " 人分を export/ に書き出しました";
+            } catch (IOException e) {
+                getLogger().log(Level.WARNING, "データの書き出しに失敗しました", e);
+                msg = "§c[Patrol] 失敗しました: " + e.getMessage();
+            }
+            String done = msg;
+            Bukkit.getScheduler().runTask(this, () -> sender.sendMessage(done));
+        });
+    }
+
     // —— /patrol コマンド ——
     @Override
     public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
@@ -266,9 +386,12 @@ public class PatrolSpectatorPlugin extends JavaPlugin {
             return false;
 
         if (args.length == 0 || "help".equalsIgnoreCase(args[0])) {
-            sender.sendMessage("§a/patrol start [dwellSeconds] - 観光巡りをスタート");
-            sender.sendMessage("§a/patrol stop                 - 停止");
+            sender.sendMessage("§a/patrol start [dwellSeconds] - 自分をカメラにして観光巡りをスタート（複数台可）");
+            sender.sendMessage("§a/patrol stop [all]           - 自分のカメラを停止（all またはコンソールなら全台）");
             sender.sendMessage("§a/patrol status               - 状態表示");
+            sender.sendMessage("§a/patrol reload               - 設定と観光地を読み込み直し（巡回中のカメラは続行）");
+            sender.sendMessage("§a/patrol data import          - export/*.yml でプレイヤーデータを置き換え");
+            sender.sendMessage("§a/patrol data export          - プレイヤーデータを export/*.yml へ書き出し");
             return true;
         }
 
@@ -293,13 +416,48 @@ public class PatrolSpectatorPlugin extends JavaPlugin {
                 break;
             }
             case "stop": {
-                patrolManager.stopPatrol();
-                sender.sendMessage("§e[Patrol] stop");
+                boolean all = args.length >= 2 && "all".equalsIgnoreCase(args[1]);
+                if (all || !(sender instanceof Player)) {
+                    patrolManager.stopPatrol();
+                    sender.sendMessage("§e[Patrol] stop all");
+                } else if (patrolManager.isCamera(((Player) sender).getUniqueId())) {
+                    patrolManager.stopPatrol(((Player) sender).getUniqueId());
+                    sender.sendMessage("§e[Patrol] stop (cameras=" + patrolManager.getCameraCount() + ")");
+                } else {
+                    sender.sendMessage("§e[Patrol] not a camera (全台を止めるには /patrol stop all)");
+                }
                 break;
             }
             case "status": {
                 String running = patrolManager.isRunning() ? "RUNNING" : "IDLE";
-                sender.sendMessage("§b[Patrol] status=" + running + ", locations=" + patrolManager.getLocationCount());
+                sender.sendMessage("§b[Patrol] status=" + running + ", cameras=" + patrolManager.getCameraCount()
+                        + ", locations=" + patrolManager.getLocationCount());
+                for (String line : patrolManager.describeCameras()) {
+                    sender.sendMessage("§7[Camera] " + line);
+                }
+                sender.sendMessage("§7[Route] " + patrolManager.describeRoute());
+                sender.sendMessage("§7[Prefetch] " + patrolManager.getChunkPrefetcher().describe());
+                sender.sendMessage("§7[Storage] " + snapshotWriter.describe());
+                sender.sendMessage("§7[Profiles] " + profileRepository.describe());
+                sender.sendMessage("§7[Protection] " + protectionData.describe());
+                sender.sendMessage("§7[Ticks] " + Ticks.describe());
+                sender.sendMessage("§7[Load] " + patrolManager.describeLoad());
+                sender.sendMessage("§7[Broadcast] " + broadcastDispatcher.describe());
+                break;
+            }
+            case "reload": {
+                loadConfigValues();
+                patrolManager.loadTouristLocations();
+                sender.sendMessage("§a[Patrol] reload (locations=" + patrolManager.getLocationCount() + ")");
+                break;
+            }
+            case "data": {
+                String op = args.length >= 2 ? args[1].toLowerCase(Locale.ROOT) : "";
+                if (!"import".equals(op) && !"export".equals(op)) {
+                    sender.sendMessage("§e/patrol data <import|export>");
+                    break;
+                }
+                runDataCommand(sender, "import".equals(op));
                 break;
             }
             default:
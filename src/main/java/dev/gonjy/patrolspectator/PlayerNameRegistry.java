@@ -0,0 +1,97 @@
+package dev.gonjy.patrolspectator;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * UUID → プレイヤー名のレジストリ。
+ * <p>
+ * 名前はメモリにキャッシュし、実際に変わった時だけ変更ありとして記録します。
+ * 変更分は patrol.names.flushSeconds ごとに {@link PlayerStatsStorage#ensureNames} で
+ * 1回にまとめて保存します。オフラインのプレイヤーの名前もここから引けるため、
+ * ランキング表示で {@code Bukkit.getPlayer} を呼ぶ必要はありません。
+ */
+public final class PlayerNameRegistry implements Listener {
+
+    private static final long DEFAULT_FLUSH_SECONDS = 30L;
+
+    private final PlayerStatsStorage storage;
+    private final Map<UUID, String> names = new HashMap<>();
+    private final Map<UUID, String> pending = new HashMap<>();
+    private final BukkitTask flushTask;
+
+    public PlayerNameRegistry(Plugin plugin, PlayerStatsStorage storage) {
+        this.storage = storage;
+        names.putAll(storage.knownNames());
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+        for (Player p : Bukkit.getOnlinePlayers()) {
+            remember(p.getUniqueId(), p.getName());
+        }
+        long period = Math.max(1L, plugin.getConfig().getLong("patrol.names.flushSeconds", DEFAULT_FLUSH_SECONDS))
+                * 20L;
+        this.flushTask = Bukkit.getScheduler().runTaskTimer(plugin, this::flush, period, period);
+    }
+
+    /**
+     * 名前を記録します。キャッシュと同じ名前なら何もしません。
+     */
+    public void remember(UUID id, String name) {
+        if (id == null || name == null || name.isEmpty())
+            return;
+        if (name.equals(names.get(id)))
+            return;
+        names.put(id, name);
+        pending.put(id, name);
+    }
+
+    /**
+     * 名前を返します（オンライン/オフライン問わず）。
+     *
+     * @return 未知のUUIDなら null
+     */
+    public String nameOf(UUID id) {
+        return names.get(id);
+    }
+
+    /**
+     * 名前を返します。未知なら fallback を返します。
+     */
+    public String nameOf(UUID id, String fallback) {
+        String name = names.get(id);
+        return name != null ? name : fallback;
+    }
+
+    /** 未保存の変更数 */
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    /** 未保存の変更をまとめて保存 */
+    public void flush() {
+        if (pending.isEmpty())
+            return;
+        storage.ensureNames(new HashMap<>(pending));
+        pending.clear();
+    }
+
+    /** 定期保存を止め、残りを保存（onDisable用） */
+    public void shutdown() {
+        flushTask.cancel();
+        flush();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent e) {
+        remember(e.getPlayer().getUniqueId(), e.getPlayer().getName());
+    }
+}
@@ -0,0 +1,34 @@
+package dev.gonjy.patrolspectator;
+
+import java.util.UUID;
+
+/**
+ * プレイヤー1人分のデータ（統計・参加/ランキング・保護）の読み取り専用スナップショット。
+ * <p>
+ * {@link PlayerProfileRepository#find(UUID)} の1回の参照で、
+ * 「スコアと保護の残り時間」のようにストアをまたぐ値をまとめて取得できます。
+ */
+public record PlayerProfile(UUID id, String name,
+        int loginCount, long totalPlayMs, long lastJoinAtMs, long lastQuitAtMs,
+        int eventPoints, String lastEventReason,
+        int score, int participationCount, String lastReason,
+        long protectionExpireAtMs, int protectionRadius) {
+
+    static PlayerProfile of(PlayerRecord r) {
+        return new PlayerProfile(r.id, r.displayName(),
+                r.loginCount, r.totalPlayMs, r.lastJoinAtMs, r.lastQuitAtMs,
+                r.eventPoints, r.lastEventReason,
+                r.score, r.count, r.lastReason,
+                r.has(PlayerRecord.HAS_EXPIRE) ? r.expireAtMs : 0L,
+                r.has(PlayerRecord.HAS_RADIUS) ? Math.max(0, r.radius) : 0);
+    }
+
+    /** 保護の残りミリ秒（無ければ0） */
+    public long protectionRemainingMillis(long nowMs) {
+        return Math.max(0L, protectionExpireAtMs - nowMs);
+    }
+
+    public boolean isProtected(long nowMs) {
+        return protectionRemainingMillis(nowMs) > 0;
+    }
+}
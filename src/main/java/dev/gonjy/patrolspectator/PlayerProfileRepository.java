@@ -0,0 +1,446 @@
+package dev.gonjy.patrolspectator;
+
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+/**
+ * プレイヤーデータ（統計・参加/ランキング・保護）の統合リポジトリ。
+ * <p>
+ * UUIDごとに1つの {@link PlayerRecord} をメモリ上に持ち、{@link PlayerStatsStorage} /
+ * {@link ParticipationManager} / {@link ProtectionData} はすべてここを経由して読み書きします。
+ * <ul>
+ * <li>更新は変更されたUUIDを記録し、I/Oスレッドがまとめて1回の追記で players.journal に書く
+ * （同じプレイヤーへの連続した更新や、複数ストアにまたがる更新も1行になる）</li>
+ * <li>全体スナップショット（players.dat）は定期的および {@link #flush()} 時に作成し、作成後にジャーナルを切り詰める</li>
+ * <li>起動時は players.dat 読込後にジャーナルを再生して復旧する。players.dat が無ければ
+ * 旧YAML（player_stats.yml / participation.yml / protections.yml）と旧 player_stats.journal から移行する</li>
+ * </ul>
+ */
+public final class PlayerProfileRepository {
+
+    static final String JOURNAL_NAME = "players.journal";
+    static final String LEGACY_STATS_JOURNAL = "player_stats.journal";
+    private static final long DEFAULT_CHECKPOINT_SECONDS = 60L;
+
+    private final Logger logger;
+    private final SnapshotWriter writer;
+    private final File dataFolder;
+    private final File file;
+    private final File journalFile;
+
+    // メモリ上のモデル（レコードのフィールドは各レコードのロック下で読み書き）
+    private final Map<UUID, PlayerRecord> records = new ConcurrentHashMap<>();
+    private final Set<UUID> dirtyIds = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean appendScheduled = new AtomicBoolean(false);
+    private final AtomicBoolean changed = new AtomicBoolean(false);
+    private final List<Runnable> replaceListeners = new CopyOnWriteArrayList<>();
+
+    // ジャーナル追記とチェックポイントは同一スレッドで順序通りに実行する
+    private final ScheduledExecutorService io;
+    private BufferedWriter journal; // I/Oスレッド専用
+
+    // 集計
+    private final AtomicLong updates = new AtomicLong();
+    private final AtomicLong journalAppends = new AtomicLong();
+    private final AtomicLong journalRecords = new AtomicLong();
+    private final AtomicLong checkpoints = new AtomicLong();
+
+    public PlayerProfileRepository(JavaPlugin plugin) {
+        this(plugin.getDataFolder(), plugin.getLogger(),
+                plugin.getConfig().getLong("patrol.storage.checkpointSeconds", DEFAULT_CHECKPOINT_SECONDS),
+                plugin instanceof PatrolSpectatorPlugin p ? p.getSnapshotWriter() : null);
+    }
+
+    /**
+     * テスト・ベンチマーク用（Bukkit非依存）。
+     *
+     * @param writer 共有の書き込み器（null なら専用のもの。書き込みの集計を共有しない）
+     */
+    PlayerProfileRepository(File dataFolder, Logger logger, long checkpointSeconds, SnapshotWriter writer) {
+        this.logger = logger;
+        this.writer = writer != null ? writer : new SnapshotWriter();
+        this.dataFolder = dataFolder;
+        if (!dataFolder.exists()) {
+            dataFolder.mkdirs();
+        }
+        this.file = new File(dataFolder, PlayerRecordFile.FILE_NAME);
+        this.journalFile = new File(dataFolder, JOURNAL_NAME);
+        this.io = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "PatrolSpectator-Profiles");
+            t.setDaemon(true);
+            return t;
+        });
+
+        load();
+        // 復旧・移行結果（または初回の空ファイル）をスナップショットとして確定
+        changed.set(true);
+        flush();
+        if (checkpoints.get() > 0) {
+            deleteQuietly(new File(dataFolder, LEGACY_STATS_JOURNAL)); // players.dat に取り込み済み
+        }
+
+        long period = Math.max(1L, checkpointSeconds);
+        io.scheduleWithFixedDelay(this::checkpointIfChanged, period, period, TimeUnit.SECONDS);
+    }
+
+    // ====== 読み取り ======
+
+    /**
+     * プレイヤー1人分の全データを1回の参照で取得します。
+     *
+     * @return 未登録なら空
+     */
+    public Optional<PlayerProfile> find(UUID playerId) {
+        if (playerId == null)
+            return Optional.empty();
+        PlayerRecord r = records.get(playerId);
+        if (r == null)
+            return Optional.empty();
+        synchronized (r) {
+            return Optional.of(PlayerProfile.of(r));
+        }
+    }
+
+    /** 登録プレイヤー数 */
+    public int size() {
+        return records.size();
+    }
+
+    /** レコードをロック下で読み取ります（未登録なら absent） */
+    <T> T read(UUID playerId, Function<PlayerRecord, T> reader, T absent) {
+        if (playerId == null)
+            return absent;
+        PlayerRecord r = records.get(playerId);
+        if (r == null)
+            return absent;
+        synchronized (r) {
+            return reader.apply(r);
+        }
+    }
+
+    /** 全レコードをそれぞれのロック下で走査します */
+    void forEach(Consumer<PlayerRecord> action) {
+        for (PlayerRecord r : records.values()) {
+            synchronized (r) {
+                action.accept(r);
+            }
+        }
+    }
+
+    /** 全レコードのコピー（書き出し用） */
+    List<PlayerRecord> snapshot() {
+        List<PlayerRecord> out = new ArrayList<>(records.size());
+        forEach(r -> out.add(r.copy()));
+        return out;
+    }
+
+    // ====== 更新 ======
+
+    /**
+     * レコードをロック下で更新します（未登録なら作成）。更新はジャーナルへまとめて追記されます。
+     *
+     * @param mutator ロック下で呼ばれる更新関数（I/Oなどの重い処理はしないこと）
+     * @return mutator の戻り値
+     */
+    <T> T update(UUID playerId, Function<PlayerRecord, T> mutator) {
+        T result;
+        for (;;) {
+            PlayerRecord r = records.computeIfAbsent(playerId, PlayerRecord::new);
+            synchronized (r) {
+                if (records.get(playerId) != r)
+                    continue; // ロック待ちの間に取り除かれた
+                result = mutator.apply(r);
+                // どのストアのデータも無くなったレコードはメモリから外す（次のチェックポイントで消える）
+                if (r.flags == 0)
+                    records.remove(playerId, r);
+            }
+            break;
+        }
+        markDirty(playerId);
+        return result;
+    }
+
+    /**
+     * 全データを置き換えます（/patrol data import 用。メインスレッドから呼ぶ）。
+     * 置き換え後に登録済みのリスナー（ランキング索引の再構築など）を呼び出します。
+     */
+    void replaceAll(Map<UUID, PlayerRecord> replacement) {
+        records.clear();
+        for (PlayerRecord r : replacement.values()) {
+            records.put(r.id, r.copy());
+        }
+        dirtyIds.clear();
+        changed.set(true);
+        io.execute(this::checkpoint);
+        for (Runnable l : replaceListeners) {
+            l.run();
+        }
+    }
+
+    /** {@link #replaceAll} 後に呼ばれるリスナーを登録します */
+    void addReplaceListener(Runnable listener) {
+        replaceListeners.add(listener);
+    }
+
+    // ====== 保存 ======
+
+    /** チェックポイントを即時作成し、完了まで待ちます */
+    public void flush() {
+        if (io.isShutdown())
+            return;
+        try {
+            io.submit(this::checkpoint).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            logger.warning("Failed to save " + file.getName() + ": " + e.getCause());
+        }
+    }
+
+    /** 最終チェックポイントを作成し、I/Oスレッドを停止します（onDisable用） */
+    public void close() {
+        if (io.isShutdown())
+            return;
+        flush();
+        io.shutdown();
+        try {
+            io.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        closeJournal();
+    }
+
+    /** 保留中のジャーナル追記がすべてディスクへ渡るまで待つ（テスト用） */
+    void awaitJournal() {
+        try {
+            io.submit(() -> {
+            }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException ignored) {
+        }
+    }
+
+    public long getUpdates() {
+        return updates.get();
+    }
+
+    /** ジャーナル追記の回数（1回の追記に複数レコードがまとまる） */
+    public long getJournalAppends() {
+        return journalAppends.get();
+    }
+
+    public long getJournalRecords() {
+        return journalRecords.get();
+    }
+
+    public long getCheckpoints() {
+        return checkpoints.get();
+    }
+
+    /** 状態表示用の1行サマリ */
+    public String describe() {
+        long appends = journalAppends.get();
+        double perAppend = appends == 0 ? 0.0 : (double) journalRecords.get() / appends;
+        return String.format("players=%d, updates=%d, journal appends=%d (%.1f records/append), checkpoints=%d",
+                records.size(), updates.get(), appends, perAppend, checkpoints.get());
+    }
+
+    // ====== 内部：ジャーナル ======
+
+    private void markDirty(UUID playerId) {
+        updates.incrementAndGet();
+        changed.set(true);
+        dirtyIds.add(playerId);
+        if (appendScheduled.compareAndSet(false, true)) {
+            try {
+                io.execute(this::appendDirty);
+            } catch (RejectedExecutionException e) {
+                appendScheduled.set(false); // close() 後の更新は保存されない
+            }
+        }
+    }
+
+    /** I/Oスレッド上で実行：溜まった変更レコードを1回の追記で書く（再生は後勝ちで冪等） */
+    private void appendDirty() {
+        appendScheduled.set(false);
+        List<String> lines = new ArrayList<>(dirtyIds.size());
+        for (Iterator<UUID> it = dirtyIds.iterator(); it.hasNext();) {
+            UUID id = it.next();
+            it.remove();
+            PlayerRecord r = records.get(id);
+            if (r == null)
+                continue;
+            synchronized (r) {
+                lines.add(r.toJournalLine());
+            }
+        }
+        if (lines.isEmpty())
+            return;
+        try {
+            if (journal == null) {
+                journal = Files.newBufferedWriter(journalFile.toPath(), StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            for (String line : lines) {
+                journal.write(line);
+                journal.newLine();
+            }
+            journal.flush();
+            journalAppends.incrementAndGet();
+            journalRecords.addAndGet(lines.size());
+        } catch (IOException e) {
+            logger.warning("Failed to append " + JOURNAL_NAME + ": " + e.getMessage());
+        }
+    }
+
+    private void closeJournal() {
+        if (journal == null)
+            return;
+        try {
+            journal.close();
+        } catch (IOException ignored) {
+        }
+        journal = null;
+    }
+
+    private int replayJournal(File f) {
+        if (!f.exists())
+            return 0;
+        int applied = 0;
+        int broken = 0;
+        try (BufferedReader in = Files.newBufferedReader(f.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.isEmpty())
+                    continue;
+                if (PlayerRecord.applyJournalLine(line, records)) {
+                    applied++;
+                } else {
+                    broken++; // クラッシュ時の書きかけ行など
+                }
+            }
+        } catch (IOException e) {
+            logger.warning("Failed to read " + f.getName() + ": " + e.getMessage());
+        }
+        if (broken > 0) {
+            logger.warning(f.getName() + " の不正な行をスキップしました: " + broken + " 件");
+        }
+        return applied;
+    }
+
+    // ====== 内部：スナップショット ======
+
+    private void load() {
+        boolean loaded = false;
+        if (file.exists()) {
+            try {
+                records.putAll(PlayerRecordFile.read(file));
+                loaded = true;
+            } catch (IOException e) {
+                // 壊れたファイルは上書きせずに退避し、旧YAMLからの移行を試みる
+                File broken = new File(dataFolder, file.getName() + ".broken");
+                logger.severe(file.getName() + " を読み込めません（" + e.getMessage() + "）。"
+                        + broken.getName() + " に退避します");
+                try {
+                    Files.move(file.toPath(), broken.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                } catch (IOException moveFailed) {
+                    logger.warning("Failed to move " + file.getName() + ": " + moveFailed.getMessage());
+                }
+            }
+        }
+        if (!loaded) {
+            Map<UUID, PlayerRecord> migrated = PlayerRecordFile.importYaml(dataFolder);
+            records.putAll(migrated);
+            if (!migrated.isEmpty()) {
+                logger.info("旧YAMLから " + migrated.size() + " 人分を " + file.getName() + " に移行します");
+            }
+        }
+        int legacy = replayJournal(new File(dataFolder, LEGACY_STATS_JOURNAL));
+        int replayed = replayJournal(journalFile);
+        if (legacy + replayed > 0) {
+            logger.info("ジャーナルから " + (legacy + replayed) + " 件を復旧しました");
+        }
+        int expired = pruneExpired(System.currentTimeMillis());
+        if (expired > 0) {
+            logger.info("期限切れの保護 " + expired + " 件を読み込み時に破棄しました");
+        }
+    }
+
+    /**
+     * 期限切れの保護を消し、空になったレコードを取り除きます（読み込み直後に1回）。
+     * 取り除いたレコードはジャーナルに残っていても、次の起動で同じく期限切れとして消えます。
+     *
+     * @return 消した保護の数
+     */
+    private int pruneExpired(long now) {
+        int expired = 0;
+        for (Iterator<PlayerRecord> it = records.values().iterator(); it.hasNext();) {
+            PlayerRecord r = it.next();
+            if (r.clearExpiredProtection(now))
+                expired++;
+            if (r.flags == 0)
+                it.remove();
+        }
+        return expired;
+    }
+
+    private void checkpointIfChanged() {
+        if (changed.get()) {
+            checkpoint();
+        }
+    }
+
+    /** I/Oスレッド上で実行：全体スナップショットを書き出し、ジャーナルを切り詰める */
+    private void checkpoint() {
+        changed.set(false);
+        try {
+            // ジャーナルとの順序を保つため、このI/Oスレッド上で同期的に書く（一時ファイル→fsync→置換）
+            PlayerRecordFile.write(file, snapshot(), writer);
+        } catch (IOException e) {
+            changed.set(true);
+            logger.warning("Failed to save " + file.getName() + ": " + e.getMessage());
+            return;
+        }
+        checkpoints.incrementAndGet();
+        // スナップショットに含まれたのでジャーナルは不要
+        closeJournal();
+        deleteQuietly(journalFile);
+    }
+
+    private void deleteQuietly(File f) {
+        try {
+            Files.deleteIfExists(f.toPath());
+        } catch (IOException e) {
+            logger.warning("Failed to truncate " + f.getName() + ": " + e.getMessage());
+        }
+    }
+}
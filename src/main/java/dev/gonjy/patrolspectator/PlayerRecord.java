@@ -0,0 +1,176 @@
+package dev.gonjy.patrolspectator;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * プレイヤー1人分の永続データ（統計・参加/ランキング・保護）をまとめた固定長レコード。
+ * <p>
+ * {@link PlayerRecordFile} のバイナリ形式と1対1に対応します。
+ * どのストアにデータがあるかは {@link #flags} で区別し、YAMLへ書き戻す時に無いものは出力しません。
+ * {@link PlayerProfileRepository} 内ではフィールドをこのオブジェクトのロック下で読み書きします。
+ */
+final class PlayerRecord {
+
+    static final int HAS_STATS = 1;
+    static final int HAS_PARTICIPATION = 1 << 1;
+    static final int HAS_EXPIRE = 1 << 2;
+    static final int HAS_RADIUS = 1 << 3;
+
+    final UUID id;
+    int flags;
+
+    // player_stats.yml
+    String name;
+    int loginCount;
+    long totalPlayMs;
+    long lastJoinAtMs;
+    long lastQuitAtMs;
+    int eventPoints;
+    String lastEventReason;
+
+    // participation.yml
+    int score;
+    int count;
+    String participationName; // 移行元 participation.yml 側の name（統計側と異なる場合のみ。更新時は name に統一）
+    String lastReason;
+
+    // protections.yml
+    long expireAtMs;
+    int radius;
+
+    PlayerRecord(UUID id) {
+        this.id = id;
+    }
+
+    boolean has(int flag) {
+        return (flags & flag) != 0;
+    }
+
+    /**
+     * 保護期限が now を過ぎていれば期限を消します（半径など他のデータは残す）。
+     *
+     * @return 消したら true
+     */
+    boolean clearExpiredProtection(long now) {
+        if (!has(HAS_EXPIRE) || expireAtMs > now)
+            return false;
+        flags &= ~HAS_EXPIRE;
+        expireAtMs = 0L;
+        return true;
+    }
+
+    /** 表示用の名前（統計側 → 参加側 → UUID の順） */
+    String displayName() {
+        if (name != null)
+            return name;
+        return participationName != null ? participationName : id.toString();
+    }
+
+    PlayerRecord copy() {
+        PlayerRecord c = new PlayerRecord(id);
+        c.flags = flags;
+        c.name = name;
+        c.loginCount = loginCount;
+        c.totalPlayMs = totalPlayMs;
+        c.lastJoinAtMs = lastJoinAtMs;
+        c.lastQuitAtMs = lastQuitAtMs;
+        c.eventPoints = eventPoints;
+        c.lastEventReason = lastEventReason;
+        c.score = score;
+        c.count = count;
+        c.participationName = participationName;
+        c.lastReason = lastReason;
+        c.expireAtMs = expireAtMs;
+        c.radius = radius;
+        return c;
+    }
+
+    // ====== ジャーナル（1レコード1行、タブ区切り） ======
+
+    private static final int JOURNAL_FIELDS = 15;
+    private static final int LEGACY_STATS_FIELDS = 8; // 旧 player_stats.journal
+
+    String toJournalLine() {
+        return id + "\t" + flags + "\t" + escape(name) + "\t" + loginCount + "\t" + totalPlayMs
+                + "\t" + lastJoinAtMs + "\t" + lastQuitAtMs + "\t" + eventPoints + "\t" + escape(lastEventReason)
+                + "\t" + score + "\t" + count + "\t" + escape(participationName) + "\t" + escape(lastReason)
+                + "\t" + expireAtMs + "\t" + radius;
+    }
+
+    /**
+     * ジャーナル1行を反映します（後勝ちで冪等）。
+     * 旧 player_stats.journal の行は統計フィールドだけを上書きします。
+     *
+     * @return 不正な行（クラッシュ時の書きかけ等）なら false
+     */
+    static boolean applyJournalLine(String line, Map<UUID, PlayerRecord> into) {
+        String[] f = line.split("\t", -1);
+        try {
+            if (f.length == JOURNAL_FIELDS) {
+                PlayerRecord r = new PlayerRecord(UUID.fromString(f[0]));
+                r.flags = Integer.parseInt(f[1]);
+                r.name = unescape(f[2]);
+                r.loginCount = Integer.parseInt(f[3]);
+                r.totalPlayMs = Long.parseLong(f[4]);
+                r.lastJoinAtMs = Long.parseLong(f[5]);
+                r.lastQuitAtMs = Long.parseLong(f[6]);
+                r.eventPoints = Integer.parseInt(f[7]);
+                r.lastEventReason = unescape(f[8]);
+                r.score = Integer.parseInt(f[9]);
+                r.count = Integer.parseInt(f[10]);
+                r.participationName = unescape(f[11]);
+                r.lastReason = unescape(f[12]);
+                r.expireAtMs = Long.parseLong(f[13]);
+                r.radius = Integer.parseInt(f[14]);
+                into.put(r.id, r);
+                return true;
+            }
+            if (f.length == LEGACY_STATS_FIELDS) {
+                UUID id = UUID.fromString(f[0]);
+                String name = unescape(f[1]);
+                int loginCount = Integer.parseInt(f[2]);
+                long totalPlayMs = Long.parseLong(f[3]);
+                long lastJoinAtMs = Long.parseLong(f[4]);
+                long lastQuitAtMs = Long.parseLong(f[5]);
+                int eventPoints = Integer.parseInt(f[6]);
+                PlayerRecord r = into.computeIfAbsent(id, PlayerRecord::new);
+                r.flags |= HAS_STATS;
+                r.name = name;
+                r.loginCount = loginCount;
+                r.totalPlayMs = totalPlayMs;
+                r.lastJoinAtMs = lastJoinAtMs;
+                r.lastQuitAtMs = lastQuitAtMs;
+                r.eventPoints = eventPoints;
+                r.lastEventReason = unescape(f[7]);
+                return true;
+            }
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return false;
+    }
+
+    // null は "\0" で表現し、タブ/改行/バックスラッシュはエスケープする
+    private static String escape(String s) {
+        if (s == null)
+            return "\\0";
+        return s.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n");
+    }
+
+    private static String unescape(String s) {
+        if (s.equals("\\0"))
+            return null;
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '\\' && i + 1 < s.length()) {
+                char n = s.charAt(++i);
+                sb.append(n == 't' ? '\t' : n == 'n' ? '\n' : n);
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
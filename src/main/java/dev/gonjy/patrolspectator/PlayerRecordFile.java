@@ -0,0 +1,334 @@
+package dev.gonjy.patrolspectator;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * プレイヤーデータの固定長バイナリ形式（players.dat）と、既存YAMLとの相互変換。
+ * <p>
+ * 形式（ビッグエンディアン）:
+ * <pre>
+ * ヘッダ 32バイト : magic "PSR1", version, recordSize, recordCount, poolOffset(long), poolSize, 予約
+ * レコード × recordCount（各 recordSize バイト、UUIDは128bitの2つのlong）
+ * 文字列プール   : [長さ(int)][UTF-8] の並び。レコードからはプール先頭からのオフセットで参照（-1 = null）
+ * </pre>
+ * 読み込みは {@link FileChannel#map} によるメモリマップで行い、YAMLのようなパス文字列の連結は発生しません。
+ * 書き込みは {@link SnapshotWriter} で一時ファイル→fsync→アトミック置換します。
+ * YAMLとの変換には Bukkit の設定APIを使いますが、サーバーは不要です。
+ */
+final class PlayerRecordFile {
+
+    static final String FILE_NAME = "players.dat";
+    static final String STATS_YML = "player_stats.yml";
+    static final String PARTICIPATION_YML = "participation.yml";
+    static final String PROTECTIONS_YML = "protections.yml";
+
+    private static final int MAGIC = 0x50535231; // "PSR1"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    static final int RECORD_SIZE = 96;
+
+    // レコード内オフセット
+    private static final int R_MSB = 0;
+    private static final int R_LSB = 8;
+    private static final int R_FLAGS = 16;
+    private static final int R_LOGIN_COUNT = 20;
+    private static final int R_TOTAL_PLAY = 24;
+    private static final int R_LAST_JOIN = 32;
+    private static final int R_LAST_QUIT = 40;
+    private static final int R_EVENT_POINTS = 48;
+    private static final int R_SCORE = 52;
+    private static final int R_COUNT = 56;
+    private static final int R_RADIUS = 60;
+    private static final int R_EXPIRE = 64;
+    private static final int R_NAME = 72;
+    private static final int R_EVENT_REASON = 76;
+    private static final int R_PART_NAME = 80;
+    private static final int R_LAST_REASON = 84;
+    // 88〜95 は予約
+
+    private PlayerRecordFile() {
+    }
+
+    // ====== バイナリ ======
+
+    /**
+     * players.dat を読み込みます。
+     *
+     * @return UUID → レコード（ファイルが無ければ空）
+     * @throws IOException 読み込み失敗、または形式が不正な場合
+     */
+    static Map<UUID, PlayerRecord> read(File file) throws IOException {
+        Map<UUID, PlayerRecord> out = new LinkedHashMap<>();
+        if (!file.exists())
+            return out;
+        try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size < HEADER_SIZE)
+                throw new IOException(file.getName() + ": ヘッダが不足しています");
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buf.getInt(0) != MAGIC)
+                throw new IOException(file.getName() + ": 形式が不正です");
+            int version = buf.getInt(4);
+            if (version > VERSION)
+                throw new IOException(file.getName() + ": 未対応のバージョンです: " + version);
+            int recordSize = buf.getInt(8);
+            int count = buf.getInt(12);
+            long poolOffset = buf.getLong(16);
+            int poolSize = buf.getInt(24);
+            if (recordSize < RECORD_SIZE || count < 0
+                    || HEADER_SIZE + (long) recordSize * count > poolOffset
+                    || poolOffset + poolSize > size)
+                throw new IOException(file.getName() + ": サイズが不正です");
+
+            Map<Integer, String> strings = new HashMap<>();
+            for (int i = 0; i < count; i++) {
+                int base = HEADER_SIZE + i * recordSize;
+                PlayerRecord r = new PlayerRecord(new UUID(buf.getLong(base + R_MSB), buf.getLong(base + R_LSB)));
+                r.flags = buf.getInt(base + R_FLAGS);
+                r.loginCount = buf.getInt(base + R_LOGIN_COUNT);
+                r.totalPlayMs = buf.getLong(base + R_TOTAL_PLAY);
+                r.lastJoinAtMs = buf.getLong(base + R_LAST_JOIN);
+                r.lastQuitAtMs = buf.getLong(base + R_LAST_QUIT);
+                r.eventPoints = buf.getInt(base + R_EVENT_POINTS);
+                r.score = buf.getInt(base + R_SCORE);
+                r.count = buf.getInt(base + R_COUNT);
+                r.radius = buf.getInt(base + R_RADIUS);
+                r.expireAtMs = buf.getLong(base + R_EXPIRE);
+                r.name = string(buf, poolOffset, poolSize, buf.getInt(base + R_NAME), strings);
+                r.lastEventReason = string(buf, poolOffset, poolSize, buf.getInt(base + R_EVENT_REASON), strings);
+                r.participationName = string(buf, poolOffset, poolSize, buf.getInt(base + R_PART_NAME), strings);
+                r.lastReason = string(buf, poolOffset, poolSize, buf.getInt(base + R_LAST_REASON), strings);
+                out.put(r.id, r);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * players.dat を書き出します（一時ファイル→fsync→アトミック置換）。
+     */
+    static void write(File file, Collection<PlayerRecord> records, SnapshotWriter writer) throws IOException {
+        // 文字列プール（同じ名前・理由は1回だけ格納）
+        Map<String, Integer> refs = new HashMap<>();
+        List<byte[]> pool = new ArrayList<>();
+        int[] poolSize = { 0 };
+        int n = records.size();
+        int[] nameRef = new int[n], eventReasonRef = new int[n], partNameRef = new int[n], lastReasonRef = new int[n];
+        int i = 0;
+        for (PlayerRecord r : records) {
+            nameRef[i] = intern(r.name, refs, pool, poolSize);
+            eventReasonRef[i] = intern(r.lastEventReason, refs, pool, poolSize);
+            partNameRef[i] = intern(r.participationName, refs, pool, poolSize);
+            lastReasonRef[i] = intern(r.lastReason, refs, pool, poolSize);
+            i++;
+        }
+        long poolOffset = HEADER_SIZE + (long) RECORD_SIZE * n;
+        long total = poolOffset + poolSize[0];
+        if (total > Integer.MAX_VALUE)
+            throw new IOException(file.getName() + ": データが大きすぎます");
+
+        writer.writeNow(file, (int) total, buf -> {
+            buf.putInt(MAGIC).putInt(VERSION).putInt(RECORD_SIZE).putInt(n)
+                    .putLong(poolOffset).putInt(poolSize[0]).putInt(0);
+            int j = 0;
+            for (PlayerRecord r : records) {
+                int base = buf.position();
+                buf.putLong(base + R_MSB, r.id.getMostSignificantBits());
+                buf.putLong(base + R_LSB, r.id.getLeastSignificantBits());
+                buf.putInt(base + R_FLAGS, r.flags);
+                buf.putInt(base + R_LOGIN_COUNT, r.loginCount);
+                buf.putLong(base + R_TOTAL_PLAY, r.totalPlayMs);
+                buf.putLong(base + R_LAST_JOIN, r.lastJoinAtMs);
+                buf.putLong(base + R_LAST_QUIT, r.lastQuitAtMs);
+                buf.putInt(base + R_EVENT_POINTS, r.eventPoints);
+                buf.putInt(base + R_SCORE, r.score);
+                buf.putInt(base + R_COUNT, r.count);
+                buf.putInt(base + R_RADIUS, r.radius);
+                buf.putLong(base + R_EXPIRE, r.expireAtMs);
+                buf.putInt(base + R_NAME, nameRef[j]);
+                buf.putInt(base + R_EVENT_REASON, eventReasonRef[j]);
+                buf.putInt(base + R_PART_NAME, partNameRef[j]);
+                buf.putInt(base + R_LAST_REASON, lastReasonRef[j]);
+                buf.position(base + RECORD_SIZE);
+                j++;
+            }
+            for (byte[] b : pool) {
+                buf.putInt(b.length).put(b);
+            }
+        });
+    }
+
+    // ====== YAMLとの相互変換 ======
+
+    /**
+     * 既存の3つのYAML（player_stats.yml / participation.yml / protections.yml）を読み込み、
+     * プレイヤーごとに1レコードへまとめます。存在しないファイルは無視します。
+     *
+     * @param dir YAMLのあるフォルダ（プラグインデータフォルダ）
+     */
+    static Map<UUID, PlayerRecord> importYaml(File dir) {
+        Map<UUID, PlayerRecord> out = new LinkedHashMap<>();
+
+        ConfigurationSection stats = section(new File(dir, STATS_YML));
+        if (stats != null) {
+            for (String key : stats.getKeys(false)) {
+                PlayerRecord r = recordOf(out, key);
+                if (r == null)
+                    continue;
+                String b = key + ".";
+                r.flags |= PlayerRecord.HAS_STATS;
+                r.name = stats.getString(b + "name");
+                r.loginCount = stats.getInt(b + "loginCount", 0);
+                r.totalPlayMs = stats.getLong(b + "totalPlayMs", 0L);
+                r.lastJoinAtMs = stats.getLong(b + "lastJoinAtMs", 0L);
+                r.lastQuitAtMs = stats.getLong(b + "lastQuitAtMs", 0L);
+                r.eventPoints = stats.getInt(b + "eventPoints", 0);
+                r.lastEventReason = stats.getString(b + "lastEventReason");
+            }
+        }
+
+        ConfigurationSection part = section(new File(dir, PARTICIPATION_YML));
+        if (part != null) {
+            for (String key : part.getKeys(false)) {
+                PlayerRecord r = recordOf(out, key);
+                if (r == null)
+                    continue;
+                String b = key + ".";
+                r.flags |= PlayerRecord.HAS_PARTICIPATION;
+                r.participationName = part.getString(b + "name");
+                r.score = part.getInt(b + "score", 0);
+                r.count = part.getInt(b + "count", 0);
+                r.lastReason = part.getString(b + "lastReason");
+            }
+        }
+
+        ConfigurationSection prot = section(new File(dir, PROTECTIONS_YML));
+        if (prot != null) {
+            for (String key : prot.getKeys(false)) {
+                PlayerRecord r = recordOf(out, key);
+                if (r == null)
+                    continue;
+                String b = key + ".";
+                if (prot.isSet(b + "expireAtMs")) {
+                    r.flags |= PlayerRecord.HAS_EXPIRE;
+                    r.expireAtMs = prot.getLong(b + "expireAtMs", 0L);
+                }
+                if (prot.isSet(b + "radius")) {
+                    r.flags |= PlayerRecord.HAS_RADIUS;
+                    r.radius = prot.getInt(b + "radius", 0);
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * レコードを既存の3つのYAMLと同じ構造で書き出します（データの確認・旧形式への移行用）。
+     *
+     * @param dir 出力先フォルダ（無ければ作成）
+     */
+    static void exportYaml(Collection<PlayerRecord> records, File dir, SnapshotWriter writer) throws IOException {
+        if (!dir.exists() && !dir.mkdirs())
+            throw new IOException("フォルダを作成できません: " + dir);
+        YamlConfiguration stats = new YamlConfiguration();
+        YamlConfiguration part = new YamlConfiguration();
+        YamlConfiguration prot = new YamlConfiguration();
+        for (PlayerRecord r : records) {
+            String b = "players." + r.id + ".";
+            if (r.has(PlayerRecord.HAS_STATS)) {
+                if (r.name != null)
+                    stats.set(b + "name", r.name);
+                stats.set(b + "loginCount", r.loginCount);
+                stats.set(b + "totalPlayMs", r.totalPlayMs);
+                stats.set(b + "lastJoinAtMs", r.lastJoinAtMs);
+                stats.set(b + "lastQuitAtMs", r.lastQuitAtMs);
+                stats.set(b + "eventPoints", r.eventPoints);
+                if (r.lastEventReason != null)
+                    stats.set(b + "lastEventReason", r.lastEventReason);
+            }
+            if (r.has(PlayerRecord.HAS_PARTICIPATION)) {
+                String name = r.participationName != null ? r.participationName : r.name;
+                if (name != null)
+                    part.set(b + "name", name);
+                part.set(b + "score", r.score);
+                part.set(b + "count", r.count);
+                if (r.lastReason != null)
+                    part.set(b + "lastReason", r.lastReason);
+            }
+            if (r.has(PlayerRecord.HAS_EXPIRE))
+                prot.set(b + "expireAtMs", r.expireAtMs);
+            if (r.has(PlayerRecord.HAS_RADIUS))
+                prot.set(b + "radius", r.radius);
+        }
+        writer.writeNow(new File(dir, STATS_YML), stats.saveToString());
+        writer.writeNow(new File(dir, PARTICIPATION_YML), part.saveToString());
+        writer.writeNow(new File(dir, PROTECTIONS_YML), prot.saveToString());
+    }
+
+    // ====== 内部 ======
+
+    private static ConfigurationSection section(File f) {
+        if (!f.exists())
+            return null;
+        return YamlConfiguration.loadConfiguration(f).getConfigurationSection("players");
+    }
+
+    private static PlayerRecord recordOf(Map<UUID, PlayerRecord> out, String key) {
+        UUID id;
+        try {
+            id = UUID.fromString(key);
+        } catch (IllegalArgumentException e) {
+            return null; // 不正なUUID文字列はスキップ
+        }
+        return out.computeIfAbsent(id, PlayerRecord::new);
+    }
+
+    private static int intern(String s, Map<String, Integer> refs, List<byte[]> pool, int[] poolSize) {
+        if (s == null)
+            return -1;
+        Integer ref = refs.get(s);
+        if (ref != null)
+            return ref;
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        int off = poolSize[0];
+        pool.add(b);
+        poolSize[0] += 4 + b.length;
+        refs.put(s, off);
+        return off;
+    }
+
+    private static String string(ByteBuffer buf, long poolOffset, int poolSize, int ref, Map<Integer, String> cache) {
+        if (ref < 0)
+            return null;
+        String s = cache.get(ref);
+        if (s != null)
+            return s;
+        if (ref + 4L > poolSize)
+            return null;
+        int at = (int) (poolOffset + ref);
+        int len = buf.getInt(at);
+        if (len < 0 || ref + 4L + len > poolSize)
+            return null;
+        byte[] b = new byte[len];
+        buf.get(at + 4, b);
+        s = new String(b, StandardCharsets.UTF_8);
+        cache.put(ref, s);
+        return s;
+    }
+}
@@ -0,0 +1,190 @@
+package dev.gonjy.patrolspectator;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+import org.bukkit.plugin.Plugin;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * オンラインプレイヤーのワールド別空間索引。
+ * <p>
+ * 移動・テレポート・ワールド移動・リスポーン・参加/退出イベントから {@link SpatialGrid} を更新し、
+ * 半径クエリでは範囲と重なるチャンクセルだけを走査します。
+ */
+public final class PlayerSpatialIndex implements Listener {
+
+    private static final class Tracked {
+        final World world;
+        final SpatialGrid.Entry<Player> entry;
+
+        Tracked(World world, SpatialGrid.Entry<Player> entry) {
+            this.world = world;
+            this.entry = entry;
+        }
+    }
+
+    private final Map<UUID, SpatialGrid<Player>> grids = new HashMap<>();
+    private final Map<UUID, Tracked> tracked = new HashMap<>();
+
+    public PlayerSpatialIndex(Plugin plugin) {
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+        // /reload 等で既にオンラインのプレイヤーを取り込む
+        for (Player p : Bukkit.getOnlinePlayers()) {
+            update(p, p.getLocation());
+        }
+    }
+
+    /**
+     * 半径内で条件を満たす最も近いプレイヤーを返します。
+     *
+     * @return 見つからなければ null
+     */
+    public Player nearest(Location center, double radius, Predicate<? super Player> filter) {
+        SpatialGrid<Player> grid = gridOf(center);
+        if (grid == null)
+            return null;
+        return grid.nearest(center.getX(), center.getY(), center.getZ(), radius, filter);
+    }
+
+    /**
+     * 半径内で条件を満たすプレイヤーを近い順に最大k人返します。
+     */
+    public List<Player> kNearest(Location center, double radius, int k, Predicate<? super Player> filter) {
+        SpatialGrid<Player> grid = gridOf(center);
+        if (grid == null)
+            return Collections.emptyList();
+        return grid.kNearest(center.getX(), center.getY(), center.getZ(), radius, k, filter);
+    }
+
+    /**
+     * 半径内で条件を満たすプレイヤー数を返します。
+     */
+    public int countWithin(Location center, double radius, Predicate<? super Player> filter) {
+        SpatialGrid<Player> grid = gridOf(center);
+        if (grid == null)
+            return 0;
+        return grid.countWithin(center.getX(), center.getY(), center.getZ(), radius, filter);
+    }
+
+    /**
+     * 複数の中心（カメラ等）について、半径内で条件を満たすプレイヤーをまとめて訪問します。
+     * ワールドごとにグリッドを1回だけ走査します（{@link SpatialGrid#forEachWithin}）。
+     *
+     * @param visitor center は centers の添字
+     */
+    void forEachWithin(List<Location> centers, double radius, Predicate<? super Player> filter,
+            SpatialGrid.PairVisitor<? super Player> visitor) {
+        int n = centers.size();
+        double[] xs = new double[n], ys = new double[n], zs = new double[n];
+        int[] index = new int[n];
+        boolean[] done = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            if (done[i])
+                continue;
+            World world = centers.get(i).getWorld();
+            int m = 0;
+            for (int j = i; j < n; j++) {
+                Location c = centers.get(j);
+                if (done[j] || c.getWorld() != world)
+                    continue;
+                done[j] = true;
+                xs[m] = c.getX();
+                ys[m] = c.getY();
+                zs[m] = c.getZ();
+                index[m++] = j;
+            }
+            SpatialGrid<Player> grid = world == null ? null : grids.get(world.getUID());
+            if (grid != null) {
+                grid.forEachWithin(xs, ys, zs, m, radius, filter,
+                        (c, p, d) -> visitor.visit(index[c], p, d));
+            }
+        }
+    }
+
+    /** 索引済みプレイヤー数 */
+    public int size() {
+        return tracked.size();
+    }
+
+    // ====== イベント ======
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent e) {
+        update(e.getPlayer(), e.getPlayer().getLocation());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent e) {
+        remove(e.getPlayer().getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onMove(PlayerMoveEvent e) {
+        update(e.getPlayer(), e.getTo());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onTeleport(PlayerTeleportEvent e) {
+        update(e.getPlayer(), e.getTo());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChangedWorld(PlayerChangedWorldEvent e) {
+        update(e.getPlayer(), e.getPlayer().getLocation());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onRespawn(PlayerRespawnEvent e) {
+        update(e.getPlayer(), e.getRespawnLocation());
+    }
+
+    // ====== 内部 ======
+
+    private SpatialGrid<Player> gridOf(Location loc) {
+        if (loc == null || loc.getWorld() == null)
+            return null;
+        return grids.get(loc.getWorld().getUID());
+    }
+
+    private void update(Player p, Location to) {
+        if (to == null || to.getWorld() == null)
+            return;
+        World world = to.getWorld();
+        Tracked t = tracked.get(p.getUniqueId());
+        if (t != null && t.world == world) {
+            grids.get(world.getUID()).move(t.entry, to.getX(), to.getY(), to.getZ());
+            return;
+        }
+        if (t != null) {
+            remove(p.getUniqueId());
+        }
+        SpatialGrid<Player> grid = grids.computeIfAbsent(world.getUID(), id -> new SpatialGrid<>());
+        tracked.put(p.getUniqueId(), new Tracked(world, grid.insert(p, to.getX(), to.getY(), to.getZ())));
+    }
+
+    private void remove(UUID id) {
+        Tracked t = tracked.remove(id);
+        if (t == null)
+            return;
+        SpatialGrid<Player> grid = grids.get(t.world.getUID());
+        if (grid != null)
+            grid.remove(t.entry);
+    }
+}
@@ -1,96 +1,124 @@
 package dev.gonjy.patrolspectator;
 
-import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import java.io.File;
-import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.UUID;
+import java.util.logging.Logger;
 
 /**
  * PlayerStatsStorage
- * プレイヤー統計情報を保存・更新するシンプルなYAMLストレージ。
+ * プレイヤー統計情報の読み書き。
  * - ログイン回数
  * - 総プレイ時間（ms）
  * - 最終ログイン/ログアウト時刻
  * - プレイヤー名の記録（ensureName）
+ *
+ * データは {@link PlayerProfileRepository} のプレイヤー単位のレコードに保持し、
+ * 保存（ジャーナル追記・players.dat のチェックポイント）もリポジトリがまとめて行う。
  */
 public class PlayerStatsStorage {
 
-    private final JavaPlugin plugin;
-    private final File file;
-    final YamlConfiguration yaml; // 同一パッケージから参照可
+    private final PlayerProfileRepository repository;
+    private final boolean ownsRepository; // close() でリポジトリも閉じるか
 
     public PlayerStatsStorage(JavaPlugin plugin) {
-        this.plugin = plugin;
-        if (!plugin.getDataFolder().exists()) {
-            plugin.getDataFolder().mkdirs();
-        }
-        this.file = new File(plugin.getDataFolder(), "player_stats.yml");
-        this.yaml = YamlConfiguration.loadConfiguration(file);
-        saveSync();
+        PlayerProfileRepository shared = plugin instanceof PatrolSpectatorPlugin p ? p.getProfileRepository() : null;
+        this.repository = shared != null ? shared : new PlayerProfileRepository(plugin);
+        this.ownsRepository = shared == null;
+    }
+
+    /** テスト・ベンチマーク用（Bukkit非依存、専用のリポジトリを持つ） */
+    PlayerStatsStorage(File dataFolder, Logger logger, long checkpointSeconds) {
+        this.repository = new PlayerProfileRepository(dataFolder, logger, checkpointSeconds, null);
+        this.ownsRepository = true;
+    }
+
+    PlayerStatsStorage(PlayerProfileRepository repository) {
+        this.repository = repository;
+        this.ownsRepository = false;
+    }
+
+    PlayerProfileRepository repository() {
+        return repository;
     }
 
     /** ログイン記録（回数+1, 名前更新, 最終ログイン時刻更新） */
     public int recordLogin(UUID playerId, String playerName) {
         if (playerId == null)
             return 0;
-        String base = basePath(playerId);
-        int count = yaml.getInt(base + ".loginCount", 0) + 1;
-        yaml.set(base + ".loginCount", count);
-        yaml.set(base + ".name", playerName);
-        yaml.set(base + ".lastJoinAtMs", System.currentTimeMillis());
-        saveSync();
-        return count;
+        long now = System.currentTimeMillis();
+        return repository.update(playerId, r -> {
+            r.flags |= PlayerRecord.HAS_STATS;
+            r.name = playerName;
+            r.lastJoinAtMs = now;
+            return ++r.loginCount;
+        });
     }
 
     /** ログアウト記録（セッション時間を加算, 最終ログアウト時刻を更新） */
     public void recordQuit(UUID playerId) {
         if (playerId == null)
             return;
-        String base = basePath(playerId);
-        long lastJoin = yaml.getLong(base + ".lastJoinAtMs", 0L);
-        if (lastJoin > 0) {
-            long session = Math.max(0, System.currentTimeMillis() - lastJoin);
-            long total = yaml.getLong(base + ".totalPlayMs", 0L) + session;
-            yaml.set(base + ".totalPlayMs", total);
-        }
-        yaml.set(base + ".lastQuitAtMs", System.currentTimeMillis());
-        yaml.set(base + ".lastJoinAtMs", 0L);
-        saveSync();
+        long now = System.currentTimeMillis();
+        repository.update(playerId, r -> {
+            r.flags |= PlayerRecord.HAS_STATS;
+            if (r.lastJoinAtMs > 0) {
+                r.totalPlayMs += Math.max(0, now - r.lastJoinAtMs);
+            }
+            r.lastQuitAtMs = now;
+            r.lastJoinAtMs = 0L;
+            return null;
+        });
     }
 
     /** 名前のみ保存（AutoEventSystem等からの呼び出し用） */
     public void ensureName(UUID playerId, String playerName) {
         if (playerId == null)
             return;
-        String base = basePath(playerId);
-        yaml.set(base + ".name", playerName);
-        saveSync();
+        repository.update(playerId, r -> {
+            r.flags |= PlayerRecord.HAS_STATS;
+            r.name = playerName;
+            return null;
+        });
+    }
+
+    /**
+     * 複数プレイヤーの名前をまとめて保存します（ジャーナルへの追記はリポジトリが1回にまとめる）。
+     *
+     * @param names UUID → 名前
+     */
+    public void ensureNames(Map<UUID, String> names) {
+        for (Map.Entry<UUID, String> e : names.entrySet()) {
+            ensureName(e.getKey(), e.getValue());
+        }
+    }
+
+    /** 保存済みの名前一覧（UUID → 名前）のコピー */
+    public Map<UUID, String> knownNames() {
+        Map<UUID, String> out = new HashMap<>();
+        repository.forEach(r -> {
+            if (r.name != null)
+                out.put(r.id, r.name);
+        });
+        return out;
     }
 
     /** 総プレイ時間（ms）を取得 */
     public long getTotalPlayTimeMillis(UUID playerId) {
-        return yaml.getLong(basePath(playerId) + ".totalPlayMs", 0L);
+        return repository.read(playerId, r -> r.totalPlayMs, 0L);
     }
 
     /** ログイン回数を取得 */
     public int getLoginCount(UUID playerId) {
-        return yaml.getInt(basePath(playerId) + ".loginCount", 0);
+        return repository.read(playerId, r -> r.loginCount, 0);
     }
 
-    /** 全データ保存（即同期） */
+    /** 全データ保存（チェックポイントを即時作成し、完了まで待つ） */
     public void saveSync() {
-        try {
-            yaml.save(file);
-        } catch (IOException e) {
-            plugin.getLogger().warning("Failed to save player_stats.yml: " + e.getMessage());
-        }
-    }
-
-    /** パス構築補助 */
-    private String basePath(UUID playerId) {
-        return "players." + playerId;
+        repository.flush();
     }
 
     /**
@@ -100,9 +128,20 @@ public class PlayerStatsStorage {
         saveSync();
     }
 
+    /**
+     * 保存を完了させます（onDisable用）。専用のリポジトリを持つ場合はI/Oスレッドも停止します。
+     */
+    public void close() {
+        if (ownsRepository) {
+            repository.close();
+        } else {
+            repository.flush();
+        }
+    }
+
     /**
      * イベントポイントを追加します。
-     * 
+     *
      * @param playerId プレイヤーのUUID
      * @param points   追加するポイント
      * @param reason   ポイント付与の理由
@@ -110,10 +149,16 @@ public class PlayerStatsStorage {
     public void addEventPoint(UUID playerId, int points, String reason) {
         if (playerId == null)
             return;
-        String base = basePath(playerId);
-        int current = yaml.getInt(base + ".eventPoints", 0);
-        yaml.set(base + ".eventPoints", current + points);
-        yaml.set(base + ".lastEventReason", reason);
-        saveSync();
+        repository.update(playerId, r -> {
+            r.flags |= PlayerRecord.HAS_STATS;
+            r.eventPoints += points;
+            r.lastEventReason = reason;
+            return null;
+        });
+    }
+
+    /** 保留中のジャーナル追記がすべてディスクへ渡るまで待つ（テスト用） */
+    void awaitJournal() {
+        repository.awaitJournal();
     }
 }
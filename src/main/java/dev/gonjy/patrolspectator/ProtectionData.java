@@ -1,16 +1,20 @@
 package dev.gonjy.patrolspectator;
 
-import org.bukkit.configuration.file.FileConfiguration;
-import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
 import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
 
-import java.io.File;
-import java.io.IOException;
-import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 /**
- * プレイヤー保護データをYAMLに保存/読み込みするユーティリティ。
+ * プレイヤー保護データの読み書き。
  * - 保護の有効期限 (expireAtMs)
  * - 保護半径 (radius)
  * などをプレイヤー毎に保持します。
@@ -20,26 +24,70 @@ import java.util.concurrent.ConcurrentHashMap;
  * - extendProtectionRadius(UUID, int)
  * - isProtected(UUID)
  * - getRemainingMillis(UUID)
+ * - isInProtectedZone(Location) / protectorAt(Location, UUID)
+ *
+ * データは {@link PlayerProfileRepository} のプレイヤー単位のレコードに保持し、保存もリポジトリがまとめて行います。
+ * 期限付きの保護は {@link ExpiryWheel} に登録しておき、1秒ごとの掃除で期限の来たものだけを
+ * レコードから消して {@link #addExpiryListener} のリスナーに通知します（全件走査はしない）。
+ * 保護の中心（{@link #setAnchor}）はメモリ上だけに持ち、保護中で半径のあるものをワールドごとの
+ * {@link ProtectionZoneIndex} に入れて「この場所は誰かの保護範囲か」をチャンク1つ分の照合で答えます。
+ * 中心・ゾーンの操作と問い合わせはメインスレッドから行います。
  */
 public class ProtectionData {
 
-    private final JavaPlugin plugin;
-    private final File file;
-    private final FileConfiguration yaml;
+    private static final long WHEEL_TICK_MS = 1000L;
+    private static final long SWEEP_PERIOD_TICKS = 20L;
+
+    private final PlayerProfileRepository repository;
+    private final boolean ownsRepository; // shutdown() でリポジトリも閉じるか
+    private final ExpiryWheel<UUID> wheel;
+    private final List<Consumer<UUID>> expiryListeners = new CopyOnWriteArrayList<>();
+    private BukkitTask sweepTask;
+    private long expiredCount;
+
+    /** 保護の中心（ワールドUID と座標） */
+    private record Anchor(UUID worldId, double x, double y, double z) {
+    }
 
-    // メモリキャッシュ（任意）
-    private final Map<UUID, Long> expireMap = new ConcurrentHashMap<>();
-    private final Map<UUID, Integer> radiusMap = new ConcurrentHashMap<>();
+    private final Map<UUID, Anchor> anchors = new HashMap<>();
+    private final Map<UUID, ProtectionZoneIndex<UUID>> zones = new HashMap<>(); // ワールドUID → 索引
 
     public ProtectionData(JavaPlugin plugin) {
-        this.plugin = plugin;
-        if (!plugin.getDataFolder().exists()) {
-            plugin.getDataFolder().mkdirs();
+        this(plugin, plugin instanceof PatrolSpectatorPlugin p ? p.getProfileRepository() : null);
+    }
+
+    private ProtectionData(JavaPlugin plugin, PlayerProfileRepository shared) {
+        this(shared != null ? shared : new PlayerProfileRepository(plugin), shared == null);
+        sweepTask = Bukkit.getScheduler().runTaskTimer(plugin,
+                () -> sweepExpired(System.currentTimeMillis()), SWEEP_PERIOD_TICKS, SWEEP_PERIOD_TICKS);
+    }
+
+    ProtectionData(PlayerProfileRepository repository) {
+        this(repository, false);
+    }
+
+    private ProtectionData(PlayerProfileRepository repository, boolean ownsRepository) {
+        this.repository = repository;
+        this.ownsRepository = ownsRepository;
+        this.wheel = new ExpiryWheel<>(WHEEL_TICK_MS, System.currentTimeMillis());
+        rebuildWheel();
+        repository.addReplaceListener(this::rebuildWheel);
+    }
+
+    /** リポジトリを一度だけ走査して期限付きの保護を登録し直す（ゾーンも現在のデータに合わせる） */
+    private void rebuildWheel() {
+        synchronized (wheel) {
+            repository.forEach(r -> {
+                if (r.has(PlayerRecord.HAS_EXPIRE)) {
+                    wheel.schedule(r.id, r.expireAtMs);
+                } else {
+                    wheel.cancel(r.id);
+                }
+            });
+        }
+        for (UUID id : anchors.keySet()) {
+            refreshZone(id);
         }
-        this.file = new File(plugin.getDataFolder(), "protections.yml");
-        this.yaml = YamlConfiguration.loadConfiguration(file);
-        loadFromYaml();
-        saveSync(); // ファイルが無い初回でも作成されるように
     }
 
     // ====== 外部API ======
@@ -47,9 +95,7 @@ public class ProtectionData {
     /** 保護の残りミリ秒（無ければ0） */
     public long getRemainingMillis(UUID playerId) {
         long now = System.currentTimeMillis();
-        Long expire = expireMap.get(playerId);
-        if (expire == null)
-            return 0L;
+        long expire = repository.read(playerId, r -> r.has(PlayerRecord.HAS_EXPIRE) ? r.expireAtMs : 0L, 0L);
         return Math.max(0L, expire - now);
     }
 
@@ -61,28 +107,32 @@ public class ProtectionData {
     /** 保護の有効期限を延長（追加）する。deltaMsが負でも可だが0未満にはならないようクリップ。 */
     public void extendProtectionDuration(UUID playerId, long deltaMs) {
         long now = System.currentTimeMillis();
-        long base = Math.max(now, expireMap.getOrDefault(playerId, 0L));
-        long next = Math.max(now, base + deltaMs);
-        expireMap.put(playerId, next);
-        // YAMLへ反映
-        String basePath = path(playerId);
-        yaml.set(basePath + ".expireAtMs", next);
-        saveSyncAsync();
+        long expireAt = repository.update(playerId, r -> {
+            long base = Math.max(now, r.has(PlayerRecord.HAS_EXPIRE) ? r.expireAtMs : 0L);
+            r.expireAtMs = Math.max(now, base + deltaMs);
+            r.flags |= PlayerRecord.HAS_EXPIRE;
+            return r.expireAtMs;
+        });
+        synchronized (wheel) {
+            wheel.schedule(playerId, expireAt);
+        }
+        refreshZone(playerId);
     }
 
     /** 保護半径を拡張（加算）。負の場合は縮小。最小0でクリップ。 */
     public void extendProtectionRadius(UUID playerId, int delta) {
-        int cur = Math.max(0, radiusMap.getOrDefault(playerId, 0));
-        int next = Math.max(0, cur + delta);
-        radiusMap.put(playerId, next);
-        String basePath = path(playerId);
-        yaml.set(basePath + ".radius", next);
-        saveSyncAsync();
+        repository.update(playerId, r -> {
+            int cur = r.has(PlayerRecord.HAS_RADIUS) ? Math.max(0, r.radius) : 0;
+            r.radius = Math.max(0, cur + delta);
+            r.flags |= PlayerRecord.HAS_RADIUS;
+            return null;
+        });
+        refreshZone(playerId);
     }
 
     /** 現在の半径を取得（未設定なら0） */
     public int getRadius(UUID playerId) {
-        return Math.max(0, radiusMap.getOrDefault(playerId, 0));
+        return repository.read(playerId, r -> r.has(PlayerRecord.HAS_RADIUS) ? Math.max(0, r.radius) : 0, 0);
     }
 
     /**
@@ -95,44 +145,154 @@ public class ProtectionData {
         extendProtectionDuration(playerId, deltaMs);
     }
 
-    // ====== 内部：YAMLロード/セーブ ======
+    /** 保留中の保存が完了するまで待つ */
+    public void saveSync() {
+        repository.flush();
+    }
+
+    // ====== 保護ゾーン ======
 
-    private void loadFromYaml() {
-        if (!yaml.isConfigurationSection("players"))
+    /** 保護の中心を置きます（保護中で半径があればその場でゾーンになる） */
+    public void setAnchor(UUID playerId, Location at) {
+        if (at == null || at.getWorld() == null)
             return;
-        Set<String> keys = Objects.requireNonNull(yaml.getConfigurationSection("players")).getKeys(false);
-        for (String key : keys) {
-            try {
-                UUID id = UUID.fromString(key);
-                long expireAt = yaml.getLong("players." + key + ".expireAtMs", 0L);
-                int radius = yaml.getInt("players." + key + ".radius", 0);
-                if (expireAt > 0L) {
-                    expireMap.put(id, expireAt);
-                }
-                if (radius > 0) {
-                    radiusMap.put(id, radius);
+        setAnchor(playerId, at.getWorld().getUID(), at.getX(), at.getY(), at.getZ());
+    }
+
+    void setAnchor(UUID playerId, UUID worldId, double x, double y, double z) {
+        Anchor old = anchors.put(playerId, new Anchor(worldId, x, y, z));
+        if (old != null && !old.worldId().equals(worldId))
+            removeZone(playerId);
+        refreshZone(playerId);
+    }
+
+    /** 保護の中心を外します（ゾーンも消える） */
+    public void clearAnchor(UUID playerId) {
+        if (anchors.remove(playerId) != null)
+            removeZone(playerId);
+    }
+
+    /** その場所が誰かの保護範囲か */
+    public boolean isInProtectedZone(Location loc) {
+        return protectorAt(loc, null) != null;
+    }
+
+    /**
+     * その場所を保護範囲に含むプレイヤーを返します（期限切れは次の掃除までの最大1秒は残る）。
+     *
+     * @param exclude 除外するプレイヤー（本人の保護を無視する場合。null 可）
+     * @return 無ければ null
+     */
+    public UUID protectorAt(Location loc, UUID exclude) {
+        if (loc == null || loc.getWorld() == null)
+            return null;
+        return protectorAt(loc.getWorld().getUID(), loc.getX(), loc.getY(), loc.getZ(), exclude);
+    }
+
+    UUID protectorAt(UUID worldId, double x, double y, double z, UUID exclude) {
+        ProtectionZoneIndex<UUID> index = zones.get(worldId);
+        if (index == null)
+            return null;
+        return exclude == null ? index.ownerAt(x, y, z, k -> true)
+                : index.ownerAt(x, y, z, k -> !k.equals(exclude));
+    }
+
+    /** 有効なゾーンの数 */
+    int getZoneCount() {
+        int n = 0;
+        for (ProtectionZoneIndex<UUID> index : zones.values()) {
+            n += index.size();
+        }
+        return n;
+    }
+
+    /** 中心があり、保護中で半径があればゾーンに入れ、そうでなければ外す */
+    private void refreshZone(UUID playerId) {
+        Anchor a = anchors.get(playerId);
+        if (a == null)
+            return;
+        int radius = isProtected(playerId) ? getRadius(playerId) : 0;
+        if (radius > 0) {
+            zones.computeIfAbsent(a.worldId(), w -> new ProtectionZoneIndex<>()).put(playerId, a.x(), a.y(), a.z(),
+                    radius);
+        } else {
+            removeZone(playerId);
+        }
+    }
+
+    private void removeZone(UUID playerId) {
+        for (ProtectionZoneIndex<UUID> index : zones.values()) {
+            if (index.remove(playerId))
+                return;
+        }
+    }
+
+    // ====== 期限切れ ======
+
+    /** 保護の期限が切れた時に呼ばれるリスナーを登録します（掃除を呼んだスレッド＝通常はメインスレッドで呼ばれる） */
+    public void addExpiryListener(Consumer<UUID> listener) {
+        expiryListeners.add(listener);
+    }
+
+    /**
+     * 期限の来た保護をレコードから消し、リスナーに通知します。
+     * 延長済みなどで既に期限が先になっていたものは、その期限で登録し直します。
+     *
+     * @return 期限切れとして消した数
+     */
+    int sweepExpired(long now) {
+        List<UUID> due = new ArrayList<>();
+        synchronized (wheel) {
+            wheel.advance(now, due::add);
+        }
+        int cleared = 0;
+        for (UUID id : due) {
+            long expireAt = repository.read(id, r -> r.has(PlayerRecord.HAS_EXPIRE) ? r.expireAtMs : -1L, -1L);
+            if (expireAt < 0)
+                continue; // 既に消えている
+            if (expireAt > now) {
+                synchronized (wheel) {
+                    wheel.schedule(id, expireAt);
                 }
-            } catch (IllegalArgumentException ignored) {
-                // 不正なUUID文字列はスキップ
+                continue;
+            }
+            if (!repository.update(id, r -> r.clearExpiredProtection(now)))
+                continue;
+            cleared++;
+            anchors.remove(id);
+            removeZone(id);
+            for (Consumer<UUID> l : expiryListeners) {
+                l.accept(id);
             }
         }
+        expiredCount += cleared;
+        return cleared;
     }
 
-    private void saveSync() {
-        try {
-            yaml.save(file);
-        } catch (IOException e) {
-            plugin.getLogger().warning("Failed to save protections.yml: " + e.getMessage());
+    /** 期限待ちの保護の数 */
+    int getScheduledCount() {
+        synchronized (wheel) {
+            return wheel.size();
         }
     }
 
-    /** 軽負荷用：今は同期保存で十分。必要なら非同期化も可能。 */
-    private void saveSyncAsync() {
-        // Paper環境なら非同期にしてもよいが、簡潔に同期保存
-        saveSync();
+    /** これまでに期限切れで消した数 */
+    long getExpiredCount() {
+        return expiredCount;
     }
 
-    private String path(UUID id) {
-        return "players." + id.toString();
+    /** 状態表示用の1行サマリ */
+    public String describe() {
+        return "scheduled=" + getScheduledCount() + ", expired=" + expiredCount + ", zones=" + getZoneCount();
+    }
+
+    /** 掃除タスクを止めます（onDisable から）。専用のリポジトリを持つ場合は閉じます */
+    public void shutdown() {
+        if (sweepTask != null) {
+            sweepTask.cancel();
+            sweepTask = null;
+        }
+        if (ownsRepository)
+            repository.close();
     }
 }
@@ -0,0 +1,267 @@
+package dev.gonjy.patrolspectator;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * 1ワールド分の保護ゾーン（中心と半径の球）の索引。
+ * <p>
+ * 各ゾーンを、球を囲む正方形にかかるチャンク（16x16ブロック）のバケットすべてに登録しておき、
+ * 点の問い合わせはその点のチャンクのバケットだけを調べます（件数によらずバケット内の数件で済む）。
+ * バケットの索引は {@link SpatialGrid} と同じ long キーのオープンアドレス表で、問い合わせ中の割り当てはありません。
+ * 半径が {@value #LARGE_RADIUS} を超えるゾーンはバケットに入れず、別の一覧を毎回走査します。
+ *
+ * @param <K> ゾーンの持ち主（UUID等）
+ */
+final class ProtectionZoneIndex<K> {
+
+    /** これより大きい半径はチャンク登録が多すぎるので一覧で持つ */
+    static final int LARGE_RADIUS = 128;
+    private static final int CELL_SHIFT = 4; // 16ブロック = 1チャンク
+
+    static final class Zone<K> {
+        final K key;
+        double x, y, z;
+        double radius;
+        double radiusSq;
+        int minCx, maxCx, minCz, maxCz; // 登録したバケットの範囲（large なら未使用）
+        boolean large;
+
+        Zone(K key) {
+            this.key = key;
+        }
+
+        boolean contains(double px, double py, double pz) {
+            double dx = px - x, dy = py - y, dz = pz - z;
+            return dx * dx + dy * dy + dz * dz <= radiusSq;
+        }
+    }
+
+    static final class Bucket<K> {
+        final long key;
+        @SuppressWarnings("unchecked")
+        Zone<K>[] zones = new Zone[2];
+        int count;
+
+        Bucket(long key) {
+            this.key = key;
+        }
+    }
+
+    private final Map<K, Zone<K>> zones = new HashMap<>();
+    @SuppressWarnings("unchecked")
+    private Zone<K>[] large = new Zone[4];
+    private int largeCount;
+
+    // long キー → Bucket のオープンアドレス表（線形探索、空バケットは再配置時に捨てる）
+    @SuppressWarnings("unchecked")
+    private Bucket<K>[] table = new Bucket[64];
+    private int bucketCount;
+
+    /**
+     * ゾーンを登録または更新します（半径0以下なら削除）。
+     * 中心と半径から求めたチャンク範囲が前回と同じなら、バケットは付け替えません。
+     */
+    void put(K key, double x, double y, double z, double radius) {
+        if (!(radius > 0)) {
+            remove(key);
+            return;
+        }
+        Zone<K> zone = zones.get(key);
+        boolean large = radius > LARGE_RADIUS;
+        int minCx = cellOf(x - radius), maxCx = cellOf(x + radius);
+        int minCz = cellOf(z - radius), maxCz = cellOf(z + radius);
+        if (zone == null) {
+            zone = new Zone<>(key);
+            zones.put(key, zone);
+        } else if (zone.large == large && (large || zone.minCx == minCx && zone.maxCx == maxCx
+                && zone.minCz == minCz && zone.maxCz == maxCz)) {
+            set(zone, x, y, z, radius); // 同じバケットのまま
+            return;
+        } else {
+            detach(zone);
+        }
+        set(zone, x, y, z, radius);
+        zone.large = large;
+        zone.minCx = minCx;
+        zone.maxCx = maxCx;
+        zone.minCz = minCz;
+        zone.maxCz = maxCz;
+        attach(zone);
+    }
+
+    /** ゾーンを削除 */
+    boolean remove(K key) {
+        Zone<K> zone = zones.remove(key);
+        if (zone == null)
+            return false;
+        detach(zone);
+        return true;
+    }
+
+    void clear() {
+        zones.clear();
+        Arrays.fill(large, 0, largeCount, null);
+        largeCount = 0;
+        Arrays.fill(table, null);
+        bucketCount = 0;
+    }
+
+    int size() {
+        return zones.size();
+    }
+
+    /** 登録中のバケット数（空のものも再配置までは含む） */
+    int bucketCount() {
+        return bucketCount;
+    }
+
+    /** 点がどれかのゾーンに入っているか */
+    boolean covers(double x, double y, double z) {
+        return ownerAt(x, y, z, k -> true) != null;
+    }
+
+    /**
+     * 点を含むゾーンのうち、条件を満たす最初の持ち主を返します（本人のゾーンを除く場合など）。
+     *
+     * @return 無ければ null
+     */
+    K ownerAt(double x, double y, double z, Predicate<? super K> filter) {
+        Bucket<K> b = find(key(cellOf(x), cellOf(z)));
+        if (b != null) {
+            for (int i = 0; i < b.count; i++) {
+                Zone<K> zone = b.zones[i];
+                if (zone.contains(x, y, z) && filter.test(zone.key))
+                    return zone.key;
+            }
+        }
+        for (int i = 0; i < largeCount; i++) {
+            Zone<K> zone = large[i];
+            if (zone.contains(x, y, z) && filter.test(zone.key))
+                return zone.key;
+        }
+        return null;
+    }
+
+    // ====== 内部 ======
+
+    private static <K> void set(Zone<K> zone, double x, double y, double z, double radius) {
+        zone.x = x;
+        zone.y = y;
+        zone.z = z;
+        zone.radius = radius;
+        zone.radiusSq = radius * radius;
+    }
+
+    private void attach(Zone<K> zone) {
+        if (zone.large) {
+            if (largeCount == large.length)
+                large = Arrays.copyOf(large, largeCount * 2);
+            large[largeCount++] = zone;
+            return;
+        }
+        for (int cx = zone.minCx; cx <= zone.maxCx; cx++) {
+            for (int cz = zone.minCz; cz <= zone.maxCz; cz++) {
+                Bucket<K> b = bucketOrCreate(key(cx, cz));
+                if (b.count == b.zones.length)
+                    b.zones = Arrays.copyOf(b.zones, b.count * 2);
+                b.zones[b.count++] = zone;
+            }
+        }
+    }
+
+    private void detach(Zone<K> zone) {
+        if (zone.large) {
+            for (int i = 0; i < largeCount; i++) {
+                if (large[i] == zone) {
+                    large[i] = large[--largeCount];
+                    large[largeCount] = null;
+                    return;
+                }
+            }
+            return;
+        }
+        for (int cx = zone.minCx; cx <= zone.maxCx; cx++) {
+            for (int cz = zone.minCz; cz <= zone.maxCz; cz++) {
+                Bucket<K> b = find(key(cx, cz));
+                if (b == null)
+                    continue;
+                for (int i = 0; i < b.count; i++) {
+                    if (b.zones[i] == zone) {
+                        b.zones[i] = b.zones[--b.count];
+                        b.zones[b.count] = null;
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    private static int cellOf(double coord) {
+        return ((int) Math.floor(coord)) >> CELL_SHIFT;
+    }
+
+    private static long key(int cx, int cz) {
+        return ((long) cx << 32) | (cz & 0xFFFFFFFFL);
+    }
+
+    private static int hash(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private Bucket<K> find(long key) {
+        int mask = table.length - 1;
+        for (int i = hash(key, mask);; i = (i + 1) & mask) {
+            Bucket<K> b = table[i];
+            if (b == null)
+                return null;
+            if (b.key == key)
+                return b;
+        }
+    }
+
+    private Bucket<K> bucketOrCreate(long key) {
+        Bucket<K> b = find(key);
+        if (b != null)
+            return b;
+        if ((bucketCount + 1) * 2 > table.length)
+            rehash();
+        b = new Bucket<>(key);
+        int mask = table.length - 1;
+        int i = hash(key, mask);
+        while (table[i] != null)
+            i = (i + 1) & mask;
+        table[i] = b;
+        bucketCount++;
+        return b;
+    }
+
+    /** 空バケットを捨てて再配置する */
+    private void rehash() {
+        Bucket<K>[] old = table;
+        int live = 0;
+        for (Bucket<K> b : old) {
+            if (b != null && b.count > 0)
+                live++;
+        }
+        int cap = 64;
+        while (cap < (live + 1) * 4)
+            cap *= 2;
+        @SuppressWarnings("unchecked")
+        Bucket<K>[] next = new Bucket[cap];
+        int mask = cap - 1;
+        for (Bucket<K> b : old) {
+            if (b == null || b.count == 0)
+                continue;
+            int i = hash(b.key, mask);
+            while (next[i] != null)
+                i = (i + 1) & mask;
+            next[i] = b;
+        }
+        table = next;
+        bucketCount = live;
+    }
+}
@@ -0,0 +1,208 @@
+package dev.gonjy.patrolspectator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * スコア順のランキング索引（部分木サイズ付きTreapによる順序統計木）。
+ * <p>
+ * キーは (スコア降順, UUID昇順)。
+ * <ul>
+ * <li>{@link #update(UUID, int)} … O(log n)</li>
+ * <li>{@link #top(int)} … O(log n + k)</li>
+ * <li>{@link #rankOf(UUID)} … O(log n)</li>
+ * </ul>
+ */
+final class RankingIndex {
+
+    private static final class Node {
+        final UUID id;
+        final int score;
+        final int priority;
+        Node left, right;
+        int size = 1;
+
+        Node(UUID id, int score, int priority) {
+            this.id = id;
+            this.score = score;
+            this.priority = priority;
+        }
+    }
+
+    private final Map<UUID, Integer> scores = new HashMap<>();
+    private Node root;
+    private int seed = 0x2545F491;
+
+    /** スコアを設定（未登録なら追加、登録済みなら位置を付け替え） */
+    void update(UUID id, int score) {
+        Integer old = scores.put(id, score);
+        if (old != null) {
+            if (old == score)
+                return;
+            root = delete(root, id, old);
+        }
+        root = insert(root, new Node(id, score, nextPriority()));
+    }
+
+    /** 索引から削除 */
+    void remove(UUID id) {
+        Integer old = scores.remove(id);
+        if (old != null) {
+            root = delete(root, id, old);
+        }
+    }
+
+    /** 登録済みスコア（未登録なら null） */
+    Integer scoreOf(UUID id) {
+        return scores.get(id);
+    }
+
+    /** 1始まりの順位（未登録なら 0） */
+    int rankOf(UUID id) {
+        Integer score = scores.get(id);
+        if (score == null)
+            return 0;
+        int rank = 1;
+        Node n = root;
+        while (n != null) {
+            int c = compare(score, id, n.score, n.id);
+            if (c == 0)
+                return rank + size(n.left);
+            if (c < 0) {
+                n = n.left;
+            } else {
+                rank += size(n.left) + 1;
+                n = n.right;
+            }
+        }
+        return 0;
+    }
+
+    /** 上位k件のUUID（スコア降順） */
+    List<UUID> top(int k) {
+        int limit = Math.min(Math.max(0, k), size());
+        List<UUID> out = new ArrayList<>(limit);
+        if (limit == 0)
+            return out;
+        // 反復的な中順走査（上位k件に達したら打ち切り）
+        Node[] stack = new Node[64];
+        int sp = 0;
+        Node n = root;
+        while ((n != null || sp > 0) && out.size() < limit) {
+            while (n != null) {
+                if (sp == stack.length)
+                    stack = Arrays.copyOf(stack, sp * 2);
+                stack[sp++] = n;
+                n = n.left;
+            }
+            n = stack[--sp];
+            out.add(n.id);
+            n = n.right;
+        }
+        return out;
+    }
+
+    int size() {
+        return size(root);
+    }
+
+    void clear() {
+        scores.clear();
+        root = null;
+    }
+
+    // ====== 内部：Treap操作 ======
+
+    /** 負ならaが上位 */
+    private static int compare(int scoreA, UUID idA, int scoreB, UUID idB) {
+        if (scoreA != scoreB)
+            return scoreA > scoreB ? -1 : 1;
+        return idA.compareTo(idB);
+    }
+
+    private static int size(Node n) {
+        return n == null ? 0 : n.size;
+    }
+
+    private static void pull(Node n) {
+        n.size = 1 + size(n.left) + size(n.right);
+    }
+
+    private int nextPriority() {
+        // xorshift32（決定的で十分に分散していればよい）
+        int x = seed;
+        x ^= x << 13;
+        x ^= x >>> 17;
+        x ^= x << 5;
+        seed = x;
+        return x;
+    }
+
+    private static Node rotateRight(Node n) {
+        Node l = n.left;
+        n.left = l.right;
+        l.right = n;
+        pull(n);
+        pull(l);
+        return l;
+    }
+
+    private static Node rotateLeft(Node n) {
+        Node r = n.right;
+        n.right = r.left;
+        r.left = n;
+        pull(n);
+        pull(r);
+        return r;
+    }
+
+    private static Node insert(Node n, Node x) {
+        if (n == null)
+            return x;
+        if (compare(x.score, x.id, n.score, n.id) < 0) {
+            n.left = insert(n.left, x);
+            if (n.left.priority > n.priority)
+                return rotateRight(n);
+        } else {
+            n.right = insert(n.right, x);
+            if (n.right.priority > n.priority)
+                return rotateLeft(n);
+        }
+        pull(n);
+        return n;
+    }
+
+    private static Node delete(Node n, UUID id, int score) {
+        if (n == null)
+            return null;
+        int c = compare(score, id, n.score, n.id);
+        if (c < 0) {
+            n.left = delete(n.left, id, score);
+        } else if (c > 0) {
+            n.right = delete(n.right, id, score);
+        } else {
+            return merge(n.left, n.right);
+        }
+        pull(n);
+        return n;
+    }
+
+    private static Node merge(Node a, Node b) {
+        if (a == null)
+            return b;
+        if (b == null)
+            return a;
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            pull(a);
+            return a;
+        }
+        b.left = merge(a, b.left);
+        pull(b);
+        return b;
+    }
+}
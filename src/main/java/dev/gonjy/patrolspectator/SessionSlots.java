@@ -0,0 +1,194 @@
+package dev.gonjy.patrolspectator;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * オンライン中のプレイヤーに密な整数スロット（0始まり）を割り当てる表。
+ * <p>
+ * 参加時に {@link #assign} で割り当て、退出時に {@link #release} で返却・再利用します。
+ * 退出後もスロットの値を残したい場合は {@link #detach} でエンティティIDだけ外し、後で返却します
+ * （再参加すれば同じスロットに戻る）。
+ * ホットパス（移動イベント等）では {@link #slotOf(int)} でエンティティIDから引くため、
+ * プリミティブ int のオープンアドレス表だけを参照し、ボクシングや割り当てはありません。
+ */
+final class SessionSlots {
+
+    private static final int EMPTY = Integer.MIN_VALUE;
+
+    // スロット → UUID
+    private UUID[] owners = new UUID[16];
+    private int[] entityIds = new int[16];
+    private int highWater; // 一度でも使われたスロット数
+    private int[] free = new int[16];
+    private int freeCount;
+    private final Map<UUID, Integer> byUuid = new HashMap<>();
+
+    // エンティティID → スロット（線形探索、削除はバックシフト）
+    private int[] idKeys = newKeys(32);
+    private int[] idSlots = new int[32];
+    private int idCount;
+
+    /**
+     * スロットを割り当てます（割り当て済みならエンティティIDを更新して同じスロットを返す）。
+     */
+    int assign(UUID id, int entityId) {
+        Integer existing = byUuid.get(id);
+        if (existing != null) {
+            int slot = existing;
+            if (entityIds[slot] != entityId) {
+                idRemove(entityIds[slot]); // detach 済みなら何もしない
+                entityIds[slot] = entityId;
+                idPut(entityId, slot);
+            }
+            return slot;
+        }
+        int slot;
+        if (freeCount > 0) {
+            slot = free[--freeCount];
+        } else {
+            slot = highWater++;
+            if (slot == owners.length) {
+                owners = Arrays.copyOf(owners, slot * 2);
+                entityIds = Arrays.copyOf(entityIds, slot * 2);
+            }
+        }
+        owners[slot] = id;
+        entityIds[slot] = entityId;
+        byUuid.put(id, slot);
+        idPut(entityId, slot);
+        return slot;
+    }
+
+    /**
+     * スロットを返却します。
+     *
+     * @return 返却されたスロット（未割り当てなら -1）
+     */
+    int release(UUID id) {
+        Integer existing = byUuid.remove(id);
+        if (existing == null)
+            return -1;
+        int slot = existing;
+        idRemove(entityIds[slot]);
+        owners[slot] = null;
+        if (freeCount == free.length)
+            free = Arrays.copyOf(free, freeCount * 2);
+        free[freeCount++] = slot;
+        return slot;
+    }
+
+    /**
+     * スロットを保持したままエンティティIDの対応だけを外します（退出したがスロットの値は残す場合）。
+     *
+     * @return 対象のスロット（未割り当てなら -1）
+     */
+    int detach(UUID id) {
+        Integer existing = byUuid.get(id);
+        if (existing == null)
+            return -1;
+        int slot = existing;
+        idRemove(entityIds[slot]);
+        entityIds[slot] = EMPTY;
+        return slot;
+    }
+
+    /** オンライン（エンティティIDが対応付いている）スロットか */
+    boolean isAttached(int slot) {
+        return slot >= 0 && slot < highWater && owners[slot] != null && entityIds[slot] != EMPTY;
+    }
+
+    /** エンティティIDからスロットを引く（未割り当てなら -1） */
+    int slotOf(int entityId) {
+        int mask = idKeys.length - 1;
+        for (int i = mix(entityId) & mask;; i = (i + 1) & mask) {
+            int k = idKeys[i];
+            if (k == EMPTY)
+                return -1;
+            if (k == entityId)
+                return idSlots[i];
+        }
+    }
+
+    /** UUIDからスロットを引く（未割り当てなら -1） */
+    int slotOf(UUID id) {
+        Integer slot = byUuid.get(id);
+        return slot == null ? -1 : slot;
+    }
+
+    /** スロットの所有者（空きなら null） */
+    UUID ownerOf(int slot) {
+        return slot >= 0 && slot < highWater ? owners[slot] : null;
+    }
+
+    /** 走査用の上限（これ未満のスロットに所有者がいる可能性がある） */
+    int capacity() {
+        return highWater;
+    }
+
+    int size() {
+        return byUuid.size();
+    }
+
+    // ====== 内部 ======
+
+    private static int[] newKeys(int n) {
+        int[] a = new int[n];
+        Arrays.fill(a, EMPTY);
+        return a;
+    }
+
+    private static int mix(int x) {
+        x *= 0x9E3779B9;
+        return x ^ (x >>> 16);
+    }
+
+    private void idPut(int key, int slot) {
+        if ((idCount + 1) * 2 > idKeys.length)
+            idResize(idKeys.length * 2);
+        int mask = idKeys.length - 1;
+        int i = mix(key) & mask;
+        while (idKeys[i] != EMPTY && idKeys[i] != key)
+            i = (i + 1) & mask;
+        if (idKeys[i] == EMPTY)
+            idCount++;
+        idKeys[i] = key;
+        idSlots[i] = slot;
+    }
+
+    private void idRemove(int key) {
+        if (key == EMPTY)
+            return;
+        int mask = idKeys.length - 1;
+        int i = mix(key) & mask;
+        while (idKeys[i] != key) {
+            if (idKeys[i] == EMPTY)
+                return;
+            i = (i + 1) & mask;
+        }
+        idKeys[i] = EMPTY;
+        idCount--;
+        // 後続のクラスタを詰め直す（墓石を使わない線形探索の削除）
+        for (int j = (i + 1) & mask; idKeys[j] != EMPTY; j = (j + 1) & mask) {
+            int k = idKeys[j];
+            int s = idSlots[j];
+            idKeys[j] = EMPTY;
+            idCount--;
+            idPut(k, s);
+        }
+    }
+
+    private void idResize(int capacity) {
+        int[] oldKeys = idKeys;
+        int[] oldSlots = idSlots;
+        idKeys = newKeys(capacity);
+        idSlots = new int[capacity];
+        idCount = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY)
+                idPut(oldKeys[i], oldSlots[i]);
+        }
+    }
+}
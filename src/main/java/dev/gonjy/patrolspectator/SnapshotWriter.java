@@ -0,0 +1,134 @@
+package dev.gonjy.patrolspectator;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * YAMLストア共通のクラッシュ耐性スナップショット書き込み。
+ * <p>
+ * 一時ファイルへ書き出して fsync し、本体ファイルへアトミックに置き換えるため、
+ * 書き込み途中でクラッシュしても本体ファイルが壊れる（切り詰められる）ことはありません。
+ * 書き込みは呼び出し元のスレッドで行い、順序は呼び出し元（リポジトリのI/Oスレッド等）が決めます。
+ * 書き込み時間と書き込みバイト数を集計します。
+ */
+public final class SnapshotWriter {
+
+    // 集計
+    private long writes;
+    private long failures;
+    private long bytesWritten;
+    private long lastBytes;
+    private long lastNanos;
+    private long maxNanos;
+    private long totalNanos;
+
+    /**
+     * 呼び出し元スレッドでアトミックに書き込みます（テキスト形式用）。
+     *
+     * @throws IOException 書き込み・置換に失敗した場合（本体ファイルは元のまま）
+     */
+    public void writeNow(File file, String content) throws IOException {
+        long start = System.nanoTime();
+        // エンコード結果をそのまま書く（バッファへの再コピーはしない）
+        write(file, ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8)), start);
+    }
+
+    /**
+     * 呼び出し元スレッドでアトミックに書き込みます（バイナリ形式用）。
+     *
+     * @param size 書き込むバイト数
+     * @param fill size バイトのバッファを埋める関数
+     * @throws IOException 書き込み・置換に失敗した場合（本体ファイルは元のまま）
+     */
+    public void writeNow(File file, int size, Consumer<ByteBuffer> fill) throws IOException {
+        long start = System.nanoTime();
+        ByteBuffer buf = ByteBuffer.allocate(size);
+        fill.accept(buf);
+        buf.flip();
+        write(file, buf, start);
+    }
+
+    /** buf の残り全部を一時ファイル経由で書き込み、置き換える */
+    private void write(File file, ByteBuffer buf, long start) throws IOException {
+        int size = buf.remaining();
+        Path target = file.toPath();
+        Path tmp = target.resolveSibling(file.getName() + ".tmp");
+        try {
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (buf.hasRemaining()) {
+                    ch.write(buf);
+                }
+                ch.force(true);
+            }
+            try {
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            syncDirectory(target.getParent());
+        } catch (IOException e) {
+            synchronized (this) {
+                failures++;
+            }
+            throw e;
+        }
+        long nanos = System.nanoTime() - start;
+        synchronized (this) {
+            writes++;
+            bytesWritten += size;
+            lastBytes = size;
+            lastNanos = nanos;
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+        }
+    }
+
+    public synchronized long getWrites() {
+        return writes;
+    }
+
+    public synchronized long getFailures() {
+        return failures;
+    }
+
+    public synchronized long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    public synchronized long getLastLatencyNanos() {
+        return lastNanos;
+    }
+
+    public synchronized long getMaxLatencyNanos() {
+        return maxNanos;
+    }
+
+    /** 状態表示用の1行サマリ */
+    public synchronized String describe() {
+        double avgMs = writes == 0 ? 0.0 : totalNanos / 1e6 / writes;
+        return String.format("writes=%d, failed=%d, bytes=%d (last %d), latency avg=%.2fms last=%.2fms max=%.2fms",
+                writes, failures, bytesWritten, lastBytes, avgMs, lastNanos / 1e6, maxNanos / 1e6);
+    }
+
+    // ====== 内部 ======
+
+    private static void syncDirectory(Path dir) {
+        if (dir == null)
+            return;
+        // リネームを永続化する（POSIX のみ。Windows ではディレクトリを開けないので無視）
+        try (FileChannel ch = FileChannel.open(dir, StandardOpenOption.READ)) {
+            ch.force(true);
+        } catch (IOException | UnsupportedOperationException ignored) {
+        }
+    }
+}
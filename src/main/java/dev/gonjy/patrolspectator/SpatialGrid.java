@@ -0,0 +1,372 @@
+package dev.gonjy.patrolspectator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * 1ワールド分のチャンク単位（16x16ブロック）空間ハッシュグリッド。
+ * <p>
+ * 半径クエリは半径と重なるセルだけを走査します。
+ * セルの索引は long キーのオープンアドレス表で、クエリ中のボクシングや割り当てはありません。
+ *
+ * @param <T> 格納する値（プレイヤー等）
+ */
+final class SpatialGrid<T> {
+
+    /** グリッド上の1要素。座標とセル内位置を保持する */
+    static final class Entry<T> {
+        final T value;
+        double x, y, z;
+        Cell<T> cell;
+        int slot;
+
+        Entry(T value) {
+            this.value = value;
+        }
+    }
+
+    static final class Cell<T> {
+        final long key;
+        @SuppressWarnings("unchecked")
+        Entry<T>[] entries = new Entry[4];
+        int count;
+
+        Cell(long key) {
+            this.key = key;
+        }
+    }
+
+    private static final int CELL_SHIFT = 4; // 16ブロック = 1チャンク
+
+    // long キー → Cell のオープンアドレス表（線形探索、空セルは再配置時に捨てる）
+    @SuppressWarnings("unchecked")
+    private Cell<T>[] table = new Cell[64];
+    private int cellCount;
+    private int size;
+
+    /** 要素を追加 */
+    Entry<T> insert(T value, double x, double y, double z) {
+        Entry<T> e = new Entry<>(value);
+        e.x = x;
+        e.y = y;
+        e.z = z;
+        attach(e, cellOrCreate(key(cellOf(x), cellOf(z))));
+        size++;
+        return e;
+    }
+
+    /** 座標を更新（チャンクを跨いだ時だけセルを付け替える） */
+    void move(Entry<T> e, double x, double y, double z) {
+        e.x = x;
+        e.y = y;
+        e.z = z;
+        long k = key(cellOf(x), cellOf(z));
+        if (e.cell != null && e.cell.key == k)
+            return;
+        detach(e);
+        attach(e, cellOrCreate(k));
+    }
+
+    /** 要素を削除 */
+    void remove(Entry<T> e) {
+        if (e.cell == null)
+            return;
+        detach(e);
+        size--;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * 半径内で条件を満たす最も近い要素を返します。
+     *
+     * @return 見つからなければ null
+     */
+    T nearest(double x, double y, double z, double radius, Predicate<? super T> filter) {
+        double radiusSq = radius * radius;
+        T best = null;
+        double bestSq = Double.MAX_VALUE;
+        int minCx = cellOf(x - radius), maxCx = cellOf(x + radius);
+        int minCz = cellOf(z - radius), maxCz = cellOf(z + radius);
+        for (int cx = minCx; cx <= maxCx; cx++) {
+            for (int cz = minCz; cz <= maxCz; cz++) {
+                Cell<T> cell = find(key(cx, cz));
+                if (cell == null)
+                    continue;
+                for (int i = 0; i < cell.count; i++) {
+                    Entry<T> e = cell.entries[i];
+                    double d = distSq(e, x, y, z);
+                    if (d <= radiusSq && d < bestSq && filter.test(e.value)) {
+                        best = e.value;
+                        bestSq = d;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 半径内で条件を満たす要素を近い順に最大k件返します。
+     */
+    List<T> kNearest(double x, double y, double z, double radius, int k, Predicate<? super T> filter) {
+        if (k <= 0)
+            return new ArrayList<>(0);
+        double radiusSq = radius * radius;
+        // 距離の最大ヒープ（上限k件）
+        Object[] heapVal = new Object[k];
+        double[] heapDist = new double[k];
+        int n = 0;
+        int minCx = cellOf(x - radius), maxCx = cellOf(x + radius);
+        int minCz = cellOf(z - radius), maxCz = cellOf(z + radius);
+        for (int cx = minCx; cx <= maxCx; cx++) {
+            for (int cz = minCz; cz <= maxCz; cz++) {
+                Cell<T> cell = find(key(cx, cz));
+                if (cell == null)
+                    continue;
+                for (int i = 0; i < cell.count; i++) {
+                    Entry<T> e = cell.entries[i];
+                    double d = distSq(e, x, y, z);
+                    if (d > radiusSq || (n == k && d >= heapDist[0]) || !filter.test(e.value))
+                        continue;
+                    if (n < k) {
+                        heapVal[n] = e.value;
+                        heapDist[n] = d;
+                        siftUp(heapVal, heapDist, n++);
+                    } else {
+                        heapVal[0] = e.value;
+                        heapDist[0] = d;
+                        siftDown(heapVal, heapDist, n);
+                    }
+                }
+            }
+        }
+        // ヒープを昇順に取り出す
+        @SuppressWarnings("unchecked")
+        T[] sorted = (T[]) new Object[n];
+        for (int i = n - 1; i >= 0; i--) {
+            @SuppressWarnings("unchecked")
+            T top = (T) heapVal[0];
+            sorted[i] = top;
+            heapVal[0] = heapVal[i];
+            heapDist[0] = heapDist[i];
+            siftDown(heapVal, heapDist, i);
+        }
+        return new ArrayList<>(Arrays.asList(sorted));
+    }
+
+    /**
+     * 半径内で条件を満たす要素数を数えます。
+     */
+    int countWithin(double x, double y, double z, double radius, Predicate<? super T> filter) {
+        double radiusSq = radius * radius;
+        int count = 0;
+        int minCx = cellOf(x - radius), maxCx = cellOf(x + radius);
+        int minCz = cellOf(z - radius), maxCz = cellOf(z + radius);
+        for (int cx = minCx; cx <= maxCx; cx++) {
+            for (int cz = minCz; cz <= maxCz; cz++) {
+                Cell<T> cell = find(key(cx, cz));
+                if (cell == null)
+                    continue;
+                for (int i = 0; i < cell.count; i++) {
+                    Entry<T> e = cell.entries[i];
+                    if (distSq(e, x, y, z) <= radiusSq && filter.test(e.value))
+                        count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /** {@link #forEachWithin} の訪問先 */
+    interface PairVisitor<T> {
+        /**
+         * @param center 中心の番号（xs/ys/zs の添字）
+         * @param value  半径内の要素
+         * @param distSq 中心からの距離の2乗
+         */
+        void visit(int center, T value, double distSq);
+    }
+
+    /**
+     * 複数の中心それぞれについて、半径内で条件を満たす要素を訪問します。
+     * 範囲の重なるセルも1回しか走査せず、条件も要素ごとに1回だけ評価します
+     * （カメラ全員分の候補を1パスで集める用途）。訪問順は不定です。
+     *
+     * @param n 使う中心の数（xs/ys/zs の先頭 n 件）
+     */
+    void forEachWithin(double[] xs, double[] ys, double[] zs, int n, double radius, Predicate<? super T> filter,
+            PairVisitor<? super T> visitor) {
+        if (n <= 0)
+            return;
+        double radiusSq = radius * radius;
+        // 各中心と重なるセルのキーを集めて重複を除く
+        int span = cellOf(radius) - cellOf(-radius) + 2;
+        long[] keys = new long[n * span * span];
+        int k = 0;
+        for (int c = 0; c < n; c++) {
+            int minCx = cellOf(xs[c] - radius), maxCx = cellOf(xs[c] + radius);
+            int minCz = cellOf(zs[c] - radius), maxCz = cellOf(zs[c] + radius);
+            for (int cx = minCx; cx <= maxCx; cx++) {
+                for (int cz = minCz; cz <= maxCz; cz++) {
+                    if (k == keys.length)
+                        keys = Arrays.copyOf(keys, k * 2);
+                    keys[k++] = key(cx, cz);
+                }
+            }
+        }
+        Arrays.sort(keys, 0, k);
+        for (int i = 0; i < k; i++) {
+            if (i > 0 && keys[i] == keys[i - 1])
+                continue;
+            Cell<T> cell = find(keys[i]);
+            if (cell == null)
+                continue;
+            for (int j = 0; j < cell.count; j++) {
+                Entry<T> e = cell.entries[j];
+                int accepted = 0; // 0=未評価, 1=可, -1=不可
+                for (int c = 0; c < n; c++) {
+                    double d = distSq(e, xs[c], ys[c], zs[c]);
+                    if (d > radiusSq)
+                        continue;
+                    if (accepted == 0)
+                        accepted = filter.test(e.value) ? 1 : -1;
+                    if (accepted < 0)
+                        break;
+                    visitor.visit(c, e.value, d);
+                }
+            }
+        }
+    }
+
+    // ====== 内部 ======
+
+    private static int cellOf(double coord) {
+        return ((int) Math.floor(coord)) >> CELL_SHIFT;
+    }
+
+    private static long key(int cx, int cz) {
+        return ((long) cx << 32) | (cz & 0xFFFFFFFFL);
+    }
+
+    private static double distSq(Entry<?> e, double x, double y, double z) {
+        double dx = e.x - x, dy = e.y - y, dz = e.z - z;
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    private static int hash(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private Cell<T> find(long key) {
+        int mask = table.length - 1;
+        for (int i = hash(key, mask);; i = (i + 1) & mask) {
+            Cell<T> c = table[i];
+            if (c == null)
+                return null;
+            if (c.key == key)
+                return c;
+        }
+    }
+
+    private Cell<T> cellOrCreate(long key) {
+        Cell<T> c = find(key);
+        if (c != null)
+            return c;
+        if ((cellCount + 1) * 2 > table.length)
+            rehash();
+        c = new Cell<>(key);
+        int mask = table.length - 1;
+        int i = hash(key, mask);
+        while (table[i] != null)
+            i = (i + 1) & mask;
+        table[i] = c;
+        cellCount++;
+        return c;
+    }
+
+    /** 空セルを捨てて再配置する（移動で空セルが溜まった時の掃除も兼ねる） */
+    private void rehash() {
+        Cell<T>[] old = table;
+        int live = 0;
+        for (Cell<T> c : old) {
+            if (c != null && c.count > 0)
+                live++;
+        }
+        int cap = 64;
+        while (cap < (live + 1) * 4)
+            cap *= 2;
+        @SuppressWarnings("unchecked")
+        Cell<T>[] next = new Cell[cap];
+        int mask = cap - 1;
+        for (Cell<T> c : old) {
+            if (c == null || c.count == 0)
+                continue;
+            int i = hash(c.key, mask);
+            while (next[i] != null)
+                i = (i + 1) & mask;
+            next[i] = c;
+        }
+        table = next;
+        cellCount = live;
+    }
+
+    private static <T> void attach(Entry<T> e, Cell<T> cell) {
+        if (cell.count == cell.entries.length)
+            cell.entries = Arrays.copyOf(cell.entries, cell.count * 2);
+        e.cell = cell;
+        e.slot = cell.count;
+        cell.entries[cell.count++] = e;
+    }
+
+    private static <T> void detach(Entry<T> e) {
+        Cell<T> cell = e.cell;
+        if (cell == null)
+            return;
+        int last = --cell.count;
+        Entry<T> moved = cell.entries[last];
+        cell.entries[e.slot] = moved;
+        moved.slot = e.slot;
+        cell.entries[last] = null;
+        e.cell = null;
+    }
+
+    private static void siftUp(Object[] val, double[] dist, int i) {
+        while (i > 0) {
+            int p = (i - 1) >>> 1;
+            if (dist[p] >= dist[i])
+                break;
+            swap(val, dist, i, p);
+            i = p;
+        }
+    }
+
+    private static void siftDown(Object[] val, double[] dist, int n) {
+        int i = 0;
+        while (true) {
+            int l = 2 * i + 1, r = l + 1, m = i;
+            if (l < n && dist[l] > dist[m])
+                m = l;
+            if (r < n && dist[r] > dist[m])
+                m = r;
+            if (m == i)
+                return;
+            swap(val, dist, i, m);
+            i = m;
+        }
+    }
+
+    private static void swap(Object[] val, double[] dist, int a, int b) {
+        Object v = val[a];
+        val[a] = val[b];
+        val[b] = v;
+        double d = dist[a];
+        dist[a] = dist[b];
+        dist[b] = d;
+    }
+}
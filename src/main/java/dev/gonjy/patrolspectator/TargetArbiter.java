@@ -0,0 +1,129 @@
+package dev.gonjy.patrolspectator;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 複数カメラへの観戦対象の割り当て。同じ対象を2台のカメラに割り当てないよう調停します。
+ * <p>
+ * 既に他のカメラが映している対象を {@link #claim} で予約しておき、
+ * 候補（カメラ番号・対象・コスト）を {@link #offer} で集めてから、
+ * {@link #assign} がコストの小さい組から順に確定します（貪欲法。同じコストなら先に集めた候補から）。
+ * 並べ替えは使い回しの添字配列をその場でヒープソートするので、毎tickの割り当てはありません。
+ *
+ * @param <T> 対象のキー（UUID等）
+ */
+final class TargetArbiter<T> {
+
+    private final Set<T> claimed = new HashSet<>();
+
+    // 候補（並列配列）
+    private int[] cameras = new int[16];
+    private Object[] targets = new Object[16];
+    private double[] costs = new double[16];
+    private int[] order = new int[16];
+    private int count;
+
+    /** 予約と候補を破棄（1tickごとに呼ぶ） */
+    void clear() {
+        claimed.clear();
+        Arrays.fill(targets, 0, count, null);
+        count = 0;
+    }
+
+    /**
+     * 対象を予約します。
+     *
+     * @return 予約できたら true（既に予約済みなら false）
+     */
+    boolean claim(T target) {
+        return claimed.add(target);
+    }
+
+    boolean isClaimed(T target) {
+        return claimed.contains(target);
+    }
+
+    /** 候補を追加（コストは距離の2乗など、小さいほど優先） */
+    void offer(int camera, T target, double cost) {
+        if (count == cameras.length) {
+            int n = count * 2;
+            cameras = Arrays.copyOf(cameras, n);
+            targets = Arrays.copyOf(targets, n);
+            costs = Arrays.copyOf(costs, n);
+            order = new int[n];
+        }
+        cameras[count] = camera;
+        targets[count] = target;
+        costs[count] = cost;
+        count++;
+    }
+
+    /** 集めた候補の数 */
+    int candidates() {
+        return count;
+    }
+
+    /**
+     * コストの小さい組から、未割り当てのカメラと未予約の対象を結び付けます。
+     * 既に out に値の入っているカメラと、範囲外のカメラ番号の候補は無視します。
+     *
+     * @param out カメラ番号 → 対象
+     * @return 新たに割り当てた数
+     */
+    int assign(T[] out) {
+        sortByCost();
+        int assigned = 0;
+        for (int k = 0; k < count; k++) {
+            int i = order[k];
+            int cam = cameras[i];
+            if (cam < 0 || cam >= out.length || out[cam] != null)
+                continue;
+            @SuppressWarnings("unchecked")
+            T t = (T) targets[i];
+            if (!claimed.add(t))
+                continue;
+            out[cam] = t;
+            assigned++;
+        }
+        return assigned;
+    }
+
+    /** order[0..count) を候補番号で埋め、コストの昇順（同じなら候補番号順）に並べる */
+    private void sortByCost() {
+        for (int i = 0; i < count; i++)
+            order[i] = i;
+        for (int i = count / 2 - 1; i >= 0; i--)
+            siftDown(i, count);
+        for (int end = count - 1; end > 0; end--) {
+            int top = order[0];
+            order[0] = order[end];
+            order[end] = top;
+            siftDown(0, end);
+        }
+    }
+
+    /** 最大ヒープ order[0..size) の i を下へ沈める */
+    private void siftDown(int i, int size) {
+        int x = order[i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size)
+                break;
+            if (child + 1 < size && after(order[child + 1], order[child]))
+                child++;
+            if (!after(order[child], x))
+                break;
+            order[i] = order[child];
+            i = child;
+        }
+        order[i] = x;
+    }
+
+    /** 候補 a が b より後に並ぶか */
+    private boolean after(int a, int b) {
+        int c = Double.compare(costs[a], costs[b]);
+        return c != 0 ? c > 0 : a > b;
+    }
+}
@@ -0,0 +1,22 @@
+package dev.gonjy.patrolspectator;
+
+/**
+ * 観戦対象の「面白さ」を評価するスコアラー（SPI）。
+ * <p>
+ * 実装はイベントから逐次更新された {@link TargetSignals} だけを読み、Bukkit APIを呼ばないこと。
+ * 戻り値はおおむね 0〜1 に正規化し、重みは {@link TargetScoringEngine} 側で掛けます。
+ */
+public interface TargetScorer {
+
+    /** 設定キー（patrol.targeting.weights.&lt;key&gt;）に使う識別子 */
+    String key();
+
+    /**
+     * スコアを計算します。
+     *
+     * @param signals 対象プレイヤーの逐次更新された指標
+     * @param nowMs   現在時刻（ms）
+     * @return 正規化されたスコア
+     */
+    double score(TargetSignals signals, long nowMs);
+}
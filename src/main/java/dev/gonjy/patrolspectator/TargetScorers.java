@@ -0,0 +1,106 @@
+package dev.gonjy.patrolspectator;
+
+import java.util.List;
+
+/**
+ * 標準の {@link TargetScorer} 実装群。
+ */
+public final class TargetScorers {
+
+    private TargetScorers() {
+    }
+
+    /** 標準スコアラー一覧（戦闘・キル・移動・未観戦時間・周囲密度） */
+    public static List<TargetScorer> defaults() {
+        return List.of(new RecentCombat(), new RecentKills(), new Movement(), new TimeSinceFeatured(),
+                new NearbyDensity());
+    }
+
+    /** 直近30秒以内の戦闘を線形減衰で評価 */
+    public static final class RecentCombat implements TargetScorer {
+        private static final long WINDOW_MS = 30_000L;
+
+        @Override
+        public String key() {
+            return "combat";
+        }
+
+        @Override
+        public double score(TargetSignals s, long nowMs) {
+            if (s.lastCombatMs == 0L)
+                return 0.0;
+            long age = nowMs - s.lastCombatMs;
+            return age >= WINDOW_MS ? 0.0 : 1.0 - (double) age / WINDOW_MS;
+        }
+    }
+
+    /** キル数を半減期60秒で減衰させ、5キルで飽和 */
+    public static final class RecentKills implements TargetScorer {
+        private static final double HALF_LIFE_MS = 60_000.0;
+        private static final double SATURATION = 5.0;
+
+        @Override
+        public String key() {
+            return "kills";
+        }
+
+        @Override
+        public double score(TargetSignals s, long nowMs) {
+            return Math.min(1.0, decayedKills(s, nowMs) / SATURATION);
+        }
+
+        /** 現在時刻まで減衰させたキル数 */
+        static double decayedKills(TargetSignals s, long nowMs) {
+            if (s.lastKillMs == 0L)
+                return 0.0;
+            return s.recentKills * Math.pow(0.5, (nowMs - s.lastKillMs) / HALF_LIFE_MS);
+        }
+    }
+
+    /** 移動速度（8ブロック/秒で飽和） */
+    public static final class Movement implements TargetScorer {
+        private static final double SATURATION = 8.0;
+
+        @Override
+        public String key() {
+            return "movement";
+        }
+
+        @Override
+        public double score(TargetSignals s, long nowMs) {
+            return Math.min(1.0, s.movementEma / SATURATION);
+        }
+    }
+
+    /** 最後に観戦されてからの経過時間（5分で満点、未観戦は満点） */
+    public static final class TimeSinceFeatured implements TargetScorer {
+        private static final long FULL_MS = 5 * 60_000L;
+
+        @Override
+        public String key() {
+            return "featured";
+        }
+
+        @Override
+        public double score(TargetSignals s, long nowMs) {
+            if (s.lastFeaturedMs == 0L)
+                return 1.0;
+            return Math.min(1.0, (double) (nowMs - s.lastFeaturedMs) / FULL_MS);
+        }
+    }
+
+    /** 周囲のプレイヤー数（5人で飽和） */
+    public static final class NearbyDensity implements TargetScorer {
+        private static final double SATURATION = 5.0;
+
+        @Override
+        public String key() {
+            return "density";
+        }
+
+        @Override
+        public double score(TargetSignals s, long nowMs) {
+            return Math.min(1.0, s.nearbyPlayers / SATURATION);
+        }
+    }
+}
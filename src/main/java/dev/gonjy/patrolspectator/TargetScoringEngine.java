@@ -0,0 +1,269 @@
+package dev.gonjy.patrolspectator;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.entity.Projectile;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityDamageByEntityEvent;
+import org.bukkit.event.entity.EntityDeathEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * 観戦対象のスコアリングエンジン。
+ * <p>
+ * 登録された {@link TargetScorer} の重み付き合計をプレイヤーごとのスコアとし、
+ * {@link IndexedMaxHeap} で常に順序を維持します。スコアは毎tick全員を再計算するのではなく、
+ * <ul>
+ * <li>戦闘・キル・観戦イベント発生時にそのプレイヤーだけ再計算</li>
+ * <li>移動量・周囲密度・時間減衰は数tickごとに少人数ずつ巡回サンプリング</li>
+ * </ul>
+ * で更新するため、{@link #pickBest} はヒープ上位を見るだけで済みます。
+ */
+public final class TargetScoringEngine implements Listener {
+
+    private static final int SAMPLE_PERIOD_TICKS = 5;
+    private static final int SAMPLE_SLICE = 16;
+    private static final double DENSITY_RADIUS = 24.0;
+    private static final double MOVEMENT_EMA_ALPHA = 0.3;
+    private static final double MAX_PLAUSIBLE_SPEED = 20.0; // これを超える移動はテレポート扱いで無視
+    private static final int MAX_PROBE = 32;
+
+    private final Plugin plugin;
+    private final PlayerSpatialIndex spatialIndex;
+
+    // スコアラーと重みは同じ添字で対応（再計算のたびに箱から出さないよう double[]）
+    private TargetScorer[] scorers = new TargetScorer[8];
+    private double[] weights = new double[8];
+    private int scorerCount;
+    private final double minScore;
+
+    private final Map<UUID, TargetSignals> signals = new HashMap<>();
+    private final IndexedMaxHeap<UUID> heap = new IndexedMaxHeap<>();
+
+    // 巡回サンプリング
+    private final List<UUID> roster = new ArrayList<>();
+    private int cursor;
+    private final Location scratch = new Location(null, 0, 0, 0);
+    private BukkitTask sampleTask;
+
+    public TargetScoringEngine(Plugin plugin, PlayerSpatialIndex spatialIndex) {
+        this.plugin = plugin;
+        this.spatialIndex = spatialIndex;
+        this.minScore = plugin.getConfig().getDouble("patrol.targeting.minScore", 2.0);
+        for (TargetScorer s : TargetScorers.defaults()) {
+            registerScorer(s, defaultWeight(s.key()));
+        }
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+        for (Player p : Bukkit.getOnlinePlayers()) {
+            track(p.getUniqueId());
+        }
+    }
+
+    /**
+     * スコアラーを追加します。重みは config の patrol.targeting.weights.&lt;key&gt; が優先されます。
+     *
+     * @param scorer        スコアラー
+     * @param defaultWeight 設定が無い場合の重み
+     */
+    public void registerScorer(TargetScorer scorer, double defaultWeight) {
+        if (scorerCount == scorers.length) {
+            scorers = Arrays.copyOf(scorers, scorerCount * 2);
+            weights = Arrays.copyOf(weights, scorerCount * 2);
+        }
+        scorers[scorerCount] = scorer;
+        weights[scorerCount] = plugin.getConfig().getDouble("patrol.targeting.weights." + scorer.key(), defaultWeight);
+        scorerCount++;
+    }
+
+    /** 巡回サンプリングを開始（パトロール開始時） */
+    public void start() {
+        if (sampleTask != null)
+            return;
+        sampleTask = Bukkit.getScheduler().runTaskTimer(plugin, this::sampleSlice, 1L, SAMPLE_PERIOD_TICKS);
+    }
+
+    /** 巡回サンプリングを停止 */
+    public void stop() {
+        if (sampleTask != null) {
+            sampleTask.cancel();
+            sampleTask = null;
+        }
+    }
+
+    /**
+     * 条件を満たす中で最もスコアの高いプレイヤーを返します。
+     *
+     * @param eligible 観戦対象として許可する条件（カメラ除外・ゲームモード等）
+     * @return 最低スコア（patrol.targeting.minScore）未満しかいなければ null
+     */
+    public Player pickBest(Predicate<? super Player> eligible) {
+        UUID id = heap.best(u -> {
+            Player p = Bukkit.getPlayer(u);
+            return p != null && eligible.test(p);
+        }, MAX_PROBE);
+        if (id == null || heap.priorityOf(id) < minScore)
+            return null;
+        return Bukkit.getPlayer(id);
+    }
+
+    /** 観戦されたことを記録（未観戦時間スコアをリセット） */
+    public void markFeatured(UUID id) {
+        TargetSignals s = signals.get(id);
+        if (s == null)
+            return;
+        long now = System.currentTimeMillis();
+        s.lastFeaturedMs = now;
+        recompute(id, s, now);
+    }
+
+    /** 現在のスコア（未追跡なら NaN） */
+    public double scoreOf(UUID id) {
+        return heap.priorityOf(id);
+    }
+
+    // ====== イベント ======
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent e) {
+        track(e.getPlayer().getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent e) {
+        UUID id = e.getPlayer().getUniqueId();
+        signals.remove(id);
+        heap.remove(id);
+        roster.remove(id);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onDamage(EntityDamageByEntityEvent e) {
+        long now = System.currentTimeMillis();
+        if (e.getEntity() instanceof Player victim) {
+            noteCombat(victim.getUniqueId(), now);
+        }
+        Player attacker = attackerOf(e.getDamager());
+        if (attacker != null) {
+            noteCombat(attacker.getUniqueId(), now);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onDeath(EntityDeathEvent e) {
+        Player killer = e.getEntity().getKiller();
+        if (killer == null)
+            return;
+        TargetSignals s = signals.get(killer.getUniqueId());
+        if (s == null)
+            return;
+        long now = System.currentTimeMillis();
+        // PKはモブ討伐より配信映えするので重めに数える
+        double weight = e.getEntity() instanceof Player ? 2.0 : 1.0;
+        s.recentKills = TargetScorers.RecentKills.decayedKills(s, now) + weight;
+        s.lastKillMs = now;
+        recompute(killer.getUniqueId(), s, now);
+    }
+
+    // ====== 内部 ======
+
+    private static double defaultWeight(String key) {
+        switch (key) {
+            case "combat":
+                return 3.0;
+            case "kills":
+                return 2.0;
+            case "featured":
+                return 1.5;
+            default:
+                return 1.0;
+        }
+    }
+
+    private static Player attackerOf(Entity damager) {
+        if (damager instanceof Player p)
+            return p;
+        if (damager instanceof Projectile proj && proj.getShooter() instanceof Player p)
+            return p;
+        return null;
+    }
+
+    private void track(UUID id) {
+        if (signals.containsKey(id))
+            return;
+        TargetSignals s = new TargetSignals();
+        signals.put(id, s);
+        roster.add(id);
+        recompute(id, s, System.currentTimeMillis());
+    }
+
+    private void noteCombat(UUID id, long now) {
+        TargetSignals s = signals.get(id);
+        if (s == null)
+            return;
+        s.lastCombatMs = now;
+        recompute(id, s, now);
+    }
+
+    private void recompute(UUID id, TargetSignals s, long now) {
+        double total = 0.0;
+        for (int i = 0; i < scorerCount; i++) {
+            total += weights[i] * scorers[i].score(s, now);
+        }
+        heap.set(id, total);
+    }
+
+    /** 少人数ずつ位置をサンプリングし、移動量・周囲密度・時間減衰を反映する */
+    private void sampleSlice() {
+        int n = roster.size();
+        if (n == 0)
+            return;
+        long now = System.currentTimeMillis();
+        int budget = Math.min(SAMPLE_SLICE, n);
+        for (int i = 0; i < budget; i++) {
+            if (cursor >= roster.size())
+                cursor = 0;
+            UUID id = roster.get(cursor++);
+            Player p = Bukkit.getPlayer(id);
+            TargetSignals s = signals.get(id);
+            if (p == null || s == null)
+                continue;
+            p.getLocation(scratch);
+            sampleMovement(s, now);
+            s.nearbyPlayers = spatialIndex.countWithin(scratch, DENSITY_RADIUS, q -> q != p);
+            recompute(id, s, now);
+        }
+    }
+
+    private void sampleMovement(TargetSignals s, long now) {
+        double x = scratch.getX(), y = scratch.getY(), z = scratch.getZ();
+        if (s.lastSampleMs > 0L) {
+            double dt = (now - s.lastSampleMs) / 1000.0;
+            if (dt > 0.0) {
+                double dx = x - s.lastX, dy = y - s.lastY, dz = z - s.lastZ;
+                double speed = Math.sqrt(dx * dx + dy * dy + dz * dz) / dt;
+                if (speed <= MAX_PLAUSIBLE_SPEED) {
+                    s.movementEma += MOVEMENT_EMA_ALPHA * (speed - s.movementEma);
+                }
+            }
+        }
+        s.lastX = x;
+        s.lastY = y;
+        s.lastZ = z;
+        s.lastSampleMs = now;
+    }
+}
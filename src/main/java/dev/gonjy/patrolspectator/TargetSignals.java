@@ -0,0 +1,50 @@
+package dev.gonjy.patrolspectator;
+
+/**
+ * 観戦対象選定のためにプレイヤーごとに逐次更新される指標。
+ * <p>
+ * イベントハンドラと定期サンプリングからメインスレッドで更新されます。
+ */
+public final class TargetSignals {
+
+    /** 直近の戦闘（与ダメージ/被ダメージ）時刻（ms、未発生なら0） */
+    long lastCombatMs;
+    /** 減衰付きキル数（{@link #lastKillMs} 時点の値） */
+    double recentKills;
+    /** 直近のキル時刻（ms、未発生なら0） */
+    long lastKillMs;
+    /** 移動速度の指数移動平均（ブロック/秒） */
+    double movementEma;
+    /** 最後に観戦された時刻（ms、未観戦なら0） */
+    long lastFeaturedMs;
+    /** 周囲のプレイヤー数（最新サンプル） */
+    int nearbyPlayers;
+
+    // 移動量サンプリング用の前回位置
+    double lastX, lastY, lastZ;
+    long lastSampleMs;
+
+    public long getLastCombatMs() {
+        return lastCombatMs;
+    }
+
+    public double getRecentKills() {
+        return recentKills;
+    }
+
+    public long getLastKillMs() {
+        return lastKillMs;
+    }
+
+    public double getMovementEma() {
+        return movementEma;
+    }
+
+    public long getLastFeaturedMs() {
+        return lastFeaturedMs;
+    }
+
+    public int getNearbyPlayers() {
+        return nearbyPlayers;
+    }
+}
@@ -0,0 +1,152 @@
+package dev.gonjy.patrolspectator;
+
+import java.util.Arrays;
+
+/**
+ * サーバーtickの計時（{@link Ticks} の中身）。
+ * <p>
+ * 2つの量を直近 {@value #WINDOW} tick のリングで集計します。
+ * <ul>
+ * <li>tick の間隔：{@link #tickStarted(long)} の時刻の差。健全なら約50ms（予定の間隔）で、TPS はこちらから求めます</li>
+ * <li>MSPT（1tickの処理にかかった時間）：{@link #tickEnded(long)} に渡す処理時間。余裕があれば数ms、
+ * 50ms を超えると tick が遅れ始めます（TPS が下がるより先に余裕の減りが見える）</li>
+ * </ul>
+ * 集計値は volatile のプリミティブに置くので、どのスレッドからも割り当て無しで読めます。
+ * 書き込み（{@link #tickStarted}・{@link #tickEnded}・{@link #reset}）はメインスレッドからだけ行います。
+ */
+final class TickClock {
+
+    /** 集計する tick 数（5秒分） */
+    static final int WINDOW = 100;
+
+    // tick の間隔（TPS 用）
+    private final long[] intervals = new long[WINDOW];
+    private int intervalHead;
+    private int intervalFilled;
+    private long intervalSum;
+    private long lastNanos = Long.MIN_VALUE;
+
+    // 1tickの処理時間（MSPT 用）
+    private final long[] work = new long[WINDOW];
+    private int workHead;
+    private int workFilled;
+    private long workSum;
+
+    private volatile long tick;
+    private volatile long tickStartNanos;
+    private volatile double tps = 20.0;
+    private volatile long lastWorkNanos;
+    private volatile long averageWorkNanos;
+    private volatile long maxWorkNanos;
+
+    /**
+     * tick の先頭で呼びます。
+     *
+     * @param nowNanos {@link System#nanoTime()}
+     */
+    void tickStarted(long nowNanos) {
+        if (lastNanos != Long.MIN_VALUE) {
+            long d = Math.max(0L, nowNanos - lastNanos);
+            intervalSum += d - intervals[intervalHead];
+            intervals[intervalHead] = d;
+            intervalHead = (intervalHead + 1) % WINDOW;
+            if (intervalFilled < WINDOW)
+                intervalFilled++;
+            // 1秒あたりの tick 数（予定の20を上限にする：遅れの取り戻しで一時的に縮んだ tick を数えすぎない）
+            tps = intervalSum > 0 ? Math.min(20.0, intervalFilled * 1.0e9 / intervalSum) : 20.0;
+        }
+        lastNanos = nowNanos;
+        tickStartNanos = nowNanos;
+        tick++;
+    }
+
+    /**
+     * tick の処理が終わったら呼びます。
+     *
+     * @param workNanos その tick の処理にかかった時間
+     */
+    void tickEnded(long workNanos) {
+        long d = Math.max(0L, workNanos);
+        workSum += d - work[workHead];
+        work[workHead] = d;
+        workHead = (workHead + 1) % WINDOW;
+        if (workFilled < WINDOW)
+            workFilled++;
+        long max = 0L;
+        for (int i = 0; i < workFilled; i++) {
+            if (work[i] > max)
+                max = work[i];
+        }
+        lastWorkNanos = d;
+        averageWorkNanos = workSum / workFilled;
+        maxWorkNanos = max;
+    }
+
+    /**
+     * 計時を最初からやり直します（止めていた間を1tickとして数えないよう、前回の時刻とリングも捨てる）。
+     */
+    void reset() {
+        Arrays.fill(intervals, 0L);
+        intervalHead = 0;
+        intervalFilled = 0;
+        intervalSum = 0L;
+        lastNanos = Long.MIN_VALUE;
+        Arrays.fill(work, 0L);
+        workHead = 0;
+        workFilled = 0;
+        workSum = 0L;
+        tick = 0L;
+        tickStartNanos = 0L;
+        tps = 20.0;
+        lastWorkNanos = 0L;
+        averageWorkNanos = 0L;
+        maxWorkNanos = 0L;
+    }
+
+    /** 計時を始めてから（{@link #reset()} 以降）の tick 数 */
+    long tick() {
+        return tick;
+    }
+
+    /** 現在の tick の開始時刻（{@link System#nanoTime()} 基準） */
+    long tickStartNanos() {
+        return tickStartNanos;
+    }
+
+    /** 直近 {@value #WINDOW} tick の TPS（最大20） */
+    double tps() {
+        return tps;
+    }
+
+    /** 直前の tick の処理時間（ミリ秒） */
+    double lastMspt() {
+        return lastWorkNanos / 1.0e6;
+    }
+
+    /** 直近 {@value #WINDOW} tick の平均の処理時間（ミリ秒。まだ無ければ0） */
+    double averageMspt() {
+        return averageWorkNanos / 1.0e6;
+    }
+
+    /** 直近 {@value #WINDOW} tick の最大の処理時間（ミリ秒） */
+    double maxMspt() {
+        return maxWorkNanos / 1.0e6;
+    }
+
+    /** 処理時間を集計した tick 数（最大 {@value #WINDOW}。0なら MSPT は未計測） */
+    int msptSamples() {
+        return workFilled;
+    }
+
+    /** 間隔を集計した tick 数（最大 {@value #WINDOW}） */
+    int samples() {
+        return intervalFilled;
+    }
+
+    /** 状態表示用の1行サマリ */
+    String describe() {
+        String mspt = workFilled == 0 ? "mspt n/a"
+                : String.format("mspt avg=%.1fms max=%.1fms", averageMspt(), maxMspt());
+        return String.format("tps=%.1f, %s (last %d ticks)", tps, mspt, intervalFilled);
+    }
+}
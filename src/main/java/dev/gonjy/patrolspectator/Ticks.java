@@ -1,27 +1,145 @@
 package dev.gonjy.patrolspectator;
 
+import com.destroystokyo.paper.event.server.ServerTickEndEvent;
+import com.destroystokyo.paper.event.server.ServerTickStartEvent;
 import org.bukkit.Bukkit;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
 import org.bukkit.plugin.Plugin;
-import java.lang.reflect.Method;
-import java.util.concurrent.atomic.AtomicLong;
+import org.bukkit.scheduler.BukkitTask;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * サーバーtickの時計。
+ * <p>
+ * Paper の {@code Bukkit.getCurrentTick()} は定数の {@link MethodHandle} で一度だけ束縛し（Spigot では無し）、
+ * Paper の {@code ServerTickStartEvent}/{@code ServerTickEndEvent} で {@link TickClock} に TPS と MSPT（1tickの処理時間）を記録します。
+ * tick イベントの無いサーバーでは毎tickのタスクで TPS だけを数え、MSPT は未計測（{@link #hasMspt()} が false）のままです。
+ * 読み取りはどれも volatile のプリミティブを返すだけで、割り当てはありません。
+ */
 public final class Ticks {
-    private static volatile Method paperGetCurrentTick;
-    private static final AtomicLong fallbackTick = new AtomicLong();
 
-    public static void init(Plugin plugin) {
+    /** Paper の getCurrentTick（無ければ null） */
+    private static final MethodHandle PAPER_CURRENT_TICK = bindCurrentTick();
+
+    private static final TickClock CLOCK = new TickClock();
+    private static BukkitTask sampler;
+    private static Listener tickEvents;
+
+    private Ticks() {
+    }
+
+    private static MethodHandle bindCurrentTick() {
+        try {
+            return MethodHandles.publicLookup().findStatic(Bukkit.class, "getCurrentTick",
+                    MethodType.methodType(int.class));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static boolean hasTickEvents() {
         try {
-            paperGetCurrentTick = Bukkit.class.getMethod("getCurrentTick");
-        } catch (Throwable ignored) {
-            Bukkit.getScheduler().runTaskTimer(plugin, () -> fallbackTick.incrementAndGet(), 1L, 1L);
+            Class.forName("com.destroystokyo.paper.event.server.ServerTickEndEvent");
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
         }
     }
 
+    /** 毎tickの計時を始めます（onEnable から。前回の集計は引き継がない） */
+    public static void init(Plugin plugin) {
+        if (sampler != null || tickEvents != null)
+            return;
+        CLOCK.reset();
+        if (hasTickEvents()) {
+            tickEvents = new TickEvents();
+            Bukkit.getPluginManager().registerEvents(tickEvents, plugin);
+        } else {
+            sampler = Bukkit.getScheduler().runTaskTimer(plugin, () -> CLOCK.tickStarted(System.nanoTime()), 0L, 1L);
+        }
+    }
+
+    /** 計時を止め、集計を捨てます（onDisable から。再度 init すると最初から数える） */
+    public static void shutdown() {
+        if (sampler != null) {
+            sampler.cancel();
+            sampler = null;
+        }
+        if (tickEvents != null) {
+            HandlerList.unregisterAll(tickEvents);
+            tickEvents = null;
+        }
+        CLOCK.reset();
+    }
+
+    /** Paper の tick イベントで tick の先頭と処理時間を記録する（Paper でだけ読み込む） */
+    private static final class TickEvents implements Listener {
+        @EventHandler(priority = EventPriority.MONITOR)
+        public void onTickStart(ServerTickStartEvent event) {
+            CLOCK.tickStarted(System.nanoTime());
+        }
+
+        @EventHandler(priority = EventPriority.MONITOR)
+        public void onTickEnd(ServerTickEndEvent event) {
+            // getTickDuration はサーバーが測った1tickの処理時間（ミリ秒）
+            CLOCK.tickEnded((long) (event.getTickDuration() * 1.0e6));
+        }
+    }
+
+    /** サーバーの現在tick（Paper なら getCurrentTick、それ以外は計時を始めてからの tick 数） */
     public static int current() {
-        Method m = paperGetCurrentTick;
-        if (m != null) {
-            try { return (int) m.invoke(null); } catch (Throwable ignored) {}
+        if (PAPER_CURRENT_TICK != null) {
+            try {
+                return (int) PAPER_CURRENT_TICK.invokeExact();
+            } catch (Throwable ignored) {
+            }
         }
-        return (int) (fallbackTick.get() & 0x7FFFFFFF);
+        return (int) (CLOCK.tick() & 0x7FFFFFFF);
+    }
+
+    /** 計時を始めてからの tick 数（単調増加） */
+    public static long tick() {
+        return CLOCK.tick();
+    }
+
+    /** 現在の tick の開始時刻（{@link System#nanoTime()} 基準、単調増加） */
+    public static long tickStartNanos() {
+        return CLOCK.tickStartNanos();
+    }
+
+    /** MSPT を計測しているか（Paper の tick イベントがあり、1tick以上終わった） */
+    public static boolean hasMspt() {
+        return CLOCK.msptSamples() > 0;
+    }
+
+    /** 直前の1tickの処理時間（ミリ秒） */
+    public static double lastMspt() {
+        return CLOCK.lastMspt();
+    }
+
+    /** 直近5秒の平均の処理時間（MSPT、ミリ秒。未計測なら0） */
+    public static double averageMspt() {
+        return CLOCK.averageMspt();
+    }
+
+    /** 直近5秒の最大の処理時間（ミリ秒） */
+    public static double maxMspt() {
+        return CLOCK.maxMspt();
+    }
+
+    /** 直近5秒の TPS（最大20） */
+    public static double tps() {
+        return CLOCK.tps();
+    }
+
+    /** 状態表示用の1行サマリ */
+    public static String describe() {
+        return (PAPER_CURRENT_TICK != null ? "paper tick=" + current() + ", " : "") + CLOCK.describe();
     }
 }
@@ -0,0 +1,145 @@
+package dev.gonjy.patrolspectator;
+
+import org.bukkit.Bukkit;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.plugin.Plugin;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * 観光地の非同期自動生成。
+ * <p>
+ * {@link TouristLocation#autoGenerate} はメインスレッドで getHighestBlockYAt を呼ぶため、
+ * 未探索の場所では同期的なチャンク生成でサーバーが固まります。こちらは
+ * <ol>
+ * <li>候補座標のチャンクを非同期ロード（getChunkAtAsync）</li>
+ * <li>メインスレッドでハイトマップ付きの ChunkSnapshot を取得</li>
+ * <li>非同期スレッドでスナップショットから地表を判定し、水・虚空・地下（天井）を除外</li>
+ * <li>メインスレッドに戻って結果を返す</li>
+ * </ol>
+ * の順に処理し、メインスレッドでのブロック参照を行いません。
+ */
+public final class TourAutogenerator {
+
+    /** 除外で足りなくなる分を見越した候補数の倍率 */
+    private static final int CANDIDATE_FACTOR = 3;
+
+    private TourAutogenerator() {
+    }
+
+    /**
+     * 非同期で観光地を生成します。結果はメインスレッドで完了します。
+     *
+     * @param plugin  スケジューラの所有者
+     * @param world   対象ワールド
+     * @param count   生成件数（条件を満たす候補が足りなければそれ未満）
+     * @param radius  原点からの半径（ブロック）
+     * @param yOffset 地表からのYオフセット
+     * @return 生成された観光地
+     */
+    public static CompletableFuture<List<TouristLocation>> generate(Plugin plugin, World world, int count,
+            int radius, double yOffset) {
+        if (world == null || count <= 0)
+            return CompletableFuture.completedFuture(new ArrayList<>());
+        Executor main = r -> Bukkit.getScheduler().runTask(plugin, r);
+        Executor async = r -> Bukkit.getScheduler().runTaskAsynchronously(plugin, r);
+
+        // 候補座標（チャンク単位でまとめてロードする）
+        Random random = new Random();
+        int n = count * CANDIDATE_FACTOR;
+        int[] xs = new int[n], zs = new int[n];
+        Map<Long, CompletableFuture<ChunkSnapshot>> chunks = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            xs[i] = (int) Math.floor((random.nextDouble() * 2 - 1) * radius);
+            zs[i] = (int) Math.floor((random.nextDouble() * 2 - 1) * radius);
+            int cx = xs[i] >> 4, cz = zs[i] >> 4;
+            chunks.computeIfAbsent(chunkKey(cx, cz), k -> world.getChunkAtAsync(cx, cz)
+                    // スナップショットの取得はメインスレッドで
+                    .thenApplyAsync(c -> c.getChunkSnapshot(true, false, false), main)
+                    .exceptionally(t -> null));
+        }
+
+        int minY = world.getMinHeight();
+        int maxY = world.getMaxHeight();
+        String worldName = world.getName();
+        String worldType = worldTypeOf(world);
+
+        return CompletableFuture.allOf(chunks.values().toArray(new CompletableFuture[0]))
+                .thenApplyAsync(v -> {
+                    List<TouristLocation> list = new ArrayList<>(count);
+                    for (int i = 0; i < n && list.size() < count; i++) {
+                        ChunkSnapshot snap = chunks.get(chunkKey(xs[i] >> 4, zs[i] >> 4)).join();
+                        if (snap == null)
+                            continue;
+                        int y = surfaceY(snap, xs[i] & 15, zs[i] & 15, minY, maxY);
+                        if (y == Integer.MIN_VALUE)
+                            continue;
+                        int no = list.size() + 1;
+                        list.add(new TouristLocation("auto_" + (no - 1), "Auto Point " + no, worldName,
+                                xs[i] + 0.5, y + yOffset + 1.5, zs[i] + 0.5, 0f, 0f, "Auto Generated", worldType));
+                    }
+                    return list;
+                }, async)
+                .thenApplyAsync(list -> list, main);
+    }
+
+    /**
+     * スナップショットから観光地に適した地表のYを求めます（スレッドセーフ）。
+     *
+     * @param lx チャンク内X（0〜15）
+     * @param lz チャンク内Z（0〜15）
+     * @return 水・溶岩・虚空・天井（岩盤）なら Integer.MIN_VALUE
+     */
+    static int surfaceY(ChunkSnapshot snap, int lx, int lz, int minY, int maxY) {
+        int y = snap.getHighestBlockYAt(lx, lz);
+        if (y <= minY || y >= maxY - 2)
+            return Integer.MIN_VALUE; // 虚空 or ワールド上限ぎりぎり
+        Material top = snap.getBlockType(lx, y, lz);
+        if (top.isAir() || isLiquid(top))
+            return Integer.MIN_VALUE;
+        if (top == Material.BEDROCK)
+            return Integer.MIN_VALUE; // ネザー天井など、地表ではなく地下の天井
+        // カメラが収まる空間（頭上2ブロック）
+        if (!snap.getBlockType(lx, y + 1, lz).isAir() || !snap.getBlockType(lx, y + 2, lz).isAir())
+            return Integer.MIN_VALUE;
+        return y;
+    }
+
+    private static boolean isLiquid(Material m) {
+        switch (m) {
+            case WATER:
+            case LAVA:
+            case KELP:
+            case KELP_PLANT:
+            case SEAGRASS:
+            case TALL_SEAGRASS:
+            case BUBBLE_COLUMN:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static String worldTypeOf(World world) {
+        switch (world.getEnvironment()) {
+            case NETHER:
+                return "nether";
+            case THE_END:
+                return "end";
+            default:
+                return "overworld";
+        }
+    }
+
+    private static long chunkKey(int cx, int cz) {
+        return ((long) cx << 32) | (cz & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,315 @@
+package dev.gonjy.patrolspectator;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 観光地の巡回順の計画。
+ * <p>
+ * 巡回は一周して最初に戻る閉路として扱い、最近傍法で初期経路を作ってから 2-opt で改善します。
+ * 移動コストは同じワールド内なら距離に、リージョンファイル（512x512ブロック）をまたぐたびに
+ * ペナルティを加えたもの、別ワールドへは非常に大きな定数です。そのため同じワールド・同じリージョンの
+ * 観光地がまとまり、読み込み済みのチャンクを続けて使えます。
+ * 観光地が変わったときは、残った観光地の順序を保ったまま追加分を最安の位置に挿入し、2-opt だけをやり直します。
+ * 件数が {@value #MAX_FULL_STOPS} を超える場合（地図ツールからの一括取り込み等）は、最近傍法の代わりに
+ * ワールド→リージョン→チャンクの蛇行順で並べ、2-opt も近傍 {@value #TWO_OPT_WINDOW} 件の範囲に限ります。
+ */
+final class TourPlanner {
+
+    static final int REGION_SHIFT = 9; // 512ブロック = リージョンファイル1つ
+    private static final double REGION_PENALTY = 512.0;
+    private static final double WORLD_PENALTY = 1.0e7;
+    private static final int MAX_2OPT_PASSES = 50;
+    static final int MAX_FULL_STOPS = 1500;
+    static final int TWO_OPT_WINDOW = 64;
+
+    private final int chunkRadius;
+    private List<TouristLocation> route = new ArrayList<>();
+
+    // 直近の計画の集計
+    private boolean lastWasFull;
+    private int lastInserted;
+    private int lastRemoved;
+    private int lastImprovements;
+
+    /**
+     * @param chunkRadius 観光地ごとに読み込まれるとみなすチャンク半径（読み込み数の見積もり用）
+     */
+    TourPlanner(int chunkRadius) {
+        this.chunkRadius = Math.max(0, chunkRadius);
+    }
+
+    /**
+     * 観光地の一覧に合わせて巡回順を更新します。
+     * 前回の経路と共通する観光地が追加分より少なければ全体を計画し直し、そうでなければ差分だけを反映します。
+     *
+     * @param stops 現在の観光地（順序は問わない）
+     * @return 巡回順（変更不可）
+     */
+    List<TouristLocation> update(List<TouristLocation> stops) {
+        Map<String, TouristLocation> current = new HashMap<>();
+        for (TouristLocation tl : stops) {
+            current.putIfAbsent(keyOf(tl), tl);
+        }
+
+        // 前回の順序で残るもの（同じ観光地なら新しいインスタンスに差し替え）
+        List<TouristLocation> kept = new ArrayList<>(route.size());
+        Set<String> keptKeys = new HashSet<>();
+        for (TouristLocation tl : route) {
+            String k = keyOf(tl);
+            TouristLocation now = current.get(k);
+            if (now != null && keptKeys.add(k))
+                kept.add(now);
+        }
+        lastRemoved = route.size() - kept.size();
+
+        // 追加分が残った分より多ければ（ほぼ別の一覧なら）全体を計画し直す
+        int added = current.size() - kept.size();
+        List<TouristLocation> next;
+        if (kept.isEmpty() || added > kept.size()) {
+            next = current.size() > MAX_FULL_STOPS ? sweep(stops, current)
+                    : nearestNeighbour(new ArrayList<>(current.values()), stops);
+            lastWasFull = true;
+            lastInserted = next.size();
+        } else {
+            next = kept;
+            lastWasFull = false;
+            lastInserted = 0;
+            for (TouristLocation tl : stops) {
+                if (keptKeys.add(keyOf(tl))) {
+                    insertCheapest(next, tl);
+                    lastInserted++;
+                }
+            }
+        }
+        lastImprovements = twoOpt(next);
+        route = next;
+        return List.copyOf(route);
+    }
+
+    /** 現在の巡回順 */
+    List<TouristLocation> route() {
+        return List.copyOf(route);
+    }
+
+    /** 一周の移動コスト（ブロック。ワールド・リージョンのペナルティ込み） */
+    double cycleCost() {
+        return cycleCost(route);
+    }
+
+    /** 現在の巡回順で一周したときの、チャンク読み込み数の見積もり */
+    int estimatedChunkLoads() {
+        return estimateChunkLoads(route, chunkRadius);
+    }
+
+    /** 直近の {@link #update} が全体の計画し直しだったか */
+    boolean lastPlanWasFull() {
+        return lastWasFull;
+    }
+
+    /** 一周のうちワールドをまたぐ移動の回数 */
+    int worldSwitches() {
+        int n = route.size(), count = 0;
+        for (int i = 0; i < n && n > 1; i++) {
+            if (!route.get(i).world.equals(route.get((i + 1) % n).world))
+                count++;
+        }
+        return count;
+    }
+
+    /**
+     * 状態表示用の1行サマリ。
+     *
+     * @param listOrder 比較用の元の一覧順
+     */
+    String describe(List<TouristLocation> listOrder) {
+        return String.format("stops=%d, chunk loads/cycle=%d (list order %d), world hops=%d, last plan=%s +%d -%d, 2-opt=%d",
+                route.size(), estimatedChunkLoads(), estimateChunkLoads(listOrder, chunkRadius), worldSwitches(),
+                lastWasFull ? "full" : "incremental", lastInserted, lastRemoved, lastImprovements);
+    }
+
+    // ====== 見積もり ======
+
+    /**
+     * 巡回順に一周したときのチャンク読み込み数を見積もります。
+     * 各観光地では中心チャンクから半径 chunkRadius の正方形が必要で、
+     * 直前の観光地で読み込んだチャンクだけが残っているとみなします（先頭の観光地へは末尾から来る）。
+     */
+    static int estimateChunkLoads(List<TouristLocation> order, int chunkRadius) {
+        int n = order.size();
+        if (n == 0)
+            return 0;
+        int side = 2 * chunkRadius + 1;
+        int loads = 0;
+        for (int i = 0; i < n; i++) {
+            TouristLocation prev = order.get(Math.floorMod(i - 1, n));
+            TouristLocation cur = order.get(i);
+            if (!prev.world.equals(cur.world)) {
+                loads += side * side;
+                continue;
+            }
+            int dx = Math.abs(chunkOf(cur.x) - chunkOf(prev.x));
+            int dz = Math.abs(chunkOf(cur.z) - chunkOf(prev.z));
+            int overlap = Math.max(0, side - dx) * Math.max(0, side - dz);
+            loads += side * side - overlap;
+        }
+        return loads;
+    }
+
+    static double cost(TouristLocation a, TouristLocation b) {
+        if (!a.world.equals(b.world))
+            return WORLD_PENALTY;
+        double dx = a.x - b.x, dy = a.y - b.y, dz = a.z - b.z;
+        double d = Math.sqrt(dx * dx + dy * dy + dz * dz);
+        if (regionOf(a.x) != regionOf(b.x) || regionOf(a.z) != regionOf(b.z))
+            d += REGION_PENALTY;
+        return d;
+    }
+
+    static double cycleCost(List<TouristLocation> order) {
+        int n = order.size();
+        double total = 0.0;
+        for (int i = 0; i < n && n > 1; i++) {
+            total += cost(order.get(i), order.get((i + 1) % n));
+        }
+        return total;
+    }
+
+    // ====== 内部 ======
+
+    /** 最近傍法。元の一覧の先頭の観光地から始める */
+    private static List<TouristLocation> nearestNeighbour(List<TouristLocation> pool, List<TouristLocation> listOrder) {
+        List<TouristLocation> out = new ArrayList<>(pool.size());
+        if (pool.isEmpty())
+            return out;
+        TouristLocation cur = pool.get(0);
+        for (TouristLocation tl : listOrder) {
+            if (pool.contains(tl)) {
+                cur = tl;
+                break;
+            }
+        }
+        pool.remove(cur);
+        out.add(cur);
+        while (!pool.isEmpty()) {
+            int best = 0;
+            double bestCost = Double.MAX_VALUE;
+            for (int i = 0; i < pool.size(); i++) {
+                double c = cost(cur, pool.get(i));
+                if (c < bestCost) {
+                    bestCost = c;
+                    best = i;
+                }
+            }
+            // 末尾と入れ替えて O(1) で取り除く（候補の順序は問わない）
+            cur = pool.get(best);
+            pool.set(best, pool.get(pool.size() - 1));
+            pool.remove(pool.size() - 1);
+            out.add(cur);
+        }
+        return out;
+    }
+
+    /** 大量の観光地向け：ワールド（出現順）→リージョン→チャンクの蛇行順に並べる */
+    private static List<TouristLocation> sweep(List<TouristLocation> listOrder, Map<String, TouristLocation> unique) {
+        Map<String, Integer> worlds = new HashMap<>();
+        for (TouristLocation tl : listOrder) {
+            worlds.putIfAbsent(tl.world, worlds.size());
+        }
+        List<TouristLocation> out = new ArrayList<>(unique.values());
+        out.sort(Comparator.<TouristLocation>comparingInt(tl -> worlds.get(tl.world))
+                .thenComparingInt(tl -> regionOf(tl.z))
+                .thenComparingInt(tl -> serpentine(regionOf(tl.x), regionOf(tl.z)))
+                .thenComparingInt(tl -> chunkOf(tl.z))
+                .thenComparingInt(tl -> serpentine(chunkOf(tl.x), chunkOf(tl.z))));
+        return out;
+    }
+
+    /** 行（row）が奇数なら逆向きに進む */
+    private static int serpentine(int column, int row) {
+        return (row & 1) == 0 ? column : -column;
+    }
+
+    /** 閉路の中で増分コストが最小になる辺に挿入 */
+    private static void insertCheapest(List<TouristLocation> route, TouristLocation tl) {
+        int n = route.size();
+        if (n < 2) {
+            route.add(tl);
+            return;
+        }
+        int bestAt = n;
+        double bestDelta = Double.MAX_VALUE;
+        for (int i = 0; i < n; i++) {
+            TouristLocation a = route.get(i), b = route.get((i + 1) % n);
+            double delta = cost(a, tl) + cost(tl, b) - cost(a, b);
+            if (delta < bestDelta) {
+                bestDelta = delta;
+                bestAt = i + 1;
+            }
+        }
+        route.add(bestAt, tl);
+    }
+
+    /**
+     * 閉路の 2-opt。改善が無くなるか上限回数まで、区間の反転を繰り返します。
+     * 件数が多い場合は、各辺から {@value #TWO_OPT_WINDOW} 件先までの辺とだけ比べます。
+     *
+     * @return 反転した回数
+     */
+    private static int twoOpt(List<TouristLocation> route) {
+        int n = route.size();
+        if (n < 4)
+            return 0;
+        int window = n > MAX_FULL_STOPS ? TWO_OPT_WINDOW : n;
+        int improvements = 0;
+        for (int pass = 0; pass < MAX_2OPT_PASSES; pass++) {
+            boolean improved = false;
+            for (int i = 0; i < n - 1; i++) {
+                TouristLocation a = route.get(i), b = route.get(i + 1);
+                for (int j = i + 2, end = Math.min(n, i + 2 + window); j < end; j++) {
+                    if (i == 0 && j == n - 1)
+                        continue; // 同じ辺どうし
+                    TouristLocation c = route.get(j), d = route.get((j + 1) % n);
+                    double delta = cost(a, c) + cost(b, d) - cost(a, b) - cost(c, d);
+                    if (delta < -1e-9) {
+                        reverse(route, i + 1, j);
+                        b = route.get(i + 1);
+                        improvements++;
+                        improved = true;
+                    }
+                }
+            }
+            if (!improved)
+                break;
+        }
+        return improvements;
+    }
+
+    private static void reverse(List<TouristLocation> route, int from, int to) {
+        while (from < to) {
+            TouristLocation t = route.get(from);
+            route.set(from, route.get(to));
+            route.set(to, t);
+            from++;
+            to--;
+        }
+    }
+
+    /** 観光地の同一性のキー（読み込み直しでインスタンスが変わっても同じ観光地なら同じ） */
+    static String keyOf(TouristLocation tl) {
+        return tl.id + "@" + tl.world + ":" + tl.x + "," + tl.y + "," + tl.z;
+    }
+
+    private static int chunkOf(double coord) {
+        return ((int) Math.floor(coord)) >> 4;
+    }
+
+    private static int regionOf(double coord) {
+        return ((int) Math.floor(coord)) >> REGION_SHIFT;
+    }
+}
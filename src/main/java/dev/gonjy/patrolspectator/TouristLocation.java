@@ -6,6 +6,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.UUID;
+import java.util.logging.Logger;
 
 /**
  * 巡回スポット1件分
@@ -33,29 +34,41 @@ public class TouristLocation {
         this.worldType = worldType != null ? worldType : "overworld";
     }
 
+    /**
+     * YAMLファイルから観光地リストを読み込みます（1件ずつのストリーミング読み込み）。
+     * 拡張子が .csv なら CSV として読み込みます。不正な行は行番号付きでロガーに警告します。
+     *
+     * @see TouristLocationReader
+     */
+    public static List<TouristLocation> loadFromYaml(File file, Logger logger) {
+        return TouristLocationReader.load(file, logger);
+    }
+
     /**
      * YAMLファイルから観光地リストを読み込みます。
      */
     public static List<TouristLocation> loadFromYaml(File file) {
-        List<TouristLocation> list = new ArrayList<>();
-        if (!file.exists())
-            return list;
-
-        org.bukkit.configuration.file.YamlConfiguration config = org.bukkit.configuration.file.YamlConfiguration
-                .loadConfiguration(file);
-        List<Map<?, ?>> maps = config.getMapList("locations");
-        return fromMapList(maps);
+        return loadFromYaml(file, Logger.getLogger(TouristLocation.class.getName()));
     }
 
     /**
      * MapのリストからTouristLocationのリストを生成します。
      */
     public static List<TouristLocation> fromMapList(List<Map<?, ?>> maps) {
+        return fromMapList(maps, Logger.getLogger(TouristLocation.class.getName()));
+    }
+
+    /**
+     * MapのリストからTouristLocationのリストを生成します。変換できない要素は番号付きで警告します。
+     */
+    public static List<TouristLocation> fromMapList(List<Map<?, ?>> maps, Logger logger) {
         List<TouristLocation> list = new ArrayList<>();
         if (maps == null)
             return list;
 
+        int index = 0;
         for (Map<?, ?> map : maps) {
+            index++;
             try {
                 @SuppressWarnings("unchecked")
                 TouristLocation loc = fromMap((Map<String, Object>) map);
@@ -63,8 +76,7 @@ public class TouristLocation {
                     list.add(loc);
                 }
             } catch (Exception e) {
-                // ログ出力などは呼び出し元に任せるか、ここで標準出力に出す
-                System.err.println("Failed to parse location: " + e.getMessage());
+                logger.warning("観光地 #" + index + " を読み込めませんでした: " + e);
             }
         }
         return list;
@@ -73,6 +85,9 @@ public class TouristLocation {
     /**
      * 指定されたワールド内でランダムな観光地を自動生成します。
      * （簡易実装：ランダムな座標を生成）
+     * <p>
+     * メインスレッドで同期的にチャンクを読み込むため、パトロール開始時は
+     * {@link TourAutogenerator#generate} を使用してください。
      */
     public static List<TouristLocation> autoGenerate(org.bukkit.World world, int count, int radius, double yOffset) {
         List<TouristLocation> list = new ArrayList<>();
@@ -0,0 +1,378 @@
+package dev.gonjy.patrolspectator;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * 観光地ファイルのストリーミング読み込み（YAML / CSV）。
+ * <p>
+ * 1行ずつ読み、1件分がそろうたびに {@link TouristLocation} にして渡します。
+ * ファイル全体を YamlConfiguration や Map のリストに展開しないため、数万件でもメモリは1件分＋結果だけです。
+ * ワールド名・ワールド種別の文字列は読み込み中に共有し、同じ内容を件数分持たないようにします。
+ * 不正な行は「ファイル名:行番号: 理由」でロガーに警告し（先頭 {@value #MAX_WARNINGS} 件まで）、その件だけ読み飛ばします。
+ * <p>
+ * YAML は観光地ファイルで使う範囲（{@code - key: value} の並び。先頭に {@code locations:} があってもよい）だけを扱います。
+ * <pre>
+ * - id: ocean_monument_ne_01
+ *   name: "海底神殿（北東沖）"
+ *   world: "world"
+ *   x: -1375.527
+ *   ...
+ * </pre>
+ * CSV は1行目が列名（id,name,world,x,y,z,yaw,pitch,description,worldType。順不同、x/y/z 以外は省略可）で、
+ * 値はダブルクォートで囲めます（{@code ""} でクォート自体）。{@code #} で始まる行は読み飛ばします。
+ */
+final class TouristLocationReader {
+
+    static final int MAX_WARNINGS = 20;
+
+    /** 読み込み結果の件数 */
+    record Stats(int loaded, int skipped) {
+    }
+
+    private final String source;
+    private final Logger logger;
+    private final Map<String, String> shared = new HashMap<>();
+    private int loaded;
+    private int skipped;
+    private int warnings;
+
+    private TouristLocationReader(String source, Logger logger) {
+        this.source = source;
+        this.logger = logger;
+    }
+
+    /**
+     * ファイルを読み込みます。拡張子が .csv なら CSV、それ以外は YAML として扱います。
+     *
+     * @return 読み込んだ観光地（ファイルが無ければ空）
+     */
+    static List<TouristLocation> load(File file, Logger logger) {
+        List<TouristLocation> out = new ArrayList<>();
+        if (!file.exists())
+            return out;
+        try (BufferedReader in = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            Stats stats = file.getName().toLowerCase(Locale.ROOT).endsWith(".csv")
+                    ? readCsv(in, file.getName(), logger, out::add)
+                    : readYaml(in, file.getName(), logger, out::add);
+            if (stats.skipped() > 0) {
+                logger.warning(file.getName() + ": " + stats.skipped() + " 件の不正な観光地を読み飛ばしました");
+            }
+        } catch (IOException e) {
+            logger.warning(file.getName() + " を読み込めませんでした: " + e.getMessage());
+        }
+        return out;
+    }
+
+    /** YAML を1件ずつ読み込み、sink に渡します */
+    static Stats readYaml(Reader in, String source, Logger logger, Consumer<TouristLocation> sink) throws IOException {
+        TouristLocationReader r = new TouristLocationReader(source, logger);
+        r.parseYaml(buffered(in), sink);
+        return new Stats(r.loaded, r.skipped);
+    }
+
+    /** CSV を1行ずつ読み込み、sink に渡します */
+    static Stats readCsv(Reader in, String source, Logger logger, Consumer<TouristLocation> sink) throws IOException {
+        TouristLocationReader r = new TouristLocationReader(source, logger);
+        r.parseCsv(buffered(in), sink);
+        return new Stats(r.loaded, r.skipped);
+    }
+
+    // ====== YAML ======
+
+    private void parseYaml(BufferedReader in, Consumer<TouristLocation> sink) throws IOException {
+        Map<String, String> fields = new HashMap<>();
+        int recordLine = 0; // 読み込み中の1件の開始行（0 = なし）
+        boolean broken = false; // 読み込み中の1件が不正（次の "-" まで読み飛ばす）
+        int itemIndent = -1;
+        String line;
+        int lineNo = 0;
+        while ((line = in.readLine()) != null) {
+            lineNo++;
+            if (lineNo == 1 && line.startsWith("\uFEFF"))
+                line = line.substring(1); // BOM
+            String text = stripComment(line);
+            if (text.isBlank())
+                continue;
+            int indent = indentOf(text);
+            String body = text.trim();
+
+            if (indent == 0 && body.equals("locations:"))
+                continue;
+            if (body.equals("-") || body.startsWith("- ")) {
+                if (recordLine > 0)
+                    finishYaml(fields, recordLine, broken, sink);
+                fields.clear();
+                recordLine = lineNo;
+                broken = false;
+                itemIndent = indent;
+                body = body.substring(1).trim();
+                if (body.isEmpty())
+                    continue;
+            } else if (recordLine == 0 || indent <= itemIndent) {
+                warn(lineNo, "観光地の外にある行です: " + body);
+                continue;
+            }
+            if (broken)
+                continue;
+            String error = putYamlField(fields, body);
+            if (error != null) {
+                warn(lineNo, error);
+                broken = true;
+            }
+        }
+        if (recordLine > 0)
+            finishYaml(fields, recordLine, broken, sink);
+    }
+
+    /** "key: value" を1つ読み取ります。不正なら理由を返します */
+    private static String putYamlField(Map<String, String> fields, String body) {
+        int colon = body.indexOf(':');
+        if (colon <= 0)
+            return "key: value の形式ではありません: " + body;
+        String key = body.substring(0, colon).trim();
+        String raw = body.substring(colon + 1).trim();
+        String value;
+        if (raw.startsWith("\"")) {
+            value = unquoteDouble(raw);
+        } else if (raw.startsWith("'")) {
+            value = unquoteSingle(raw);
+        } else if (raw.isEmpty() || raw.startsWith("{") || raw.startsWith("[") || raw.startsWith("|")
+                || raw.startsWith(">")) {
+            return key + " の値に対応していない形式です（1行の値のみ）";
+        } else {
+            value = raw;
+        }
+        if (value == null)
+            return key + " のクォートが閉じていません";
+        fields.put(key, value);
+        return null;
+    }
+
+    private void finishYaml(Map<String, String> fields, int line, boolean broken, Consumer<TouristLocation> sink) {
+        if (broken) {
+            skipped++;
+            return;
+        }
+        emit(fields, line, sink);
+    }
+
+    /** クォートの外にある " #" 以降を取り除く */
+    private static String stripComment(String line) {
+        boolean inDouble = false, inSingle = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"' && !inSingle && (i == 0 || line.charAt(i - 1) != '\\')) {
+                inDouble = !inDouble;
+            } else if (c == '\'' && !inDouble) {
+                inSingle = !inSingle;
+            } else if (c == '#' && !inDouble && !inSingle && (i == 0 || Character.isWhitespace(line.charAt(i - 1)))) {
+                return line.substring(0, i);
+            }
+        }
+        return line;
+    }
+
+    private static int indentOf(String s) {
+        int i = 0;
+        while (i < s.length() && s.charAt(i) == ' ')
+            i++;
+        return i;
+    }
+
+    private static String unquoteDouble(String raw) {
+        StringBuilder sb = new StringBuilder(raw.length());
+        for (int i = 1; i < raw.length(); i++) {
+            char c = raw.charAt(i);
+            if (c == '\\' && i + 1 < raw.length()) {
+                char n = raw.charAt(++i);
+                switch (n) {
+                    case 'n':
+                        sb.append('\n');
+                        break;
+                    case 't':
+                        sb.append('\t');
+                        break;
+                    default:
+                        sb.append(n);
+                        break;
+                }
+            } else if (c == '"') {
+                return i == raw.length() - 1 ? sb.toString() : null;
+            } else {
+                sb.append(c);
+            }
+        }
+        return null;
+    }
+
+    private static String unquoteSingle(String raw) {
+        StringBuilder sb = new StringBuilder(raw.length());
+        for (int i = 1; i < raw.length(); i++) {
+            char c = raw.charAt(i);
+            if (c == '\'') {
+                if (i + 1 < raw.length() && raw.charAt(i + 1) == '\'') {
+                    sb.append('\'');
+                    i++;
+                } else {
+                    return i == raw.length() - 1 ? sb.toString() : null;
+                }
+            } else {
+                sb.append(c);
+            }
+        }
+        return null;
+    }
+
+    // ====== CSV ======
+
+    private void parseCsv(BufferedReader in, Consumer<TouristLocation> sink) throws IOException {
+        String[] header = null;
+        Map<String, String> fields = new HashMap<>();
+        List<String> cells = new ArrayList<>();
+        String line;
+        int lineNo = 0;
+        while ((line = in.readLine()) != null) {
+            lineNo++;
+            if (lineNo == 1 && line.startsWith("\uFEFF"))
+                line = line.substring(1); // BOM
+            if (line.isBlank() || line.startsWith("#"))
+                continue;
+            cells.clear();
+            if (!splitCsv(line, cells)) {
+                warn(lineNo, "クォートが閉じていません");
+                if (header != null)
+                    skipped++;
+                continue;
+            }
+            if (header == null) {
+                header = new String[cells.size()];
+                for (int i = 0; i < header.length; i++)
+                    header[i] = cells.get(i).trim();
+                continue;
+            }
+            if (cells.size() != header.length) {
+                warn(lineNo, "列数が見出しと違います（" + cells.size() + " / " + header.length + "）");
+                skipped++;
+                continue;
+            }
+            fields.clear();
+            for (int i = 0; i < header.length; i++) {
+                String v = cells.get(i);
+                if (!v.isEmpty())
+                    fields.put(header[i], v);
+            }
+            emit(fields, lineNo, sink);
+        }
+    }
+
+    /** 1行をセルに分割します。クォートが閉じていなければ false */
+    private static boolean splitCsv(String line, List<String> out) {
+        StringBuilder cell = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        cell.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    cell.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                out.add(cell.toString());
+                cell.setLength(0);
+            } else {
+                cell.append(c);
+            }
+        }
+        out.add(cell.toString());
+        return !quoted;
+    }
+
+    // ====== 共通 ======
+
+    /** 1件分のフィールドから観光地を作って渡します（不正なら警告して読み飛ばす） */
+    private void emit(Map<String, String> fields, int line, Consumer<TouristLocation> sink) {
+        double x, y, z;
+        float yaw, pitch;
+        try {
+            x = number(fields, "x", true);
+            y = number(fields, "y", true);
+            z = number(fields, "z", true);
+            yaw = (float) number(fields, "yaw", false);
+            pitch = (float) number(fields, "pitch", false);
+        } catch (IllegalArgumentException e) {
+            warn(line, e.getMessage());
+            skipped++;
+            return;
+        }
+        String world = share(fields.getOrDefault("world", "world"));
+        String id = fields.get("id");
+        if (id == null || id.isEmpty()) {
+            // 内容（ワールドとブロック座標）から作る：行の追加・並べ替えがあっても同じ id
+            id = "poi_" + world + "_" + (long) Math.floor(x) + "_" + (long) Math.floor(y) + "_"
+                    + (long) Math.floor(z);
+        }
+        sink.accept(new TouristLocation(id,
+                fields.getOrDefault("name", "Unknown"),
+                world,
+                x, y, z, yaw, pitch,
+                fields.getOrDefault("description", ""),
+                share(fields.getOrDefault("worldType", "overworld"))));
+        loaded++;
+    }
+
+    private static double number(Map<String, String> fields, String key, boolean required) {
+        String v = fields.get(key);
+        if (v == null) {
+            if (required)
+                throw new IllegalArgumentException(key + " がありません");
+            return 0.0;
+        }
+        try {
+            double d = Double.parseDouble(v.trim());
+            if (!Double.isFinite(d))
+                throw new NumberFormatException();
+            return d;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(key + " が数値ではありません: " + v);
+        }
+    }
+
+    /** 同じ内容の文字列を1つにまとめる */
+    private String share(String s) {
+        String prev = shared.putIfAbsent(s, s);
+        return prev != null ? prev : s;
+    }
+
+    private void warn(int line, String message) {
+        warnings++;
+        if (warnings <= MAX_WARNINGS) {
+            logger.warning(source + ":" + line + ": " + message);
+        } else if (warnings == MAX_WARNINGS + 1) {
+            logger.warning(source + ": 以降の警告は省略します");
+        }
+    }
+
+    private static BufferedReader buffered(Reader in) {
+        return in instanceof BufferedReader b ? b : new BufferedReader(in);
+    }
+}
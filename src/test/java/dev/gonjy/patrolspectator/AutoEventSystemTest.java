@@ -1,11 +1,19 @@
 package dev.gonjy.patrolspectator;
 
+import org.bukkit.Location;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.entity.EntityDeathEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
 import org.mockbukkit.mockbukkit.MockBukkit;
 import org.mockbukkit.mockbukkit.ServerMock;
+import org.mockbukkit.mockbukkit.entity.PlayerMock;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class AutoEventSystemTest {
@@ -43,4 +51,63 @@ class AutoEventSystemTest {
         // We can't easily check internal state without reflection or getters,
         // but this verifies no exceptions are thrown during startup.
     }
+
+    /** AutoEventSystem のポイント源のリスナー（内部クラス）が handlers に登録されている数 */
+    private static long pointListeners(HandlerList handlers) {
+        return Arrays.stream(handlers.getRegisteredListeners())
+                .filter(rl -> rl.getListener().getClass().getEnclosingClass() == AutoEventSystem.class)
+                .count();
+    }
+
+    @Test
+    void testPointListenersOnlyRegisteredDuringEvent() {
+        server.addSimpleWorld("world");
+        AutoEventSystem autoEventSystem = new AutoEventSystem(plugin);
+        PlayerMock player = server.addPlayer();
+        Location base = player.getLocation();
+
+        // 待機中：移動のハンドラは登録されていない
+        assertFalse(autoEventSystem.isListening());
+        assertEquals(0, pointListeners(PlayerMoveEvent.getHandlerList()));
+
+        // スピード大会中：移動のハンドラが1つだけ
+        autoEventSystem.startEvent("speed_contest");
+        assertTrue(autoEventSystem.isEventActive());
+        assertTrue(autoEventSystem.isListening());
+        assertEquals(1, pointListeners(PlayerMoveEvent.getHandlerList()));
+        for (int i = 1; i <= 50; i++) {
+            player.simulatePlayerMove(base.clone().add(0, 0, i));
+        }
+        // 積算した移動は毎tickの精算で 1ブロック = 1ポイントになる
+        assertEquals(0, autoEventSystem.pointsOf(player.getUniqueId()));
+        server.getScheduler().performTicks(2);
+        assertEquals(50, autoEventSystem.pointsOf(player.getUniqueId()));
+
+        // 停止後は解除され、移動してもハンドラは呼ばれずポイントも増えない
+        autoEventSystem.stopAutoEvents();
+        assertFalse(autoEventSystem.isEventActive());
+        assertFalse(autoEventSystem.isListening());
+        assertEquals(0, pointListeners(PlayerMoveEvent.getHandlerList()));
+        Location stopped = player.getLocation();
+        for (int i = 1; i <= 50; i++) {
+            player.simulatePlayerMove(stopped.clone().add(i, 0, 0));
+        }
+        server.getScheduler().performTicks(2);
+        assertEquals(0, autoEventSystem.pointsOf(player.getUniqueId()));
+    }
+
+    @Test
+    void testOnlyBlockBreakHandlerRegisteredDuringMiningContest() {
+        AutoEventSystem autoEventSystem = new AutoEventSystem(plugin);
+        autoEventSystem.startEvent("mining_contest");
+
+        // 採掘大会中は採掘のハンドラだけが登録されている
+        assertEquals(1, pointListeners(BlockBreakEvent.getHandlerList()));
+        assertEquals(0, pointListeners(PlayerMoveEvent.getHandlerList()));
+        assertEquals(0, pointListeners(EntityDeathEvent.getHandlerList()));
+
+        autoEventSystem.shutdown();
+        assertFalse(autoEventSystem.isListening());
+        assertEquals(0, pointListeners(BlockBreakEvent.getHandlerList()));
+    }
 }
@@ -0,0 +1,81 @@
+package dev.gonjy.patrolspectator;
+
+import org.mockbukkit.mockbukkit.MockBukkit;
+import org.mockbukkit.mockbukkit.ServerMock;
+import org.mockbukkit.mockbukkit.entity.PlayerMock;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BroadcastDispatcherTest {
+
+    private ServerMock server;
+    private PatrolSpectatorPlugin plugin;
+
+    @BeforeEach
+    void setUp() {
+        server = MockBukkit.mock();
+        plugin = MockBukkit.load(PatrolSpectatorPlugin.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        MockBukkit.unmock();
+    }
+
+    @Test
+    void testWorkIsSpreadAcrossTicks() {
+        // 予算0でも1tickに1件は進む
+        BroadcastDispatcher dispatcher = new BroadcastDispatcher(plugin, 0.0);
+        List<PlayerMock> players = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            players.add(server.addPlayer());
+        }
+        List<String> served = new ArrayList<>();
+        dispatcher.forEachOnline(p -> served.add(p.getName()));
+        assertEquals(10, dispatcher.getQueueDepth());
+        assertTrue(served.isEmpty());
+
+        server.getScheduler().performOneTick();
+        assertEquals(1, served.size());
+        assertEquals(9, dispatcher.getQueueDepth());
+
+        server.getScheduler().performTicks(9L);
+        assertEquals(10, served.size());
+        assertEquals(players.get(0).getName(), served.get(0)); // 積んだ順に実行
+        assertEquals(0, dispatcher.getQueueDepth());
+        assertEquals(10, dispatcher.getMaxQueueDepth());
+        assertEquals(10, dispatcher.getExecuted());
+    }
+
+    @Test
+    void testLargeBudgetDrainsInOneTick() {
+        BroadcastDispatcher dispatcher = new BroadcastDispatcher(plugin, 1000.0);
+        for (int i = 0; i < 20; i++) {
+            server.addPlayer();
+        }
+        dispatcher.broadcast("hello");
+        server.getScheduler().performOneTick();
+        assertEquals(0, dispatcher.getQueueDepth());
+        assertEquals(20, dispatcher.getExecuted());
+    }
+
+    @Test
+    void testPlayersWhoLeftAreSkipped() {
+        BroadcastDispatcher dispatcher = new BroadcastDispatcher(plugin, 1000.0);
+        PlayerMock stays = server.addPlayer();
+        PlayerMock leaves = server.addPlayer();
+        dispatcher.forEachOnline(p -> p.sendMessage("reward"));
+        leaves.disconnect();
+
+        server.getScheduler().performOneTick();
+        assertEquals(1, dispatcher.getExecuted());
+        assertEquals(1, dispatcher.getSkipped());
+        assertEquals("reward", stays.nextMessage());
+    }
+}
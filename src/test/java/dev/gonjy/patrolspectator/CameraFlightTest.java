@@ -0,0 +1,112 @@
+package dev.gonjy.patrolspectator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CameraFlightTest {
+
+    private static final int MAX_TICKS = CameraFlight.DEFAULT_MAX_SECONDS * 20;
+
+    /** 既定の設定（patrol.tour.transition.*）での飛行 */
+    private static CameraFlight flight(double ax, double az, double bx, double bz) {
+        return new CameraFlight(ax, 64, az, 0f, 0f, bx, 64, bz, 0f, 0f, CameraFlight.DEFAULT_SPEED,
+                CameraFlight.DEFAULT_MAX_SPEED, MAX_TICKS, 1);
+    }
+
+    @Test
+    void testArrivesAtDestinationWithinSpeedLimit() {
+        CameraFlight f = new CameraFlight(0, 70, 0, 0f, 0f, 600, 64, -300, 90f, 10f, CameraFlight.DEFAULT_SPEED,
+                CameraFlight.DEFAULT_MAX_SPEED, MAX_TICKS, 1);
+        // 既定の設定でも長い移動は飛行になる（速度を上げて上限時間に収める）
+        assertTrue(f.fitsTime());
+        assertTrue(f.durationTicks <= MAX_TICKS);
+        assertTrue(f.peakSpeed > CameraFlight.DEFAULT_SPEED && f.peakSpeed <= CameraFlight.DEFAULT_MAX_SPEED);
+        double px = f.x, py = f.y, pz = f.z;
+        int ticks = 0;
+        boolean moving = true;
+        while (moving) {
+            moving = f.advance();
+            ticks++;
+            double step = Math.sqrt((f.x - px) * (f.x - px) + (f.y - py) * (f.y - py) + (f.z - pz) * (f.z - pz));
+            assertTrue(step <= f.peakSpeed + 0.05, "too fast at tick " + ticks + ": " + step);
+            px = f.x;
+            py = f.y;
+            pz = f.z;
+        }
+        assertEquals(f.durationTicks, ticks);
+        assertTrue(f.finished());
+        assertEquals(600.0, f.x, 1e-9);
+        assertEquals(64.0, f.y, 1e-9);
+        assertEquals(-300.0, f.z, 1e-9);
+        assertEquals(90f, f.yaw, 1e-4);
+        assertEquals(10f, f.pitch, 1e-4);
+        assertTrue(f.length >= Math.sqrt(600 * 600 + 300 * 300));
+    }
+
+    @Test
+    void testSpeedScalesWithDistanceWithinBounds() {
+        // 近い移動は巡航速度のまま
+        CameraFlight near = flight(0, 0, 100, 0);
+        assertEquals(CameraFlight.DEFAULT_SPEED, near.peakSpeed, 1e-9);
+        assertTrue(near.fitsTime());
+
+        // 遠いほど速く、どれも上限時間に収まる
+        CameraFlight mid = flight(0, 0, 800, 0);
+        CameraFlight far = flight(0, 0, 1100, 0);
+        assertTrue(mid.fitsTime() && far.fitsTime());
+        assertTrue(far.peakSpeed > mid.peakSpeed);
+
+        // 上限速度でも収まらない距離はテレポート
+        CameraFlight tooFar = flight(0, 0, 3000, 0);
+        assertEquals(CameraFlight.DEFAULT_MAX_SPEED, tooFar.peakSpeed, 1e-9);
+        assertFalse(tooFar.fitsTime());
+    }
+
+    @Test
+    void testSkipToEndLandsOnDestination() {
+        CameraFlight f = flight(0, 0, 400, 100);
+        for (int i = 0; i < 5; i++)
+            f.advance();
+        f.skipToEnd();
+        assertTrue(f.finished());
+        assertEquals(0, f.ticksRemaining());
+        assertEquals(400.0, f.x, 1e-9);
+        assertEquals(100.0, f.z, 1e-9);
+        assertFalse(f.advance());
+    }
+
+    @Test
+    void testYawTurnsTheShortWay() {
+        CameraFlight f = new CameraFlight(0, 64, 0, 170f, 0f, 100, 64, 0, -170f, 0f, 2.0, 2.0, MAX_TICKS, 0);
+        float min = Float.MAX_VALUE, max = -Float.MAX_VALUE;
+        while (f.advance()) {
+            min = Math.min(min, f.yaw);
+            max = Math.max(max, f.yaw);
+        }
+        // 170 → 190（= -170）と20度だけ回る
+        assertTrue(min >= 170f - 1e-3 && max <= 190f + 1e-3, min + ".." + max);
+    }
+
+    @Test
+    void testPathChunksCoverRouteInOrder() {
+        CameraFlight f = new CameraFlight(5, 64, 5, 0f, 0f, 805, 64, 5, 0f, 0f, 1.0, 1.0, MAX_TICKS, 1);
+        Set<Long> keys = new HashSet<>();
+        for (int i = 0; i < f.chunks.length; i++) {
+            assertTrue(keys.add(f.chunks[i]), "duplicate chunk");
+            assertTrue(f.lastAt[i] >= f.firstAt[i]);
+            if (i > 0)
+                assertTrue(f.firstAt[i] >= f.firstAt[i - 1]);
+        }
+        // 出発点と到着点のチャンク、およびその両隣（半径1）を含む
+        assertTrue(keys.contains(CameraFlight.key(0, 0)));
+        assertTrue(keys.contains(CameraFlight.key(0, -1)));
+        assertTrue(keys.contains(CameraFlight.key(50, 0)));
+        assertTrue(keys.contains(CameraFlight.key(51, 1)));
+        // 直線に近い経路なので、通る列×3行程度に収まる
+        assertTrue(f.chunks.length <= 53 * 3, "chunks=" + f.chunks.length);
+    }
+}
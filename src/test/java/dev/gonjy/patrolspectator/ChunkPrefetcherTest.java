@@ -0,0 +1,175 @@
+package dev.gonjy.patrolspectator;
+
+import org.bukkit.Chunk;
+import org.bukkit.World;
+import org.bukkit.plugin.Plugin;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChunkPrefetcherTest {
+
+    /** 非同期ロードの完了をテスト側で進められる World と、付いているプラグインチケット */
+    private final Map<Long, List<CompletableFuture<Chunk>>> pending = new HashMap<>();
+    private final Set<Long> tickets = new HashSet<>();
+    private World world;
+    private Chunk chunk;
+    private ChunkPrefetcher prefetcher;
+
+    @BeforeEach
+    void setUp() {
+        UUID uid = UUID.randomUUID();
+        chunk = (Chunk) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Chunk.class },
+                (proxy, m, args) -> null);
+        world = (World) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { World.class },
+                (proxy, m, args) -> {
+                    switch (m.getName()) {
+                        case "getUID":
+                            return uid;
+                        case "getChunkAtAsync": {
+                            CompletableFuture<Chunk> f = new CompletableFuture<>();
+                            pending.computeIfAbsent(key(args), k -> new ArrayList<>()).add(f);
+                            return f;
+                        }
+                        case "addPluginChunkTicket":
+                            return tickets.add(key(args));
+                        case "removePluginChunkTicket":
+                            return tickets.remove(key(args));
+                        default:
+                            return m.getReturnType() == boolean.class ? false : null;
+                    }
+                });
+        Logger logger = Logger.getLogger("ChunkPrefetcherTest");
+        Plugin plugin = (Plugin) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Plugin.class },
+                (proxy, m, args) -> "getLogger".equals(m.getName()) ? logger : null);
+        prefetcher = new ChunkPrefetcher(plugin, 0);
+    }
+
+    private static long key(Object[] args) {
+        return CameraFlight.key((Integer) args[0], (Integer) args[1]);
+    }
+
+    /** 依頼済みのロードをすべて完了させる */
+    private void completeAll() {
+        for (List<CompletableFuture<Chunk>> fs : pending.values()) {
+            for (CompletableFuture<Chunk> f : fs) {
+                f.complete(chunk);
+            }
+        }
+        pending.clear();
+    }
+
+    private static TouristLocation stop(String id, double x, double z) {
+        return new TouristLocation(id, id, "world", x, 64, z, 0f, 0f, "", "overworld");
+    }
+
+    @Test
+    void testSharedChunkIsTicketedOnceAndReleasedByLastHold() {
+        TouristLocation a = stop("a", 1, 1);
+        TouristLocation b = stop("b", 8, 8); // 同じチャンク (0,0)
+        prefetcher.prefetch(a, world);
+        prefetcher.prefetch(b, world);
+        prefetcher.prefetch(a, world); // 保持済みなら何もしない
+        assertEquals(2, prefetcher.getRequested());
+        completeAll();
+        assertEquals(Set.of(0L), tickets);
+        assertEquals(1, prefetcher.getHeldChunks());
+
+        // a を外しても b が必要とするチケットは残す
+        prefetcher.retainOnly(List.of(b));
+        assertEquals(Set.of(0L), tickets);
+        prefetcher.retainOnly(List.of());
+        assertTrue(tickets.isEmpty());
+        assertEquals(0, prefetcher.getHeldChunks());
+    }
+
+    @Test
+    void testReplacedHoldReleasesItsChunks() {
+        TouristLocation a = stop("a", 0, 0);
+        TouristLocation b = stop("b", 160, 0);
+        prefetcher.prefetch(a, world);
+        completeAll();
+        prefetcher.prefetch(b, world);
+        completeAll();
+        assertEquals(Set.of(CameraFlight.key(0, 0), CameraFlight.key(10, 0)), tickets);
+
+        // 次の観光地に切り替わったら前の保持は解放
+        prefetcher.retainOnly(List.of(b));
+        assertEquals(Set.of(CameraFlight.key(10, 0)), tickets);
+
+        prefetcher.releaseAll();
+        assertTrue(tickets.isEmpty());
+    }
+
+    @Test
+    void testLoadCompletingAfterCancelAddsNoTicket() {
+        TouristLocation a = stop("a", 0, 0);
+        prefetcher.prefetch(a, world);
+        prefetcher.retainOnly(List.of());
+        completeAll();
+        assertTrue(tickets.isEmpty());
+        assertEquals(0, prefetcher.getHeldChunks());
+    }
+
+    @Test
+    void testPathHoldRequestsAheadAndReleasesBehind() {
+        long[] path = new long[6];
+        for (int i = 0; i < path.length; i++) {
+            path[i] = CameraFlight.key(i, 0);
+        }
+        // 経路の途中のチャンクは観光地の保持と共有
+        prefetcher.prefetch(stop("a", 2 * 16 + 1, 1), world);
+
+        ChunkPrefetcher.PathHold hold = prefetcher.beginPath(world, path);
+        assertEquals(0, hold.requested());
+        prefetcher.requestPath(hold, 3);
+        prefetcher.requestPath(hold, 2); // 依頼済みの分は飛ばす
+        assertEquals(3, hold.requested());
+        completeAll();
+        assertEquals(Set.of(CameraFlight.key(0, 0), CameraFlight.key(1, 0), CameraFlight.key(2, 0)), tickets);
+
+        // 通り過ぎた分から解放。観光地が必要とするチャンク2は残す
+        prefetcher.requestPath(hold, 6);
+        prefetcher.releasePath(hold, 3);
+        assertEquals(3, hold.released());
+        assertEquals(Set.of(CameraFlight.key(2, 0)), tickets);
+
+        // 先の分は読み込みが終わった順にチケットを付ける
+        completeAll();
+        assertEquals(Set.of(CameraFlight.key(2, 0), CameraFlight.key(3, 0), CameraFlight.key(4, 0),
+                CameraFlight.key(5, 0)), tickets);
+
+        prefetcher.endPath(hold);
+        assertEquals(Set.of(CameraFlight.key(2, 0)), tickets);
+        prefetcher.releaseAll();
+        assertTrue(tickets.isEmpty());
+    }
+
+    @Test
+    void testPathLoadFinishingAfterReleaseAddsNoTicket() {
+        long[] path = { CameraFlight.key(0, 0), CameraFlight.key(1, 0) };
+        ChunkPrefetcher.PathHold hold = prefetcher.beginPath(world, path);
+        prefetcher.requestPath(hold, 2);
+        // 読み込み完了前にカメラが通り過ぎた
+        prefetcher.releasePath(hold, 1);
+        completeAll();
+        assertEquals(Set.of(CameraFlight.key(1, 0)), tickets);
+        prefetcher.endPath(hold);
+        assertTrue(tickets.isEmpty());
+        // 終了後の依頼は無視
+        prefetcher.requestPath(hold, 2);
+        assertEquals(2, hold.requested());
+    }
+}
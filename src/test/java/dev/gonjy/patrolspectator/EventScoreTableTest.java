@@ -0,0 +1,68 @@
+package dev.gonjy.patrolspectator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventScoreTableTest {
+
+    @Test
+    void testCreditIsClipped() {
+        EventScoreTable table = new EventScoreTable();
+        assertEquals(10, table.credit(3, 10, 9999));
+        assertEquals(9999, table.credit(3, Integer.MAX_VALUE, 9999));
+        assertEquals(0, table.points(2));
+        assertEquals(0, table.points(100));
+    }
+
+    @Test
+    void testKillStreakWindow() {
+        EventScoreTable table = new EventScoreTable();
+        assertEquals(1, table.registerKill(0, 1_000L, 30_000L));
+        assertEquals(2, table.registerKill(0, 20_000L, 30_000L));
+        assertEquals(3, table.registerKill(0, 49_999L, 30_000L));
+        assertEquals(1, table.registerKill(0, 90_000L, 30_000L));
+
+        table.reset(0);
+        assertEquals(1, table.registerKill(0, 90_001L, 30_000L));
+    }
+
+    @Test
+    void testTopKMatchesFullSort() {
+        EventScoreTable table = new EventScoreTable();
+        Random random = new Random(7);
+        int n = 500;
+        int[] pts = new int[n];
+        for (int slot = 0; slot < n; slot++) {
+            pts[slot] = random.nextInt(50); // 0 は除外される
+            table.credit(slot, pts[slot], 9999);
+        }
+        int[] expected = IntStream.range(0, n).filter(s -> pts[s] > 0).boxed()
+                .sorted(Comparator.<Integer>comparingInt(s -> -pts[s]).thenComparingInt(s -> s))
+                .limit(5).mapToInt(Integer::intValue).toArray();
+
+        int[] out = new int[5];
+        assertEquals(5, table.topK(5, out));
+        assertArrayEquals(expected, out);
+    }
+
+    @Test
+    void testTopKWithFewerEntriesAndClear() {
+        EventScoreTable table = new EventScoreTable();
+        table.credit(4, 3, 9999);
+        table.credit(1, 8, 9999);
+
+        int[] out = new int[5];
+        assertEquals(2, table.topK(5, out));
+        assertArrayEquals(new int[] { 1, 4 }, Arrays.copyOf(out, 2));
+
+        table.clear();
+        assertEquals(0, table.topK(5, out));
+        assertEquals(0, table.points(1));
+    }
+}
@@ -0,0 +1,64 @@
+package dev.gonjy.patrolspectator;
+
+import org.bukkit.Material;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.EntityType;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventTypeRegistryTest {
+
+    private static final Logger LOG = Logger.getLogger("EventTypeRegistryTest");
+
+    @Test
+    void testDefaultsMatchBuiltInTables() {
+        EventTypeRegistry registry = EventTypeRegistry.defaults();
+        assertEquals(List.of("mob_hunt", "mining_contest", "survival_challenge", "speed_contest"), registry.ids());
+
+        EventType mob = registry.get("mob_hunt");
+        assertEquals(EventType.Trigger.MOB_KILL, mob.trigger);
+        assertEquals(10, mob.pointsFor(EntityType.ZOMBIE));
+        assertEquals(100, mob.pointsFor(EntityType.WITHER));
+        assertEquals(5, mob.pointsFor(EntityType.PIG)); // 表に無いモブ
+
+        EventType mining = registry.get("mining_contest");
+        assertEquals(EventType.Trigger.BLOCK_BREAK, mining.trigger);
+        assertEquals(50, mining.pointsFor(Material.DEEPSLATE_DIAMOND_ORE));
+        assertEquals(0, mining.pointsFor(Material.STONE));
+
+        assertEquals(EventType.Trigger.MOVEMENT, registry.get("speed_contest").trigger);
+        assertNull(registry.get("unknown"));
+    }
+
+    @Test
+    void testLoadFromConfig() {
+        YamlConfiguration yaml = YamlConfiguration.loadConfiguration(new StringReader(String.join("\n",
+                "types:",
+                "  lumberjack:",
+                "    displayName: 木こり大会",
+                "    trigger: block_break",
+                "    defaultPoints: 1",
+                "    points:",
+                "      minecraft:oak_log: 3",
+                "      NOT_A_BLOCK: 9",
+                "  broken:",
+                "    trigger: FLYING")));
+
+        EventTypeRegistry registry = EventTypeRegistry.load(yaml.getConfigurationSection("types"), LOG);
+        assertEquals(List.of("lumberjack"), registry.ids());
+        EventType type = registry.get("lumberjack");
+        assertEquals("木こり大会", type.displayName);
+        assertEquals(3, type.pointsFor(Material.OAK_LOG));
+        assertEquals(1, type.pointsFor(Material.STONE));
+    }
+
+    @Test
+    void testMissingSectionFallsBackToDefaults() {
+        assertEquals(4, EventTypeRegistry.load(null, LOG).ids().size());
+    }
+}
@@ -0,0 +1,89 @@
+package dev.gonjy.patrolspectator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpiryWheelTest {
+
+    @Test
+    void testFiresOnlyOnceDeadlinePassed() {
+        ExpiryWheel<String> wheel = new ExpiryWheel<>(1000L, 0L);
+        wheel.schedule("a", 1500L);
+        wheel.schedule("b", 3000L);
+        List<String> fired = new ArrayList<>();
+
+        wheel.advance(1999L, fired::add);
+        assertTrue(fired.isEmpty()); // 1500ms は 2秒目の tick で取り出す
+        wheel.advance(2000L, fired::add);
+        assertEquals(List.of("a"), fired);
+        wheel.advance(10_000L, fired::add);
+        assertEquals(List.of("a", "b"), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void testRescheduleAndCancel() {
+        ExpiryWheel<String> wheel = new ExpiryWheel<>(1L, 0L);
+        wheel.schedule("a", 10L);
+        wheel.schedule("b", 10L);
+        wheel.schedule("a", 5_000L); // 延長
+        assertTrue(wheel.cancel("b"));
+        assertFalse(wheel.cancel("b"));
+
+        List<String> fired = new ArrayList<>();
+        wheel.advance(4_999L, fired::add);
+        assertTrue(fired.isEmpty());
+        wheel.advance(5_000L, fired::add);
+        assertEquals(List.of("a"), fired);
+    }
+
+    @Test
+    void testPastDeadlineFiresOnNextAdvance() {
+        ExpiryWheel<String> wheel = new ExpiryWheel<>(1000L, 100_000L);
+        wheel.schedule("old", 5_000L);
+        List<String> fired = new ArrayList<>();
+        wheel.advance(100_000L, fired::add);
+        assertEquals(List.of("old"), fired);
+    }
+
+    @Test
+    void testRandomDeadlinesAcrossLevelsAndOverflow() {
+        Random rnd = new Random(42);
+        ExpiryWheel<Integer> wheel = new ExpiryWheel<>(1L, 0L);
+        Map<Integer, Long> deadlines = new HashMap<>();
+        for (int i = 0; i < 3000; i++) {
+            // 1段目〜最上段、最上段の範囲外（64^4 tick 超）まで散らす
+            long at = switch (i % 4) {
+                case 0 -> rnd.nextInt(64);
+                case 1 -> rnd.nextInt(64 * 64 * 64);
+                case 2 -> rnd.nextInt(64 * 64 * 64 * 64);
+                default -> 64L * 64 * 64 * 64 + rnd.nextInt(64 * 64 * 64 * 16);
+            };
+            deadlines.put(i, at);
+            wheel.schedule(i, at);
+        }
+
+        long now = 0L;
+        Map<Integer, Long> firedAt = new HashMap<>();
+        while (wheel.size() > 0) {
+            now += 1 + rnd.nextInt(40_000);
+            long t = now;
+            wheel.advance(now, k -> assertNull(firedAt.put(k, t)));
+        }
+        assertEquals(deadlines.size(), firedAt.size());
+        for (Map.Entry<Integer, Long> e : firedAt.entrySet()) {
+            long deadline = deadlines.get(e.getKey());
+            long at = e.getValue();
+            assertTrue(at >= deadline, "fired early: " + e.getKey());
+            // 期限を過ぎた後の最初の advance で取り出されている
+            assertTrue(at - deadline <= 40_000, "fired late: " + e.getKey());
+        }
+    }
+}
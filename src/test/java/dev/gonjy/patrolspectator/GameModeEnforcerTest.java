@@ -93,4 +93,52 @@ class GameModeEnforcerTest {
 
         enforcer.stop();
     }
+
+    @Test
+    void testMultipleCameraOperatorsExempt() {
+        PlayerMock cam1 = server.addPlayer("Cam1");
+        PlayerMock cam2 = server.addPlayer("Cam2");
+        PlayerMock normalPlayer = server.addPlayer("Normal");
+        cam1.setGameMode(GameMode.SPECTATOR);
+        cam2.setGameMode(GameMode.SPECTATOR);
+        normalPlayer.setGameMode(GameMode.CREATIVE);
+
+        enforcer.addCameraOperator(cam1.getUniqueId());
+        enforcer.addCameraOperator(cam2.getUniqueId());
+        enforcer.start();
+        server.getScheduler().performTicks(25L);
+
+        assertEquals(GameMode.SPECTATOR, cam1.getGameMode());
+        assertEquals(GameMode.SPECTATOR, cam2.getGameMode());
+        assertEquals(GameMode.SURVIVAL, normalPlayer.getGameMode());
+
+        // 1台だけ解除すると、その人はサバイバルに戻される
+        enforcer.removeCameraOperator(cam2.getUniqueId());
+        assertFalse(enforcer.isCameraOperator(cam2.getUniqueId()));
+        enforcer.ensurePlayerIsSurvival(cam2);
+        assertEquals(GameMode.SURVIVAL, cam2.getGameMode());
+        assertEquals(GameMode.SPECTATOR, cam1.getGameMode());
+
+        enforcer.stop();
+    }
+
+    @Test
+    void testReconcileSweepCoversAllPlayers() {
+        PlayerMock[] players = new PlayerMock[40];
+        for (int i = 0; i < players.length; i++) {
+            players[i] = server.addPlayer();
+            players[i].setGameMode(GameMode.ADVENTURE);
+        }
+
+        enforcer.start();
+
+        // 開始20tick後に照合が始まり、1tickあたり数人ずつ処理される
+        server.getScheduler().performTicks(40L);
+
+        for (PlayerMock p : players) {
+            assertEquals(GameMode.SURVIVAL, p.getGameMode());
+        }
+
+        enforcer.stop();
+    }
 }
@@ -0,0 +1,63 @@
+package dev.gonjy.patrolspectator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexedMaxHeapTest {
+
+    @Test
+    void testPeekTracksUpdates() {
+        IndexedMaxHeap<String> heap = new IndexedMaxHeap<>();
+        heap.set("a", 1.0);
+        heap.set("b", 3.0);
+        heap.set("c", 2.0);
+        assertEquals("b", heap.peek());
+
+        heap.set("b", 0.5);
+        assertEquals("c", heap.peek());
+
+        heap.remove("c");
+        assertEquals("a", heap.peek());
+        assertEquals(2, heap.size());
+        assertTrue(Double.isNaN(heap.priorityOf("c")));
+    }
+
+    @Test
+    void testBestSkipsRejectedKeys() {
+        IndexedMaxHeap<String> heap = new IndexedMaxHeap<>();
+        heap.set("a", 5.0);
+        heap.set("b", 4.0);
+        heap.set("c", 3.0);
+
+        assertEquals("b", heap.best(k -> !k.equals("a"), 8));
+        assertNull(heap.best(k -> false, 8));
+        assertEquals("a", heap.peek());
+    }
+
+    @Test
+    void testRandomOperationsKeepMaxOnTop() {
+        IndexedMaxHeap<Integer> heap = new IndexedMaxHeap<>();
+        Map<Integer, Double> expected = new HashMap<>();
+        Random random = new Random(3);
+        for (int i = 0; i < 5000; i++) {
+            int key = random.nextInt(200);
+            if (random.nextInt(4) == 0) {
+                heap.remove(key);
+                expected.remove(key);
+            } else {
+                double p = random.nextDouble();
+                heap.set(key, p);
+                expected.put(key, p);
+            }
+            double max = expected.values().stream().mapToDouble(Double::doubleValue).max()
+                    .orElse(Double.NEGATIVE_INFINITY);
+            assertEquals(max, heap.peekPriority());
+            assertEquals(expected.size(), heap.size());
+        }
+    }
+}
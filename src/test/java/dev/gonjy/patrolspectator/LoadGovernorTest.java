@@ -0,0 +1,72 @@
+package dev.gonjy.patrolspectator;
+
+import org.junit.jupiter.api.Test;
+
+import static java.lang.Double.NaN;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadGovernorTest {
+
+    private static LoadGovernor governor() {
+        return new LoadGovernor(18.0, 15.0, 19.5, 40.0, 48.0, 30.0, 3, 2.0);
+    }
+
+    @Test
+    void testEscalatesImmediately() {
+        LoadGovernor g = governor();
+        assertEquals(LoadGovernor.Level.NORMAL, g.update(20.0, NaN));
+        assertEquals(200L, g.dwellTicks(200L));
+        assertTrue(g.allowsNearbySearch());
+
+        assertEquals(LoadGovernor.Level.STRAINED, g.update(17.0, NaN));
+        assertEquals(400L, g.dwellTicks(200L));
+        assertFalse(g.allowsNearbySearch());
+        assertFalse(g.allowsSounds());
+        assertTrue(g.allowsSwitching());
+
+        assertEquals(LoadGovernor.Level.CRITICAL, g.update(12.0, NaN));
+        assertEquals(800L, g.dwellTicks(200L));
+        assertFalse(g.allowsSwitching());
+    }
+
+    @Test
+    void testRecoversOneLevelAfterSustainedHealth() {
+        LoadGovernor g = governor();
+        g.update(10.0, NaN);
+        g.update(19.8, NaN);
+        g.update(19.8, NaN);
+        assertEquals(LoadGovernor.Level.CRITICAL, g.level());
+        assertEquals(LoadGovernor.Level.STRAINED, g.update(19.8, NaN));
+        for (int i = 0; i < 2; i++)
+            assertEquals(LoadGovernor.Level.STRAINED, g.update(20.0, NaN));
+        assertEquals(LoadGovernor.Level.NORMAL, g.update(20.0, NaN));
+        assertEquals(3, g.transitions());
+    }
+
+    @Test
+    void testDoesNotFlapAroundThreshold() {
+        LoadGovernor g = governor();
+        g.update(17.9, NaN);
+        // 閾値と回復の間（18〜19.5）を行き来しても戻らない
+        for (int i = 0; i < 20; i++) {
+            assertEquals(LoadGovernor.Level.STRAINED, g.update(i % 2 == 0 ? 18.5 : 19.6, NaN));
+        }
+        assertEquals(1, g.transitions());
+    }
+
+    @Test
+    void testMsptEscalatesBeforeTpsDrops() {
+        LoadGovernor g = governor();
+        // TPS は20のままでも、処理時間が50msに近づいたら間引く
+        assertEquals(LoadGovernor.Level.NORMAL, g.update(20.0, 25.0));
+        assertEquals(LoadGovernor.Level.STRAINED, g.update(20.0, 42.0));
+        assertEquals(LoadGovernor.Level.CRITICAL, g.update(20.0, 49.0));
+
+        // TPS が戻っていても MSPT が回復の閾値を下回るまでは戻らない
+        for (int i = 0; i < 5; i++)
+            assertEquals(LoadGovernor.Level.CRITICAL, g.update(20.0, 35.0));
+        for (int i = 0; i < 2; i++)
+            g.update(20.0, 20.0);
+        assertEquals(LoadGovernor.Level.STRAINED, g.update(20.0, 20.0));
+    }
+}
@@ -0,0 +1,43 @@
+package dev.gonjy.patrolspectator;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MovementAccumulatorTest {
+
+    @Test
+    void testWholeBlocksAreDrainedAndRemainderCarried() {
+        MovementAccumulator acc = new MovementAccumulator();
+        for (int i = 0; i < 5; i++) {
+            acc.accumulate(0, 0, 64, 0, 0.3, 64, 0);
+        }
+        assertEquals(1, acc.drainWholeBlocks(0));
+        assertEquals(0, acc.drainWholeBlocks(0));
+
+        acc.accumulate(0, 0, 64, 0, 0.6, 64, 0);
+        assertEquals(1, acc.drainWholeBlocks(0));
+    }
+
+    @Test
+    void testRotationAndTeleportAreIgnored() {
+        MovementAccumulator acc = new MovementAccumulator();
+
+        assertFalse(acc.accumulate(0, 5, 64, 5, 5, 64, 5));
+        assertFalse(acc.accumulate(0, 0, 64, 0, 500, 64, 0));
+        assertFalse(acc.accumulate(-1, 0, 64, 0, 1, 64, 0));
+        assertEquals(0, acc.drainWholeBlocks(0));
+    }
+
+    @Test
+    void testSlotsAreIndependent() {
+        MovementAccumulator acc = new MovementAccumulator();
+        acc.accumulate(3, 0, 64, 0, 2, 64, 0);
+        acc.accumulate(200, 0, 64, 0, 3, 64, 0);
+
+        assertEquals(2, acc.drainWholeBlocks(3));
+        assertEquals(3, acc.drainWholeBlocks(200));
+        acc.reset(3);
+        assertEquals(0, acc.drainWholeBlocks(3));
+    }
+}
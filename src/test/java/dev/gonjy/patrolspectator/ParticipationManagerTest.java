@@ -28,15 +28,16 @@ class ParticipationManagerTest {
 
     @AfterEach
     void tearDown() {
-        // Clean up test files
+        // Clean up test files（onDisable の最終チェックポイントが書き戻さないよう、停止してから消す）
+        manager.close();
         File dataFolder = plugin.getDataFolder();
-        if (dataFolder.exists()) {
-            File participationFile = new File(dataFolder, "participation.yml");
-            if (participationFile.exists()) {
-                participationFile.delete();
+        MockBukkit.unmock();
+        for (String name : new String[] { PlayerRecordFile.FILE_NAME, PlayerProfileRepository.JOURNAL_NAME }) {
+            File f = new File(dataFolder, name);
+            if (f.exists()) {
+                f.delete();
             }
         }
-        MockBukkit.unmock();
     }
 
     @Test
@@ -100,6 +101,21 @@ class ParticipationManagerTest {
         assertEquals(150, top.get(1).score());
     }
 
+    @Test
+    void testRankOf() {
+        UUID player1 = UUID.randomUUID();
+        UUID player2 = UUID.randomUUID();
+
+        manager.addPoints(player1, "Player1", 100, "test");
+        manager.addPoints(player2, "Player2", 200, "test");
+        assertEquals(1, manager.rankOf(player2));
+        assertEquals(2, manager.rankOf(player1));
+
+        manager.addPoints(player1, "Player1", 150, "test");
+        assertEquals(1, manager.rankOf(player1));
+        assertEquals(0, manager.rankOf(UUID.randomUUID()));
+    }
+
     @Test
     void testThankOnJoin() {
         PlayerMock player = server.addPlayer("TestPlayer");
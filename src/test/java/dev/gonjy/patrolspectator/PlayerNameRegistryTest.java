@@ -0,0 +1,67 @@
+package dev.gonjy.patrolspectator;
+
+import org.mockbukkit.mockbukkit.MockBukkit;
+import org.mockbukkit.mockbukkit.ServerMock;
+import org.mockbukkit.mockbukkit.entity.PlayerMock;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlayerNameRegistryTest {
+
+    private ServerMock server;
+    private PatrolSpectatorPlugin plugin;
+    private PlayerNameRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        server = MockBukkit.mock();
+        plugin = MockBukkit.load(PatrolSpectatorPlugin.class);
+        registry = plugin.getNameRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        MockBukkit.unmock();
+    }
+
+    @Test
+    void testUnchangedNameIsNotMarkedDirty() {
+        UUID id = UUID.randomUUID();
+        registry.remember(id, "Alice");
+        registry.remember(id, "Alice");
+        assertEquals(1, registry.pendingCount());
+
+        registry.flush();
+        assertEquals(0, registry.pendingCount());
+
+        registry.remember(id, "Alice");
+        assertEquals(0, registry.pendingCount());
+
+        registry.remember(id, "Alice2");
+        assertEquals(1, registry.pendingCount());
+        assertEquals("Alice2", registry.nameOf(id));
+    }
+
+    @Test
+    void testJoinRegistersName() {
+        PlayerMock player = server.addPlayer("Bob");
+        assertEquals("Bob", registry.nameOf(player.getUniqueId()));
+    }
+
+    @Test
+    void testOfflineNamesComeFromStorage() {
+        UUID id = UUID.randomUUID();
+        registry.remember(id, "Carol");
+        registry.flush();
+
+        PlayerNameRegistry reloaded = new PlayerNameRegistry(plugin, plugin.getStatsStorage());
+        assertEquals("Carol", reloaded.nameOf(id));
+        assertEquals("fallback", reloaded.nameOf(UUID.randomUUID(), "fallback"));
+        reloaded.shutdown();
+    }
+}
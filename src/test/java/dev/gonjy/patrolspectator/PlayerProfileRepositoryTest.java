@@ -0,0 +1,216 @@
+package dev.gonjy.patrolspectator;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlayerProfileRepositoryTest {
+
+    private static final Logger LOG = Logger.getLogger("PlayerProfileRepositoryTest");
+
+    @TempDir
+    File dataFolder;
+
+    private PlayerProfileRepository open(long checkpointSeconds) {
+        return new PlayerProfileRepository(dataFolder, LOG, checkpointSeconds, null);
+    }
+
+    @Test
+    void testStoresShareOneRecordPerPlayer() {
+        PlayerProfileRepository repo = open(3600);
+        PlayerStatsStorage stats = new PlayerStatsStorage(repo);
+        ParticipationManager participation = new ParticipationManager(null, repo);
+        ProtectionData protection = new ProtectionData(repo);
+        UUID id = UUID.randomUUID();
+
+        stats.recordLogin(id, "Alice");
+        participation.addPoints(id, "Alice", 7, "join");
+        protection.extend(id, 60_000L);
+
+        assertEquals(1, repo.size());
+        PlayerProfile p = repo.find(id).orElseThrow();
+        assertEquals("Alice", p.name());
+        assertEquals(1, p.loginCount());
+        assertEquals(7, p.score());
+        assertTrue(p.isProtected(System.currentTimeMillis()));
+        assertTrue(p.protectionRemainingMillis(System.currentTimeMillis()) <= 60_000L);
+        repo.close();
+    }
+
+    @Test
+    void testBatchedJournalRecoversLatestState() {
+        PlayerProfileRepository repo = open(3600);
+        PlayerStatsStorage stats = new PlayerStatsStorage(repo);
+        ProtectionData protection = new ProtectionData(repo);
+        UUID id = UUID.randomUUID();
+
+        for (int i = 0; i < 100; i++) {
+            stats.addEventPoint(id, 1, "tick");
+            protection.extendProtectionRadius(id, 1);
+        }
+        repo.awaitJournal();
+
+        assertEquals(200, repo.getUpdates());
+        // 追記は変更のあったプレイヤー単位（1行に全ストア分）でまとまる
+        assertTrue(repo.getJournalRecords() <= repo.getUpdates());
+        assertTrue(repo.getJournalAppends() <= repo.getJournalRecords());
+
+        // クラッシュ想定：close() せずに再オープンしてもジャーナルから最終状態に戻る
+        PlayerProfileRepository recovered = open(3600);
+        PlayerProfile p = recovered.find(id).orElseThrow();
+        assertEquals(100, p.eventPoints());
+        assertEquals(100, p.protectionRadius());
+        recovered.close();
+        repo.close();
+    }
+
+    @Test
+    void testReopenRestoresAllSubsystemsFromSingleFile() {
+        UUID id = UUID.randomUUID();
+        PlayerProfileRepository repo = open(3600);
+        new PlayerStatsStorage(repo).recordLogin(id, "Bob");
+        new ParticipationManager(null, repo).incrementJoinCount(id, "Bob");
+        new ProtectionData(repo).extendProtectionRadius(id, 4);
+        repo.close();
+
+        assertTrue(new File(dataFolder, PlayerRecordFile.FILE_NAME).exists());
+        assertFalse(new File(dataFolder, PlayerProfileRepository.JOURNAL_NAME).exists());
+
+        PlayerProfileRepository reopened = open(3600);
+        ParticipationManager participation = new ParticipationManager(null, reopened);
+        assertEquals(1, new PlayerStatsStorage(reopened).getLoginCount(id));
+        assertEquals(4, new ProtectionData(reopened).getRadius(id));
+        List<ParticipationManager.Entry> top = participation.topN(1);
+        assertEquals(1, top.size());
+        assertEquals("Bob", top.get(0).name());
+        assertEquals(1, top.get(0).count());
+        reopened.close();
+    }
+
+    @Test
+    void testLegacyStatsJournalIsMigrated() throws Exception {
+        UUID id = UUID.randomUUID();
+        File legacy = new File(dataFolder, PlayerProfileRepository.LEGACY_STATS_JOURNAL);
+        Files.writeString(legacy.toPath(), id + "\tAlice\t3\t1000\t0\t0\t5\tmob_hunt\n", StandardCharsets.UTF_8);
+
+        PlayerProfileRepository repo = open(3600);
+        PlayerProfile p = repo.find(id).orElseThrow();
+        assertEquals(3, p.loginCount());
+        assertEquals(5, p.eventPoints());
+        assertFalse(legacy.exists());
+        repo.close();
+    }
+
+    @Test
+    void testReplaceAllRebuildsRanking() {
+        PlayerProfileRepository repo = open(3600);
+        ParticipationManager participation = new ParticipationManager(null, repo);
+        UUID a = UUID.randomUUID();
+        participation.addPoints(a, "A", 5, null);
+
+        UUID b = UUID.randomUUID();
+        PlayerRecord r = new PlayerRecord(b);
+        r.flags = PlayerRecord.HAS_PARTICIPATION;
+        r.name = "B";
+        r.score = 9;
+        repo.replaceAll(Map.of(b, r));
+
+        assertEquals(0, participation.rankOf(a));
+        assertEquals(1, participation.rankOf(b));
+        repo.close();
+    }
+
+    @Test
+    void testExpiredProtectionIsSweptAndNotified() {
+        PlayerProfileRepository repo = open(3600);
+        ProtectionData protection = new ProtectionData(repo);
+        UUID onlyProtection = UUID.randomUUID();
+        UUID withRadius = UUID.randomUUID();
+        protection.extend(onlyProtection, 1_000L);
+        protection.extend(withRadius, 1_000L);
+        protection.extendProtectionRadius(withRadius, 3);
+        protection.extend(withRadius, 60_000L);
+        List<UUID> expired = new ArrayList<>();
+        protection.addExpiryListener(expired::add);
+        assertEquals(2, protection.getScheduledCount());
+
+        long now = System.currentTimeMillis();
+        assertEquals(0, protection.sweepExpired(now));
+        assertEquals(1, protection.sweepExpired(now + 5_000L));
+        assertEquals(List.of(onlyProtection), expired);
+        assertEquals(1, protection.sweepExpired(now + 120_000L));
+        assertEquals(List.of(onlyProtection, withRadius), expired);
+
+        // 保護しか無かったレコードはメモリから消え、半径は残る
+        assertEquals(1, repo.size());
+        assertFalse(repo.find(onlyProtection).isPresent());
+        assertEquals(3, protection.getRadius(withRadius));
+        assertEquals(0, protection.getScheduledCount());
+        repo.close();
+    }
+
+    @Test
+    void testExpiredProtectionsAreDroppedOnLoad() {
+        long now = System.currentTimeMillis();
+        UUID gone = UUID.randomUUID();
+        PlayerRecord a = new PlayerRecord(gone);
+        a.flags = PlayerRecord.HAS_EXPIRE;
+        a.expireAtMs = now - 1_000L;
+        UUID kept = UUID.randomUUID();
+        PlayerRecord b = new PlayerRecord(kept);
+        b.flags = PlayerRecord.HAS_EXPIRE | PlayerRecord.HAS_STATS;
+        b.name = "Carol";
+        b.expireAtMs = now - 1_000L;
+        UUID active = UUID.randomUUID();
+        PlayerRecord c = new PlayerRecord(active);
+        c.flags = PlayerRecord.HAS_EXPIRE;
+        c.expireAtMs = now + 600_000L;
+        PlayerProfileRepository repo = open(3600);
+        repo.replaceAll(Map.of(gone, a, kept, b, active, c));
+        repo.close();
+
+        PlayerProfileRepository reopened = open(3600);
+        assertEquals(2, reopened.size());
+        assertFalse(reopened.find(gone).isPresent());
+        assertFalse(reopened.find(kept).orElseThrow().isProtected(now));
+        ProtectionData protection = new ProtectionData(reopened);
+        assertEquals(1, protection.getScheduledCount());
+        assertTrue(protection.isProtected(active));
+        reopened.close();
+    }
+
+    @Test
+    void testProtectionZoneFollowsRadiusAndExpiry() {
+        PlayerProfileRepository repo = open(3600);
+        ProtectionData protection = new ProtectionData(repo);
+        UUID world = UUID.randomUUID();
+        UUID id = UUID.randomUUID();
+        protection.setAnchor(id, world, 100.0, 64.0, 100.0);
+        assertNull(protection.protectorAt(world, 100.0, 64.0, 100.0, null)); // 保護も半径もまだ無い
+
+        protection.extend(id, 1_000L);
+        protection.extendProtectionRadius(id, 5);
+        assertEquals(id, protection.protectorAt(world, 103.0, 64.0, 100.0, null));
+        assertNull(protection.protectorAt(world, 108.0, 64.0, 100.0, null));
+        assertNull(protection.protectorAt(world, 103.0, 64.0, 100.0, id)); // 本人を除外
+        assertNull(protection.protectorAt(UUID.randomUUID(), 103.0, 64.0, 100.0, null)); // 別ワールド
+
+        protection.extendProtectionRadius(id, 5);
+        assertEquals(id, protection.protectorAt(world, 108.0, 64.0, 100.0, null));
+
+        protection.sweepExpired(System.currentTimeMillis() + 5_000L);
+        assertNull(protection.protectorAt(world, 103.0, 64.0, 100.0, null));
+        assertEquals(0, protection.getZoneCount());
+        repo.close();
+    }
+}
@@ -0,0 +1,121 @@
+package dev.gonjy.patrolspectator;
+
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlayerRecordFileTest {
+
+    @TempDir
+    File dir;
+
+    private final SnapshotWriter writer = new SnapshotWriter();
+
+    @Test
+    void testBinaryRoundTrip() throws IOException {
+        PlayerRecord a = new PlayerRecord(UUID.randomUUID());
+        a.flags = PlayerRecord.HAS_STATS | PlayerRecord.HAS_PARTICIPATION | PlayerRecord.HAS_EXPIRE;
+        a.name = "Alice";
+        a.loginCount = 12;
+        a.totalPlayMs = 123_456_789L;
+        a.lastJoinAtMs = 1_700_000_000_000L;
+        a.lastQuitAtMs = 1_700_000_100_000L;
+        a.eventPoints = 42;
+        a.lastEventReason = "mob_hunt";
+        a.score = 300;
+        a.count = 7;
+        a.participationName = "Alice";
+        a.lastReason = "観戦された";
+        a.expireAtMs = 1_800_000_000_000L;
+
+        PlayerRecord b = new PlayerRecord(UUID.randomUUID());
+        b.flags = PlayerRecord.HAS_RADIUS;
+        b.radius = 16;
+
+        File f = new File(dir, PlayerRecordFile.FILE_NAME);
+        PlayerRecordFile.write(f, List.of(a, b), writer);
+        assertEquals(32 + 2L * PlayerRecordFile.RECORD_SIZE + (4 + 5) + (4 + 8) + (4 + "観戦された".getBytes("UTF-8").length),
+                f.length());
+
+        Map<UUID, PlayerRecord> read = PlayerRecordFile.read(f);
+        assertEquals(2, read.size());
+        PlayerRecord ra = read.get(a.id);
+        assertEquals(a.flags, ra.flags);
+        assertEquals("Alice", ra.name);
+        assertEquals(12, ra.loginCount);
+        assertEquals(123_456_789L, ra.totalPlayMs);
+        assertEquals(1_700_000_000_000L, ra.lastJoinAtMs);
+        assertEquals(1_700_000_100_000L, ra.lastQuitAtMs);
+        assertEquals(42, ra.eventPoints);
+        assertEquals("mob_hunt", ra.lastEventReason);
+        assertEquals(300, ra.score);
+        assertEquals(7, ra.count);
+        assertEquals("Alice", ra.participationName);
+        assertEquals("観戦された", ra.lastReason);
+        assertEquals(1_800_000_000_000L, ra.expireAtMs);
+
+        PlayerRecord rb = read.get(b.id);
+        assertEquals(PlayerRecord.HAS_RADIUS, rb.flags);
+        assertNull(rb.name);
+        assertEquals(16, rb.radius);
+    }
+
+    @Test
+    void testRejectsForeignFile() throws IOException {
+        File f = new File(dir, PlayerRecordFile.FILE_NAME);
+        Files.write(f.toPath(), new byte[64]);
+        assertThrows(IOException.class, () -> PlayerRecordFile.read(f));
+    }
+
+    @Test
+    void testMissingFileIsEmpty() throws IOException {
+        assertTrue(PlayerRecordFile.read(new File(dir, "none.dat")).isEmpty());
+    }
+
+    @Test
+    void testYamlImportExportIsLossless() throws Exception {
+        UUID id = UUID.randomUUID();
+        String b = "players." + id + ".";
+        YamlConfiguration stats = new YamlConfiguration();
+        stats.set(b + "name", "Bob");
+        stats.set(b + "loginCount", 3);
+        stats.set(b + "totalPlayMs", 5000L);
+        stats.set(b + "lastJoinAtMs", 10L);
+        stats.set(b + "lastQuitAtMs", 20L);
+        stats.set(b + "eventPoints", 9);
+        stats.save(new File(dir, PlayerRecordFile.STATS_YML));
+        YamlConfiguration part = new YamlConfiguration();
+        part.set(b + "name", "Bob");
+        part.set(b + "score", 77);
+        part.set(b + "count", 4);
+        part.set(b + "lastReason", "join");
+        part.save(new File(dir, PlayerRecordFile.PARTICIPATION_YML));
+        YamlConfiguration prot = new YamlConfiguration();
+        prot.set(b + "expireAtMs", 999L);
+        prot.save(new File(dir, PlayerRecordFile.PROTECTIONS_YML));
+
+        File dat = new File(dir, PlayerRecordFile.FILE_NAME);
+        PlayerRecordFile.write(dat, PlayerRecordFile.importYaml(dir).values(), writer);
+        File out = new File(dir, "export");
+        PlayerRecordFile.exportYaml(new ArrayList<>(PlayerRecordFile.read(dat).values()), out, writer);
+
+        for (String name : new String[] { PlayerRecordFile.STATS_YML, PlayerRecordFile.PARTICIPATION_YML,
+                PlayerRecordFile.PROTECTIONS_YML }) {
+            YamlConfiguration before = YamlConfiguration.loadConfiguration(new File(dir, name));
+            YamlConfiguration after = YamlConfiguration.loadConfiguration(new File(out, name));
+            assertEquals(before.getValues(true).toString(), after.getValues(true).toString(), name);
+        }
+        assertFalse(YamlConfiguration.loadConfiguration(new File(out, PlayerRecordFile.PROTECTIONS_YML))
+                .isSet(b + "radius"));
+    }
+}
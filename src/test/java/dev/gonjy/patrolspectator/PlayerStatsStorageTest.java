@@ -0,0 +1,64 @@
+package dev.gonjy.patrolspectator;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlayerStatsStorageTest {
+
+    private static final Logger LOG = Logger.getLogger("PlayerStatsStorageTest");
+
+    @TempDir
+    File dataFolder;
+
+    @Test
+    void testRecordLoginIncrementsCount() {
+        PlayerStatsStorage storage = new PlayerStatsStorage(dataFolder, LOG, 60);
+        UUID id = UUID.randomUUID();
+
+        assertEquals(1, storage.recordLogin(id, "Alice"));
+        assertEquals(2, storage.recordLogin(id, "Alice"));
+        assertEquals(2, storage.getLoginCount(id));
+
+        storage.close();
+    }
+
+    @Test
+    void testFlushWritesSnapshotAndTruncatesJournal() {
+        PlayerStatsStorage storage = new PlayerStatsStorage(dataFolder, LOG, 60);
+        UUID id = UUID.randomUUID();
+        storage.recordLogin(id, "Alice");
+        storage.flush();
+
+        assertTrue(new File(dataFolder, "players.dat").exists());
+        assertFalse(new File(dataFolder, "players.journal").exists());
+
+        storage.close();
+
+        PlayerStatsStorage reopened = new PlayerStatsStorage(dataFolder, LOG, 60);
+        assertEquals(1, reopened.getLoginCount(id));
+        reopened.close();
+    }
+
+    @Test
+    void testJournalReplayRecoversUnflushedWrites() {
+        PlayerStatsStorage crashed = new PlayerStatsStorage(dataFolder, LOG, 3600);
+        UUID id = UUID.randomUUID();
+        crashed.recordLogin(id, "Alice");
+        crashed.recordLogin(id, "Alice");
+        crashed.addEventPoint(id, 5, "mob_hunt");
+        crashed.awaitJournal();
+        // close() を呼ばずにクラッシュした想定で再オープン
+
+        assertTrue(new File(dataFolder, "players.journal").exists());
+
+        PlayerStatsStorage recovered = new PlayerStatsStorage(dataFolder, LOG, 3600);
+        assertEquals(2, recovered.getLoginCount(id));
+        recovered.close();
+    }
+}
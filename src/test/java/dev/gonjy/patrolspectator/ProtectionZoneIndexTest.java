@@ -0,0 +1,75 @@
+package dev.gonjy.patrolspectator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProtectionZoneIndexTest {
+
+    @Test
+    void testPointInZone() {
+        ProtectionZoneIndex<String> index = new ProtectionZoneIndex<>();
+        index.put("a", 0.0, 64.0, 0.0, 10.0);
+        assertTrue(index.covers(5.0, 64.0, 5.0));
+        assertTrue(index.covers(-9.0, 64.0, 0.0)); // 隣のチャンク
+        assertFalse(index.covers(8.0, 64.0, 8.0)); // 正方形の角は範囲外
+        assertFalse(index.covers(0.0, 80.0, 0.0)); // 上下も球で判定
+
+        assertEquals("a", index.ownerAt(1.0, 64.0, 1.0, k -> true));
+        assertNull(index.ownerAt(1.0, 64.0, 1.0, k -> !k.equals("a")));
+    }
+
+    @Test
+    void testUpdateAndRemove() {
+        ProtectionZoneIndex<String> index = new ProtectionZoneIndex<>();
+        index.put("a", 0.0, 64.0, 0.0, 4.0);
+        assertFalse(index.covers(30.0, 64.0, 0.0));
+
+        index.put("a", 0.0, 64.0, 0.0, 40.0); // 半径の拡張
+        assertTrue(index.covers(30.0, 64.0, 0.0));
+        index.put("a", 500.0, 64.0, 500.0, 40.0); // 移動
+        assertFalse(index.covers(30.0, 64.0, 0.0));
+        assertTrue(index.covers(520.0, 64.0, 500.0));
+
+        index.put("a", 500.0, 64.0, 500.0, 0.0); // 半径0は削除
+        assertEquals(0, index.size());
+        assertFalse(index.covers(500.0, 64.0, 500.0));
+    }
+
+    @Test
+    void testMatchesBruteForce() {
+        Random rnd = new Random(7);
+        ProtectionZoneIndex<Integer> index = new ProtectionZoneIndex<>();
+        Map<Integer, double[]> zones = new HashMap<>();
+        for (int step = 0; step < 4000; step++) {
+            int key = rnd.nextInt(300);
+            if (rnd.nextInt(5) == 0) {
+                index.remove(key);
+                zones.remove(key);
+            } else {
+                // 一部は一覧で持つ大きな半径
+                double r = rnd.nextInt(10) == 0 ? 130 + rnd.nextInt(100) : 1 + rnd.nextInt(48);
+                double[] z = { rnd.nextDouble() * 2000 - 1000, 60 + rnd.nextInt(20), rnd.nextDouble() * 2000 - 1000, r };
+                index.put(key, z[0], z[1], z[2], z[3]);
+                zones.put(key, z);
+            }
+        }
+        assertEquals(zones.size(), index.size());
+        for (int q = 0; q < 20000; q++) {
+            double x = rnd.nextDouble() * 2200 - 1100, y = 50 + rnd.nextInt(40), z = rnd.nextDouble() * 2200 - 1100;
+            boolean expected = false;
+            for (double[] zone : zones.values()) {
+                double dx = x - zone[0], dy = y - zone[1], dz = z - zone[2];
+                if (dx * dx + dy * dy + dz * dz <= zone[3] * zone[3]) {
+                    expected = true;
+                    break;
+                }
+            }
+            assertEquals(expected, index.covers(x, y, z), "query " + q);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package dev.gonjy.patrolspectator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RankingIndexTest {
+
+    @Test
+    void testTopAndRank() {
+        RankingIndex index = new RankingIndex();
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        UUID c = UUID.randomUUID();
+
+        index.update(a, 100);
+        index.update(b, 200);
+        index.update(c, 150);
+
+        assertEquals(List.of(b, c, a), index.top(10));
+        assertEquals(List.of(b, c), index.top(2));
+        assertEquals(1, index.rankOf(b));
+        assertEquals(3, index.rankOf(a));
+        assertEquals(0, index.rankOf(UUID.randomUUID()));
+    }
+
+    @Test
+    void testUpdateRepositions() {
+        RankingIndex index = new RankingIndex();
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        index.update(a, 10);
+        index.update(b, 20);
+
+        index.update(a, 30);
+
+        assertEquals(1, index.rankOf(a));
+        assertEquals(2, index.rankOf(b));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void testRemove() {
+        RankingIndex index = new RankingIndex();
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        index.update(a, 10);
+        index.update(b, 20);
+
+        index.remove(b);
+
+        assertEquals(1, index.size());
+        assertEquals(1, index.rankOf(a));
+        assertEquals(0, index.rankOf(b));
+    }
+
+    @Test
+    void testMatchesFullSortOnRandomUpdates() {
+        RankingIndex index = new RankingIndex();
+        Map<UUID, Integer> expected = new HashMap<>();
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            ids.add(UUID.randomUUID());
+        }
+        Random random = new Random(42);
+        for (int i = 0; i < 5000; i++) {
+            UUID id = ids.get(random.nextInt(ids.size()));
+            int score = random.nextInt(1000);
+            index.update(id, score);
+            expected.put(id, score);
+        }
+
+        List<UUID> sorted = new ArrayList<>(expected.keySet());
+        sorted.sort(Comparator.<UUID>comparingInt(expected::get).reversed().thenComparing(Comparator.naturalOrder()));
+
+        assertEquals(sorted.subList(0, 50), index.top(50));
+        for (int i = 0; i < sorted.size(); i++) {
+            assertEquals(i + 1, index.rankOf(sorted.get(i)));
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package dev.gonjy.patrolspectator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionSlotsTest {
+
+    @Test
+    void testAssignIsDenseAndRecycled() {
+        SessionSlots slots = new SessionSlots();
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        UUID c = UUID.randomUUID();
+
+        assertEquals(0, slots.assign(a, 100));
+        assertEquals(1, slots.assign(b, 200));
+        assertEquals(0, slots.assign(a, 100));
+
+        assertEquals(0, slots.release(a));
+        assertEquals(-1, slots.slotOf(100));
+        assertEquals(0, slots.assign(c, 300));
+        assertEquals(c, slots.ownerOf(0));
+        assertEquals(2, slots.capacity());
+    }
+
+    @Test
+    void testLookupByEntityIdAfterManyChanges() {
+        SessionSlots slots = new SessionSlots();
+        UUID[] ids = new UUID[500];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = UUID.randomUUID();
+            slots.assign(ids[i], i * 7);
+        }
+        for (int i = 0; i < ids.length; i += 2) {
+            slots.release(ids[i]);
+        }
+        for (int i = 1; i < ids.length; i += 2) {
+            assertEquals(slots.slotOf(ids[i]), slots.slotOf(i * 7));
+            assertEquals(ids[i], slots.ownerOf(slots.slotOf(i * 7)));
+        }
+        for (int i = 0; i < ids.length; i += 2) {
+            assertEquals(-1, slots.slotOf(i * 7));
+        }
+        assertEquals(250, slots.size());
+    }
+
+    @Test
+    void testEntityIdChangeKeepsSlot() {
+        SessionSlots slots = new SessionSlots();
+        UUID a = UUID.randomUUID();
+        int slot = slots.assign(a, 1);
+
+        assertEquals(slot, slots.assign(a, 2));
+        assertEquals(-1, slots.slotOf(1));
+        assertEquals(slot, slots.slotOf(2));
+    }
+
+    @Test
+    void testDetachKeepsSlotUntilRelease() {
+        SessionSlots slots = new SessionSlots();
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        assertEquals(0, slots.assign(a, 100));
+
+        assertEquals(0, slots.detach(a));
+        assertFalse(slots.isAttached(0));
+        assertEquals(-1, slots.slotOf(100));
+        assertEquals(0, slots.slotOf(a));
+
+        // 退出したプレイヤーのエンティティIDが別のプレイヤーに再利用されても干渉しない
+        assertEquals(1, slots.assign(b, 100));
+        assertEquals(0, slots.release(a));
+        assertEquals(1, slots.slotOf(100));
+
+        // 再参加なら同じスロットに戻る
+        slots.assign(a, 300);
+        assertEquals(0, slots.detach(a));
+        assertEquals(0, slots.assign(a, 400));
+        assertTrue(slots.isAttached(0));
+        assertEquals(0, slots.slotOf(400));
+    }
+}
@@ -0,0 +1,44 @@
+package dev.gonjy.patrolspectator;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotWriterTest {
+
+    @TempDir
+    File dir;
+
+    private final SnapshotWriter writer = new SnapshotWriter();
+
+    @Test
+    void testWriteNowReplacesFileAndLeavesNoTemp() throws Exception {
+        File f = new File(dir, "data.yml");
+        writer.writeNow(f, "a: 1\n");
+        writer.writeNow(f, "a: 2\n");
+
+        assertEquals("a: 2\n", Files.readString(f.toPath(), StandardCharsets.UTF_8));
+        assertFalse(new File(dir, "data.yml.tmp").exists());
+        assertEquals(2, writer.getWrites());
+        assertEquals(10, writer.getBytesWritten());
+        assertTrue(writer.getMaxLatencyNanos() > 0);
+    }
+
+    @Test
+    void testFailedFillKeepsPreviousFile() throws Exception {
+        File f = new File(dir, "data.dat");
+        writer.writeNow(f, "ok: true\n");
+
+        assertThrows(IllegalStateException.class, () -> writer.writeNow(f, 8, buf -> {
+            throw new IllegalStateException("boom");
+        }));
+
+        assertEquals("ok: true\n", Files.readString(f.toPath(), StandardCharsets.UTF_8));
+        assertEquals(1, writer.getWrites());
+    }
+}
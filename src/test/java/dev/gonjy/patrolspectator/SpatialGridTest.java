@@ -0,0 +1,121 @@
+package dev.gonjy.patrolspectator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpatialGridTest {
+
+    @Test
+    void testNearestWithinRadius() {
+        SpatialGrid<String> grid = new SpatialGrid<>();
+        grid.insert("near", 10, 64, 10);
+        grid.insert("far", 100, 64, 100);
+
+        assertEquals("near", grid.nearest(0, 64, 0, 48, v -> true));
+        assertNull(grid.nearest(0, 64, 0, 5, v -> true));
+        assertNull(grid.nearest(0, 64, 0, 48, v -> !v.equals("near")));
+    }
+
+    @Test
+    void testMoveAcrossChunksAndRemove() {
+        SpatialGrid<String> grid = new SpatialGrid<>();
+        SpatialGrid.Entry<String> e = grid.insert("a", 0, 64, 0);
+
+        grid.move(e, 500, 64, -500);
+        assertNull(grid.nearest(0, 64, 0, 48, v -> true));
+        assertEquals("a", grid.nearest(490, 64, -490, 48, v -> true));
+
+        grid.remove(e);
+        assertEquals(0, grid.size());
+        assertNull(grid.nearest(490, 64, -490, 48, v -> true));
+    }
+
+    @Test
+    void testKNearestMatchesBruteForce() {
+        SpatialGrid<double[]> grid = new SpatialGrid<>();
+        List<double[]> all = new ArrayList<>();
+        List<SpatialGrid.Entry<double[]>> entries = new ArrayList<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 2000; i++) {
+            double[] p = { random.nextDouble() * 2000 - 1000, 64, random.nextDouble() * 2000 - 1000 };
+            all.add(p);
+            entries.add(grid.insert(p, p[0], p[1], p[2]));
+        }
+        // 半分を移動させてセルの付け替えも確認する
+        for (int i = 0; i < 1000; i++) {
+            double[] p = all.get(i);
+            p[0] = random.nextDouble() * 2000 - 1000;
+            p[2] = random.nextDouble() * 2000 - 1000;
+            grid.move(entries.get(i), p[0], p[1], p[2]);
+        }
+
+        double cx = 12.5, cz = -40.25, r = 120;
+        List<double[]> expected = new ArrayList<>();
+        for (double[] p : all) {
+            if (dist(p, cx, cz) <= r * r)
+                expected.add(p);
+        }
+        expected.sort(Comparator.comparingDouble(p -> dist(p, cx, cz)));
+
+        List<double[]> actual = grid.kNearest(cx, 64, cz, r, 10, v -> true);
+        assertEquals(Math.min(10, expected.size()), actual.size());
+        for (int i = 0; i < actual.size(); i++) {
+            assertSame(expected.get(i), actual.get(i));
+        }
+        assertEquals(expected.size(), grid.countWithin(cx, 64, cz, r, v -> true));
+    }
+
+    @Test
+    void testForEachWithinMatchesPerCenterQueries() {
+        SpatialGrid<double[]> grid = new SpatialGrid<>();
+        List<double[]> all = new ArrayList<>();
+        Random random = new Random(11);
+        for (int i = 0; i < 1000; i++) {
+            double[] p = { random.nextDouble() * 400 - 200, 64, random.nextDouble() * 400 - 200 };
+            all.add(p);
+            grid.insert(p, p[0], p[1], p[2]);
+        }
+        // 範囲が重なる中心と離れた中心を混ぜる
+        double[] xs = { 0, 10, 150, -120 };
+        double[] ys = { 64, 64, 64, 64 };
+        double[] zs = { 0, 5, -150, 90 };
+        double r = 48;
+
+        int[] counts = new int[xs.length];
+        List<double[]> tested = new ArrayList<>();
+        grid.forEachWithin(xs, ys, zs, xs.length, r, v -> {
+            tested.add(v);
+            return true;
+        }, (c, v, d) -> {
+            counts[c]++;
+            assertEquals(dist(v, xs[c], zs[c]), d, 1e-9);
+        });
+        for (int c = 0; c < xs.length; c++) {
+            assertEquals(grid.countWithin(xs[c], 64, zs[c], r, v -> true), counts[c]);
+        }
+
+        // 条件は要素ごとに1回だけ評価される（重なる2中心の範囲にいる要素も1回）
+        int inAny = 0;
+        for (double[] p : all) {
+            for (int c = 0; c < xs.length; c++) {
+                if (dist(p, xs[c], zs[c]) <= r * r) {
+                    inAny++;
+                    break;
+                }
+            }
+        }
+        assertEquals(inAny, tested.size());
+        assertTrue(inAny < counts[0] + counts[1] + counts[2] + counts[3]);
+    }
+
+    private static double dist(double[] p, double x, double z) {
+        double dx = p[0] - x, dz = p[2] - z;
+        return dx * dx + dz * dz;
+    }
+}
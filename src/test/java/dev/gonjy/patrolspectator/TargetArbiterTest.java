@@ -0,0 +1,80 @@
+package dev.gonjy.patrolspectator;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TargetArbiterTest {
+
+    @Test
+    void testNearestPairsWinAndTargetsAreUnique() {
+        TargetArbiter<String> arbiter = new TargetArbiter<>();
+        // カメラ0と1はどちらも "a" が最寄り。近いカメラ1が "a"、カメラ0は次点の "b"
+        arbiter.offer(0, "a", 25.0);
+        arbiter.offer(0, "b", 100.0);
+        arbiter.offer(1, "a", 4.0);
+        arbiter.offer(1, "c", 9.0);
+
+        String[] out = new String[2];
+        assertEquals(2, arbiter.assign(out));
+        assertEquals("b", out[0]);
+        assertEquals("a", out[1]);
+    }
+
+    @Test
+    void testClaimedTargetsAndAssignedCamerasAreSkipped() {
+        TargetArbiter<String> arbiter = new TargetArbiter<>();
+        assertTrue(arbiter.claim("busy")); // 他のカメラが観戦中
+        assertFalse(arbiter.claim("busy"));
+        arbiter.offer(0, "busy", 1.0);
+        arbiter.offer(1, "x", 1.0);
+        arbiter.offer(2, "y", 1.0);
+
+        String[] out = { null, "scored", null };
+        assertEquals(1, arbiter.assign(out));
+        assertNull(out[0]);
+        assertEquals("scored", out[1]);
+        assertEquals("y", out[2]);
+        assertTrue(arbiter.isClaimed("y"));
+    }
+
+    @Test
+    void testClearResetsClaimsAndCandidates() {
+        TargetArbiter<String> arbiter = new TargetArbiter<>();
+        for (int i = 0; i < 40; i++) {
+            arbiter.offer(i % 3, "p" + i, i);
+        }
+        arbiter.claim("p0");
+        assertEquals(40, arbiter.candidates());
+
+        arbiter.clear();
+        assertEquals(0, arbiter.candidates());
+        assertFalse(arbiter.isClaimed("p0"));
+        String[] out = new String[1];
+        assertEquals(0, arbiter.assign(out));
+        assertNull(out[0]);
+    }
+
+    @Test
+    void testManyCandidatesSortByCostThenOfferOrder() {
+        TargetArbiter<String> arbiter = new TargetArbiter<>();
+        // 候補の配列を何度か伸ばすほど集めても、最もコストの小さい組が勝つ
+        for (int i = 0; i < 100; i++) {
+            arbiter.offer(i % 2, "p" + i, 100 - i);
+        }
+        String[] out = new String[2];
+        assertEquals(2, arbiter.assign(out));
+        assertEquals("p98", out[0]);
+        assertEquals("p99", out[1]);
+
+        // 同じコストなら先に集めた候補（使い回しの並べ替えでも変わらない）
+        arbiter.clear();
+        for (int i = 0; i < 60; i++) {
+            arbiter.offer(i % 2, "q" + i, 1.0);
+        }
+        out = new String[2];
+        assertEquals(2, arbiter.assign(out));
+        assertEquals("q0", out[0]);
+        assertEquals("q1", out[1]);
+    }
+}
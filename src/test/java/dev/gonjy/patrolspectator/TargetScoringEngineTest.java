@@ -0,0 +1,83 @@
+package dev.gonjy.patrolspectator;
+
+import org.mockbukkit.mockbukkit.MockBukkit;
+import org.mockbukkit.mockbukkit.ServerMock;
+import org.mockbukkit.mockbukkit.entity.PlayerMock;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TargetScoringEngineTest {
+
+    private ServerMock server;
+    private PatrolSpectatorPlugin plugin;
+
+    @BeforeEach
+    void setUp() {
+        server = MockBukkit.mock();
+        plugin = MockBukkit.load(PatrolSpectatorPlugin.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        MockBukkit.unmock();
+    }
+
+    private TargetScoringEngine engine(double minScore) {
+        plugin.getConfig().set("patrol.targeting.minScore", minScore);
+        return new TargetScoringEngine(plugin, new PlayerSpatialIndex(plugin));
+    }
+
+    @Test
+    void testBelowMinScoreIsNotPicked() {
+        PlayerMock player = server.addPlayer();
+        // 未観戦のみ（1.5）で、既定の最低スコア2.0に届かない
+        TargetScoringEngine engine = engine(2.0);
+        assertEquals(1.5, engine.scoreOf(player.getUniqueId()), 1e-9);
+        assertNull(engine.pickBest(p -> true));
+    }
+
+    @Test
+    void testPickBestSkipsIneligiblePlayers() {
+        PlayerMock a = server.addPlayer();
+        PlayerMock b = server.addPlayer();
+        TargetScoringEngine engine = engine(1.0);
+
+        assertNotNull(engine.pickBest(p -> true));
+        assertSame(b, engine.pickBest(p -> p != a));
+        assertSame(a, engine.pickBest(p -> p != b));
+        assertNull(engine.pickBest(p -> false));
+    }
+
+    @Test
+    void testMarkFeaturedLowersScore() {
+        PlayerMock a = server.addPlayer();
+        PlayerMock b = server.addPlayer();
+        TargetScoringEngine engine = engine(1.0);
+
+        engine.markFeatured(a.getUniqueId());
+        assertTrue(engine.scoreOf(a.getUniqueId()) < engine.scoreOf(b.getUniqueId()));
+        assertSame(b, engine.pickBest(p -> true));
+
+        // 観戦直後の a は最低スコアに届かない
+        engine.markFeatured(b.getUniqueId());
+        assertNull(engine.pickBest(p -> true));
+    }
+
+    @Test
+    void testQuitDropsPlayer() {
+        PlayerMock a = server.addPlayer();
+        PlayerMock b = server.addPlayer();
+        TargetScoringEngine engine = engine(1.0);
+
+        a.disconnect();
+        assertTrue(Double.isNaN(engine.scoreOf(a.getUniqueId())));
+        assertSame(b, engine.pickBest(p -> true));
+
+        // 退出後の markFeatured は追跡を復活させない
+        engine.markFeatured(a.getUniqueId());
+        assertTrue(Double.isNaN(engine.scoreOf(a.getUniqueId())));
+    }
+}
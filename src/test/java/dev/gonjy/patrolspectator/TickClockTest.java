@@ -0,0 +1,121 @@
+package dev.gonjy.patrolspectator;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TickClockTest {
+
+    private static final long MS = 1_000_000L;
+
+    @Test
+    void testHealthyServerReportsTwentyTps() {
+        TickClock clock = new TickClock();
+        long t = 1_000L * MS;
+        for (int i = 0; i <= 40; i++) {
+            clock.tickStarted(t);
+            t += 50 * MS;
+        }
+        assertEquals(41, clock.tick());
+        assertEquals(40, clock.samples());
+        assertEquals(20.0, clock.tps(), 1e-9);
+        // 間隔だけでは MSPT は分からない
+        assertEquals(0, clock.msptSamples());
+        assertEquals(0.0, clock.averageMspt(), 1e-9);
+    }
+
+    @Test
+    void testLagLowersTpsThenRecovers() {
+        TickClock clock = new TickClock();
+        long t = 0L;
+        clock.tickStarted(t);
+        for (int i = 0; i < TickClock.WINDOW; i++) {
+            t += 100 * MS; // 10 TPS
+            clock.tickStarted(t);
+        }
+        assertEquals(10.0, clock.tps(), 1e-9);
+
+        // 窓を一周すると遅い tick は押し出される
+        for (int i = 0; i < TickClock.WINDOW; i++) {
+            t += 50 * MS;
+            clock.tickStarted(t);
+        }
+        assertEquals(20.0, clock.tps(), 1e-9);
+        assertEquals(t, clock.tickStartNanos());
+    }
+
+    @Test
+    void testMsptTracksWorkTimeNotInterval() {
+        TickClock clock = new TickClock();
+        long t = 0L;
+        for (int i = 0; i < TickClock.WINDOW; i++) {
+            clock.tickStarted(t);
+            clock.tickEnded(8 * MS); // 20 TPS のまま、処理は8ms
+            t += 50 * MS;
+        }
+        assertEquals(20.0, clock.tps(), 1e-9);
+        assertEquals(8.0, clock.averageMspt(), 1e-9);
+
+        // 1tickだけ重い処理：平均と最大に出る
+        clock.tickStarted(t);
+        clock.tickEnded(48 * MS);
+        assertEquals(48.0, clock.lastMspt(), 1e-9);
+        assertEquals(48.0, clock.maxMspt(), 1e-9);
+        assertEquals(8.4, clock.averageMspt(), 1e-9);
+
+        // 窓を一周すると押し出される
+        for (int i = 0; i < TickClock.WINDOW; i++) {
+            clock.tickEnded(8 * MS);
+        }
+        assertEquals(8.0, clock.maxMspt(), 1e-9);
+        assertEquals(TickClock.WINDOW, clock.msptSamples());
+    }
+
+    @Test
+    void testCatchUpTicksDoNotExceedTwentyTps() {
+        TickClock clock = new TickClock();
+        long t = 0L;
+        for (int i = 0; i < 10; i++) {
+            clock.tickStarted(t);
+            t += 10 * MS; // 遅れの取り戻しで詰まった tick
+        }
+        assertEquals(20.0, clock.tps(), 1e-9);
+    }
+
+    @Test
+    void testResetStartsOverAfterRestart() {
+        TickClock clock = new TickClock();
+        long t = 0L;
+        for (int i = 0; i <= 20; i++) {
+            clock.tickStarted(t);
+            t += 200 * MS; // 5 TPS
+        }
+        clock.tickEnded(70 * MS);
+        assertEquals(5.0, clock.tps(), 1e-9);
+
+        // プラグインの再読み込み：止まっていた30秒を1tickとして数えない
+        clock.reset();
+        assertEquals(0, clock.tick());
+        assertEquals(0, clock.samples());
+        assertEquals(0, clock.msptSamples());
+        assertEquals(20.0, clock.tps(), 1e-9);
+        t += 30_000L * MS;
+        for (int i = 0; i <= 10; i++) {
+            clock.tickStarted(t);
+            t += 50 * MS;
+        }
+        assertEquals(11, clock.tick());
+        assertEquals(10, clock.samples());
+        assertEquals(0.0, clock.maxMspt(), 1e-9);
+        assertEquals(20.0, clock.tps(), 1e-9);
+    }
+
+    @Test
+    void testTicksShutdownClearsSharedClock() {
+        Ticks.shutdown();
+        assertEquals(0, Ticks.tick());
+        assertFalse(Ticks.hasMspt());
+        assertEquals(0.0, Ticks.averageMspt(), 1e-9);
+        assertEquals(20.0, Ticks.tps(), 1e-9);
+    }
+}
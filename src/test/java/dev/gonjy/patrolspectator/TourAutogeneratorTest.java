@@ -0,0 +1,57 @@
+package dev.gonjy.patrolspectator;
+
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TourAutogeneratorTest {
+
+    /** 1列分（x,z固定）のブロックだけを持つスナップショット */
+    private static ChunkSnapshot column(int highestY, Material top, Material above) {
+        return (ChunkSnapshot) Proxy.newProxyInstance(ChunkSnapshot.class.getClassLoader(),
+                new Class<?>[] { ChunkSnapshot.class }, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getHighestBlockYAt":
+                            return highestY;
+                        case "getBlockType":
+                            int y = (Integer) args[1];
+                            return y == highestY ? top : y > highestY ? above : Material.STONE;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    @Test
+    void testSolidGroundIsAccepted() {
+        assertEquals(70, TourAutogenerator.surfaceY(column(70, Material.GRASS_BLOCK, Material.AIR), 3, 4, -64, 320));
+    }
+
+    @Test
+    void testWaterIsRejected() {
+        assertEquals(Integer.MIN_VALUE,
+                TourAutogenerator.surfaceY(column(62, Material.WATER, Material.AIR), 0, 0, -64, 320));
+    }
+
+    @Test
+    void testVoidIsRejected() {
+        assertEquals(Integer.MIN_VALUE,
+                TourAutogenerator.surfaceY(column(-64, Material.AIR, Material.AIR), 0, 0, -64, 320));
+    }
+
+    @Test
+    void testNetherRoofIsRejected() {
+        assertEquals(Integer.MIN_VALUE,
+                TourAutogenerator.surfaceY(column(127, Material.BEDROCK, Material.AIR), 0, 0, 0, 256));
+    }
+
+    @Test
+    void testNoHeadroomIsRejected() {
+        assertEquals(Integer.MIN_VALUE,
+                TourAutogenerator.surfaceY(column(80, Material.STONE, Material.STONE), 0, 0, -64, 320));
+    }
+}
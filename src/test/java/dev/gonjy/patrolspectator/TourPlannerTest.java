@@ -0,0 +1,114 @@
+package dev.gonjy.patrolspectator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TourPlannerTest {
+
+    private static TouristLocation stop(String id, String world, double x, double z) {
+        return new TouristLocation(id, id, world, x, 64, z, 0f, 0f, "", "overworld");
+    }
+
+    @Test
+    void testWorldsAreVisitedInOneBlockEach() {
+        List<TouristLocation> stops = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            stops.add(stop("o" + i, "world", i * 300, 0));
+            stops.add(stop("n" + i, "world_nether", i * 40, 0));
+        }
+        TourPlanner planner = new TourPlanner(1);
+        List<TouristLocation> route = planner.update(stops);
+
+        assertEquals(12, route.size());
+        assertEquals(12, new HashSet<>(route).size());
+        // 一覧順では12回ワールドをまたぐが、計画後は行きと帰りの2回だけ
+        assertEquals(2, planner.worldSwitches());
+    }
+
+    @Test
+    void testRouteBeatsListOrderOnScatteredStops() {
+        Random random = new Random(3);
+        List<TouristLocation> stops = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            stops.add(stop("s" + i, "world", random.nextInt(12000) - 6000, random.nextInt(12000) - 6000));
+        }
+        TourPlanner planner = new TourPlanner(1);
+        List<TouristLocation> route = planner.update(stops);
+
+        assertTrue(planner.lastPlanWasFull());
+        assertTrue(TourPlanner.cycleCost(route) < TourPlanner.cycleCost(stops));
+        assertTrue(planner.estimatedChunkLoads() <= TourPlanner.estimateChunkLoads(stops, 1));
+    }
+
+    @Test
+    void testNearbyStopsShareChunks() {
+        // 同じチャンク内の2件は、行き来しても追加の読み込みは無い
+        List<TouristLocation> same = List.of(stop("a", "world", 1, 1), stop("b", "world", 10, 10));
+        assertEquals(0, TourPlanner.estimateChunkLoads(same, 1));
+        // 遠く離れた2件は毎回 3x3 を読み込む
+        List<TouristLocation> far = List.of(stop("a", "world", 0, 0), stop("b", "world", 5000, 0));
+        assertEquals(18, TourPlanner.estimateChunkLoads(far, 1));
+        // 隣のチャンクなら差分の1列だけ
+        List<TouristLocation> next = List.of(stop("a", "world", 0, 0), stop("b", "world", 16, 0));
+        assertEquals(6, TourPlanner.estimateChunkLoads(next, 1));
+    }
+
+    @Test
+    void testIncrementalUpdateKeepsExistingStops() {
+        List<TouristLocation> stops = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            stops.add(stop("s" + i, "world", i * 100, (i % 2) * 100));
+        }
+        TourPlanner planner = new TourPlanner(1);
+        planner.update(stops);
+
+        // 再読み込み（同じ内容の別インスタンス）に1件追加、1件削除
+        List<TouristLocation> reloaded = new ArrayList<>();
+        for (int i = 1; i < 10; i++) {
+            reloaded.add(stop("s" + i, "world", i * 100, (i % 2) * 100));
+        }
+        TouristLocation added = stop("new", "world", 450, 50);
+        reloaded.add(added);
+        List<TouristLocation> route = planner.update(reloaded);
+
+        assertFalse(planner.lastPlanWasFull());
+        assertEquals(10, route.size());
+        assertTrue(route.contains(added));
+        for (TouristLocation tl : route) {
+            assertNotEquals("s0", tl.id);
+            assertTrue(reloaded.contains(tl)); // 新しいインスタンスに差し替わっている
+        }
+    }
+
+    @Test
+    void testLargeImportUsesSweepOrder() {
+        Random random = new Random(5);
+        List<TouristLocation> stops = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            stops.add(stop("p" + i, i % 10 == 0 ? "world_nether" : "world", random.nextInt(20000) - 10000,
+                    random.nextInt(20000) - 10000));
+        }
+        TourPlanner planner = new TourPlanner(1);
+        List<TouristLocation> route = planner.update(stops);
+
+        assertEquals(20000, route.size());
+        assertEquals(20000, new HashSet<>(route).size());
+        assertEquals(2, planner.worldSwitches());
+        assertTrue(planner.estimatedChunkLoads() < TourPlanner.estimateChunkLoads(stops, 1));
+    }
+
+    @Test
+    void testKeyMatchesReloadedInstance() {
+        TouristLocation a = stop("a", "world", 100, 200);
+        // 読み込み直しで別インスタンスになっても同じキー（equals は未定義なので indexOf では見つからない）
+        assertEquals(TourPlanner.keyOf(a), TourPlanner.keyOf(stop("a", "world", 100, 200)));
+        assertNotEquals(TourPlanner.keyOf(a), TourPlanner.keyOf(stop("a", "world", 101, 200)));
+        assertNotEquals(TourPlanner.keyOf(a), TourPlanner.keyOf(stop("a", "world_nether", 100, 200)));
+    }
+}
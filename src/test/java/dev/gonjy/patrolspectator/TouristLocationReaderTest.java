@@ -0,0 +1,183 @@
+package dev.gonjy.patrolspectator;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TouristLocationReaderTest {
+
+    /** 警告を集めるロガー */
+    private static final class Captured extends Handler {
+        final List<String> messages = new ArrayList<>();
+
+        @Override
+        public void publish(LogRecord record) {
+            messages.add(record.getMessage());
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private final Captured captured = new Captured();
+    private final Logger logger = newLogger();
+
+    private Logger newLogger() {
+        Logger l = Logger.getAnonymousLogger();
+        l.setUseParentHandlers(false);
+        l.addHandler(captured);
+        return l;
+    }
+
+    @Test
+    void testReadsYamlRecordsOneAtATime() throws Exception {
+        String yaml = String.join("\n",
+                "# 巡回用スポット",
+                "- id: a",
+                "  name: \"海底神殿（北東沖）\"  # コメント",
+                "  world: \"world\"",
+                "  x: -1375.527",
+                "  y: 41.094",
+                "  z: 1787.430",
+                "  yaw: 81.4",
+                "  pitch: -10.9",
+                "",
+                "- id: b",
+                "  name: 'Bob''s #1'",
+                "  world: world",
+                "  x: 1",
+                "  y: 2",
+                "  z: 3");
+        List<TouristLocation> out = new ArrayList<>();
+        TouristLocationReader.Stats stats = TouristLocationReader.readYaml(new StringReader(yaml), "t.yml", logger,
+                out::add);
+
+        assertEquals(2, stats.loaded());
+        assertEquals(0, stats.skipped());
+        assertTrue(captured.messages.isEmpty(), captured.messages.toString());
+        TouristLocation a = out.get(0);
+        assertEquals("海底神殿（北東沖）", a.name);
+        assertEquals(-1375.527, a.x);
+        assertEquals(81.4f, a.yaw);
+        assertEquals("Bob's #1", out.get(1).name);
+        // 同じ内容の文字列は共有される
+        assertSame(a.world, out.get(1).world);
+        assertSame(a.worldType, out.get(1).worldType);
+    }
+
+    @Test
+    void testYamlUnderLocationsKey() throws Exception {
+        String yaml = String.join("\n",
+                "locations:",
+                "  - id: a",
+                "    x: 1",
+                "    y: 2",
+                "    z: 3",
+                "  - {id: b}");
+        List<TouristLocation> out = new ArrayList<>();
+        TouristLocationReader.Stats stats = TouristLocationReader.readYaml(new StringReader(yaml), "t.yml", logger,
+                out::add);
+
+        assertEquals(1, stats.loaded());
+        assertEquals(1, stats.skipped());
+        assertEquals("a", out.get(0).id);
+        assertTrue(captured.messages.get(0).startsWith("t.yml:6: "), captured.messages.toString());
+    }
+
+    @Test
+    void testMalformedYamlRecordsReportLineNumbers() throws Exception {
+        String yaml = String.join("\n",
+                "- id: ok1",
+                "  x: 1",
+                "  y: 2",
+                "  z: 3",
+                "- id: noX", // 5
+                "  y: 2",
+                "  z: 3",
+                "- id: badY", // 8
+                "  x: 1",
+                "  y: high",
+                "  z: 3",
+                "- id: open",
+                "  name: \"unterminated", // 13
+                "  x: 1",
+                "  y: 2",
+                "  z: 3",
+                "- id: ok2",
+                "  x: 4",
+                "  y: 5",
+                "  z: 6");
+        List<TouristLocation> out = new ArrayList<>();
+        TouristLocationReader.Stats stats = TouristLocationReader.readYaml(new StringReader(yaml), "t.yml", logger,
+                out::add);
+
+        assertEquals(2, stats.loaded());
+        assertEquals(3, stats.skipped());
+        assertEquals("ok1", out.get(0).id);
+        assertEquals("ok2", out.get(1).id);
+        assertEquals(3, captured.messages.size());
+        assertTrue(captured.messages.get(0).startsWith("t.yml:5: x "), captured.messages.get(0));
+        assertTrue(captured.messages.get(1).startsWith("t.yml:8: y "), captured.messages.get(1));
+        assertTrue(captured.messages.get(2).startsWith("t.yml:13: name "), captured.messages.get(2));
+    }
+
+    @Test
+    void testReadsCsvWithQuotedCells() throws Exception {
+        String csv = String.join("\n",
+                "name,x,y,z,world,id",
+                "\"Spawn, north\",10,64,-20,world,s1",
+                "# comment",
+                "\"He said \"\"hi\"\"\",1,2,3,world_nether,s2",
+                "Short row,1,2",
+                "Bad,1,two,3,world,s4",
+                "No id,5,6,7,world,");
+        List<TouristLocation> out = new ArrayList<>();
+        TouristLocationReader.Stats stats = TouristLocationReader.readCsv(new StringReader(csv), "bulk.csv", logger,
+                out::add);
+
+        assertEquals(3, stats.loaded());
+        assertEquals(2, stats.skipped());
+        assertEquals("Spawn, north", out.get(0).name);
+        assertEquals(-20.0, out.get(0).z);
+        assertEquals("He said \"hi\"", out.get(1).name);
+        assertEquals("world_nether", out.get(1).world);
+        assertEquals("poi_world_5_6_7", out.get(2).id); // id が無ければワールドと座標から
+        assertTrue(captured.messages.get(0).startsWith("bulk.csv:5: "), captured.messages.toString());
+        assertTrue(captured.messages.get(1).startsWith("bulk.csv:6: y "), captured.messages.toString());
+    }
+
+    @Test
+    void testLargeCsvImport() throws Exception {
+        StringBuilder sb = new StringBuilder("id,x,y,z,world\n");
+        for (int i = 0; i < 20000; i++) {
+            sb.append("p").append(i).append(',').append(i % 500).append(",64,").append(i / 500).append(",world\n");
+        }
+        int[] count = new int[1];
+        TouristLocationReader.Stats stats = TouristLocationReader.readCsv(new StringReader(sb.toString()), "big.csv",
+                logger, tl -> count[0]++);
+
+        assertEquals(20000, stats.loaded());
+        assertEquals(20000, count[0]);
+    }
+
+    @Test
+    void testBundledLocationsFileParses() {
+        File bundled = new File("src/main/resources/tourist_locations.yml");
+        List<TouristLocation> out = TouristLocationReader.load(bundled, logger);
+        assertFalse(out.isEmpty());
+        assertTrue(captured.messages.isEmpty(), captured.messages.toString());
+    }
+}